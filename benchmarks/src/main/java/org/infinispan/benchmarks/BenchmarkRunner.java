@@ -0,0 +1,52 @@
+package org.infinispan.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar.  Accepts the same arguments as the JMH runner, but writes the results in JSON to
+ * {@value #DEFAULT_RESULT_FILE} unless another result format or file is requested, so that runs can be compared by
+ * tools without parsing the console output.
+ *
+ * @since 9.0
+ */
+public final class BenchmarkRunner {
+   static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+   private BenchmarkRunner() {
+   }
+
+   public static void main(String[] args) throws Exception {
+      CommandLineOptions cmdOptions;
+      try {
+         cmdOptions = new CommandLineOptions(args);
+      } catch (CommandLineOptionException e) {
+         System.err.println("Error parsing command line:");
+         System.err.println(" " + e.getMessage());
+         System.exit(1);
+         return;
+      }
+
+      if (cmdOptions.shouldHelp()) {
+         cmdOptions.showHelp();
+         return;
+      }
+      if (cmdOptions.shouldList()) {
+         new Runner(cmdOptions).list();
+         return;
+      }
+
+      ChainedOptionsBuilder builder = new OptionsBuilder().parent(cmdOptions);
+      if (!cmdOptions.getResultFormat().hasValue()) {
+         builder.resultFormat(ResultFormatType.JSON);
+      }
+      if (!cmdOptions.getResult().hasValue()) {
+         builder.result(DEFAULT_RESULT_FILE);
+      }
+      new Runner(builder.build()).run();
+   }
+}
@@ -0,0 +1,123 @@
+package org.infinispan.benchmarks.container;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.commons.marshall.WrappedByteArray;
+import org.infinispan.commons.marshall.WrappedBytes;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.StorageType;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.metadata.Metadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures get, put and compute on the data container of a local cache, comparing the on-heap container with the
+ * off-heap one.  All threads access the same keys, so the results include the contention between them.
+ *
+ * @since 9.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataContainerBenchmark {
+   @Param({"OBJECT", "OFF_HEAP"})
+   StorageType storageType;
+
+   @Param("100000")
+   int keyCount;
+
+   @Param("100")
+   int valueSize;
+
+   private DefaultCacheManager cacheManager;
+   private DataContainer<WrappedBytes, WrappedBytes> container;
+   private WrappedBytes[] keys;
+   private WrappedBytes value;
+   private Metadata metadata;
+
+   @Setup(Level.Trial)
+   public void setUp() {
+      GlobalConfigurationBuilder global = new GlobalConfigurationBuilder();
+      global.globalJmxStatistics().allowDuplicateDomains(true);
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.memory().storageType(storageType);
+      cacheManager = new DefaultCacheManager(global.build(), builder.build());
+      container = (DataContainer) cacheManager.getCache().getAdvancedCache().getDataContainer();
+
+      keys = new WrappedBytes[keyCount];
+      for (int i = 0; i < keyCount; ++i) {
+         keys[i] = new WrappedByteArray(("key-" + i).getBytes());
+      }
+      byte[] valueBytes = new byte[valueSize];
+      ThreadLocalRandom.current().nextBytes(valueBytes);
+      value = new WrappedByteArray(valueBytes);
+      metadata = new EmbeddedMetadata.Builder().build();
+      for (WrappedBytes key : keys) {
+         container.put(key, value, metadata);
+      }
+   }
+
+   @TearDown(Level.Trial)
+   public void tearDown() {
+      cacheManager.stop();
+   }
+
+   private WrappedBytes randomKey() {
+      return keys[ThreadLocalRandom.current().nextInt(keyCount)];
+   }
+
+   @Benchmark
+   @Threads(4)
+   public Object get() {
+      return container.get(randomKey());
+   }
+
+   @Benchmark
+   @Threads(4)
+   public void put() {
+      container.put(randomKey(), value, metadata);
+   }
+
+   @Benchmark
+   @Threads(4)
+   public Object compute() {
+      return container.compute(randomKey(), (k, oldEntry, factory) -> oldEntry == null ?
+            factory.create(k, value, metadata) : factory.update(oldEntry, value, metadata));
+   }
+
+   @Benchmark
+   @Group("mixed")
+   @GroupThreads(3)
+   public Object mixedGet() {
+      return container.get(randomKey());
+   }
+
+   @Benchmark
+   @Group("mixed")
+   @GroupThreads(1)
+   public void mixedPut() {
+      container.put(randomKey(), value, metadata);
+   }
+}
@@ -0,0 +1,96 @@
+package org.infinispan.benchmarks.interceptors;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.commands.CommandsFactory;
+import org.infinispan.commons.util.EnumUtil;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.context.InvocationContextFactory;
+import org.infinispan.interceptors.AsyncInterceptorChain;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.metadata.Metadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the invocation of local get and put commands through the interceptor chain of a local cache, bypassing
+ * the cache API so that the overhead of the chain itself is measured.
+ *
+ * @since 9.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterceptorChainBenchmark {
+   @Param("10000")
+   int keyCount;
+
+   private DefaultCacheManager cacheManager;
+   private AsyncInterceptorChain chain;
+   private CommandsFactory commandsFactory;
+   private InvocationContextFactory contextFactory;
+   private String[] keys;
+   private Metadata metadata;
+
+   @Setup(Level.Trial)
+   public void setUp() {
+      GlobalConfigurationBuilder global = new GlobalConfigurationBuilder();
+      global.globalJmxStatistics().allowDuplicateDomains(true);
+      cacheManager = new DefaultCacheManager(global.build(), new ConfigurationBuilder().build());
+      AdvancedCache<String, String> cache = cacheManager.<String, String>getCache().getAdvancedCache();
+      chain = cache.getAsyncInterceptorChain();
+      commandsFactory = cache.getComponentRegistry().getComponent(CommandsFactory.class);
+      contextFactory = cache.getComponentRegistry().getComponent(InvocationContextFactory.class);
+
+      keys = new String[keyCount];
+      for (int i = 0; i < keyCount; ++i) {
+         keys[i] = "key-" + i;
+         cache.put(keys[i], "value-" + i);
+      }
+      metadata = new EmbeddedMetadata.Builder().build();
+   }
+
+   @TearDown(Level.Trial)
+   public void tearDown() {
+      cacheManager.stop();
+   }
+
+   private String randomKey() {
+      return keys[ThreadLocalRandom.current().nextInt(keyCount)];
+   }
+
+   @Benchmark
+   @Threads(4)
+   public Object get() {
+      InvocationContext ctx = contextFactory.createInvocationContext(false, 1);
+      return chain.invoke(ctx, commandsFactory.buildGetKeyValueCommand(randomKey(), EnumUtil.EMPTY_BIT_SET));
+   }
+
+   @Benchmark
+   @Threads(4)
+   public Object put() {
+      String key = randomKey();
+      InvocationContext ctx = contextFactory.createInvocationContext(true, 1);
+      return chain.invoke(ctx, commandsFactory.buildPutKeyValueCommand(key, key, metadata, EnumUtil.EMPTY_BIT_SET));
+   }
+}
@@ -0,0 +1,136 @@
+package org.infinispan.benchmarks.marshall;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.commons.marshall.WrappedByteArray;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.container.entries.ImmortalCacheValue;
+import org.infinispan.container.entries.MortalCacheEntry;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures marshalling and unmarshalling of commonly used types with the cache marshaller.
+ *
+ * @since 9.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GlobalMarshallerBenchmark {
+   public enum ObjectType {
+      STRING {
+         @Override
+         Object create() {
+            return "a-string-of-moderate-length";
+         }
+      },
+      BYTE_ARRAY {
+         @Override
+         Object create() {
+            return new byte[100];
+         }
+      },
+      WRAPPED_BYTE_ARRAY {
+         @Override
+         Object create() {
+            return new WrappedByteArray(new byte[100]);
+         }
+      },
+      METADATA {
+         @Override
+         Object create() {
+            return new EmbeddedMetadata.Builder().lifespan(1, TimeUnit.MINUTES).build();
+         }
+      },
+      CACHE_VALUE {
+         @Override
+         Object create() {
+            return new ImmortalCacheValue("value");
+         }
+      },
+      CACHE_ENTRY {
+         @Override
+         Object create() {
+            return new MortalCacheEntry("key", "value", 60000, System.currentTimeMillis());
+         }
+      },
+      LIST {
+         @Override
+         Object create() {
+            List<String> list = new ArrayList<>();
+            for (int i = 0; i < 10; ++i) {
+               list.add("element-" + i);
+            }
+            return list;
+         }
+      },
+      MAP {
+         @Override
+         Object create() {
+            Map<String, Integer> map = new HashMap<>();
+            for (int i = 0; i < 10; ++i) {
+               map.put("key-" + i, i);
+            }
+            return map;
+         }
+      };
+
+      abstract Object create();
+   }
+
+   @Param
+   ObjectType objectType;
+
+   private DefaultCacheManager cacheManager;
+   private StreamingMarshaller marshaller;
+   private Object object;
+   private byte[] bytes;
+
+   @Setup(Level.Trial)
+   public void setUp() throws Exception {
+      GlobalConfigurationBuilder global = new GlobalConfigurationBuilder();
+      global.globalJmxStatistics().allowDuplicateDomains(true);
+      cacheManager = new DefaultCacheManager(global.build(), new ConfigurationBuilder().build());
+      marshaller = cacheManager.getCache().getAdvancedCache().getComponentRegistry().getCacheMarshaller();
+      object = objectType.create();
+      bytes = marshaller.objectToByteBuffer(object);
+   }
+
+   @TearDown(Level.Trial)
+   public void tearDown() {
+      cacheManager.stop();
+   }
+
+   @Benchmark
+   public byte[] marshall() throws Exception {
+      return marshaller.objectToByteBuffer(object);
+   }
+
+   @Benchmark
+   public Object unmarshall() throws Exception {
+      return marshaller.objectFromByteBuffer(bytes);
+   }
+}
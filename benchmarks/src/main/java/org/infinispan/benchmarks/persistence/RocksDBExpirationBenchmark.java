@@ -0,0 +1,135 @@
+package org.infinispan.benchmarks.persistence;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.commons.util.Util;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.marshall.core.MarshalledEntry;
+import org.infinispan.marshall.core.MarshalledEntryFactory;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.metadata.impl.InternalMetadataImpl;
+import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfigurationBuilder;
+import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
+import org.infinispan.util.concurrent.WithinThreadExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the RocksDB store when most of the entries have a lifespan: writing them, and purging the store when a
+ * part of them has expired.
+ * <p>
+ * Only the layout of the store being built is measured. To compare with the expired entries database of previous
+ * versions, run the benchmark against a build of the previous version: the store configuration used here is valid for
+ * both.
+ *
+ * @since 9.0
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RocksDBExpirationBenchmark {
+   private static final long LIFESPAN = TimeUnit.HOURS.toMillis(1);
+
+   @Param("10000")
+   int keyCount;
+
+   @Param("100")
+   int valueSize;
+
+   @Param("0.5")
+   double expiredRatio;
+
+   private File location;
+   private DefaultCacheManager cacheManager;
+   private AdvancedLoadWriteStore<Object, Object> store;
+   private MarshalledEntryFactory<Object, Object> entryFactory;
+   private MarshalledEntry<Object, Object>[] entries;
+   private final AtomicInteger purged = new AtomicInteger();
+
+   @Setup(Level.Trial)
+   public void setUp() throws Exception {
+      location = Files.createTempDirectory("infinispan-rocksdb-expiration-benchmark").toFile();
+      GlobalConfigurationBuilder global = new GlobalConfigurationBuilder();
+      global.globalJmxStatistics().allowDuplicateDomains(true);
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.persistence().addStore(RocksDBStoreConfigurationBuilder.class)
+            .location(new File(location, "data").getPath() + File.separator);
+      cacheManager = new DefaultCacheManager(global.build(), builder.build());
+      AdvancedCache<Object, Object> cache = cacheManager.getCache().getAdvancedCache();
+      Set<AdvancedLoadWriteStore> stores = cache.getComponentRegistry().getComponent(PersistenceManager.class)
+            .getStores(AdvancedLoadWriteStore.class);
+      store = stores.iterator().next();
+      entryFactory = cache.getComponentRegistry().getComponent(MarshalledEntryFactory.class);
+
+      entries = new MarshalledEntry[keyCount];
+      long now = System.currentTimeMillis();
+      for (int i = 0; i < keyCount; ++i) {
+         entries[i] = entry(i, now);
+      }
+   }
+
+   /**
+    * Writes all the entries again, the expired ones created long enough ago to have expired already.
+    */
+   @Setup(Level.Iteration)
+   public void fill() {
+      for (MarshalledEntry<Object, Object> entry : entries) {
+         store.write(entry);
+      }
+   }
+
+   @TearDown(Level.Trial)
+   public void tearDown() {
+      cacheManager.stop();
+      Util.recursiveFileRemove(location);
+   }
+
+   private MarshalledEntry<Object, Object> entry(int i, long now) {
+      byte[] value = new byte[valueSize];
+      ThreadLocalRandom.current().nextBytes(value);
+      long created = i < keyCount * expiredRatio ? now - 2 * LIFESPAN : now;
+      return entryFactory.newMarshalledEntry("key-" + i, value,
+            new InternalMetadataImpl(new EmbeddedMetadata.Builder().lifespan(LIFESPAN).build(), created, created));
+   }
+
+   @Benchmark
+   @BenchmarkMode(Mode.Throughput)
+   @Threads(4)
+   public void writeWithLifespan() {
+      store.write(entries[ThreadLocalRandom.current().nextInt(keyCount)]);
+   }
+
+   /**
+    * The first invocation in each iteration removes the expired entries written by {@link #fill()}, the following
+    * ones only look for expired entries.
+    */
+   @Benchmark
+   @BenchmarkMode(Mode.AverageTime)
+   public int purge() {
+      store.purge(new WithinThreadExecutor(), key -> purged.incrementAndGet());
+      return purged.get();
+   }
+}
@@ -0,0 +1,125 @@
+package org.infinispan.benchmarks.persistence;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.commons.util.Util;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.marshall.core.MarshalledEntry;
+import org.infinispan.marshall.core.MarshalledEntryFactory;
+import org.infinispan.metadata.InternalMetadata;
+import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfigurationBuilder;
+import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures writing and loading entries directly through the file based stores, without the cache in between.
+ *
+ * @since 9.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StoreBenchmark {
+   public enum StoreType {
+      SINGLE_FILE {
+         @Override
+         void configure(ConfigurationBuilder builder, File location) {
+            builder.persistence().addSingleFileStore().location(location.getPath());
+         }
+      },
+      SOFT_INDEX {
+         @Override
+         void configure(ConfigurationBuilder builder, File location) {
+            builder.persistence().addStore(SoftIndexFileStoreConfigurationBuilder.class)
+                  .dataLocation(new File(location, "data").getPath())
+                  .indexLocation(new File(location, "index").getPath());
+         }
+      };
+
+      abstract void configure(ConfigurationBuilder builder, File location);
+   }
+
+   @Param
+   StoreType storeType;
+
+   @Param("10000")
+   int keyCount;
+
+   @Param("100")
+   int valueSize;
+
+   private File location;
+   private DefaultCacheManager cacheManager;
+   private AdvancedLoadWriteStore<Object, Object> store;
+   private MarshalledEntry<Object, Object>[] entries;
+
+   @Setup(Level.Trial)
+   public void setUp() throws Exception {
+      location = Files.createTempDirectory("infinispan-store-benchmark").toFile();
+      GlobalConfigurationBuilder global = new GlobalConfigurationBuilder();
+      global.globalJmxStatistics().allowDuplicateDomains(true);
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      storeType.configure(builder, location);
+      cacheManager = new DefaultCacheManager(global.build(), builder.build());
+      AdvancedCache<Object, Object> cache = cacheManager.getCache().getAdvancedCache();
+      Set<AdvancedLoadWriteStore> stores = cache.getComponentRegistry().getComponent(PersistenceManager.class)
+            .getStores(AdvancedLoadWriteStore.class);
+      store = stores.iterator().next();
+      MarshalledEntryFactory<Object, Object> entryFactory =
+            cache.getComponentRegistry().getComponent(MarshalledEntryFactory.class);
+
+      entries = new MarshalledEntry[keyCount];
+      for (int i = 0; i < keyCount; ++i) {
+         byte[] value = new byte[valueSize];
+         ThreadLocalRandom.current().nextBytes(value);
+         entries[i] = entryFactory.newMarshalledEntry("key-" + i, value, (InternalMetadata) null);
+         store.write(entries[i]);
+      }
+   }
+
+   @TearDown(Level.Trial)
+   public void tearDown() {
+      cacheManager.stop();
+      Util.recursiveFileRemove(location);
+   }
+
+   private MarshalledEntry<Object, Object> randomEntry() {
+      return entries[ThreadLocalRandom.current().nextInt(keyCount)];
+   }
+
+   @Benchmark
+   @Threads(4)
+   public void write() {
+      store.write(randomEntry());
+   }
+
+   @Benchmark
+   @Threads(4)
+   public Object load() {
+      return store.load(randomEntry().getKey());
+   }
+}
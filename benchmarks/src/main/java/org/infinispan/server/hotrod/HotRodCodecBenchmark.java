@@ -0,0 +1,169 @@
+package org.infinispan.server.hotrod;
+
+import static org.infinispan.server.core.transport.ExtendedByteBuf.writeRangedBytes;
+import static org.infinispan.server.core.transport.ExtendedByteBuf.writeUnsignedInt;
+import static org.infinispan.server.core.transport.ExtendedByteBuf.writeUnsignedLong;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.server.core.transport.NettyTransport;
+import org.infinispan.server.hotrod.configuration.HotRodServerConfigurationBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+/**
+ * Measures decoding of Hot Rod 2.x requests and encoding of responses on an {@link EmbeddedChannel}, as well as a
+ * full round trip through the handlers that execute the request, without any network in between.
+ * <p>
+ * Lives in the server package as the responses and the context handlers are package private.
+ *
+ * @since 9.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HotRodCodecBenchmark {
+   private static final InetSocketAddress LOOPBACK = new InetSocketAddress("127.0.0.1", 11222);
+   private static final byte PUT_REQUEST = 0x01;
+   private static final byte GET_REQUEST = 0x03;
+
+   @Param("100")
+   int valueSize;
+
+   private DefaultCacheManager cacheManager;
+   private HotRodServer server;
+   private EmbeddedChannel decodeChannel;
+   private EmbeddedChannel encodeChannel;
+   private EmbeddedChannel roundTripChannel;
+   private ByteBuf putRequest;
+   private ByteBuf getRequest;
+   private GetResponse getResponse;
+
+   @Setup(Level.Trial)
+   public void setUp() {
+      GlobalConfigurationBuilder global = new GlobalConfigurationBuilder();
+      global.globalJmxStatistics().allowDuplicateDomains(true);
+      cacheManager = new DefaultCacheManager(global.build(), new ConfigurationBuilder().build());
+      server = new HotRodServer();
+      server.start(new HotRodServerConfigurationBuilder().host("127.0.0.1").port(0).build(), cacheManager);
+
+      NettyTransport transport = server.getDecoder().getTransport();
+      decodeChannel = new LoopbackChannel();
+      decodeChannel.pipeline().addLast(server.getDecoder());
+      encodeChannel = new LoopbackChannel();
+      encodeChannel.pipeline().addLast(server.getEncoder());
+      roundTripChannel = new LoopbackChannel();
+      roundTripChannel.pipeline().addLast(server.getEncoder(), server.getDecoder(), new LocalContextHandler(transport),
+            new ContextHandler(server, transport, Runnable::run));
+
+      byte[] key = "key".getBytes();
+      byte[] value = new byte[valueSize];
+      putRequest = Unpooled.unreleasableBuffer(request(PUT_REQUEST, key, value));
+      getRequest = Unpooled.unreleasableBuffer(request(GET_REQUEST, key, null));
+      getResponse = new GetResponse(Constants.VERSION_25, 1, "", (short) 1, HotRodOperation.GET,
+            OperationStatus.Success, 0, value);
+
+      // So that the gets of the round trip find the entry
+      roundTrip(putRequest);
+   }
+
+   @TearDown(Level.Trial)
+   public void tearDown() {
+      decodeChannel.finishAndReleaseAll();
+      encodeChannel.finishAndReleaseAll();
+      roundTripChannel.finishAndReleaseAll();
+      server.stop();
+      cacheManager.stop();
+   }
+
+   private static ByteBuf request(byte opCode, byte[] key, byte[] value) {
+      ByteBuf buf = Unpooled.buffer();
+      buf.writeByte(Constants.MAGIC_REQ);
+      writeUnsignedLong(1, buf);
+      buf.writeByte(Constants.VERSION_25);
+      buf.writeByte(opCode);
+      // Default cache, no flags, basic client intelligence and no topology
+      writeUnsignedInt(0, buf);
+      writeUnsignedInt(0, buf);
+      buf.writeByte(1);
+      writeUnsignedInt(0, buf);
+      writeRangedBytes(key, buf);
+      if (value != null) {
+         // Lifespan and max idle both infinite
+         buf.writeByte(0x88);
+         writeRangedBytes(value, buf);
+      }
+      return buf;
+   }
+
+   private Object roundTrip(ByteBuf request) {
+      roundTripChannel.writeInbound(request.duplicate());
+      ByteBuf response = roundTripChannel.readOutbound();
+      response.release();
+      return response;
+   }
+
+   @Benchmark
+   public Object decodeGet() {
+      decodeChannel.writeInbound(getRequest.duplicate());
+      return decodeChannel.readInbound();
+   }
+
+   @Benchmark
+   public Object decodePut() {
+      decodeChannel.writeInbound(putRequest.duplicate());
+      return decodeChannel.readInbound();
+   }
+
+   @Benchmark
+   public Object encodeGetResponse() {
+      encodeChannel.writeOutbound(getResponse);
+      ByteBuf response = encodeChannel.readOutbound();
+      response.release();
+      return response;
+   }
+
+   @Benchmark
+   public Object roundTripGet() {
+      return roundTrip(getRequest);
+   }
+
+   @Benchmark
+   public Object roundTripPut() {
+      return roundTrip(putRequest);
+   }
+
+   /**
+    * The decoder checks whether the client connected from the loopback interface, which requires an
+    * {@link InetSocketAddress} as the remote address.
+    */
+   private static final class LoopbackChannel extends EmbeddedChannel {
+      @Override
+      protected SocketAddress remoteAddress0() {
+         return LOOPBACK;
+      }
+   }
+}
@@ -21,6 +21,7 @@
 import org.infinispan.client.hotrod.impl.protocol.CodecFactory;
 import org.infinispan.client.hotrod.impl.protocol.HotRodConstants;
 import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+import org.infinispan.client.hotrod.impl.transport.netty.PipelinedTransport;
 import org.infinispan.client.hotrod.impl.transport.tcp.TcpTransportFactory;
 import org.infinispan.client.hotrod.logging.Log;
 import org.infinispan.client.hotrod.logging.LogFactory;
@@ -67,6 +68,7 @@ public class RemoteCacheManager implements RemoteCacheContainer {
    private Marshaller marshaller;
    protected TransportFactory transportFactory;
    private ExecutorService asyncExecutorService;
+   private PipelinedTransport pipelinedTransport;
    protected ClientListenerNotifier listenerNotifier;
 
    /**
@@ -198,6 +200,15 @@ public void start() {
       listenerNotifier = ClientListenerNotifier.create(codec, marshaller, transportFactory);
       transportFactory.start(codec, configuration, defaultCacheTopologyId, listenerNotifier);
 
+      if (configuration.asyncConnectionsPerServer() > 0) {
+         if (transportFactory instanceof TcpTransportFactory && !configuration.security().authentication().enabled()) {
+            pipelinedTransport = new PipelinedTransport((TcpTransportFactory) transportFactory, asyncExecutorService,
+                  configuration.asyncConnectionsPerServer());
+         } else {
+            log.asyncPipeliningNotSupported(transportFactory.getClass().getName());
+         }
+      }
+
       synchronized (cacheName2RemoteCache) {
          for (RemoteCacheHolder rcc : cacheName2RemoteCache.values()) {
             startRemoteCache(rcc);
@@ -230,6 +241,10 @@ private final void warnAboutUberJarDuplicates() {
    public void stop() {
       if (isStarted()) {
          listenerNotifier.stop();
+         if (pipelinedTransport != null) {
+            pipelinedTransport.stop();
+            pipelinedTransport = null;
+         }
          transportFactory.destroy();
          asyncExecutorService.shutdownNow();
       }
@@ -307,7 +322,7 @@ private void startRemoteCache(RemoteCacheHolder remoteCacheHolder) {
       RemoteCacheImpl<?, ?> remoteCache = remoteCacheHolder.remoteCache;
       OperationsFactory operationsFactory = new OperationsFactory(
               transportFactory, remoteCache.getName(), remoteCacheHolder.forceReturnValue, codec, listenerNotifier,
-            asyncExecutorService, configuration.clientIntelligence());
+            asyncExecutorService, configuration.clientIntelligence(), pipelinedTransport);
       remoteCache.init(marshaller, asyncExecutorService, operationsFactory, configuration.keySizeEstimate(), configuration.valueSizeEstimate());
    }
 
@@ -165,6 +165,11 @@ public ConfigurationBuilder maxRetries(int retriesPerServer) {
       return builder.maxRetries(retriesPerServer);
    }
 
+   @Override
+   public ConfigurationBuilder asyncConnectionsPerServer(int asyncConnectionsPerServer) {
+      return builder.asyncConnectionsPerServer(asyncConnectionsPerServer);
+   }
+
    @Override
    public ConfigurationBuilder withProperties(Properties properties) {
       return builder.withProperties(properties);
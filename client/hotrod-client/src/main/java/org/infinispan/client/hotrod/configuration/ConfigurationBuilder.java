@@ -67,6 +67,7 @@ public class ConfigurationBuilder implements ConfigurationChildBuilder, Builder<
    private Class<? extends TransportFactory> transportFactory = TcpTransportFactory.class;
    private int valueSizeEstimate = ConfigurationProperties.DEFAULT_VALUE_SIZE;
    private int maxRetries = ConfigurationProperties.DEFAULT_MAX_RETRIES;
+   private int asyncConnectionsPerServer = ConfigurationProperties.DEFAULT_ASYNC_CONNECTIONS_PER_SERVER;
    private final NearCacheConfigurationBuilder nearCache;
 
    private final List<ClusterConfigurationBuilder> clusters = new ArrayList<ClusterConfigurationBuilder>();
@@ -281,6 +282,12 @@ public ConfigurationBuilder maxRetries(int maxRetries) {
       return this;
    }
 
+   @Override
+   public ConfigurationBuilder asyncConnectionsPerServer(int asyncConnectionsPerServer) {
+      this.asyncConnectionsPerServer = asyncConnectionsPerServer;
+      return this;
+   }
+
    @Override
    public ConfigurationBuilder withProperties(Properties properties) {
       TypedProperties typed = TypedProperties.toTypedProperties(properties);
@@ -320,6 +327,7 @@ public ConfigurationBuilder withProperties(Properties properties) {
       }
       this.valueSizeEstimate(typed.getIntProperty(ConfigurationProperties.VALUE_SIZE_ESTIMATE, valueSizeEstimate));
       this.maxRetries(typed.getIntProperty(ConfigurationProperties.MAX_RETRIES, maxRetries));
+      this.asyncConnectionsPerServer(typed.getIntProperty(ConfigurationProperties.ASYNC_CONNECTIONS_PER_SERVER, asyncConnectionsPerServer));
       this.security.ssl().withProperties(properties);
       this.security.authentication().withProperties(properties);
       return this;
@@ -334,6 +342,9 @@ public void validate() {
       if (maxRetries < 0) {
          throw log.invalidMaxRetries(maxRetries);
       }
+      if (asyncConnectionsPerServer < 0) {
+         throw log.invalidAsyncConnectionsPerServer(asyncConnectionsPerServer);
+      }
       Set<String> clusterNameSet = new HashSet<String>(clusters.size());
       for (ClusterConfigurationBuilder clusterConfigBuilder : clusters) {
          if (!clusterNameSet.add(clusterConfigBuilder.getClusterName())) {
@@ -362,7 +373,7 @@ public Configuration create() {
 
       return new Configuration(asyncExecutorFactory.create(), balancingStrategyClass, balancingStrategy, classLoader == null ? null : classLoader.get(), clientIntelligence, connectionPool.create(), connectionTimeout,
             consistentHashImpl, forceReturnValues, keySizeEstimate, marshaller, marshallerClass, protocolVersion, servers, socketTimeout, security.create(), tcpNoDelay, tcpKeepAlive, transportFactory,
-            valueSizeEstimate, maxRetries, nearCache.create(), serverClusterConfigs);
+            valueSizeEstimate, maxRetries, nearCache.create(), serverClusterConfigs, asyncConnectionsPerServer);
    }
 
    @Override
@@ -404,6 +415,7 @@ public ConfigurationBuilder read(Configuration template) {
       this.transportFactory = template.transportFactory();
       this.valueSizeEstimate = template.valueSizeEstimate();
       this.maxRetries = template.maxRetries();
+      this.asyncConnectionsPerServer = template.asyncConnectionsPerServer();
       this.nearCache.read(template.nearCache());
       return this;
    }
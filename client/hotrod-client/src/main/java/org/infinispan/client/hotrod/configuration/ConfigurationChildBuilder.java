@@ -182,6 +182,14 @@ public interface ConfigurationChildBuilder {
     */
    ConfigurationBuilder maxRetries(int maxRetries);
 
+   /**
+    * Sets the number of connections opened to each server to pipeline the requests of the asynchronous operations on.
+    * Responses are read as they arrive, so that the operations don't hold a thread or a pooled connection while
+    * waiting for them. Zero, the default, executes the asynchronous operations with the pooled connections on the
+    * asynchronous executor. Ignored when authentication is enabled.
+    */
+   ConfigurationBuilder asyncConnectionsPerServer(int asyncConnectionsPerServer);
+
    /**
     * Configures this builder using the specified properties
     */
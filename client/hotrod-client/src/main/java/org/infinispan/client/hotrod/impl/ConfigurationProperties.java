@@ -47,6 +47,7 @@ public class ConfigurationProperties {
    public static final String SSL_PROTOCOL = "infinispan.client.hotrod.ssl_protocol";
    public static final String SSL_CONTEXT = "infinispan.client.hotrod.ssl_context";
    public static final String MAX_RETRIES = "infinispan.client.hotrod.max_retries";
+   public static final String ASYNC_CONNECTIONS_PER_SERVER = "infinispan.client.hotrod.async_connections_per_server";
    public static final String USE_AUTH = "infinispan.client.hotrod.use_auth";
    public static final String SASL_MECHANISM = "infinispan.client.hotrod.sasl_mechanism";
    public static final String AUTH_CALLBACK_HANDLER = "infinispan.client.hotrod.auth_callback_handler";
@@ -64,6 +65,7 @@ public class ConfigurationProperties {
    public static final int DEFAULT_SO_TIMEOUT = 60000;
    public static final int DEFAULT_CONNECT_TIMEOUT = 60000;
    public static final int DEFAULT_MAX_RETRIES = 10;
+   public static final int DEFAULT_ASYNC_CONNECTIONS_PER_SERVER = 0;
 
    private final TypedProperties props;
 
@@ -169,6 +171,10 @@ public int getMaxRetries() {
       return props.getIntProperty(MAX_RETRIES, DEFAULT_MAX_RETRIES);
    }
 
+   public int getAsyncConnectionsPerServer() {
+      return props.getIntProperty(ASYNC_CONNECTIONS_PER_SERVER, DEFAULT_ASYNC_CONNECTIONS_PER_SERVER);
+   }
+
    /**
     * Is version previous to, and not including, 1.2?
     */
@@ -55,6 +55,7 @@
 import org.infinispan.client.hotrod.impl.operations.ReplaceOperation;
 import org.infinispan.client.hotrod.impl.operations.SizeOperation;
 import org.infinispan.client.hotrod.impl.operations.StatsOperation;
+import org.infinispan.client.hotrod.impl.transport.netty.PipelinedTransport;
 import org.infinispan.client.hotrod.logging.Log;
 import org.infinispan.client.hotrod.logging.LogFactory;
 import org.infinispan.commons.marshall.Marshaller;
@@ -116,6 +117,12 @@ public boolean removeWithVersion(K key, long version) {
    @Override
    public CompletableFuture<Boolean> removeWithVersionAsync(final K key, final long version) {
       assertRemoteCacheManagerIsStarted();
+      PipelinedTransport pipelinedTransport = operationsFactory.getPipelinedTransport();
+      if (pipelinedTransport != null) {
+         RemoveIfUnmodifiedOperation<V> op = operationsFactory.newRemoveIfUnmodifiedOperation(
+            compatKeyIfNeeded(key), obj2bytes(key, true), version);
+         return pipelinedTransport.execute(op).thenApply(response -> response.getCode().isUpdated());
+      }
       return CompletableFuture.supplyAsync(() -> removeWithVersion(key, version), executorService);
    }
 
@@ -136,6 +143,13 @@ public boolean replaceWithVersion(K key, V newValue, long version, long lifespan
    @Override
    public CompletableFuture<Boolean> replaceWithVersionAsync(final K key, final V newValue, final long version, final int lifespanSeconds, final int maxIdleSeconds) {
       assertRemoteCacheManagerIsStarted();
+      PipelinedTransport pipelinedTransport = operationsFactory.getPipelinedTransport();
+      if (pipelinedTransport != null) {
+         ReplaceIfUnmodifiedOperation op = operationsFactory.newReplaceIfUnmodifiedOperation(
+            compatKeyIfNeeded(key), obj2bytes(key, true), obj2bytes(newValue, false), lifespanSeconds, TimeUnit.SECONDS,
+            maxIdleSeconds, TimeUnit.SECONDS, version);
+         return pipelinedTransport.execute(op).thenApply(response -> response.getCode().isUpdated());
+      }
       return CompletableFuture.supplyAsync(() ->
               replaceWithVersion(key, newValue, version, lifespanSeconds, maxIdleSeconds), executorService);
    }
@@ -294,6 +308,11 @@ public V replace(K key, V value, long lifespan, TimeUnit lifespanUnit, long maxI
    @Override
    public CompletableFuture<V> putAsync(final K key, final V value, final long lifespan, final TimeUnit lifespanUnit, final long maxIdle, final TimeUnit maxIdleUnit) {
       assertRemoteCacheManagerIsStarted();
+      PipelinedTransport pipelinedTransport = operationsFactory.getPipelinedTransport();
+      if (pipelinedTransport != null) {
+         return pipelinedTransport.execute(operationsFactory.<V>newPutKeyValueOperation(compatKeyIfNeeded(key),
+            obj2bytes(key, true), obj2bytes(value, false), lifespan, lifespanUnit, maxIdle, maxIdleUnit));
+      }
       int flags = operationsFactory.flags();
       return CompletableFuture.supplyAsync(() -> {
          if (flags != 0)
@@ -311,6 +330,11 @@ public CompletableFuture<Void> clearAsync() {
    @Override
    public CompletableFuture<V> putIfAbsentAsync(final K key,final V value,final long lifespan,final TimeUnit lifespanUnit,final long maxIdle,final TimeUnit maxIdleUnit) {
       assertRemoteCacheManagerIsStarted();
+      PipelinedTransport pipelinedTransport = operationsFactory.getPipelinedTransport();
+      if (pipelinedTransport != null) {
+         return pipelinedTransport.execute(operationsFactory.<V>newPutIfAbsentOperation(compatKeyIfNeeded(key),
+            obj2bytes(key, true), obj2bytes(value, false), lifespan, lifespanUnit, maxIdle, maxIdleUnit));
+      }
       int flags = operationsFactory.flags();
       return CompletableFuture.supplyAsync(() -> {
          if (flags != 0)
@@ -322,6 +346,11 @@ public CompletableFuture<V> putIfAbsentAsync(final K key,final V value,final lon
    @Override
    public CompletableFuture<V> removeAsync(final Object key) {
       assertRemoteCacheManagerIsStarted();
+      PipelinedTransport pipelinedTransport = operationsFactory.getPipelinedTransport();
+      if (pipelinedTransport != null) {
+         return pipelinedTransport.execute(operationsFactory.<V>newRemoveOperation(compatKeyIfNeeded(key),
+            obj2bytes(key, true)));
+      }
       int flags = operationsFactory.flags();
       return CompletableFuture.supplyAsync(() -> {
          if (flags != 0)
@@ -333,6 +362,11 @@ public CompletableFuture<V> removeAsync(final Object key) {
    @Override
    public CompletableFuture<V> replaceAsync(final K key,final V value,final long lifespan,final TimeUnit lifespanUnit,final long maxIdle,final TimeUnit maxIdleUnit) {
       assertRemoteCacheManagerIsStarted();
+      PipelinedTransport pipelinedTransport = operationsFactory.getPipelinedTransport();
+      if (pipelinedTransport != null) {
+         return pipelinedTransport.execute(operationsFactory.<V>newReplaceOperation(compatKeyIfNeeded(key),
+            obj2bytes(key, true), obj2bytes(value, false), lifespan, lifespanUnit, maxIdle, maxIdleUnit));
+      }
       int flags = operationsFactory.flags();
       return CompletableFuture.supplyAsync(() -> {
          if (flags != 0)
@@ -486,6 +520,11 @@ public RemoteCache<K, V> withFlags(Flag... flags) {
    @Override
    public CompletableFuture<V> getAsync(final K key) {
       assertRemoteCacheManagerIsStarted();
+      PipelinedTransport pipelinedTransport = operationsFactory.getPipelinedTransport();
+      if (pipelinedTransport != null) {
+         return pipelinedTransport.execute(operationsFactory.<V>newGetKeyOperation(compatKeyIfNeeded(key),
+            obj2bytes(key, true)));
+      }
       return CompletableFuture.supplyAsync(() -> get(key), executorService);
    }
 
@@ -32,34 +32,54 @@ protected AbstractKeyOperation(Codec codec, TransportFactory transportFactory,
       this.keyBytes = keyBytes;
    }
 
+   public Object getRoutingKey() {
+      return key == null ? keyBytes : key;
+   }
+
    @Override
    protected Transport getTransport(int retryCount, Set<SocketAddress> failedServers) {
       if (retryCount == 0) {
-         return transportFactory.getTransport(key == null ? keyBytes : key, failedServers, cacheName);
+         return transportFactory.getTransport(getRoutingKey(), failedServers, cacheName);
       } else {
          return transportFactory.getTransport(failedServers, cacheName);
       }
    }
 
    protected short sendKeyOperation(byte[] key, Transport transport, byte opCode, byte opRespCode) {
-      // 1) write [header][key length][key]
-      HeaderParams params = writeHeader(transport, opCode);
-      transport.writeArray(key);
+      HeaderParams params = writeKeyRequest(key, transport, opCode);
       transport.flush();
 
       // 2) now read the header
       return readHeaderAndValidate(transport, params);
    }
 
+   protected HeaderParams writeKeyRequest(byte[] key, Transport transport, short opCode) {
+      // 1) write [header][key length][key]
+      HeaderParams params = writeHeader(transport, opCode);
+      transport.writeArray(key);
+      return params;
+   }
+
    protected T returnPossiblePrevValue(Transport transport, short status) {
       return (T) codec.returnPossiblePrevValue(transport, status, flags);
    }
 
+   /**
+    * Reads the header of the response, see {@link PipelinedOperation#readResponseHeader(Transport, HeaderParams)}.
+    */
+   public short readResponseHeader(Transport transport, HeaderParams params) {
+      return readHeaderAndValidate(transport, params);
+   }
+
    protected VersionedOperationResponse returnVersionedOperationResponse(Transport transport, HeaderParams params) {
       //3) ...
       short respStatus = readHeaderAndValidate(transport, params);
 
       //4 ...
+      return returnVersionedOperationResponse(transport, respStatus);
+   }
+
+   protected VersionedOperationResponse returnVersionedOperationResponse(Transport transport, short respStatus) {
       VersionedOperationResponse.RspCode code;
       if (HotRodConstants.isSuccess(respStatus)) {
          code = VersionedOperationResponse.RspCode.SUCCESS;
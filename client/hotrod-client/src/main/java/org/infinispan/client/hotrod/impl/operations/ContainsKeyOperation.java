@@ -4,6 +4,7 @@
 
 import org.infinispan.client.hotrod.configuration.ClientIntelligence;
 import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.protocol.HeaderParams;
 import org.infinispan.client.hotrod.impl.protocol.HotRodConstants;
 import org.infinispan.client.hotrod.impl.transport.Transport;
 import org.infinispan.client.hotrod.impl.transport.TransportFactory;
@@ -17,7 +18,7 @@
  * @since 4.1
  */
 @Immutable
-public class ContainsKeyOperation extends AbstractKeyOperation<Boolean> {
+public class ContainsKeyOperation extends AbstractKeyOperation<Boolean> implements PipelinedOperation<Boolean> {
 
    public ContainsKeyOperation(Codec codec, TransportFactory transportFactory, Object key, byte[] keyBytes,
                                byte[] cacheName, AtomicInteger topologyId, int flags, ClientIntelligence clientIntelligence) {
@@ -26,8 +27,17 @@ public ContainsKeyOperation(Codec codec, TransportFactory transportFactory, Obje
 
    @Override
    protected Boolean executeOperation(Transport transport) {
+      return writeRequestAndReadResponse(transport);
+   }
+
+   @Override
+   public HeaderParams writeRequest(Transport transport) {
+      return writeKeyRequest(keyBytes, transport, CONTAINS_KEY_REQUEST);
+   }
+
+   @Override
+   public Boolean readResponseBody(Transport transport, HeaderParams params, short status) {
       boolean containsKey = false;
-      short status = sendKeyOperation(keyBytes, transport, CONTAINS_KEY_REQUEST, CONTAINS_KEY_RESPONSE);
       if (HotRodConstants.isNotExist(status)) {
          containsKey = false;
       } else if (HotRodConstants.isSuccess(status)) {
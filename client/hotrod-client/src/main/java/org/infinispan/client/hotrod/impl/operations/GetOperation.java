@@ -4,6 +4,7 @@
 
 import org.infinispan.client.hotrod.configuration.ClientIntelligence;
 import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.protocol.HeaderParams;
 import org.infinispan.client.hotrod.impl.protocol.HotRodConstants;
 import org.infinispan.client.hotrod.impl.transport.Transport;
 import org.infinispan.client.hotrod.impl.transport.TransportFactory;
@@ -17,7 +18,7 @@
  * @since 4.1
  */
 @Immutable
-public class GetOperation<V> extends AbstractKeyOperation<V> {
+public class GetOperation<V> extends AbstractKeyOperation<V> implements PipelinedOperation<V> {
 
    public GetOperation(Codec codec, TransportFactory transportFactory,
                        Object key, byte[] keyBytes, byte[] cacheName, AtomicInteger topologyId, int flags,
@@ -27,8 +28,17 @@ public GetOperation(Codec codec, TransportFactory transportFactory,
 
    @Override
    public V executeOperation(Transport transport) {
+      return writeRequestAndReadResponse(transport);
+   }
+
+   @Override
+   public HeaderParams writeRequest(Transport transport) {
+      return writeKeyRequest(keyBytes, transport, GET_REQUEST);
+   }
+
+   @Override
+   public V readResponseBody(Transport transport, HeaderParams params, short status) {
       V result = null;
-      short status = sendKeyOperation(keyBytes, transport, GET_REQUEST, GET_RESPONSE);
       if (HotRodConstants.isNotExist(status)) {
          result = null;
       } else {
@@ -44,6 +44,10 @@ protected HotRodOperation(Codec codec, int flags, ClientIntelligence clientIntel
 
    public abstract Object execute();
 
+   public byte[] getCacheName() {
+      return cacheName;
+   }
+
    protected final HeaderParams writeHeader(Transport transport, short operationCode) {
       HeaderParams params = new HeaderParams()
             .opCode(operationCode).cacheName(cacheName).flags(flags)
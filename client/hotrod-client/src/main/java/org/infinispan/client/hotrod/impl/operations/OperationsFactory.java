@@ -18,6 +18,7 @@
 import org.infinispan.client.hotrod.impl.query.RemoteQuery;
 import org.infinispan.client.hotrod.impl.transport.Transport;
 import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+import org.infinispan.client.hotrod.impl.transport.netty.PipelinedTransport;
 
 import net.jcip.annotations.Immutable;
 import org.infinispan.client.hotrod.impl.transport.tcp.TcpTransport;
@@ -51,9 +52,18 @@ public class OperationsFactory implements HotRodConstants {
 
    private final ClientIntelligence clientIntelligence;
 
+   private final PipelinedTransport pipelinedTransport;
+
    public OperationsFactory(TransportFactory transportFactory, String cacheName, boolean forceReturnValue, Codec
            codec, ClientListenerNotifier listenerNotifier, ExecutorService executorService, ClientIntelligence clientIntelligence) {
+      this(transportFactory, cacheName, forceReturnValue, codec, listenerNotifier, executorService, clientIntelligence, null);
+   }
+
+   public OperationsFactory(TransportFactory transportFactory, String cacheName, boolean forceReturnValue, Codec
+           codec, ClientListenerNotifier listenerNotifier, ExecutorService executorService, ClientIntelligence clientIntelligence,
+           PipelinedTransport pipelinedTransport) {
       this.transportFactory = transportFactory;
+      this.pipelinedTransport = pipelinedTransport;
       this.executorService = executorService;
       this.cacheNameBytes = RemoteCacheManager.cacheNameBytes(cacheName);
       this.cacheName = cacheName;
@@ -74,6 +84,14 @@ public byte[] getCacheName() {
       return cacheNameBytes;
    }
 
+   /**
+    * @return the transport pipelining the asynchronous operations, or null if they are executed on the asynchronous
+    * executor
+    */
+   public PipelinedTransport getPipelinedTransport() {
+      return pipelinedTransport;
+   }
+
    public <V> GetOperation<V> newGetKeyOperation(Object key, byte[] keyBytes) {
       return new GetOperation<>(
             codec, transportFactory, key, keyBytes, cacheNameBytes, topologyId, flags(), clientIntelligence);
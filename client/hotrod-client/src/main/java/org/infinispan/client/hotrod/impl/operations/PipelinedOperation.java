@@ -0,0 +1,55 @@
+package org.infinispan.client.hotrod.impl.operations;
+
+import org.infinispan.client.hotrod.impl.protocol.HeaderParams;
+import org.infinispan.client.hotrod.impl.transport.Transport;
+
+/**
+ * An operation that writes its request and reads its response in separate steps, so that the request can be
+ * pipelined with the requests of other operations on the same connection and the response read whenever it arrives.
+ *
+ * @since 9.0
+ */
+public interface PipelinedOperation<T> {
+
+   /**
+    * @return the key used to find the server owning it
+    */
+   Object getRoutingKey();
+
+   byte[] getCacheName();
+
+   /**
+    * Writes the request to the transport without flushing it.
+    *
+    * @return the parameters of the written header, which are required to read the response
+    */
+   HeaderParams writeRequest(Transport transport);
+
+   /**
+    * Reads the header of the response to the request written by {@link #writeRequest(Transport)}.
+    *
+    * @return the status of the response
+    */
+   short readResponseHeader(Transport transport, HeaderParams params);
+
+   /**
+    * Reads the rest of the response, after its header was read by {@link #readResponseHeader(Transport, HeaderParams)}.
+    */
+   T readResponseBody(Transport transport, HeaderParams params, short status);
+
+   /**
+    * Reads the response to the request written by {@link #writeRequest(Transport)}, header included.
+    */
+   default T readResponse(Transport transport, HeaderParams params) {
+      return readResponseBody(transport, params, readResponseHeader(transport, params));
+   }
+
+   /**
+    * Writes the request and reads its response using a transport that isn't shared with other operations.
+    */
+   default T writeRequestAndReadResponse(Transport transport) {
+      HeaderParams params = writeRequest(transport);
+      transport.flush();
+      return readResponse(transport, params);
+   }
+}
@@ -6,6 +6,7 @@
 import org.infinispan.client.hotrod.configuration.ClientIntelligence;
 import org.infinispan.client.hotrod.exceptions.InvalidResponseException;
 import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.protocol.HeaderParams;
 import org.infinispan.client.hotrod.impl.protocol.HotRodConstants;
 import org.infinispan.client.hotrod.impl.transport.Transport;
 import org.infinispan.client.hotrod.impl.transport.TransportFactory;
@@ -19,7 +20,7 @@
  * @since 4.1
  */
 @Immutable
-public class PutOperation<V> extends AbstractKeyValueOperation<V> {
+public class PutOperation<V> extends AbstractKeyValueOperation<V> implements PipelinedOperation<V> {
 
    public PutOperation(Codec codec, TransportFactory transportFactory,
                        Object key, byte[] keyBytes, byte[] cacheName, AtomicInteger topologyId,
@@ -31,7 +32,16 @@ public PutOperation(Codec codec, TransportFactory transportFactory,
 
    @Override
    protected V executeOperation(Transport transport) {
-      short status = sendPutOperation(transport, PUT_REQUEST, PUT_RESPONSE);
+      return writeRequestAndReadResponse(transport);
+   }
+
+   @Override
+   public HeaderParams writeRequest(Transport transport) {
+      return writePutRequest(transport, PUT_REQUEST);
+   }
+
+   @Override
+   public V readResponseBody(Transport transport, HeaderParams params, short status) {
       if (!HotRodConstants.isSuccess(status)) {
          throw new InvalidResponseException("Unexpected response status: " + Integer.toHexString(status));
       }
@@ -19,7 +19,8 @@
  * @since 4.1
  */
 @Immutable
-public class RemoveIfUnmodifiedOperation<V> extends AbstractKeyOperation<VersionedOperationResponse<V>> {
+public class RemoveIfUnmodifiedOperation<V> extends AbstractKeyOperation<VersionedOperationResponse<V>>
+      implements PipelinedOperation<VersionedOperationResponse<V>> {
 
    private final long version;
 
@@ -33,15 +34,23 @@ public RemoveIfUnmodifiedOperation(Codec codec, TransportFactory transportFactor
 
    @Override
    protected VersionedOperationResponse<V> executeOperation(Transport transport) {
+      return writeRequestAndReadResponse(transport);
+   }
+
+   @Override
+   public HeaderParams writeRequest(Transport transport) {
       // 1) write header
       HeaderParams params = writeHeader(transport, REMOVE_IF_UNMODIFIED_REQUEST);
 
       //2) write message body
       transport.writeArray(keyBytes);
       transport.writeLong(version);
-      transport.flush();
+      return params;
+   }
 
+   @Override
+   public VersionedOperationResponse<V> readResponseBody(Transport transport, HeaderParams params, short status) {
       //process response and return
-      return returnVersionedOperationResponse(transport, params);
+      return returnVersionedOperationResponse(transport, status);
    }
 }
@@ -4,6 +4,7 @@
 
 import org.infinispan.client.hotrod.configuration.ClientIntelligence;
 import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.protocol.HeaderParams;
 import org.infinispan.client.hotrod.impl.protocol.HotRodConstants;
 import org.infinispan.client.hotrod.impl.transport.Transport;
 import org.infinispan.client.hotrod.impl.transport.TransportFactory;
@@ -18,7 +19,7 @@
  * @since 4.1
  */
 @Immutable
-public class RemoveOperation<V> extends AbstractKeyOperation<V> {
+public class RemoveOperation<V> extends AbstractKeyOperation<V> implements PipelinedOperation<V> {
 
    public RemoveOperation(Codec codec, TransportFactory transportFactory,
          Object key, byte[] keyBytes, byte[] cacheName, AtomicInteger topologyId, int flags, ClientIntelligence clientIntelligence) {
@@ -27,7 +28,16 @@ public RemoveOperation(Codec codec, TransportFactory transportFactory,
 
    @Override
    public V executeOperation(Transport transport) {
-      short status = sendKeyOperation(keyBytes, transport, REMOVE_REQUEST, REMOVE_RESPONSE);
+      return writeRequestAndReadResponse(transport);
+   }
+
+   @Override
+   public HeaderParams writeRequest(Transport transport) {
+      return writeKeyRequest(keyBytes, transport, REMOVE_REQUEST);
+   }
+
+   @Override
+   public V readResponseBody(Transport transport, HeaderParams params, short status) {
       V result = returnPossiblePrevValue(transport, status);
       if (HotRodConstants.isNotExist(status))
          return null;
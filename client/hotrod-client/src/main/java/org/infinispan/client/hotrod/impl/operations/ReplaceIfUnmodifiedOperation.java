@@ -17,7 +17,8 @@
  * @author Mircea.Markus@jboss.com
  * @since 4.1
  */
-public class ReplaceIfUnmodifiedOperation extends AbstractKeyValueOperation<VersionedOperationResponse> {
+public class ReplaceIfUnmodifiedOperation extends AbstractKeyValueOperation<VersionedOperationResponse>
+      implements PipelinedOperation<VersionedOperationResponse> {
    private final long version;
 
    public ReplaceIfUnmodifiedOperation(Codec codec, TransportFactory transportFactory, Object key, byte[] keyBytes, byte[] cacheName,
@@ -29,6 +30,11 @@ public ReplaceIfUnmodifiedOperation(Codec codec, TransportFactory transportFacto
 
    @Override
    protected VersionedOperationResponse executeOperation(Transport transport) {
+      return writeRequestAndReadResponse(transport);
+   }
+
+   @Override
+   public HeaderParams writeRequest(Transport transport) {
       // 1) write header
       HeaderParams params = writeHeader(transport, REPLACE_IF_UNMODIFIED_REQUEST);
 
@@ -37,8 +43,11 @@ protected VersionedOperationResponse executeOperation(Transport transport) {
       codec.writeExpirationParams(transport, lifespan, lifespanTimeUnit, maxIdle, maxIdleTimeUnit);
       transport.writeLong(version);
       transport.writeArray(value);
-      transport.flush();
+      return params;
+   }
 
-      return returnVersionedOperationResponse(transport, params);
+   @Override
+   public VersionedOperationResponse readResponseBody(Transport transport, HeaderParams params, short status) {
+      return returnVersionedOperationResponse(transport, status);
    }
 }
@@ -5,6 +5,7 @@
 
 import org.infinispan.client.hotrod.configuration.ClientIntelligence;
 import org.infinispan.client.hotrod.impl.protocol.Codec;
+import org.infinispan.client.hotrod.impl.protocol.HeaderParams;
 import org.infinispan.client.hotrod.impl.transport.Transport;
 import org.infinispan.client.hotrod.impl.transport.TransportFactory;
 
@@ -18,7 +19,7 @@
  * @since 4.1
  */
 @Immutable
-public class ReplaceOperation<V> extends AbstractKeyValueOperation<V> {
+public class ReplaceOperation<V> extends AbstractKeyValueOperation<V> implements PipelinedOperation<V> {
 
    public ReplaceOperation(Codec codec, TransportFactory transportFactory,
                            Object key, byte[] keyBytes, byte[] cacheName, AtomicInteger topologyId,
@@ -30,7 +31,16 @@ public ReplaceOperation(Codec codec, TransportFactory transportFactory,
 
    @Override
    protected V executeOperation(Transport transport) {
-      short status = sendPutOperation(transport, REPLACE_REQUEST, REPLACE_RESPONSE);
+      return writeRequestAndReadResponse(transport);
+   }
+
+   @Override
+   public HeaderParams writeRequest(Transport transport) {
+      return writePutRequest(transport, REPLACE_REQUEST);
+   }
+
+   @Override
+   public V readResponseBody(Transport transport, HeaderParams params, short status) {
       return returnPossiblePrevValue(transport, status);
    }
 }
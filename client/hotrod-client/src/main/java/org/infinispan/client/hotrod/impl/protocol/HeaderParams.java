@@ -64,6 +64,10 @@ public HeaderParams topologyAge(int topologyAge) {
       return this;
    }
 
+   public long getMessageId() {
+      return messageId;
+   }
+
    private short toOpRespCode(short opCode) {
       switch (opCode) {
          case HotRodConstants.PUT_REQUEST:
@@ -0,0 +1,157 @@
+package org.infinispan.client.hotrod.impl.transport.netty;
+
+import java.net.SocketAddress;
+
+import org.infinispan.client.hotrod.impl.transport.AbstractTransport;
+import org.infinispan.client.hotrod.impl.transport.TransportFactory;
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+import org.infinispan.commons.io.SignedNumeric;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+
+/**
+ * Transport that writes requests to and reads responses from a {@link ByteBuf} instead of a socket, so that the
+ * operations can be used unchanged on a {@link PipelinedChannel}.  Flushing is a no-op: the channel writes the buffer
+ * once the whole request has been written.
+ *
+ * @since 9.0
+ */
+public class ByteBufTransport extends AbstractTransport {
+   private static final Log log = LogFactory.getLog(ByteBufTransport.class, Log.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private final Channel channel;
+   private ByteBuf buf;
+
+   public ByteBufTransport(TransportFactory transportFactory, Channel channel, ByteBuf buf) {
+      super(transportFactory);
+      this.channel = channel;
+      this.buf = buf;
+   }
+
+   ByteBuf buffer() {
+      return buf;
+   }
+
+   void buffer(ByteBuf buf) {
+      this.buf = buf;
+   }
+
+   @Override
+   public void writeByte(short toWrite) {
+      buf.writeByte(toWrite);
+   }
+
+   @Override
+   public void writeVInt(int vInt) {
+      while ((vInt & ~0x7F) != 0) {
+         buf.writeByte((vInt & 0x7F) | 0x80);
+         vInt >>>= 7;
+      }
+      buf.writeByte(vInt);
+   }
+
+   @Override
+   public void writeSignedVInt(int vInt) {
+      writeVInt(SignedNumeric.encode(vInt));
+   }
+
+   @Override
+   public void writeVLong(long vLong) {
+      while ((vLong & ~0x7F) != 0) {
+         buf.writeByte((int) ((vLong & 0x7F) | 0x80));
+         vLong >>>= 7;
+      }
+      buf.writeByte((int) vLong);
+   }
+
+   @Override
+   protected void writeBytes(byte[] toAppend) {
+      buf.writeBytes(toAppend);
+   }
+
+   @Override
+   protected void writeBytes(byte[] toAppend, int offset, int count) {
+      buf.writeBytes(toAppend, offset, count);
+   }
+
+   @Override
+   public void flush() {
+      // The channel writes the buffer once the request is complete
+   }
+
+   @Override
+   public short readByte() {
+      return buf.readUnsignedByte();
+   }
+
+   @Override
+   public int readVInt() {
+      byte b = buf.readByte();
+      int i = b & 0x7F;
+      for (int shift = 7; (b & 0x80) != 0; shift += 7) {
+         b = buf.readByte();
+         i |= (b & 0x7F) << shift;
+      }
+      return i;
+   }
+
+   @Override
+   public long readVLong() {
+      byte b = buf.readByte();
+      long i = b & 0x7F;
+      for (int shift = 7; (b & 0x80) != 0; shift += 7) {
+         b = buf.readByte();
+         i |= (b & 0x7FL) << shift;
+      }
+      return i;
+   }
+
+   @Override
+   public void readByteArray(byte[] buffer, int size) {
+      buf.readBytes(buffer, 0, size);
+   }
+
+   @Override
+   public byte[] readByteArray(int size) {
+      byte[] result = new byte[size];
+      buf.readBytes(result);
+      return result;
+   }
+
+   @Override
+   public void release() {
+      // The channel is shared by all the operations
+   }
+
+   @Override
+   public byte[] dumpStream() {
+      // The rest of the stream belongs to the responses of other operations
+      return new byte[0];
+   }
+
+   @Override
+   public SocketAddress getRemoteSocketAddress() {
+      return channel.remoteAddress();
+   }
+
+   @Override
+   public void invalidate() {
+      if (trace) {
+         log.tracef("Closing invalidated channel %s", channel);
+      }
+      channel.close();
+   }
+
+   @Override
+   public boolean isValid() {
+      return channel.isActive();
+   }
+
+   @Override
+   public String toString() {
+      return "ByteBufTransport{channel=" + channel + '}';
+   }
+}
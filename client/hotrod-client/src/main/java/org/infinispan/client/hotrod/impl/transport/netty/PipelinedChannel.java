@@ -0,0 +1,285 @@
+package org.infinispan.client.hotrod.impl.transport.netty;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SNIHostName;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
+
+import org.infinispan.client.hotrod.exceptions.HotRodClientException;
+import org.infinispan.client.hotrod.exceptions.InvalidResponseException;
+import org.infinispan.client.hotrod.exceptions.TransportException;
+import org.infinispan.client.hotrod.impl.operations.PipelinedOperation;
+import org.infinispan.client.hotrod.impl.protocol.HeaderParams;
+import org.infinispan.client.hotrod.impl.transport.tcp.TcpTransportFactory;
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.handler.codec.ReplayingDecoder;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.util.concurrent.ScheduledFuture;
+
+/**
+ * A connection to a server shared by many concurrent operations.  Requests are written as soon as they are submitted
+ * without waiting for the responses to the previous ones, responses are matched to their request by message id.
+ *
+ * @since 9.0
+ */
+class PipelinedChannel {
+   private static final Log log = LogFactory.getLog(PipelinedChannel.class, Log.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private final SocketAddress address;
+   private final TcpTransportFactory transportFactory;
+   private final ChannelFuture connectFuture;
+   private final ConcurrentMap<Long, PendingRequest<?>> pendingRequests = new ConcurrentHashMap<>();
+
+   PipelinedChannel(Bootstrap bootstrap, SocketAddress address, TcpTransportFactory transportFactory) {
+      this.address = address;
+      this.transportFactory = transportFactory;
+      this.connectFuture = bootstrap.clone().handler(new ChannelInitializer<SocketChannel>() {
+         @Override
+         protected void initChannel(SocketChannel channel) {
+            SSLContext sslContext = transportFactory.getSSLContext();
+            if (sslContext != null) {
+               channel.pipeline().addLast(new SslHandler(createSslEngine(sslContext)));
+            }
+            channel.pipeline().addLast(new ResponseDecoder(channel));
+         }
+      }).connect(address);
+      connectFuture.channel().closeFuture().addListener(f ->
+            failAll(new TransportException("Connection closed", address)));
+   }
+
+   private SSLEngine createSslEngine(SSLContext sslContext) {
+      SSLEngine engine;
+      if (address instanceof InetSocketAddress) {
+         InetSocketAddress inetAddress = (InetSocketAddress) address;
+         engine = sslContext.createSSLEngine(inetAddress.getHostString(), inetAddress.getPort());
+      } else {
+         engine = sslContext.createSSLEngine();
+      }
+      engine.setUseClientMode(true);
+      String sniHostName = transportFactory.getSniHostName();
+      if (sniHostName != null) {
+         SSLParameters sslParameters = engine.getSSLParameters();
+         sslParameters.setServerNames(Collections.singletonList(new SNIHostName(sniHostName)));
+         engine.setSSLParameters(sslParameters);
+      }
+      return engine;
+   }
+
+   SocketAddress getAddress() {
+      return address;
+   }
+
+   /**
+    * @return false if the connection failed or was closed, true while it is being established or is open
+    */
+   boolean isUsable() {
+      return !connectFuture.isDone() || connectFuture.channel().isActive();
+   }
+
+   Channel getChannel() {
+      return connectFuture.channel();
+   }
+
+   /**
+    * Writes the request of the operation once the connection is established.  The returned future is completed on the
+    * event loop of the channel with the response or with the failure of the operation.
+    */
+   <T> CompletableFuture<T> send(PipelinedOperation<T> operation) {
+      CompletableFuture<T> future = new CompletableFuture<>();
+      connectFuture.addListener(f -> {
+         if (f.isSuccess()) {
+            write(operation, future);
+         } else {
+            future.completeExceptionally(new TransportException(f.cause(), address));
+         }
+      });
+      return future;
+   }
+
+   private <T> void write(PipelinedOperation<T> operation, CompletableFuture<T> future) {
+      Channel channel = connectFuture.channel();
+      ByteBuf buf = channel.alloc().buffer();
+      HeaderParams params;
+      try {
+         params = operation.writeRequest(new ByteBufTransport(transportFactory, channel, buf));
+      } catch (RuntimeException e) {
+         buf.release();
+         future.completeExceptionally(e);
+         return;
+      }
+      long messageId = params.getMessageId();
+      // Registered before writing, the response may be read before the write listener runs
+      pendingRequests.put(messageId, new PendingRequest<>(operation, params, future));
+      channel.writeAndFlush(buf).addListener(f -> {
+         if (!f.isSuccess()) {
+            pendingRequests.remove(messageId);
+            future.completeExceptionally(new TransportException(f.cause(), address));
+         }
+      });
+      int timeout = transportFactory.getSoTimeout();
+      if (timeout > 0) {
+         ScheduledFuture<?> timeoutFuture = channel.eventLoop().schedule(() -> {
+            if (pendingRequests.remove(messageId) != null) {
+               future.completeExceptionally(new TransportException(
+                     String.format("Request with message id %d timed out after %d ms", messageId, timeout), address));
+               // The response can't be skipped without its request, so the following responses can't be read either.
+               // Closing the channel fails the other requests, which are retried on another connection.
+               channel.close();
+            }
+         }, timeout, TimeUnit.MILLISECONDS);
+         future.whenComplete((r, t) -> timeoutFuture.cancel(false));
+      }
+   }
+
+   void close() {
+      connectFuture.channel().close();
+   }
+
+   private void failAll(Throwable cause) {
+      for (Long messageId : pendingRequests.keySet()) {
+         PendingRequest<?> request = pendingRequests.remove(messageId);
+         if (request != null) {
+            request.future.completeExceptionally(cause);
+         }
+      }
+   }
+
+   @Override
+   public String toString() {
+      return "PipelinedChannel{address=" + address + ", pendingRequests=" + pendingRequests.size() + '}';
+   }
+
+   private static final class PendingRequest<T> {
+      final PipelinedOperation<T> operation;
+      final HeaderParams params;
+      final CompletableFuture<T> future;
+
+      PendingRequest(PipelinedOperation<T> operation, HeaderParams params, CompletableFuture<T> future) {
+         this.operation = operation;
+         this.params = params;
+         this.future = future;
+      }
+
+      short readHeader(ByteBufTransport transport) {
+         return operation.readResponseHeader(transport, params);
+      }
+
+      void readBody(ByteBufTransport transport, short status) {
+         T response = operation.readResponseBody(transport, params, status);
+         future.complete(response);
+      }
+   }
+
+   /**
+    * Reads the responses and completes the future of their requests.  As the length of a response is only known once
+    * it has been parsed, the response is parsed again whenever more data is needed.  The header is only parsed once: a
+    * checkpoint is set after it, so that its side effects, like installing a new topology, are not repeated while the
+    * body is incomplete.
+    */
+   private final class ResponseDecoder extends ReplayingDecoder<Void> {
+      private final ByteBufTransport transport;
+      // The request whose response header was read, null while waiting for the next header
+      private PendingRequest<?> request;
+      private long messageId;
+      private short status;
+
+      ResponseDecoder(Channel channel) {
+         this.transport = new ByteBufTransport(transportFactory, channel, null);
+      }
+
+      @Override
+      protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+         transport.buffer(in);
+         if (request == null && !readHeader(ctx, in)) {
+            return;
+         }
+         try {
+            request.readBody(transport, status);
+            pendingRequests.remove(messageId);
+         } catch (InvalidResponseException | TransportException e) {
+            failRequest(ctx, in, messageId, request, e, true);
+         } catch (HotRodClientException e) {
+            failRequest(ctx, in, messageId, request, e, false);
+         } catch (RuntimeException e) {
+            failRequest(ctx, in, messageId, request, e, true);
+         }
+         // Not reached when the body is incomplete, it is read again from the checkpoint once more data is received
+         request = null;
+      }
+
+      /**
+       * @return true if the header was read and the body can be read, false if the request was failed
+       */
+      private boolean readHeader(ChannelHandlerContext ctx, ByteBuf in) {
+         int start = in.readerIndex();
+         transport.readByte(); // magic, checked when the whole header is read
+         long id = transport.readVLong();
+         PendingRequest<?> pending = pendingRequests.get(id);
+         if (pending == null) {
+            // Includes the errors the server couldn't relate to a request, the stream can't be trusted anymore
+            failAll(new InvalidResponseException(String.format("Unexpected message id %d received from %s",
+                  id, address)));
+            in.skipBytes(actualReadableBytes());
+            ctx.close();
+            return false;
+         }
+         in.readerIndex(start);
+         try {
+            status = pending.readHeader(transport);
+         } catch (InvalidResponseException | TransportException e) {
+            failRequest(ctx, in, id, pending, e, true);
+            return false;
+         } catch (HotRodClientException e) {
+            // An error response that was read completely, the following responses can still be read
+            failRequest(ctx, in, id, pending, e, false);
+            return false;
+         } catch (RuntimeException e) {
+            failRequest(ctx, in, id, pending, e, true);
+            return false;
+         }
+         checkpoint();
+         messageId = id;
+         request = pending;
+         return true;
+      }
+
+      private void failRequest(ChannelHandlerContext ctx, ByteBuf in, long messageId, PendingRequest<?> request,
+            RuntimeException e, boolean close) {
+         pendingRequests.remove(messageId);
+         request.future.completeExceptionally(e);
+         if (close) {
+            if (trace) {
+               log.tracef(e, "Closing channel to %s after failing to read the response to message id %d",
+                     address, messageId);
+            }
+            in.skipBytes(actualReadableBytes());
+            ctx.close();
+         }
+      }
+
+      @Override
+      public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+         failAll(new TransportException(cause, address));
+         ctx.close();
+      }
+   }
+}
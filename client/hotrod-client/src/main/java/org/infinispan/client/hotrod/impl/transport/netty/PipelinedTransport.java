@@ -0,0 +1,157 @@
+package org.infinispan.client.hotrod.impl.transport.netty;
+
+import java.net.SocketAddress;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.infinispan.client.hotrod.exceptions.RemoteIllegalLifecycleStateException;
+import org.infinispan.client.hotrod.exceptions.RemoteNodeSuspectException;
+import org.infinispan.client.hotrod.exceptions.TransportException;
+import org.infinispan.client.hotrod.impl.operations.PipelinedOperation;
+import org.infinispan.client.hotrod.impl.transport.tcp.TcpTransportFactory;
+import org.infinispan.client.hotrod.logging.Log;
+import org.infinispan.client.hotrod.logging.LogFactory;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+/**
+ * Executes {@link PipelinedOperation}s asynchronously over a few connections per server that are shared by all the
+ * operations.  Unlike the pooled connections of {@link TcpTransportFactory}, a connection isn't held while waiting
+ * for a response, so the number of operations in flight isn't bound by the number of connections or threads.
+ * <p>
+ * The server is chosen and failed requests are retried like {@link
+ * org.infinispan.client.hotrod.impl.operations.RetryOnFailureOperation} does, except that the client never switches
+ * to another cluster.  The returned futures are completed on the asynchronous executor, so that the I/O threads are
+ * never blocked by the callbacks of the user.
+ *
+ * @since 9.0
+ */
+public class PipelinedTransport {
+   private static final Log log = LogFactory.getLog(PipelinedTransport.class, Log.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private final TcpTransportFactory transportFactory;
+   private final ExecutorService executorService;
+   private final int connectionsPerServer;
+   private final EventLoopGroup eventLoopGroup;
+   private final Bootstrap bootstrap;
+   private final ConcurrentMap<SocketAddress, AtomicReferenceArray<PipelinedChannel>> channels =
+         new ConcurrentHashMap<>();
+   private final AtomicInteger nextChannel = new AtomicInteger();
+
+   public PipelinedTransport(TcpTransportFactory transportFactory, ExecutorService executorService,
+         int connectionsPerServer) {
+      this.transportFactory = transportFactory;
+      this.executorService = executorService;
+      this.connectionsPerServer = connectionsPerServer;
+      this.eventLoopGroup = new NioEventLoopGroup(0, new DefaultThreadFactory("HotRod-client-event-loop", true));
+      this.bootstrap = new Bootstrap()
+            .group(eventLoopGroup)
+            .channel(NioSocketChannel.class)
+            .option(ChannelOption.TCP_NODELAY, transportFactory.isTcpNoDelay())
+            .option(ChannelOption.SO_KEEPALIVE, transportFactory.isTcpKeepAlive())
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, transportFactory.getConnectTimeout());
+   }
+
+   public <T> CompletableFuture<T> execute(PipelinedOperation<T> operation) {
+      CompletableFuture<T> result = new CompletableFuture<>();
+      execute(operation, result, 0, null);
+      return result;
+   }
+
+   private <T> void execute(PipelinedOperation<T> operation, CompletableFuture<T> result, int retryCount,
+         Set<SocketAddress> failedServers) {
+      PipelinedChannel channel;
+      try {
+         SocketAddress server = transportFactory.getServer(operation.getRoutingKey(), failedServers,
+               operation.getCacheName());
+         channel = getChannel(server);
+      } catch (RuntimeException e) {
+         complete(result, null, e);
+         return;
+      }
+      channel.send(operation).whenComplete((response, throwable) -> {
+         if (throwable != null && retryCount < transportFactory.getMaxRetries() && isRetriable(throwable)) {
+            if (trace) {
+               log.tracef(throwable, "Exception encountered. Retry %d out of %d", retryCount,
+                     transportFactory.getMaxRetries());
+            }
+            Set<SocketAddress> servers = failedServers;
+            // The server reporting that another node is suspected is still fine
+            if (!(throwable instanceof RemoteNodeSuspectException)) {
+               servers = failedServers == null ? new HashSet<>() : failedServers;
+               servers.add(channel.getAddress());
+            }
+            execute(operation, result, retryCount + 1, servers);
+         } else {
+            complete(result, response, throwable);
+         }
+      });
+   }
+
+   private static boolean isRetriable(Throwable throwable) {
+      return throwable instanceof TransportException || throwable instanceof RemoteIllegalLifecycleStateException
+            || throwable instanceof RemoteNodeSuspectException;
+   }
+
+   private <T> void complete(CompletableFuture<T> result, T response, Throwable throwable) {
+      try {
+         executorService.execute(() -> {
+            if (throwable == null) {
+               result.complete(response);
+            } else {
+               result.completeExceptionally(throwable);
+            }
+         });
+      } catch (RejectedExecutionException e) {
+         // The remote cache manager is being stopped
+         result.completeExceptionally(throwable == null ? e : throwable);
+      }
+   }
+
+   private PipelinedChannel getChannel(SocketAddress server) {
+      AtomicReferenceArray<PipelinedChannel> serverChannels = channels.computeIfAbsent(server,
+            s -> new AtomicReferenceArray<>(connectionsPerServer));
+      int index = (nextChannel.getAndIncrement() & Integer.MAX_VALUE) % connectionsPerServer;
+      PipelinedChannel channel = serverChannels.get(index);
+      if (channel == null || !channel.isUsable()) {
+         synchronized (serverChannels) {
+            channel = serverChannels.get(index);
+            if (channel == null || !channel.isUsable()) {
+               if (trace) {
+                  log.tracef("Opening connection %d to %s for asynchronous operations", index, server);
+               }
+               channel = new PipelinedChannel(bootstrap, server, transportFactory);
+               serverChannels.set(index, channel);
+            }
+         }
+      }
+      return channel;
+   }
+
+   public void stop() {
+      for (AtomicReferenceArray<PipelinedChannel> serverChannels : channels.values()) {
+         for (int i = 0; i < serverChannels.length(); ++i) {
+            PipelinedChannel channel = serverChannels.get(i);
+            if (channel != null) {
+               channel.close();
+            }
+         }
+      }
+      channels.clear();
+      eventLoopGroup.shutdownGracefully(0, 0, TimeUnit.MILLISECONDS);
+   }
+}
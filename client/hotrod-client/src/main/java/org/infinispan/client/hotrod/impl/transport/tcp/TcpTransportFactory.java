@@ -280,13 +280,19 @@ public SocketAddress getSocketAddress(Object key, byte[] cacheName) {
    }
 
    public Transport getTransport(Object key, Set<SocketAddress> failedServers, byte[] cacheName) {
-      SocketAddress server;
+      return borrowTransportFromPool(getServer(key, failedServers, cacheName));
+   }
+
+   /**
+    * Finds the server a request for the given key should be sent to: the owner of the key if known and not failed,
+    * otherwise the next server chosen by the balancer.
+    */
+   public SocketAddress getServer(Object key, Set<SocketAddress> failedServers, byte[] cacheName) {
       synchronized (lock) {
          Optional<SocketAddress> hashAwareServer = topologyInfo.getHashAwareServer(key, cacheName);
          Optional<SocketAddress> filtered = hashAwareServer.filter(a -> failedServers == null || !failedServers.contains(a));
-         server = filtered.orElse(getNextServer(failedServers, cacheName));
+         return filtered.orElse(getNextServer(failedServers, cacheName));
       }
-      return borrowTransportFromPool(server);
    }
 
    @Override
@@ -252,4 +252,11 @@ public interface Log extends BasicLogger {
    @LogMessage(level = WARN)
    @Message(value = "Unable to convert property [%s] to an enum! Using default value of %d", id = 4066)
    void unableToConvertStringPropertyToEnum(String value, String defaultValue);
+
+   @Message(value = "Invalid async_connections_per_server (value=%s). Value should be greater or equal than zero.", id = 4067)
+   CacheConfigurationException invalidAsyncConnectionsPerServer(int asyncConnectionsPerServer);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Asynchronous operations are not pipelined as they aren't supported with authentication or with transport factory %s", id = 4068)
+   void asyncPipeliningNotSupported(String transportFactory);
 }
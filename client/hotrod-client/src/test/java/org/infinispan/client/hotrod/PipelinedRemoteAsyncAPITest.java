@@ -0,0 +1,44 @@
+package org.infinispan.client.hotrod;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.infinispan.client.hotrod.configuration.ConfigurationBuilder;
+import org.infinispan.client.hotrod.test.InternalRemoteCacheManager;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the asynchronous operations when their requests are pipelined on shared connections.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "client.hotrod.PipelinedRemoteAsyncAPITest")
+public class PipelinedRemoteAsyncAPITest extends RemoteAsyncAPITest {
+
+   @Override
+   protected RemoteCacheManager getRemoteCacheManager() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.forceReturnValues(isForceReturnValuesViaConfiguration());
+      builder.asyncConnectionsPerServer(2);
+      builder.addServer().host("127.0.0.1").port(hotrodServer.getPort());
+      return new InternalRemoteCacheManager(builder.build());
+   }
+
+   public void testManyConcurrentOperations() throws Exception {
+      int count = 1000;
+      CompletableFuture<?>[] puts = new CompletableFuture[count];
+      for (int i = 0; i < count; i++) {
+         puts[i] = remote().putAsync("k" + i, "v" + i);
+      }
+      CompletableFuture.allOf(puts).get();
+
+      CompletableFuture<String>[] gets = new CompletableFuture[count];
+      for (int i = 0; i < count; i++) {
+         gets[i] = remote().getAsync("k" + i);
+      }
+      for (int i = 0; i < count; i++) {
+         assertEquals("v" + i, gets[i].get());
+      }
+   }
+}
@@ -104,7 +104,7 @@ public interface Ids {
    int CLUSTER_EVENT = 66;
    int CLUSTER_LISTENER_REMOVE_CALLABLE = 67;
    int CLUSTER_LISTENER_REPLICATE_CALLABLE = 68;
-   int CLUSTER_EVENT_CALLABLE = 69;
+   // 69 was CLUSTER_EVENT_CALLABLE, superseded by ClusterEventCommand in 9.0 - do not reuse
    int X_SITE_STATE = 70;
    int COMPOSITE_KEY_VALUE_FILTER = 71;
    int CACHE_STATUS_RESPONSE = 72;
@@ -117,7 +117,7 @@ public interface Ids {
    int COMPOSITE_KEY_FILTER = 79;
    int KEY_VALUE_FILTER_AS_KEY_FILTER = 80;
    int MANAGER_STATUS_RESPONSE = 81;
-   int MULTI_CLUSTER_EVENT_CALLABLE = 82;
+   // 82 was MULTI_CLUSTER_EVENT_CALLABLE, superseded by ClusterEventCommand in 9.0 - do not reuse
 
    int EQUIVALENCE = 83;
 
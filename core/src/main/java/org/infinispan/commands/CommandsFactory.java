@@ -73,6 +73,8 @@
 import org.infinispan.factories.scopes.Scopes;
 import org.infinispan.functional.impl.Params;
 import org.infinispan.metadata.Metadata;
+import org.infinispan.notifications.cachelistener.cluster.ClusterEvent;
+import org.infinispan.notifications.cachelistener.cluster.ClusterEventCommand;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.statetransfer.StateChunk;
 import org.infinispan.statetransfer.StateRequestCommand;
@@ -508,4 +510,12 @@ <K, V> WriteOnlyKeyValueCommand<K, V> buildWriteOnlyKeyValueCommand(
    ExceptionAckCommand buildExceptionAckCommand(CommandInvocationId id, Throwable throwable, int topologyId);
 
    BackupWriteRcpCommand buildBackupWriteRcpCommand(DataWriteCommand command);
+
+   /**
+    * Builds {@link ClusterEventCommand} used to deliver a batch of events to the node where the cluster listeners
+    * identified by the keys of the map were registered.
+    *
+    * @param events the events to deliver, grouped by cluster listener identifier
+    */
+   <K, V> ClusterEventCommand<K, V> buildClusterEventCommand(Map<UUID, Collection<ClusterEvent<K, V>>> events);
 }
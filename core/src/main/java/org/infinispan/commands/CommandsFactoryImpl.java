@@ -98,6 +98,9 @@
 import org.infinispan.marshall.core.GlobalMarshaller;
 import org.infinispan.metadata.Metadata;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
+import org.infinispan.notifications.cachelistener.cluster.ClusterCacheNotifier;
+import org.infinispan.notifications.cachelistener.cluster.ClusterEvent;
+import org.infinispan.notifications.cachelistener.cluster.ClusterEventCommand;
 import org.infinispan.partitionhandling.impl.PartitionHandlingManager;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.statetransfer.StateChunk;
@@ -527,6 +530,9 @@ public void initializeReplicableCommand(ReplicableCommand c, boolean isRemote) {
          case ExceptionAckCommand.COMMAND_ID:
             ((ExceptionAckCommand) c).setCommandAckCollector(commandAckCollector);
             break;
+         case ClusterEventCommand.COMMAND_ID:
+            ((ClusterEventCommand) c).init(cache, (ClusterCacheNotifier) notifier);
+            break;
          default:
             ModuleCommandInitializer mci = moduleCommandInitializers.get(c.getCommandId());
             if (mci != null) {
@@ -758,6 +764,11 @@ public ExceptionAckCommand buildExceptionAckCommand(CommandInvocationId id, Thro
       return new ExceptionAckCommand(cacheName, id, throwable, topologyId);
    }
 
+   @Override
+   public <K, V> ClusterEventCommand<K, V> buildClusterEventCommand(Map<UUID, Collection<ClusterEvent<K, V>>> events) {
+      return new ClusterEventCommand<>(cacheName, events);
+   }
+
    @Override
    public BackupWriteRcpCommand buildBackupWriteRcpCommand(DataWriteCommand command) {
       BackupWriteRcpCommand cmd = new BackupWriteRcpCommand(cacheName);
@@ -60,6 +60,7 @@
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.manager.impl.ReplicableCommandManagerFunction;
 import org.infinispan.manager.impl.ReplicableCommandRunnable;
+import org.infinispan.notifications.cachelistener.cluster.ClusterEventCommand;
 import org.infinispan.statetransfer.StateRequestCommand;
 import org.infinispan.statetransfer.StateResponseCommand;
 import org.infinispan.stream.impl.StreamRequestCommand;
@@ -324,6 +325,9 @@ public CacheRpcCommand fromStream(byte id, byte type, ByteString cacheName) {
             case BackupWriteRcpCommand.COMMAND_ID:
                command = new BackupWriteRcpCommand(cacheName);
                break;
+            case ClusterEventCommand.COMMAND_ID:
+               command = new ClusterEventCommand<>(cacheName);
+               break;
             default:
                throw new CacheException("Unknown command id " + id + "!");
          }
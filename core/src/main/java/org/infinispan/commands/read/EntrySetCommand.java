@@ -4,6 +4,9 @@
 import java.util.Map;
 import java.util.Set;
 import java.util.Spliterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.infinispan.Cache;
 import org.infinispan.CacheSet;
@@ -14,6 +17,7 @@
 import org.infinispan.commons.util.CloseableSpliterator;
 import org.infinispan.commons.util.Closeables;
 import org.infinispan.container.DataContainer;
+import org.infinispan.container.SegmentedDataContainer;
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.container.entries.ForwardingCacheEntry;
 import org.infinispan.context.Flag;
@@ -131,16 +135,27 @@ private ConsistentHash getConsistentHash(Cache<K, V> cache) {
          return null;
       }
 
+      private Function<Set<Integer>, Stream<CacheEntry<K, V>>> getSegmentedSupplier() {
+         DataContainer<K, V> dc = cache.getAdvancedCache().getDataContainer();
+         if (dc instanceof SegmentedDataContainer) {
+            SegmentedDataContainer<K, V> sdc = (SegmentedDataContainer<K, V>) dc;
+            return segments -> StreamSupport.stream(Closeables.spliterator(Closeables.iterator(
+                  new DataContainerRemoveIterator<>(cache, sdc.iterator(segments))), sdc.sizeIncludingExpired(segments),
+                  Spliterator.CONCURRENT | Spliterator.NONNULL | Spliterator.DISTINCT), false);
+         }
+         return null;
+      }
+
       @Override
       public CacheStream<CacheEntry<K, V>> stream() {
          return new LocalCacheStream<>(new EntryStreamSupplier<>(cache, getConsistentHash(cache),
-                 () -> super.stream()), false, cache.getAdvancedCache().getComponentRegistry());
+                 () -> super.stream(), getSegmentedSupplier()), false, cache.getAdvancedCache().getComponentRegistry());
       }
 
       @Override
       public CacheStream<CacheEntry<K, V>> parallelStream() {
          return new LocalCacheStream<>(new EntryStreamSupplier<>(cache, getConsistentHash(cache),
-                 () -> super.stream()), true, cache.getAdvancedCache().getComponentRegistry());
+                 () -> super.stream(), getSegmentedSupplier()), true, cache.getAdvancedCache().getComponentRegistry());
       }
    }
 
@@ -3,6 +3,8 @@
 import java.util.Iterator;
 import java.util.Set;
 import java.util.Spliterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import org.infinispan.Cache;
@@ -13,6 +15,8 @@
 import org.infinispan.commons.util.CloseableIterator;
 import org.infinispan.commons.util.CloseableSpliterator;
 import org.infinispan.commons.util.Closeables;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.SegmentedDataContainer;
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
@@ -96,11 +100,22 @@ public boolean remove(Object o) {
          return cache.remove(o) != null;
       }
 
+      private Function<Set<Integer>, Stream<K>> getSegmentedSupplier() {
+         DataContainer<K, V> dc = cache.getAdvancedCache().getDataContainer();
+         if (dc instanceof SegmentedDataContainer) {
+            SegmentedDataContainer<K, V> sdc = (SegmentedDataContainer<K, V>) dc;
+            return segments -> StreamSupport.stream(Closeables.spliterator(new EntryToKeyIterator<>(
+                  new DataContainerRemoveIterator<>(cache, sdc.iterator(segments))), sdc.sizeIncludingExpired(segments),
+                  Spliterator.CONCURRENT | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+         }
+         return null;
+      }
+
       @Override
       public CacheStream<K> stream() {
          DistributionManager dm = cache.getAdvancedCache().getDistributionManager();
          return new LocalCacheStream<>(new KeyStreamSupplier<>(cache, dm != null ? dm.getConsistentHash() : null,
-                 () -> StreamSupport.stream(spliterator(), false)), false,
+                 () -> StreamSupport.stream(spliterator(), false), getSegmentedSupplier()), false,
                  cache.getAdvancedCache().getComponentRegistry());
       }
 
@@ -108,7 +123,7 @@ public CacheStream<K> stream() {
       public CacheStream<K> parallelStream() {
          DistributionManager dm = cache.getAdvancedCache().getDistributionManager();
          return new LocalCacheStream<>(new KeyStreamSupplier<>(cache, dm != null ? dm.getConsistentHash() : null,
-                 () -> StreamSupport.stream(spliterator(), false)), true,
+                 () -> StreamSupport.stream(spliterator(), false), getSegmentedSupplier()), true,
                  cache.getAdvancedCache().getComponentRegistry());
       }
    }
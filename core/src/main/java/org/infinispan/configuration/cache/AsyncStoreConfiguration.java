@@ -15,14 +15,18 @@ public class AsyncStoreConfiguration {
    public static final AttributeDefinition<Boolean> ENABLED = AttributeDefinition.builder("enabled", false).immutable().build();
    public static final AttributeDefinition<Integer> MODIFICATION_QUEUE_SIZE  = AttributeDefinition.builder("modificationQueueSize", 1024).immutable().build();
    public static final AttributeDefinition<Integer> THREAD_POOL_SIZE = AttributeDefinition.builder("threadPoolSize", 1).immutable().build();
+   public static final AttributeDefinition<ModificationQueueFullPolicy> MODIFICATION_QUEUE_FULL_POLICY = AttributeDefinition.builder("modificationQueueFullPolicy", ModificationQueueFullPolicy.BLOCK).immutable().build();
+   public static final AttributeDefinition<Boolean> OFF_HEAP = AttributeDefinition.builder("offHeap", false).immutable().build();
 
    static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(AsyncStoreConfiguration.class, ENABLED, MODIFICATION_QUEUE_SIZE, THREAD_POOL_SIZE);
+      return new AttributeSet(AsyncStoreConfiguration.class, ENABLED, MODIFICATION_QUEUE_SIZE, THREAD_POOL_SIZE, MODIFICATION_QUEUE_FULL_POLICY, OFF_HEAP);
    }
 
    private final Attribute<Boolean> enabled;
    private final Attribute<Integer> modificationQueueSize;
    private final Attribute<Integer> threadPoolSize;
+   private final Attribute<ModificationQueueFullPolicy> modificationQueueFullPolicy;
+   private final Attribute<Boolean> offHeap;
 
    private final AttributeSet attributes;
 
@@ -31,6 +35,8 @@ static AttributeSet attributeDefinitionSet() {
       enabled = attributes.attribute(ENABLED);
       modificationQueueSize = attributes.attribute(MODIFICATION_QUEUE_SIZE);
       threadPoolSize = attributes.attribute(THREAD_POOL_SIZE);
+      modificationQueueFullPolicy = attributes.attribute(MODIFICATION_QUEUE_FULL_POLICY);
+      offHeap = attributes.attribute(OFF_HEAP);
    }
 
    /**
@@ -66,6 +72,20 @@ public int modificationQueueSize() {
       return modificationQueueSize.get();
    }
 
+   /**
+    * What happens to the modifications that do not fit in the modification queue.
+    */
+   public ModificationQueueFullPolicy modificationQueueFullPolicy() {
+      return modificationQueueFullPolicy.get();
+   }
+
+   /**
+    * Whether the marshalled entries in the modification queue are kept outside of the Java heap.
+    */
+   public boolean offHeap() {
+      return offHeap.get();
+   }
+
    /**
     * Unused
     */
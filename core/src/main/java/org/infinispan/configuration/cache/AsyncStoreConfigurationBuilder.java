@@ -1,7 +1,9 @@
 package org.infinispan.configuration.cache;
 
 import static org.infinispan.configuration.cache.AsyncStoreConfiguration.ENABLED;
+import static org.infinispan.configuration.cache.AsyncStoreConfiguration.MODIFICATION_QUEUE_FULL_POLICY;
 import static org.infinispan.configuration.cache.AsyncStoreConfiguration.MODIFICATION_QUEUE_SIZE;
+import static org.infinispan.configuration.cache.AsyncStoreConfiguration.OFF_HEAP;
 import static org.infinispan.configuration.cache.AsyncStoreConfiguration.THREAD_POOL_SIZE;
 
 import java.util.concurrent.TimeUnit;
@@ -70,6 +72,26 @@ public AsyncStoreConfigurationBuilder<S> modificationQueueSize(int i) {
       return this;
    }
 
+   /**
+    * Sets what happens to the modifications that do not fit in the modification queue: the caller can wait for the
+    * queue to accept more elements (the default), the modification can fail, or it can be written to the underlying
+    * cache store synchronously.
+    */
+   public AsyncStoreConfigurationBuilder<S> modificationQueueFullPolicy(ModificationQueueFullPolicy policy) {
+      attributes.attribute(MODIFICATION_QUEUE_FULL_POLICY).set(policy);
+      return this;
+   }
+
+   /**
+    * If true, the marshalled entries waiting in the modification queue are copied outside of the Java heap, so that
+    * the queue does not keep the values alive while the underlying cache store is slow. The values are unmarshalled
+    * again when they are read from the queue.
+    */
+   public AsyncStoreConfigurationBuilder<S> offHeap(boolean offHeap) {
+      attributes.attribute(OFF_HEAP).set(offHeap);
+      return this;
+   }
+
    /**
     * Unused.
     */
@@ -6,6 +6,7 @@
 import org.infinispan.commons.configuration.attributes.AttributeSet;
 import org.infinispan.commons.configuration.attributes.IdentityAttributeCopier;
 import org.infinispan.container.StorageType;
+import org.infinispan.container.offheap.OffHeapAllocatorType;
 import org.infinispan.eviction.EvictionType;
 
 /**
@@ -19,16 +20,19 @@ public class MemoryConfiguration {
          .builder("storage", StorageType.OBJECT).copier(IdentityAttributeCopier.INSTANCE).immutable().build();
    public static final AttributeDefinition<Long> SIZE  = AttributeDefinition.builder("size", -1l).build();
    public static final AttributeDefinition<EvictionType> EVICTION_TYPE  = AttributeDefinition.builder("type", EvictionType.COUNT).build();
+   public static final AttributeDefinition<OffHeapAllocatorType> ALLOCATOR_TYPE = AttributeDefinition
+         .builder("allocator", OffHeapAllocatorType.UNPOOLED).immutable().build();
 
    static public AttributeSet attributeDefinitionSet() {
       return new AttributeSet(MemoryConfiguration.class, AbstractTypedPropertiesConfiguration.attributeSet(),
-            STORAGE_TYPE, SIZE, EVICTION_TYPE, ADDRESS_COUNT);
+            STORAGE_TYPE, SIZE, EVICTION_TYPE, ADDRESS_COUNT, ALLOCATOR_TYPE);
    }
 
    private final Attribute<Long> size;
    private final Attribute<EvictionType> evictionType;
    private final Attribute<StorageType> storageType;
    private final Attribute<Integer> addressCount;
+   private final Attribute<OffHeapAllocatorType> allocatorType;
    private final AttributeSet attributes;
 
    MemoryConfiguration(AttributeSet attributes) {
@@ -37,6 +41,7 @@ static public AttributeSet attributeDefinitionSet() {
       size = attributes.attribute(SIZE);
       evictionType = attributes.attribute(EVICTION_TYPE);
       addressCount = attributes.attribute(ADDRESS_COUNT);
+      allocatorType = attributes.attribute(ALLOCATOR_TYPE);
    }
 
    /**
@@ -75,6 +80,14 @@ public int addressCount() {
       return addressCount.get();
    }
 
+   /**
+    * The allocator used for off-heap entries
+    * @return
+    */
+   public OffHeapAllocatorType allocatorType() {
+      return allocatorType.get();
+   }
+
    public AttributeSet attributes() {
       return attributes;
    }
@@ -1,6 +1,7 @@
 package org.infinispan.configuration.cache;
 
 import static org.infinispan.configuration.cache.MemoryConfiguration.ADDRESS_COUNT;
+import static org.infinispan.configuration.cache.MemoryConfiguration.ALLOCATOR_TYPE;
 import static org.infinispan.configuration.cache.MemoryConfiguration.EVICTION_TYPE;
 import static org.infinispan.configuration.cache.MemoryConfiguration.SIZE;
 import static org.infinispan.configuration.cache.MemoryConfiguration.STORAGE_TYPE;
@@ -10,6 +11,7 @@
 import org.infinispan.commons.configuration.attributes.AttributeSet;
 import org.infinispan.configuration.global.GlobalConfiguration;
 import org.infinispan.container.StorageType;
+import org.infinispan.container.offheap.OffHeapAllocatorType;
 import org.infinispan.eviction.EvictionType;
 
 /**
@@ -66,10 +68,11 @@ public MemoryConfigurationBuilder evictionType(EvictionType type) {
    }
 
    /**
-    * Configuration setting when using off-heap that defines how many address pointers there are.
+    * Configuration setting when using off-heap that defines how many address pointers there are initially.
     * This number will be rounded up to the next power of two.  This helps performance in that the
     * more address pointers there are the less collisions there will be which improve performance of
-    * both read and write operations.
+    * both read and write operations.  The amount of address pointers is doubled whenever there are more
+    * than 0.75 entries per pointer.
     * @param addressCount
     * @return this
     */
@@ -78,6 +81,21 @@ public MemoryConfigurationBuilder addressCount(int addressCount) {
       return this;
    }
 
+   /**
+    * Configuration setting when using off-heap that defines how the memory for entries is allocated.
+    * <ul>
+    * <li>UNPOOLED - every entry is allocated and freed directly from the operating system</li>
+    * <li>POOLED - entries are carved out of size-classed slabs which are reused when an entry is freed, avoiding a
+    * native allocation on every write at the cost of holding on to the slabs until the cache is stopped</li>
+    * </ul>
+    * @param allocatorType
+    * @return this
+    */
+   public MemoryConfigurationBuilder allocatorType(OffHeapAllocatorType allocatorType) {
+      attributes.attribute(ALLOCATOR_TYPE).set(allocatorType);
+      return this;
+   }
+
    @Override
    public void validate() {
       StorageType type = attributes.attribute(STORAGE_TYPE).get();
@@ -87,8 +105,8 @@ public void validate() {
       long size = attributes.attribute(SIZE).get();
       if (size > 0) {
          EvictionType evictionType = attributes.attribute(EVICTION_TYPE).get();
-         if (evictionType == EvictionType.MEMORY && type != StorageType.BINARY) {
-            throw new CacheConfigurationException("MEMORY based eviction requires binary but was : " + type);
+         if (evictionType == EvictionType.MEMORY && type == StorageType.OBJECT) {
+            throw new CacheConfigurationException("MEMORY based eviction requires binary or off-heap but was : " + type);
          }
       }
    }
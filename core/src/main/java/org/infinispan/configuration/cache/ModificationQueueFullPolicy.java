@@ -0,0 +1,21 @@
+package org.infinispan.configuration.cache;
+
+/**
+ * Defines what happens to a modification of a write-behind store when its modification queue is full.
+ *
+ * @since 9.0
+ */
+public enum ModificationQueueFullPolicy {
+   /**
+    * Wait until the queue can accept the modification.
+    */
+   BLOCK,
+   /**
+    * Fail the modification.
+    */
+   REJECT,
+   /**
+    * Write the modification to the store synchronously, if no older modification of the same key is still queued.
+    */
+   WRITE_THROUGH
+}
@@ -17,15 +17,20 @@ public class StateTransferConfiguration {
    public static final AttributeDefinition<Boolean> FETCH_IN_MEMORY_STATE = AttributeDefinition.builder("fetchInMemoryState", true).xmlName("enabled").immutable().build();
    public static final AttributeDefinition<Long> TIMEOUT = AttributeDefinition.builder("timeout", TimeUnit.MINUTES.toMillis(4)).immutable().build();
    public static final AttributeDefinition<Integer> CHUNK_SIZE = AttributeDefinition.builder("chunkSize", 512).immutable().build();
+   public static final AttributeDefinition<Integer> CHUNK_BYTES = AttributeDefinition.builder("chunkBytes", 8 * 1024 * 1024).immutable().build();
+   public static final AttributeDefinition<Long> MAX_BANDWIDTH = AttributeDefinition.builder("maxBandwidth", 0L).immutable().build();
 
    static final AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(StoreAsBinaryConfiguration.class, FETCH_IN_MEMORY_STATE, TIMEOUT, CHUNK_SIZE, AWAIT_INITIAL_TRANSFER);
+      return new AttributeSet(StoreAsBinaryConfiguration.class, FETCH_IN_MEMORY_STATE, TIMEOUT, CHUNK_SIZE, CHUNK_BYTES,
+            MAX_BANDWIDTH, AWAIT_INITIAL_TRANSFER);
    }
 
    private final Attribute<Boolean> awaitInitialTransfer;
    private final Attribute<Boolean> fetchInMemoryState;
    private final Attribute<Long> timeout;
    private final Attribute<Integer> chunkSize;
+   private final Attribute<Integer> chunkBytes;
+   private final Attribute<Long> maxBandwidth;
    private final AttributeSet attributes;
 
    StateTransferConfiguration(AttributeSet attributes) {
@@ -34,6 +39,8 @@ static final AttributeSet attributeDefinitionSet() {
       fetchInMemoryState = attributes.attribute(FETCH_IN_MEMORY_STATE);
       timeout = attributes.attribute(TIMEOUT);
       chunkSize = attributes.attribute(CHUNK_SIZE);
+      chunkBytes = attributes.attribute(CHUNK_BYTES);
+      maxBandwidth = attributes.attribute(MAX_BANDWIDTH);
    }
 
    /**
@@ -73,6 +80,24 @@ public int chunkSize() {
       return chunkSize.get();
    }
 
+   /**
+    * The estimated size in bytes of the entries above which a batch is sent even if it has less than
+    * {@code chunkSize} entries. A node receiving state from several nodes at once asks each of them to send smaller
+    * batches, so that the state waiting to be applied stays around this size. If 0, only {@code chunkSize} limits
+    * the batches.
+    */
+   public int chunkBytes() {
+      return chunkBytes.get();
+   }
+
+   /**
+    * The maximum number of bytes per second that this node sends for the state transfer of this cache, so that
+    * rebalancing does not saturate the network used by the regular operations. If 0, the bandwidth is not limited.
+    */
+   public long maxBandwidth() {
+      return maxBandwidth.get();
+   }
+
    /**
     * If {@code true}, this will cause the first call to method {@code CacheManager.getCache()} on the joiner node to
     * block and wait until the joining is complete and the cache has finished receiving state from neighboring caches
@@ -1,8 +1,10 @@
 package org.infinispan.configuration.cache;
 
 import static org.infinispan.configuration.cache.StateTransferConfiguration.AWAIT_INITIAL_TRANSFER;
+import static org.infinispan.configuration.cache.StateTransferConfiguration.CHUNK_BYTES;
 import static org.infinispan.configuration.cache.StateTransferConfiguration.CHUNK_SIZE;
 import static org.infinispan.configuration.cache.StateTransferConfiguration.FETCH_IN_MEMORY_STATE;
+import static org.infinispan.configuration.cache.StateTransferConfiguration.MAX_BANDWIDTH;
 import static org.infinispan.configuration.cache.StateTransferConfiguration.TIMEOUT;
 
 import java.util.concurrent.TimeUnit;
@@ -67,6 +69,26 @@ public StateTransferConfigurationBuilder chunkSize(int i) {
       return this;
    }
 
+   /**
+    * The estimated size in bytes of the entries above which a batch is sent even if it has less than
+    * {@code chunkSize} entries. A node receiving state from several nodes at once asks each of them to send smaller
+    * batches, so that the state waiting to be applied stays around this size. If 0, only {@code chunkSize} limits
+    * the batches.
+    */
+   public StateTransferConfigurationBuilder chunkBytes(int bytes) {
+      attributes.attribute(CHUNK_BYTES).set(bytes);
+      return this;
+   }
+
+   /**
+    * The maximum number of bytes per second that this node sends for the state transfer of this cache, so that
+    * rebalancing does not saturate the network used by the regular operations. If 0, the bandwidth is not limited.
+    */
+   public StateTransferConfigurationBuilder maxBandwidth(long bytesPerSecond) {
+      attributes.attribute(MAX_BANDWIDTH).set(bytesPerSecond);
+      return this;
+   }
+
    /**
     * This is the maximum amount of time - in milliseconds - to wait for state from neighboring
     * caches, before throwing an exception and aborting startup.
@@ -89,6 +111,12 @@ public void validate() {
       if (attributes.attribute(CHUNK_SIZE).get() <= 0) {
          throw new CacheConfigurationException("chunkSize can not be <= 0");
       }
+      if (attributes.attribute(CHUNK_BYTES).get() < 0) {
+         throw new CacheConfigurationException("chunkBytes can not be < 0");
+      }
+      if (attributes.attribute(MAX_BANDWIDTH).get() < 0) {
+         throw new CacheConfigurationException("maxBandwidth can not be < 0");
+      }
 
       if (clustering().cacheMode().isInvalidation()) {
          Attribute<Boolean> fetchAttribute = attributes.attribute(FETCH_IN_MEMORY_STATE);
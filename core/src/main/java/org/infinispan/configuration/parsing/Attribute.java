@@ -18,6 +18,7 @@ public enum Attribute {
     ADDRESS_COUNT("address-count"),
     AFTER("after"),
     ALIASES("aliases"),
+    ALLOCATOR("allocator"),
     ALLOW_DUPLICATE_DOMAINS("duplicate-domains"),
     ASYNC_EXECUTOR("async-executor"),
     @Deprecated
@@ -29,6 +30,7 @@ public enum Attribute {
     BACKUP_FAILURE_POLICY("failure-policy"),
     BEFORE("before"),
     CAPACITY_FACTOR("capacity"),
+    CHUNK_BYTES("chunk-bytes"),
     CHUNK_SIZE("chunk-size"),
     CLASS("class"),
     CLUSTER("cluster"),
@@ -71,6 +73,7 @@ public enum Attribute {
     MACHINE_ID("machine"),
     MAPPER("mapper"),
     MARSHALLER_CLASS("marshaller"),
+    MAX_BANDWIDTH("max-bandwidth"),
     MAX_ENTRIES("max-entries"),
     MAX_IDLE("max-idle"),
     MAX_RETRIES("max-retries"),
@@ -78,11 +81,13 @@ public enum Attribute {
     MBEAN_SERVER_LOOKUP("mbean-server-lookup"),
     MODE("mode"),
     NODE_NAME("node-name"),
+    MODIFICATION_QUEUE_FULL_POLICY("modification-queue-full-policy"),
     MODIFICATION_QUEUE_SIZE("modification-queue-size"),
     MODULE("module"),
     NAME("name"),
     NAMES("names"),
     NOTIFICATIONS("notifications"),
+    OFF_HEAP("off-heap"),
     ON_REHASH("onRehash"),
     OWNERS("owners"),
     PATH("path"),
@@ -45,6 +45,7 @@
 import org.infinispan.configuration.cache.InterceptorConfiguration;
 import org.infinispan.configuration.cache.InterceptorConfigurationBuilder;
 import org.infinispan.configuration.cache.MemoryConfigurationBuilder;
+import org.infinispan.configuration.cache.ModificationQueueFullPolicy;
 import org.infinispan.configuration.cache.PartitionHandlingConfigurationBuilder;
 import org.infinispan.configuration.cache.SecurityConfigurationBuilder;
 import org.infinispan.configuration.cache.SingleFileStoreConfigurationBuilder;
@@ -60,6 +61,7 @@
 import org.infinispan.configuration.global.TransportConfigurationBuilder;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.StorageType;
+import org.infinispan.container.offheap.OffHeapAllocatorType;
 import org.infinispan.distribution.group.Grouper;
 import org.infinispan.eviction.EvictionStrategy;
 import org.infinispan.eviction.EvictionThreadPolicy;
@@ -1596,6 +1598,9 @@ private void parseOffHeapMemoryAttributes(final XMLExtendedStreamReader reader,
             case ADDRESS_COUNT:
                memoryBuilder.addressCount(Integer.parseInt(value));
                break;
+            case ALLOCATOR:
+               memoryBuilder.allocatorType(OffHeapAllocatorType.valueOf(value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -2041,6 +2046,14 @@ private void parseStateTransfer(XMLExtendedStreamReader reader, ConfigurationBui
                builder.clustering().stateTransfer().chunkSize(Integer.parseInt(value));
                break;
             }
+            case CHUNK_BYTES: {
+               builder.clustering().stateTransfer().chunkBytes(Integer.parseInt(value));
+               break;
+            }
+            case MAX_BANDWIDTH: {
+               builder.clustering().stateTransfer().maxBandwidth(Long.parseLong(value));
+               break;
+            }
             default: {
                throw ParseUtils.unexpectedAttribute(reader, i);
             }
@@ -2340,6 +2353,14 @@ public static void parseStoreWriteBehind(XMLExtendedStreamReader reader, AsyncSt
                storeBuilder.modificationQueueSize(Integer.parseInt(value));
                break;
             }
+            case MODIFICATION_QUEUE_FULL_POLICY: {
+               storeBuilder.modificationQueueFullPolicy(ModificationQueueFullPolicy.valueOf(value));
+               break;
+            }
+            case OFF_HEAP: {
+               storeBuilder.offHeap(Boolean.parseBoolean(value));
+               break;
+            }
             case SHUTDOWN_TIMEOUT: {
                if (reader.getSchema().since(9, 0)) {
                   throw ParseUtils.unexpectedAttribute(reader, attribute.getLocalName());
@@ -36,6 +36,8 @@ private void writeStoreWriteBehind(XMLExtendedStreamWriter writer, StoreConfigur
          writer.writeStartElement(Element.WRITE_BEHIND);
          writeBehind.write(writer, AsyncStoreConfiguration.MODIFICATION_QUEUE_SIZE, Attribute.MODIFICATION_QUEUE_SIZE);
          writeBehind.write(writer, AsyncStoreConfiguration.THREAD_POOL_SIZE, Attribute.THREAD_POOL_SIZE);
+         writeBehind.write(writer, AsyncStoreConfiguration.MODIFICATION_QUEUE_FULL_POLICY, Attribute.MODIFICATION_QUEUE_FULL_POLICY);
+         writeBehind.write(writer, AsyncStoreConfiguration.OFF_HEAP, Attribute.OFF_HEAP);
          writer.writeEndElement();
       }
    }
@@ -0,0 +1,301 @@
+package org.infinispan.container;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+import org.infinispan.commons.util.IteratorMapper;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.distribution.ch.KeyPartitioner;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.filter.KeyFilter;
+import org.infinispan.filter.KeyValueFilter;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.util.CoreImmutables;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+/**
+ * Base {@link SegmentedDataContainer} that stores the entries of every segment in its own {@link DataContainer}. All
+ * single key operations are routed to the container of the segment the key maps to, while whole container operations
+ * are applied to every segment in turn.
+ *
+ * @since 9.0
+ */
+public abstract class AbstractSegmentedDataContainer<K, V> implements SegmentedDataContainer<K, V> {
+   private static final Log log = LogFactory.getLog(AbstractSegmentedDataContainer.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   protected final DataContainer<K, V>[] segments;
+   private KeyPartitioner keyPartitioner;
+
+   protected AbstractSegmentedDataContainer(int numSegments, IntFunction<? extends DataContainer<K, V>> segmentSupplier) {
+      if (numSegments <= 0) {
+         throw new IllegalArgumentException("numSegments must be greater than 0");
+      }
+      segments = new DataContainer[numSegments];
+      for (int i = 0; i < numSegments; ++i) {
+         segments[i] = segmentSupplier.apply(i);
+      }
+   }
+
+   @Inject
+   public void injectPartitioner(KeyPartitioner keyPartitioner) {
+      this.keyPartitioner = keyPartitioner;
+   }
+
+   protected DataContainer<K, V> segmentFor(Object key) {
+      return segments[keyPartitioner.getSegment(key)];
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> get(Object k) {
+      return segmentFor(k).get(k);
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> peek(Object k) {
+      return segmentFor(k).peek(k);
+   }
+
+   @Override
+   public void put(K k, V v, Metadata metadata) {
+      segmentFor(k).put(k, v, metadata);
+   }
+
+   @Override
+   public boolean containsKey(Object k) {
+      return segmentFor(k).containsKey(k);
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> remove(Object k) {
+      return segmentFor(k).remove(k);
+   }
+
+   @Override
+   public void evict(K key) {
+      segmentFor(key).evict(key);
+   }
+
+   @Override
+   public InternalCacheEntry<K, V> compute(K key, ComputeAction<K, V> action) {
+      return segmentFor(key).compute(key, action);
+   }
+
+   @Override
+   public int size() {
+      long size = 0;
+      for (DataContainer<K, V> segment : segments) {
+         size += segment.size();
+      }
+      return size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) size;
+   }
+
+   @Override
+   public int sizeIncludingExpired() {
+      long size = 0;
+      for (DataContainer<K, V> segment : segments) {
+         size += segment.sizeIncludingExpired();
+      }
+      return size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) size;
+   }
+
+   @Override
+   public int sizeIncludingExpired(Set<Integer> segmentsToCount) {
+      long size = 0;
+      for (int segment : segmentsToCount) {
+         size += segments[segment].sizeIncludingExpired();
+      }
+      return size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) size;
+   }
+
+   @Override
+   public void clear() {
+      log.tracef("Clearing data container");
+      for (DataContainer<K, V> segment : segments) {
+         segment.clear();
+      }
+   }
+
+   @Override
+   public void removeSegments(Set<Integer> segmentsToRemove) {
+      if (trace) {
+         log.tracef("Removing segments %s from data container", segmentsToRemove);
+      }
+      for (int segment : segmentsToRemove) {
+         segments[segment].clear();
+      }
+   }
+
+   @Override
+   public Set<K> keySet() {
+      return new KeySet();
+   }
+
+   @Override
+   public Collection<V> values() {
+      return new Values();
+   }
+
+   @Override
+   public Set<InternalCacheEntry<K, V>> entrySet() {
+      return new EntrySet();
+   }
+
+   @Override
+   public void executeTask(KeyFilter<? super K> filter, BiConsumer<? super K, InternalCacheEntry<K, V>> action)
+         throws InterruptedException {
+      for (DataContainer<K, V> segment : segments) {
+         segment.executeTask(filter, action);
+      }
+   }
+
+   @Override
+   public void executeTask(KeyValueFilter<? super K, ? super V> filter,
+         BiConsumer<? super K, InternalCacheEntry<K, V>> action) throws InterruptedException {
+      for (DataContainer<K, V> segment : segments) {
+         segment.executeTask(filter, action);
+      }
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry<K, V>> iterator() {
+      return new SegmentIterator(IntStream.range(0, segments.length).iterator(), DataContainer::iterator);
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry<K, V>> iteratorIncludingExpired() {
+      return new SegmentIterator(IntStream.range(0, segments.length).iterator(),
+            DataContainer::iteratorIncludingExpired);
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry<K, V>> iterator(Set<Integer> segmentsToIterate) {
+      return new SegmentIterator(segmentsToIterate.stream().mapToInt(Integer::intValue).iterator(),
+            DataContainer::iterator);
+   }
+
+   @Override
+   public Iterator<InternalCacheEntry<K, V>> iteratorIncludingExpired(Set<Integer> segmentsToIterate) {
+      return new SegmentIterator(segmentsToIterate.stream().mapToInt(Integer::intValue).iterator(),
+            DataContainer::iteratorIncludingExpired);
+   }
+
+   @Override
+   public void forEachExpired(long currentTimeMillis, Consumer<? super InternalCacheEntry<K, V>> action) {
+      for (DataContainer<K, V> segment : segments) {
+         segment.forEachExpired(currentTimeMillis, action);
+      }
+   }
+
+   /**
+    * Iterator that lazily moves from the container of one segment to the next
+    */
+   private class SegmentIterator implements Iterator<InternalCacheEntry<K, V>> {
+      private final PrimitiveIterator.OfInt segmentIterator;
+      private final Function<DataContainer<K, V>, Iterator<InternalCacheEntry<K, V>>> iteratorFunction;
+
+      private Iterator<InternalCacheEntry<K, V>> current;
+
+      SegmentIterator(PrimitiveIterator.OfInt segmentIterator,
+            Function<DataContainer<K, V>, Iterator<InternalCacheEntry<K, V>>> iteratorFunction) {
+         this.segmentIterator = segmentIterator;
+         this.iteratorFunction = iteratorFunction;
+      }
+
+      @Override
+      public boolean hasNext() {
+         while (current == null || !current.hasNext()) {
+            if (!segmentIterator.hasNext()) {
+               return false;
+            }
+            current = iteratorFunction.apply(segments[segmentIterator.nextInt()]);
+         }
+         return true;
+      }
+
+      @Override
+      public InternalCacheEntry<K, V> next() {
+         if (!hasNext()) {
+            throw new NoSuchElementException();
+         }
+         return current.next();
+      }
+   }
+
+   /**
+    * Minimal implementation needed for unmodifiable Set
+    */
+   private class KeySet extends AbstractSet<K> {
+      @Override
+      public Iterator<K> iterator() {
+         return new IteratorMapper<InternalCacheEntry<K, V>, K>(iteratorIncludingExpired(), Map.Entry::getKey);
+      }
+
+      @Override
+      public boolean contains(Object o) {
+         return peek(o) != null;
+      }
+
+      @Override
+      public int size() {
+         return sizeIncludingExpired();
+      }
+   }
+
+   /**
+    * Minimal implementation needed for unmodifiable Collection
+    */
+   private class Values extends AbstractCollection<V> {
+      @Override
+      public Iterator<V> iterator() {
+         return new IteratorMapper<InternalCacheEntry<K, V>, V>(iteratorIncludingExpired(), Map.Entry::getValue);
+      }
+
+      @Override
+      public int size() {
+         return sizeIncludingExpired();
+      }
+   }
+
+   /**
+    * Minimal implementation needed for unmodifiable Set
+    */
+   private class EntrySet extends AbstractSet<InternalCacheEntry<K, V>> {
+      @Override
+      public boolean contains(Object o) {
+         if (!(o instanceof Map.Entry)) {
+            return false;
+         }
+
+         Map.Entry e = (Map.Entry) o;
+         InternalCacheEntry ice = peek(e.getKey());
+         if (ice == null) {
+            return false;
+         }
+         return ice.getValue().equals(e.getValue());
+      }
+
+      @Override
+      public Iterator<InternalCacheEntry<K, V>> iterator() {
+         return new IteratorMapper<>(AbstractSegmentedDataContainer.this.iterator(),
+               CoreImmutables::immutableInternalCacheEntry);
+      }
+
+      @Override
+      public int size() {
+         return sizeIncludingExpired();
+      }
+   }
+}
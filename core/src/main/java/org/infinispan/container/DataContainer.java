@@ -4,6 +4,7 @@
 import java.util.Iterator;
 import java.util.Set;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.expiration.ExpirationManager;
@@ -181,6 +182,24 @@
     */
    Iterator<InternalCacheEntry<K, V>> iteratorIncludingExpired();
 
+   /**
+    * Passes the entries that are expired at the given time to the action.  Containers that keep an
+    * {@link ExpirationIndex} only visit the entries whose expiration time passed, this default implementation
+    * iterates over all entries.
+    * <p>
+    * Expired entries the action doesn't remove are passed again by the next invocation.
+    * @param currentTimeMillis the current wall clock time
+    * @param action invoked with every expired entry, may remove the entry from this container
+    */
+   default void forEachExpired(long currentTimeMillis, Consumer<? super InternalCacheEntry<K, V>> action) {
+      for (Iterator<InternalCacheEntry<K, V>> iterator = iteratorIncludingExpired(); iterator.hasNext(); ) {
+         InternalCacheEntry<K, V> entry = iterator.next();
+         if (entry.canExpire() && entry.isExpired(currentTimeMillis)) {
+            action.accept(entry);
+         }
+      }
+   }
+
    interface ComputeAction<K, V> {
 
       /**
@@ -14,6 +14,7 @@
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import org.infinispan.commons.logging.Log;
 import org.infinispan.commons.logging.LogFactory;
@@ -69,6 +70,7 @@
 
    private final ConcurrentMap<K, InternalCacheEntry<K, V>> entries;
    private final Cache<K, InternalCacheEntry<K, V>> evictionCache;
+   private final ExpirationIndex<K, V> expirationIndex = new ExpirationIndex<>();
    protected InternalEntryFactory entryFactory;
    private EvictionManager evictionManager;
    private PassivationManager passivator;
@@ -112,6 +114,7 @@ private Caffeine<K, InternalCacheEntry<K, V>> applyListener(Caffeine<K, Internal
       return caffeine.executor(new WithinThreadExecutor()).removalListener((k, v, c) -> {
          switch (c) {
             case SIZE:
+               expirationIndex.remove(k, v.getExpiryTime());
                listener.onEntryEviction(Collections.singletonMap(k, v));
                break;
             case EXPLICIT:
@@ -234,6 +237,7 @@ public void put(K k, V v, Metadata metadata) {
 
       entries.compute(copy.getKey(), (key, entry) -> {
          activator.onUpdate(key, entry == null);
+         expirationIndex.update(key, copy.getExpiryTime());
          return copy;
       });
    }
@@ -253,6 +257,7 @@ public InternalCacheEntry<K, V> remove(Object k) {
       final InternalCacheEntry<K,V>[] reference = new InternalCacheEntry[1];
       entries.compute((K) k, (key, entry) -> {
          activator.onRemove(key, entry == null);
+         expirationIndex.remove(key);
          reference[0] = entry;
          return null;
       });
@@ -287,13 +292,13 @@ public void resize(long newSize) {
 
    @Override
    public int size() {
-      int size = 0;
-      // We have to loop through to make sure to remove expired entries
-      for (Iterator<InternalCacheEntry<K, V>> iter = iterator(); iter.hasNext(); ) {
-         iter.next();
-         if (++size == Integer.MAX_VALUE) return Integer.MAX_VALUE;
+      int size = entries.size();
+      if (expirationIndex.isEmpty()) {
+         return size;
       }
-      return size;
+      // Only the index slots of the ticks since the expired entries were last purged are visited
+      long expired = expirationIndex.countExpired(timeService.wallClockTime(), this::peek);
+      return (int) Math.max(0, size - expired);
    }
 
    @Override
@@ -305,6 +310,7 @@ public int sizeIncludingExpired() {
    public void clear() {
       log.tracef("Clearing data container");
       entries.clear();
+      expirationIndex.clear();
    }
 
    @Override
@@ -326,6 +332,7 @@ public Set<InternalCacheEntry<K, V>> entrySet() {
    public void evict(K key) {
       entries.computeIfPresent(key, (o, entry) -> {
          passivator.passivate(entry);
+         expirationIndex.remove(o);
          return null;
       });
    }
@@ -338,9 +345,11 @@ public InternalCacheEntry<K, V> compute(K key, ComputeAction<K, V> action) {
             return oldEntry;
          } else if (newEntry == null) {
             activator.onRemove(k, false);
+            expirationIndex.remove(k);
             return null;
          }
          activator.onUpdate(k, oldEntry == null);
+         expirationIndex.update(k, newEntry.getExpiryTime());
          if (trace)
             log.tracef("Store %s in container", newEntry);
          return newEntry;
@@ -357,6 +366,11 @@ public Iterator<InternalCacheEntry<K, V>> iteratorIncludingExpired() {
       return new EntryIterator(entries.values().iterator(), true);
    }
 
+   @Override
+   public void forEachExpired(long currentTimeMillis, Consumer<? super InternalCacheEntry<K, V>> action) {
+      expirationIndex.forEachExpired(currentTimeMillis, this::peek, action);
+   }
+
    private final class DefaultEvictionListener implements EvictionListener<K, InternalCacheEntry<K, V>> {
 
       @Override
@@ -0,0 +1,35 @@
+package org.infinispan.container;
+
+import org.infinispan.eviction.ActivationManager;
+import org.infinispan.eviction.EvictionManager;
+import org.infinispan.eviction.PassivationManager;
+import org.infinispan.expiration.ExpirationManager;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.notifications.cachelistener.CacheNotifier;
+import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.util.TimeService;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Unbounded on-heap {@link SegmentedDataContainer} that holds a separate {@link DefaultDataContainer} per segment.
+ *
+ * @since 9.0
+ */
+@ThreadSafe
+public class DefaultSegmentedDataContainer<K, V> extends AbstractSegmentedDataContainer<K, V> {
+
+   public DefaultSegmentedDataContainer(int concurrencyLevel, int numSegments) {
+      super(numSegments, i -> DefaultDataContainer.unBoundedDataContainer(concurrencyLevel));
+   }
+
+   @Inject
+   public void initialize(EvictionManager evictionManager, PassivationManager passivator,
+                          InternalEntryFactory entryFactory, ActivationManager activator, PersistenceManager clm,
+                          TimeService timeService, CacheNotifier cacheNotifier, ExpirationManager<K, V> expirationManager) {
+      for (DataContainer<K, V> segment : segments) {
+         ((DefaultDataContainer<K, V>) segment).initialize(evictionManager, passivator, entryFactory, activator, clm,
+               timeService, cacheNotifier, expirationManager);
+      }
+   }
+}
@@ -0,0 +1,232 @@
+package org.infinispan.container;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.infinispan.container.entries.InternalCacheEntry;
+
+/**
+ * Index of the keys of the entries that can expire, ordered by the time they expire, so that expired entries can be
+ * found without iterating over the whole container.
+ * <p>
+ * The index is a hashed timing wheel: every slot covers one tick of time and holds the keys expiring during any tick
+ * that maps to it.  Keys expiring further away than one rotation of the wheel share the slot with earlier keys and are
+ * skipped until their round comes.  Every key is in exactly one slot, moving a key from one slot to another is done
+ * when its entry is written.
+ * <p>
+ * The container must update the index while holding the lock for the key.  Entries that are removed from the
+ * container without updating the index, or whose expiration time changes because they are read, are detected lazily
+ * when their slot is visited: the entry is looked up again and the index is corrected.
+ * <p>
+ * The index only holds references to the keys, not the values.
+ * @since 9.0
+ */
+public class ExpirationIndex<K, V> {
+   private static final long TICK_MILLIS = 1000;
+   private static final int WHEEL_SIZE = 1024;
+   private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+   private final ConcurrentMap<K, Node> nodes = new ConcurrentHashMap<>();
+   private final ConcurrentMap<K, Node>[] wheel;
+   // The last tick visited by the reaper, its slot is visited again by the next run as it may have been only partially
+   // due.  Keys expiring before it are added to its slot, otherwise they would only be found after a full rotation.
+   private volatile long reapedTick = -1;
+
+   public ExpirationIndex() {
+      wheel = new ConcurrentMap[WHEEL_SIZE];
+      for (int i = 0; i < WHEEL_SIZE; ++i) {
+         wheel[i] = new ConcurrentHashMap<>();
+      }
+   }
+
+   /**
+    * Records the expiration time of the entry that was written for the given key.  The caller must hold the lock for
+    * the key.
+    * @param key the key of the written entry
+    * @param expiryTime the wall clock time the entry expires at, negative if it never expires
+    */
+   public void update(K key, long expiryTime) {
+      if (expiryTime < 0) {
+         remove(key);
+         return;
+      }
+      Node node = new Node(expiryTime, Math.max(expiryTime / TICK_MILLIS, reapedTick));
+      Node old = nodes.put(key, node);
+      addToSlot(key, node);
+      if (old != null && old.slot() != node.slot()) {
+         wheel[old.slot()].remove(key, old);
+      }
+   }
+
+   /**
+    * Removes the key from the index.  The caller must hold the lock for the key.
+    * @param key the key of the removed entry
+    */
+   public void remove(K key) {
+      // Avoid the lookup for containers without expiration
+      if (nodes.isEmpty()) {
+         return;
+      }
+      Node old = nodes.remove(key);
+      if (old != null) {
+         wheel[old.slot()].remove(key, old);
+      }
+   }
+
+   /**
+    * Removes the key from the index only if it is still indexed with the given expiration time.  Can be invoked
+    * without holding the lock for the key.
+    * @param key the key of the removed entry
+    * @param expiryTime the expiration time of the removed entry
+    */
+   public void remove(K key, long expiryTime) {
+      if (expiryTime < 0 || nodes.isEmpty()) {
+         return;
+      }
+      Node node = nodes.get(key);
+      if (node != null && node.expiryTime == expiryTime && nodes.remove(key, node)) {
+         wheel[node.slot()].remove(key, node);
+      }
+   }
+
+   public void clear() {
+      nodes.clear();
+      for (ConcurrentMap<K, Node> slot : wheel) {
+         slot.clear();
+      }
+   }
+
+   public boolean isEmpty() {
+      return nodes.isEmpty();
+   }
+
+   /**
+    * @return how many keys are indexed
+    */
+   public int size() {
+      return nodes.size();
+   }
+
+   /**
+    * Passes the entries that expired since the previous invocation to the action.  Only the slots of the ticks that
+    * passed since the previous invocation are visited.  Entries that are still present after the action are passed
+    * again by the next invocation.
+    * @param currentTimeMillis the current wall clock time
+    * @param lookup returns the entry currently stored for a key without touching it, or null
+    * @param action invoked with every expired entry, may remove the entry from the container
+    */
+   public void forEachExpired(long currentTimeMillis, Function<? super K, InternalCacheEntry<K, V>> lookup,
+         Consumer<? super InternalCacheEntry<K, V>> action) {
+      long currentTick = currentTimeMillis / TICK_MILLIS;
+      long previousTick = reapedTick;
+      // Visit every slot at most once, even if the previous invocation was more than one rotation ago
+      long firstTick = previousTick < 0 ? currentTick - WHEEL_MASK : Math.max(previousTick, currentTick - WHEEL_MASK);
+      reapedTick = currentTick;
+      for (long tick = firstTick; tick <= currentTick; ++tick) {
+         int slot = (int) (tick & WHEEL_MASK);
+         for (Map.Entry<K, Node> entry : wheel[slot].entrySet()) {
+            Node node = entry.getValue();
+            if (node.expiryTime < currentTimeMillis) {
+               K key = entry.getKey();
+               InternalCacheEntry<K, V> ice = checkCandidate(key, node, currentTimeMillis, lookup);
+               if (ice != null) {
+                  action.accept(ice);
+                  // The entry may be removed asynchronously or not at all, so it is visited again by the next run
+                  if (slot != (int) (currentTick & WHEEL_MASK)) {
+                     move(key, node, new Node(node.expiryTime, currentTick));
+                  }
+               }
+            }
+         }
+      }
+   }
+
+   /**
+    * Counts the indexed entries that are expired.  Like {@link #forEachExpired(long, Function, Consumer)}, only the
+    * slots of the ticks that passed since the last invocation of {@code forEachExpired} are visited, and only the
+    * entries of the keys whose indexed expiration time passed are looked up.  The cost is proportional to the number
+    * of keys in those slots, so it grows with the time since the expired entries were last reaped: before the first
+    * reaping every indexed key is visited.
+    * @param currentTimeMillis the current wall clock time
+    * @param lookup returns the entry currently stored for a key without touching it, or null
+    * @return the amount of expired entries
+    */
+   public long countExpired(long currentTimeMillis, Function<? super K, InternalCacheEntry<K, V>> lookup) {
+      long currentTick = currentTimeMillis / TICK_MILLIS;
+      long previousTick = reapedTick;
+      long firstTick = previousTick < 0 ? currentTick - WHEEL_MASK : Math.max(previousTick, currentTick - WHEEL_MASK);
+      long count = 0;
+      for (long tick = firstTick; tick <= currentTick; ++tick) {
+         for (Map.Entry<K, Node> entry : wheel[(int) (tick & WHEEL_MASK)].entrySet()) {
+            Node node = entry.getValue();
+            if (node.expiryTime < currentTimeMillis &&
+                  checkCandidate(entry.getKey(), node, currentTimeMillis, lookup) != null) {
+               count++;
+            }
+         }
+      }
+      return count;
+   }
+
+   /**
+    * Looks up the entry of a key whose indexed expiration time has passed and corrects the index if the entry is
+    * gone or expires later than indexed.
+    * @return the entry if it is expired, null otherwise
+    */
+   private InternalCacheEntry<K, V> checkCandidate(K key, Node node, long currentTimeMillis,
+         Function<? super K, InternalCacheEntry<K, V>> lookup) {
+      if (nodes.get(key) != node) {
+         // The key was written or removed concurrently, the slot entry is stale
+         wheel[node.slot()].remove(key, node);
+         return null;
+      }
+      InternalCacheEntry<K, V> ice = lookup.apply(key);
+      if (ice == null || !ice.canExpire()) {
+         // The entry was removed without updating the index
+         if (nodes.remove(key, node)) {
+            wheel[node.slot()].remove(key, node);
+         }
+         return null;
+      }
+      if (ice.isExpired(currentTimeMillis)) {
+         return ice;
+      }
+      // The entry was read since it was written, it is moved to the slot of its new expiration time unless it was
+      // written concurrently
+      long expiryTime = ice.getExpiryTime();
+      move(key, node, new Node(expiryTime, expiryTime / TICK_MILLIS));
+      return null;
+   }
+
+   private void move(K key, Node node, Node moved) {
+      if (nodes.replace(key, node, moved)) {
+         addToSlot(key, moved);
+         if (moved.slot() != node.slot()) {
+            wheel[node.slot()].remove(key, node);
+         }
+      }
+   }
+
+   private void addToSlot(K key, Node node) {
+      // A concurrent move of the key may have added a node that is current by now, which must not be overwritten
+      wheel[node.slot()].compute(key, (k, current) -> current != null && current != node && nodes.get(k) == current ?
+            current : node);
+   }
+
+   private static final class Node {
+      final long expiryTime;
+      final long tick;
+
+      Node(long expiryTime, long tick) {
+         this.expiryTime = expiryTime;
+         this.tick = tick;
+      }
+
+      int slot() {
+         return (int) (tick & WHEEL_MASK);
+      }
+   }
+}
@@ -0,0 +1,50 @@
+package org.infinispan.container;
+
+import java.util.Iterator;
+import java.util.Set;
+
+import org.infinispan.container.entries.InternalCacheEntry;
+
+/**
+ * A {@link DataContainer} that keeps its entries partitioned by segment, so that operations that only care about a
+ * subset of the segments (e.g. state transfer or a segment filtered stream) do not have to look at every entry in the
+ * container.
+ * <p>
+ * The segment of a key is determined by the {@link org.infinispan.distribution.ch.KeyPartitioner} of the cache, which
+ * is the same mapping used by the consistent hash.
+ *
+ * @since 9.0
+ */
+public interface SegmentedDataContainer<K, V> extends DataContainer<K, V> {
+
+   /**
+    * Same as {@link DataContainer#iterator()} except that only entries that map to one of the provided segments are
+    * returned.
+    * @param segments segments of the entries to return
+    * @return iterator that doesn't produce expired entries
+    */
+   Iterator<InternalCacheEntry<K, V>> iterator(Set<Integer> segments);
+
+   /**
+    * Same as {@link DataContainer#iteratorIncludingExpired()} except that only entries that map to one of the provided
+    * segments are returned.
+    * @param segments segments of the entries to return
+    * @return iterator that returns all entries of the segments including expired ones
+    */
+   Iterator<InternalCacheEntry<K, V>> iteratorIncludingExpired(Set<Integer> segments);
+
+   /**
+    * Returns how many entries are stored in the given segments, including expired entries.
+    * @param segments segments to count the entries of
+    * @return count of the entries in the given segments including expired entries
+    */
+   int sizeIncludingExpired(Set<Integer> segments);
+
+   /**
+    * Removes all the entries that map to the given segments.  No passivation or notification is performed for the
+    * removed entries, it is up to the caller to do so if required.  The keys are not locked either, so this must not
+    * race with writes to the given segments.
+    * @param segments segments to remove
+    */
+   void removeSegments(Set<Integer> segments);
+}
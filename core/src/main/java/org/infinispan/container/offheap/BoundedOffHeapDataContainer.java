@@ -0,0 +1,280 @@
+package org.infinispan.container.offheap;
+
+import java.util.Collections;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.infinispan.commons.marshall.WrappedBytes;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.eviction.EvictionManager;
+import org.infinispan.eviction.EvictionType;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.metadata.Metadata;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import sun.misc.Unsafe;
+
+/**
+ * Off-heap data container that is bounded either by the amount of entries or by the amount of memory used.  When the
+ * bound is exceeded the least recently used entries are evicted (and passivated if required).
+ * <p>
+ * The LRU list is a doubly linked list threaded through the entries themselves: every entry reserves 16 bytes right
+ * after its bucket pointer holding the address of the previous and next entry in the LRU order.  The list is guarded
+ * by a single lock, which is always acquired after the stripe lock of the key, never before.
+ * <p>
+ * As reading an entry updates the LRU list, reads acquire the read lock of the key, unlike in
+ * {@link OffHeapDataContainer}.  There are no lock free readers, so removed entries are freed immediately, which also
+ * keeps the MEMORY bound accurate.
+ * @since 9.0
+ */
+public class BoundedOffHeapDataContainer extends OffHeapDataContainer {
+   private static final Log log = LogFactory.getLog(BoundedOffHeapDataContainer.class);
+   private static final boolean trace = log.isTraceEnabled();
+   private static final Unsafe UNSAFE = UnsafeHolder.UNSAFE;
+
+   private final EvictionType evictionType;
+   private final Lock lruLock = new ReentrantLock();
+
+   private volatile long maxSize;
+   private EvictionManager evictionManager;
+
+   // Least recently used entry, guarded by lruLock
+   private long firstAddress;
+   // Most recently used entry, guarded by lruLock
+   private long lastAddress;
+
+   public BoundedOffHeapDataContainer(int desiredSize, long maxSize, EvictionType evictionType) {
+      super(desiredSize);
+      if (evictionType != EvictionType.COUNT && evictionType != EvictionType.MEMORY) {
+         throw new UnsupportedOperationException("Policy not supported: " + evictionType);
+      }
+      this.maxSize = maxSize;
+      this.evictionType = evictionType;
+   }
+
+   @Inject
+   public void injectEvictionManager(EvictionManager evictionManager) {
+      this.evictionManager = evictionManager;
+   }
+
+   @Override
+   public InternalCacheEntry<WrappedBytes, WrappedBytes> get(Object k) {
+      return lockedPeekOrGet(k, true);
+   }
+
+   @Override
+   public InternalCacheEntry<WrappedBytes, WrappedBytes> peek(Object k) {
+      return lockedPeekOrGet(k, false);
+   }
+
+   @Override
+   public boolean containsKey(Object k) {
+      Lock lock = locks.getLock(k).readLock();
+      lock.lock();
+      try {
+         checkDeallocation();
+         return findAddress(k) != 0;
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   private InternalCacheEntry<WrappedBytes, WrappedBytes> lockedPeekOrGet(Object k, boolean retrieve) {
+      Lock lock = locks.getLock(k).readLock();
+      lock.lock();
+      try {
+         checkDeallocation();
+         long address = findAddress(k);
+         if (address == 0) {
+            return null;
+         }
+         if (retrieve) {
+            entryRetrieved(address);
+         }
+         return offHeapEntryFactory.fromMemory(address + 8);
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   @Override
+   protected void release(long address) {
+      allocator.deallocate(address);
+   }
+
+   @Override
+   public void put(WrappedBytes key, WrappedBytes value, Metadata metadata) {
+      super.put(key, value, metadata);
+      // Must be done after the write lock has been released, as eviction acquires the lock of other keys
+      ensureSize();
+   }
+
+   @Override
+   public InternalCacheEntry<WrappedBytes, WrappedBytes> compute(WrappedBytes key,
+         ComputeAction<WrappedBytes, WrappedBytes> action) {
+      InternalCacheEntry<WrappedBytes, WrappedBytes> result = super.compute(key, action);
+      ensureSize();
+      return result;
+   }
+
+   @Override
+   public void clear() {
+      locks.lockAll();
+      try {
+         super.clear();
+         lruLock.lock();
+         try {
+            firstAddress = 0;
+            lastAddress = 0;
+         } finally {
+            lruLock.unlock();
+         }
+      } finally {
+         locks.unlockAll();
+      }
+   }
+
+   @Override
+   public void resize(long newSize) {
+      maxSize = newSize;
+      ensureSize();
+   }
+
+   @Override
+   public long capacity() {
+      return maxSize;
+   }
+
+   /**
+    * @return the amount of entries or bytes currently counted against the maximum size
+    */
+   long currentSize() {
+      if (evictionType == EvictionType.COUNT) {
+         return size.get();
+      }
+      // The allocator is cache specific, the address table is allocated outside of it though
+      return allocator.getAllocatedAmount() + addressTableSize();
+   }
+
+   private void ensureSize() {
+      while (currentSize() > maxSize) {
+         WrappedBytes keyToEvict;
+         lruLock.lock();
+         try {
+            if (firstAddress == 0) {
+               return;
+            }
+            // The entry can't be deallocated while we hold the lru lock, as it has to be unlinked first
+            keyToEvict = offHeapEntryFactory.fromMemory(firstAddress + 8).getKey();
+         } finally {
+            lruLock.unlock();
+         }
+         if (trace) {
+            log.tracef("Evicting key %s as container size %d exceeds %d", keyToEvict, currentSize(), maxSize);
+         }
+         evictEntry(keyToEvict);
+      }
+   }
+
+   private void evictEntry(WrappedBytes key) {
+      Lock lock = locks.getLock(key).writeLock();
+      lock.lock();
+      try {
+         checkDeallocation();
+         InternalCacheEntry<WrappedBytes, WrappedBytes> ice = peek(key);
+         if (ice != null) {
+            passivator.passivate(ice);
+            remove(key);
+            evictionManager.onEntryEviction(Collections.singletonMap(key, ice));
+         }
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   @Override
+   protected void entryCreated(long newAddress) {
+      lruLock.lock();
+      try {
+         addToEnd(newAddress);
+      } finally {
+         lruLock.unlock();
+      }
+   }
+
+   @Override
+   protected void entryReplaced(long newAddress, long oldAddress) {
+      lruLock.lock();
+      try {
+         unlink(oldAddress);
+         addToEnd(newAddress);
+      } finally {
+         lruLock.unlock();
+      }
+   }
+
+   @Override
+   protected void entryRemoved(long removedAddress) {
+      lruLock.lock();
+      try {
+         unlink(removedAddress);
+      } finally {
+         lruLock.unlock();
+      }
+   }
+
+   private void entryRetrieved(long entryAddress) {
+      lruLock.lock();
+      try {
+         if (entryAddress != lastAddress) {
+            unlink(entryAddress);
+            addToEnd(entryAddress);
+         }
+      } finally {
+         lruLock.unlock();
+      }
+   }
+
+   private void addToEnd(long address) {
+      setPrevious(address, lastAddress);
+      setNext(address, 0);
+      if (lastAddress == 0) {
+         firstAddress = address;
+      } else {
+         setNext(lastAddress, address);
+      }
+      lastAddress = address;
+   }
+
+   private void unlink(long address) {
+      long previous = getPrevious(address);
+      long next = getNext(address);
+      if (previous == 0) {
+         firstAddress = next;
+      } else {
+         setNext(previous, next);
+      }
+      if (next == 0) {
+         lastAddress = previous;
+      } else {
+         setPrevious(next, previous);
+      }
+   }
+
+   private static long getPrevious(long address) {
+      return UNSAFE.getLong(address + 8);
+   }
+
+   private static void setPrevious(long address, long previous) {
+      UNSAFE.putLong(address + 8, previous);
+   }
+
+   private static long getNext(long address) {
+      return UNSAFE.getLong(address + 16);
+   }
+
+   private static void setNext(long address, long next) {
+      UNSAFE.putLong(address + 16, next);
+   }
+}
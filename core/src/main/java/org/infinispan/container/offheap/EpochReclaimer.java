@@ -0,0 +1,173 @@
+package org.infinispan.container.offheap;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.LongConsumer;
+
+/**
+ * Epoch based reclamation of off-heap entries, which allows {@link OffHeapDataContainer} to read entries without
+ * acquiring a lock.
+ * <p>
+ * A reader announces the global epoch it observed in a slot that is only written by its own thread before it starts
+ * reading and clears the slot when done.  A writer doesn't free an entry it unlinked straight away, but retires it
+ * together with the current epoch instead.  Retired entries are freed once every active reader has announced a later
+ * epoch: those readers started after the entry was unlinked and can't reach it anymore.
+ * <p>
+ * The links between entries must be read and written with volatile semantics for this to hold.
+ * @since 9.0
+ */
+final class EpochReclaimer {
+   private static final int RECLAIM_THRESHOLD = 64;
+
+   private final AtomicLong globalEpoch = new AtomicLong(1);
+   private final Queue<ReaderSlot> slots = new ConcurrentLinkedQueue<>();
+   private final ThreadLocal<ReaderSlot> localSlot = ThreadLocal.withInitial(this::newSlot);
+   private final RetiredList[] retiredLists;
+   private final int retiredMask;
+   private final LongConsumer deallocator;
+
+   EpochReclaimer(int stripes, LongConsumer deallocator) {
+      stripes = OffHeapDataContainer.nextPowerOfTwo(stripes);
+      retiredLists = new RetiredList[stripes];
+      for (int i = 0; i < stripes; ++i) {
+         retiredLists[i] = new RetiredList();
+      }
+      retiredMask = stripes - 1;
+      this.deallocator = deallocator;
+   }
+
+   private ReaderSlot newSlot() {
+      ReaderSlot slot = new ReaderSlot(Thread.currentThread());
+      slots.add(slot);
+      return slot;
+   }
+
+   /**
+    * Marks the current thread as reading entries until {@link #exit(ReaderSlot)} is invoked with the returned slot.
+    * @return the slot to pass to exit, null if the thread was already reading
+    */
+   ReaderSlot enter() {
+      ReaderSlot slot = localSlot.get();
+      if (slot.epoch != 0) {
+         return null;
+      }
+      slot.epoch = globalEpoch.get();
+      return slot;
+   }
+
+   void exit(ReaderSlot slot) {
+      if (slot != null) {
+         ReaderSlot.EPOCH_UPDATER.lazySet(slot, 0);
+      }
+   }
+
+   /**
+    * Frees the given memory once no reader can be reading it.  The memory must already be unreachable.
+    * @param address the unlinked memory address
+    */
+   void retire(long address) {
+      RetiredList list = retiredLists[(int) Thread.currentThread().getId() & retiredMask];
+      synchronized (list) {
+         list.add(address, globalEpoch.get());
+         if (list.size >= list.reclaimThreshold) {
+            reclaim(list);
+         }
+      }
+   }
+
+   /**
+    * Waits for all readers that started before this invocation to complete.
+    */
+   void awaitReaders() {
+      long epoch = globalEpoch.incrementAndGet();
+      while (minActiveEpoch() < epoch) {
+         Thread.yield();
+      }
+   }
+
+   /**
+    * Waits for all current readers to complete and frees all retired memory.  No entries may be retired concurrently.
+    */
+   void reclaimAll() {
+      awaitReaders();
+      for (RetiredList list : retiredLists) {
+         synchronized (list) {
+            for (int i = 0; i < list.size; ++i) {
+               deallocator.accept(list.addresses[i]);
+            }
+            list.size = 0;
+            list.reclaimThreshold = RECLAIM_THRESHOLD;
+         }
+      }
+   }
+
+   private void reclaim(RetiredList list) {
+      globalEpoch.incrementAndGet();
+      long minActiveEpoch = minActiveEpoch();
+      int kept = 0;
+      for (int i = 0; i < list.size; ++i) {
+         if (list.epochs[i] < minActiveEpoch) {
+            deallocator.accept(list.addresses[i]);
+         } else {
+            list.addresses[kept] = list.addresses[i];
+            list.epochs[kept] = list.epochs[i];
+            kept++;
+         }
+      }
+      list.size = kept;
+      // Don't try again until enough has been retired, so a long read doesn't make every retire scan the slots
+      list.reclaimThreshold = Math.max(RECLAIM_THRESHOLD, kept << 1);
+   }
+
+   private long minActiveEpoch() {
+      long min = Long.MAX_VALUE;
+      for (Iterator<ReaderSlot> iterator = slots.iterator(); iterator.hasNext(); ) {
+         ReaderSlot slot = iterator.next();
+         long epoch = slot.epoch;
+         if (epoch != 0) {
+            min = Math.min(min, epoch);
+         } else if (slot.owner.get() == null) {
+            iterator.remove();
+         }
+      }
+      return min;
+   }
+
+   static final class ReaderSlot {
+      static final AtomicLongFieldUpdater<ReaderSlot> EPOCH_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(ReaderSlot.class, "epoch");
+
+      // Padding so that the slots of different threads don't share a cache line
+      long p0, p1, p2, p3, p4, p5, p6;
+      volatile long epoch;
+      long q0, q1, q2, q3, q4, q5, q6;
+
+      final WeakReference<Thread> owner;
+
+      ReaderSlot(Thread owner) {
+         this.owner = new WeakReference<>(owner);
+      }
+   }
+
+   private static final class RetiredList {
+      long[] addresses = new long[RECLAIM_THRESHOLD];
+      long[] epochs = new long[RECLAIM_THRESHOLD];
+      int size;
+      int reclaimThreshold = RECLAIM_THRESHOLD;
+
+      void add(long address, long epoch) {
+         if (size == addresses.length) {
+            addresses = Arrays.copyOf(addresses, size << 1);
+            epochs = Arrays.copyOf(epochs, size << 1);
+         }
+         addresses[size] = address;
+         epochs[size] = epoch;
+         size++;
+      }
+   }
+}
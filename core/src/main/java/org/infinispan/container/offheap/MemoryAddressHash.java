@@ -27,22 +27,48 @@ public MemoryAddressHash(int pointers) {
    }
 
    private int findOffset(Object instance) {
-      int h = spread(instance.hashCode());
+      return getOffset(instance.hashCode());
+   }
+
+   /**
+    * Returns the offset of the memory address pointer for keys with the given hash code.
+    * @param hashCode the hash code of the key
+    * @return the offset of the pointer
+    */
+   public int getOffset(int hashCode) {
+      int h = spread(hashCode);
       int pointerMask = pointerCount - 1;
       return h & pointerMask;
    }
 
+   public int getPointerCount() {
+      return pointerCount;
+   }
+
    public void putMemoryAddress(Object instance, long address) {
       int offset = findOffset(instance);
-      UNSAFE.putLong(memory + (((long) offset) << 3), address);
+      UNSAFE.putLongVolatile(null, memory + (((long) offset) << 3), address);
    }
 
    public long getMemoryAddress(Object instance) {
-      return UNSAFE.getLong(memory + (findOffset(instance) << 3));
+      return UNSAFE.getLongVolatile(null, memory + (((long) findOffset(instance)) << 3));
    }
 
    public long getMemoryAddressOffset(int offset) {
-      return UNSAFE.getLong(memory + (((long) offset) << 3));
+      return UNSAFE.getLongVolatile(null, memory + (((long) offset) << 3));
+   }
+
+   public void putMemoryAddressOffset(int offset, long address) {
+      UNSAFE.putLongVolatile(null, memory + (((long) offset) << 3), address);
+   }
+
+   /**
+    * Returns the memory address at the given offset and sets it to 0
+    * @param offset the offset of the pointer
+    * @return the memory address that was stored at the offset
+    */
+   public long removeMemoryAddressOffset(int offset) {
+      return UNSAFE.getAndSetLong(null, memory + (((long) offset) << 3), 0);
    }
 
    public void deallocate() {
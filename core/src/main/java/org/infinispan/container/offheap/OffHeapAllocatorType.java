@@ -0,0 +1,16 @@
+package org.infinispan.container.offheap;
+
+/**
+ * Enumeration defining the memory allocators that can be used to store off-heap entries
+ * @since 9.0
+ */
+public enum OffHeapAllocatorType {
+   /**
+    * Every entry is allocated and freed directly, see {@link UnpooledOffHeapMemoryAllocator}
+    */
+   UNPOOLED,
+   /**
+    * Entries are allocated from size-classed slabs that are reused, see {@link PooledOffHeapMemoryAllocator}
+    */
+   POOLED
+}
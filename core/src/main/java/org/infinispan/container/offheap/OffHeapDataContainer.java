@@ -5,15 +5,21 @@
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongFunction;
 import java.util.stream.IntStream;
-import java.util.stream.LongStream;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.infinispan.commons.marshall.Marshaller;
 import org.infinispan.commons.marshall.WrappedByteArray;
@@ -42,22 +48,41 @@ public class OffHeapDataContainer implements DataContainer<WrappedBytes, Wrapped
    private static final boolean trace = log.isTraceEnabled();
    private static final Unsafe UNSAFE = UnsafeHolder.UNSAFE;
 
-   private final AtomicLong size = new AtomicLong();
-   private final int lockCount;
-   private final int memoryAddressCount;
-   private final StripedLock locks;
-   private final MemoryAddressHash memoryLookup;
-   private OffHeapMemoryAllocator allocator;
-   private OffHeapEntryFactory offHeapEntryFactory;
-   private InternalEntryFactory internalEntryFactory;
-   private TimeService timeService;
-   private PassivationManager passivator;
+   protected final AtomicLong size = new AtomicLong();
+   protected final int lockCount;
+   // The initial amount of memory addresses, the lookup table is doubled when the load factor is exceeded
+   protected final int memoryAddressCount;
+   protected final StripedLock locks;
+   protected volatile MemoryAddressHash memoryLookup;
+   protected OffHeapMemoryAllocator allocator;
+   protected OffHeapEntryFactory offHeapEntryFactory;
+   protected InternalEntryFactory internalEntryFactory;
+   protected TimeService timeService;
+   protected PassivationManager passivator;
+   // Hash codes of the keys of the entries that can expire, updated while holding the write lock of the key
+   private final OffHeapExpirationIndex expirationIndex;
+   // Frees the memory of removed entries once no lock free reader can still see them
+   private final EpochReclaimer reclaimer;
    // Variable to make sure memory locations aren't read after being deallocated
-   // This variable should always be read first after acquiring either the read or write lock
-   private boolean dellocated = false;
+   // This variable should always be read first after acquiring either the read or write lock or entering the reclaimer
+   private volatile boolean dellocated = false;
+
+   // The resize in progress, null when the lookup table is not being resized
+   private volatile Resize resize;
+   // Guards starting and finishing a resize
+   private final Object resizeLock = new Object();
+   // Incremented before and after the buckets of a stripe are moved, so lock free readers know when to retry
+   private final AtomicIntegerArray stripeVersions;
 
    // Max would be 1:1 ratio with memory addresses - must be a crazy machine to have that many processors
    private final static int MAX_LOCK_COUNT = 1 << 30;
+   private final static int MAX_ADDRESS_COUNT = 1 << 30;
+   // Returned by a lock free read that has to be repeated while holding the lock
+   private final static long RETRY = -1;
+
+   static int defaultLockCount() {
+      return nextPowerOfTwo(Runtime.getRuntime().availableProcessors()) << 1;
+   }
 
    static int nextPowerOfTwo(int target) {
       int n = target - 1;
@@ -70,7 +95,15 @@ static int nextPowerOfTwo(int target) {
    }
 
    public OffHeapDataContainer(int desiredSize) {
-      lockCount = nextPowerOfTwo(Runtime.getRuntime().availableProcessors()) << 1;
+      this(desiredSize, defaultLockCount());
+   }
+
+   /**
+    * @param desiredSize the initial number of memory addresses
+    * @param lockCount the number of lock stripes, a power of two
+    */
+   OffHeapDataContainer(int desiredSize, int lockCount) {
+      this.lockCount = lockCount;
       int memoryAddresses = desiredSize >= MAX_LOCK_COUNT ? MAX_LOCK_COUNT : lockCount;
       while (memoryAddresses < desiredSize) {
          memoryAddresses <<= 1;
@@ -79,6 +112,9 @@ public OffHeapDataContainer(int desiredSize) {
       memoryLookup = new MemoryAddressHash(memoryAddressCount);
       // Unfortunately desired size directly correlates to lock size
       locks = new StripedLock(lockCount);
+      reclaimer = new EpochReclaimer(lockCount, address -> allocator.deallocate(address));
+      stripeVersions = new AtomicIntegerArray(lockCount);
+      expirationIndex = new OffHeapExpirationIndex(locks, lockCount, this::forEachEntryWithHash);
    }
 
    @Inject
@@ -93,8 +129,11 @@ public void inject(PassivationManager passivator, OffHeapEntryFactory offHeapEnt
 
    /**
     * Clears the memory lookups and cache data.
+    * <p>
+    * This is done right before the {@link OffHeapMemoryAllocator} is stopped, which may release the memory the entries
+    * were allocated from.
     */
-   @Stop(priority = Integer.MAX_VALUE)
+   @Stop(priority = Integer.MAX_VALUE - 1)
    public void deallocate() {
       locks.lockAll();
       try {
@@ -103,8 +142,17 @@ public void deallocate() {
                   "will have occurred!");
          }
          clear();
-         memoryLookup.deallocate();
          dellocated = true;
+         // Lock free readers may still be reading the lookup table or the cleared entries
+         reclaimer.reclaimAll();
+         synchronized (resizeLock) {
+            Resize current = resize;
+            if (current != null) {
+               current.lookup.deallocate();
+               resize = null;
+            }
+            memoryLookup.deallocate();
+         }
       } finally {
          locks.unlockAll();
       }
@@ -117,44 +165,240 @@ static WrappedByteArray toWrapper(Object obj) {
       throw new IllegalArgumentException("Require WrappedByteArray: got " + obj.getClass());
    }
 
-   private void checkDeallocation() {
+   protected void checkDeallocation() {
       if (dellocated) {
          throw new IllegalStateException("Container was already shut down!");
       }
    }
 
+   /**
+    * {@inheritDoc}
+    * <p>
+    * The entry is read without acquiring the lock for the key, see {@link #peek(Object)}.
+    */
    @Override
    public InternalCacheEntry<WrappedBytes, WrappedBytes> get(Object k) {
+      return peek(k);
+   }
+
+   /**
+    * {@inheritDoc}
+    * <p>
+    * The entry is read without acquiring the lock for the key.  Writers link entries into the bucket chains
+    * atomically and removed entries are only freed by the {@link EpochReclaimer} after this read completed, so the
+    * read sees either the old or the new entry of a concurrent write.
+    */
+   @Override
+   public InternalCacheEntry<WrappedBytes, WrappedBytes> peek(Object k) {
+      return read(k, address -> address == 0 ? null : offHeapEntryFactory.fromMemory(address + 8));
+   }
+
+   @Override
+   public boolean containsKey(Object k) {
+      return read(k, address -> address != 0);
+   }
+
+   /**
+    * Finds the entry for the key without acquiring the lock, unless the stripe of the key is being moved to a
+    * resized lookup table.
+    * @param k the key to find
+    * @param function applied to the address of the entry or 0 if the key is not present
+    * @return the result of the function
+    */
+   private <R> R read(Object k, LongFunction<R> function) {
+      EpochReclaimer.ReaderSlot slot = reclaimer.enter();
+      try {
+         checkDeallocation();
+         long address = findAddressOptimistic(k);
+         if (address != RETRY) {
+            return function.apply(address);
+         }
+      } finally {
+         reclaimer.exit(slot);
+      }
+      // The reclaimer must not be held while waiting for the lock, as a resize waits for the readers to complete
       Lock lock = locks.getLock(k).readLock();
       lock.lock();
       try {
          checkDeallocation();
-         long address = memoryLookup.getMemoryAddress(k);
-         if (address == 0) {
-            return null;
+         return function.apply(findAddress(k));
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   private long findAddressOptimistic(Object k) {
+      int stripe = stripeOf(k);
+      while (true) {
+         int version = stripeVersions.get(stripe);
+         if ((version & 1) != 0) {
+            return RETRY;
+         }
+         long address = findAddress(lookupFor(stripe), k);
+         // A miss could be caused by the bucket being split while walking it, in which case we have to try again
+         if (address != 0 || stripeVersions.get(stripe) == version) {
+            return address;
+         }
+      }
+   }
+
+   /**
+    * Finds the address of the entry for the given key.  The caller must hold the lock for the key.
+    * @param k the key to find
+    * @return the address of the entry or 0 if the key is not present
+    */
+   protected long findAddress(Object k) {
+      return findAddress(lookupFor(stripeOf(k)), k);
+   }
+
+   private long findAddress(MemoryAddressHash lookup, Object k) {
+      long address = lookup.getMemoryAddress(k);
+      if (address == 0) {
+         return 0;
+      }
+      WrappedByteArray wba = toWrapper(k);
+      while (address != 0) {
+         if (offHeapEntryFactory.equalsKey(address + 8, wba)) {
+            return address;
+         }
+         address = UNSAFE.getLongVolatile(null, address);
+      }
+      return 0;
+   }
+
+   private int stripeOf(Object k) {
+      return MemoryAddressHash.spread(k.hashCode()) & (lockCount - 1);
+   }
+
+   /**
+    * Returns the lookup table that holds the buckets of the given stripe.  Every bucket of a stripe is always in the
+    * same table, as the lookup table size is a multiple of the lock count.  The caller must hold the lock of the
+    * stripe or verify that the stripe version didn't change.
+    */
+   private MemoryAddressHash lookupFor(int stripe) {
+      Resize current = resize;
+      if (current != null && current.moved.get(stripe) != 0) {
+         return current.lookup;
+      }
+      return memoryLookup;
+   }
+
+   /**
+    * Returns the lookup table to update, moving the buckets of the stripe first if a resize is in progress.  The
+    * caller must hold the write lock of the stripe.
+    */
+   private MemoryAddressHash writeLookupFor(int stripe) {
+      Resize current = resize;
+      if (current != null) {
+         if (current.moved.get(stripe) == 0) {
+            moveStripe(stripe, current);
          }
+         return current.lookup;
+      }
+      return memoryLookup;
+   }
 
-         WrappedBytes wrappedKey = toWrapper(k);
+   /**
+    * Moves all entries of the stripe to the resized lookup table, the caller must hold the write lock of the stripe.
+    */
+   private void moveStripe(int stripe, Resize current) {
+      MemoryAddressHash from = memoryLookup;
+      MemoryAddressHash to = current.lookup;
+      stripeVersions.incrementAndGet(stripe);
+      for (int i = stripe; i < from.getPointerCount(); i += lockCount) {
+         long address = from.removeMemoryAddressOffset(i);
          while (address != 0) {
             long nextAddress = UNSAFE.getLong(address);
-            long realAddress = address + 8;
+            int offset = to.getOffset(offHeapEntryFactory.getHashCode(address + 8));
+            UNSAFE.putLongVolatile(null, address, to.getMemoryAddressOffset(offset));
+            to.putMemoryAddressOffset(offset, address);
+            address = nextAddress;
+         }
+      }
+      current.moved.set(stripe, 1);
+      stripeVersions.incrementAndGet(stripe);
+      current.movedCount.incrementAndGet();
+   }
 
-            InternalCacheEntry<WrappedBytes, WrappedBytes> ice = offHeapEntryFactory.fromMemory(realAddress);
-            if (wrappedKey.equalsWrappedBytes(ice.getKey())) {
-               return ice;
-            } else {
-               address = nextAddress;
+   /**
+    * Starts a resize of the lookup table if the load factor was exceeded and moves one stripe of the resize in
+    * progress, so that no single writer has to move the whole table.  Must be invoked after releasing the write lock
+    * of the key that was written.
+    */
+   private void helpResize() {
+      Resize current = resize;
+      if (current == null) {
+         int pointerCount = memoryLookup.getPointerCount();
+         if (size.get() <= ((long) pointerCount >> 2) * 3 || pointerCount >= MAX_ADDRESS_COUNT) {
+            return;
+         }
+         synchronized (resizeLock) {
+            current = resize;
+            if (current == null) {
+               if (dellocated || memoryLookup.getPointerCount() != pointerCount) {
+                  return;
+               }
+               if (trace) {
+                  log.tracef("Resizing memory lookup from %d to %d addresses as it holds %d entries", pointerCount,
+                        pointerCount << 1, size.get());
+               }
+               current = new Resize(new MemoryAddressHash(pointerCount << 1), lockCount);
+               resize = current;
             }
          }
-         return null;
-      } finally {
-         lock.unlock();
+      }
+      int stripe = current.cursor.getAndIncrement() & (lockCount - 1);
+      if (current.moved.get(stripe) == 0) {
+         Lock lock = locks.getLockWithOffset(stripe).writeLock();
+         // The caller may hold the read lock of another stripe, the stripe is tried again by another writer
+         if (lock.tryLock()) {
+            try {
+               if (resize == current && !dellocated && current.moved.get(stripe) == 0) {
+                  moveStripe(stripe, current);
+               }
+            } finally {
+               lock.unlock();
+            }
+         }
+      }
+      if (current.movedCount.get() == lockCount) {
+         finishResize(current);
       }
    }
 
-   @Override
-   public InternalCacheEntry<WrappedBytes, WrappedBytes> peek(Object k) {
-      return get(k);
+   private void finishResize(Resize current) {
+      MemoryAddressHash oldLookup;
+      synchronized (resizeLock) {
+         if (resize != current) {
+            return;
+         }
+         oldLookup = memoryLookup;
+         memoryLookup = current.lookup;
+         resize = null;
+         // Lock free readers may still be walking the old table
+         reclaimer.awaitReaders();
+         oldLookup.deallocate();
+      }
+   }
+
+   /**
+    * @return how many bytes the memory lookup tables use, including the table being resized to
+    */
+   protected long addressTableSize() {
+      Resize current = resize;
+      long pointers = memoryLookup.getPointerCount();
+      if (current != null) {
+         pointers += current.lookup.getPointerCount();
+      }
+      return pointers << 3;
+   }
+
+   /**
+    * Releases the memory of an entry that was unlinked from its bucket.  The caller holds the write lock for the key.
+    * @param address the address of the unlinked entry
+    */
+   protected void release(long address) {
+      reclaimer.retire(address);
    }
 
    @Override
@@ -163,88 +407,72 @@ public void put(WrappedBytes key, WrappedBytes value, Metadata metadata) {
       lock.lock();
       try {
          checkDeallocation();
-         long newAddress = offHeapEntryFactory.create(key, value, metadata);
-
-         long address = memoryLookup.getMemoryAddress(key);
-         boolean shouldCreate = false;
-         // Have to start new linked node list
-         if (address == 0) {
-            memoryLookup.putMemoryAddress(key, newAddress);
-         } else {
-            // Whether the key was found or not - short circuit equality checks
-            boolean foundKey = false;
-            // Holds the previous linked list address
-            long prevAddress = 0;
-            // Keep looping until we get the tail end - we always append the put to the end
-            while (address != 0) {
-               long nextAddress = UNSAFE.getLong(address);
-               long realAddress = address + 8;
-               if (!foundKey) {
-                  if (offHeapEntryFactory.equalsKey(realAddress, key)) {
-                     allocator.deallocate(address);
-                     foundKey = true;
-                     // If this is true it means this was the first node in the linked list
-                     if (prevAddress == 0) {
-                        if (nextAddress == 0) {
-                           // This branch is the case where our key is the only one in the linked list
-                           shouldCreate = true;
-                        } else {
-                           // This branch is the case where our key is the first with another after
-                           memoryLookup.putMemoryAddress(key, nextAddress);
-                        }
-                     } else {
-                        // This branch means our node was not the first, so we have to update the address before ours
-                        // to the one we previously referenced
-                        UNSAFE.putLong(prevAddress, nextAddress);
-                        // We purposely don't update prevAddress, because we have to keep it as the current pointer
-                        // since we removed ours
-                        address = nextAddress;
-                        continue;
-                     }
-                  }
-               }
-               prevAddress = address;
-               address = nextAddress;
-            }
-            if (!foundKey) {
-               size.incrementAndGet();
-            }
-            if (shouldCreate) {
-               memoryLookup.putMemoryAddress(key, newAddress);
-            } else {
-               // Now prevAddress should be the last link so we fix our link
-               UNSAFE.putLong(prevAddress, newAddress);
-            }
-         }
+         performPut(key, value, metadata);
       } finally {
          lock.unlock();
       }
+      helpResize();
    }
 
-   @Override
-   public boolean containsKey(Object k) {
-      Lock lock = locks.getLock(k).readLock();
-      lock.lock();
-      try {
-         checkDeallocation();
-         long address = memoryLookup.getMemoryAddress(k);
-         if (address == 0) {
-            return false;
-         }
-         WrappedByteArray wba = toWrapper(k);
-
-         while (address != 0) {
-            long nextAddress = UNSAFE.getLong(address);
-            long realAddress = address + 8;
-            if (offHeapEntryFactory.equalsKey(realAddress, wba)) {
-               return true;
+   /**
+    * Stores the entry, the caller must hold the write lock for the key
+    */
+   private void performPut(WrappedBytes key, WrappedBytes value, Metadata metadata) {
+      // Determined before the entry is created, so the indexed expiration time is never later than the actual one
+      long expiryTime = expiryTime(metadata);
+      long newAddress = offHeapEntryFactory.create(key, value, metadata);
+      expirationIndex.update(key.hashCode(), expiryTime);
+
+      MemoryAddressHash lookup = writeLookupFor(stripeOf(key));
+      long address = lookup.getMemoryAddress(key);
+      // Have to start new linked node list
+      if (address == 0) {
+         lookup.putMemoryAddress(key, newAddress);
+         size.incrementAndGet();
+         entryCreated(newAddress);
+         return;
+      }
+      // Holds the previous linked list address
+      long prevAddress = 0;
+      while (address != 0) {
+         long nextAddress = UNSAFE.getLong(address);
+         if (offHeapEntryFactory.equalsKey(address + 8, key)) {
+            // Replace the node in place, so a concurrent reader sees either the old or the new one
+            UNSAFE.putLong(newAddress, nextAddress);
+            if (prevAddress == 0) {
+               lookup.putMemoryAddress(key, newAddress);
+            } else {
+               UNSAFE.putLongVolatile(null, prevAddress, newAddress);
             }
-            address = nextAddress;
+            entryReplaced(newAddress, address);
+            release(address);
+            return;
          }
-         return false;
-      } finally {
-         lock.unlock();
+         prevAddress = address;
+         address = nextAddress;
+      }
+      // Key wasn't present, append the new node to the end of the linked list
+      UNSAFE.putLongVolatile(null, prevAddress, newAddress);
+      size.incrementAndGet();
+      entryCreated(newAddress);
+   }
+
+   /**
+    * @return the wall clock time an entry written now with the given metadata expires at, -1 if it never expires
+    */
+   private long expiryTime(Metadata metadata) {
+      long lifespan = metadata.lifespan();
+      long maxIdle = metadata.maxIdle();
+      if (lifespan < 0 && maxIdle < 0) {
+         return -1;
       }
+      long now = timeService.wallClockTime();
+      if (lifespan < 0) {
+         return now + maxIdle;
+      } else if (maxIdle < 0) {
+         return now + lifespan;
+      }
+      return now + Math.min(lifespan, maxIdle);
    }
 
    @Override
@@ -253,42 +481,86 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> remove(Object key) {
       lock.lock();
       try {
          checkDeallocation();
-         long address = memoryLookup.getMemoryAddress(key);
-         if (address == 0) {
-            return null;
-         }
-         WrappedByteArray wba = toWrapper(key);
-         long prevAddress = 0;
+         return performRemove(key);
+      } finally {
+         lock.unlock();
+      }
+   }
 
-         while (address != 0) {
-            long nextAddress = UNSAFE.getLong(address);
-            long realAddress = address + 8;
+   /**
+    * Removes the entry, the caller must hold the write lock for the key
+    */
+   private InternalCacheEntry<WrappedBytes, WrappedBytes> performRemove(Object key) {
+      MemoryAddressHash lookup = writeLookupFor(stripeOf(key));
+      long address = lookup.getMemoryAddress(key);
+      if (address == 0) {
+         return null;
+      }
+      WrappedByteArray wba = toWrapper(key);
+      long prevAddress = 0;
 
+      while (address != 0) {
+         long nextAddress = UNSAFE.getLong(address);
+         long realAddress = address + 8;
+
+         if (offHeapEntryFactory.equalsKey(realAddress, wba)) {
             InternalCacheEntry<WrappedBytes, WrappedBytes> ice = offHeapEntryFactory.fromMemory(realAddress);
-            if (ice.getKey().equals(wba)) {
-               // Free the node
-               allocator.deallocate(address);
-               if (prevAddress != 0) {
-                  UNSAFE.putLong(prevAddress, nextAddress);
-               } else {
-                  memoryLookup.putMemoryAddress(key, nextAddress);
-               }
-               size.decrementAndGet();
-               return ice;
+            entryRemoved(address);
+            if (prevAddress != 0) {
+               UNSAFE.putLongVolatile(null, prevAddress, nextAddress);
+            } else {
+               lookup.putMemoryAddress(key, nextAddress);
             }
-            prevAddress = address;
-            address = nextAddress;
+            // Keys with the same hash code share the index entry
+            if (ice.canExpire() && !containsHashCode(lookup, wba.hashCode())) {
+               expirationIndex.remove(wba.hashCode());
+            }
+            // Free the node once it is unreachable
+            release(address);
+            size.decrementAndGet();
+            return ice;
          }
-         return null;
-      } finally {
-         lock.unlock();
+         prevAddress = address;
+         address = nextAddress;
       }
+      return null;
    }
 
+   /**
+    * Invoked after a new entry was stored at the given address.  The caller holds the write lock for the key.
+    * @param newAddress the address of the new entry
+    */
+   protected void entryCreated(long newAddress) {
+   }
+
+   /**
+    * Invoked when an existing entry is replaced, before the old entry is released.  The caller holds the write
+    * lock for the key.
+    * @param newAddress the address of the new entry
+    * @param oldAddress the address of the replaced entry
+    */
+   protected void entryReplaced(long newAddress, long oldAddress) {
+   }
+
+   /**
+    * Invoked when an entry is removed, before it is released.  The caller holds the write lock for the key.
+    * @param removedAddress the address of the removed entry
+    */
+   protected void entryRemoved(long removedAddress) {
+   }
+
+   /**
+    * {@inheritDoc}
+    * <p>
+    * Only the expiration index slots of the ticks that passed since the expired entries were last purged are visited,
+    * see {@link OffHeapExpirationIndex#countExpired(long)}.
+    */
    @Override
    public int size() {
-      long time = timeService.time();
-      long count = entryStream().filter(e -> !e.isExpired(time)).count();
+      long count = size.get();
+      if (!expirationIndex.isEmpty()) {
+         count = Math.max(0, count - expirationIndex.countExpired(timeService.wallClockTime()));
+      }
       if (count > Integer.MAX_VALUE) {
          return Integer.MAX_VALUE;
       }
@@ -307,21 +579,34 @@ public int sizeIncludingExpired() {
    @Override
    public void clear() {
       locks.lockAll();
+      // A resize may be finished concurrently, which frees the old table once all readers are done
+      EpochReclaimer.ReaderSlot slot = reclaimer.enter();
       try {
          checkDeallocation();
-         memoryLookup.toStreamRemoved().forEach(address -> {
-            while (address != 0) {
-               long nextAddress = UNSAFE.getLong(address);
-               allocator.deallocate(address);
-               address = nextAddress;
-            }
-         });
+         // Read the resize first, in case it finishes and the resized table becomes the memory lookup
+         Resize current = resize;
+         if (current != null) {
+            releaseAll(current.lookup);
+         }
+         releaseAll(memoryLookup);
          size.set(0);
+         expirationIndex.clear();
       } finally {
+         reclaimer.exit(slot);
          locks.unlockAll();
       }
    }
 
+   private void releaseAll(MemoryAddressHash lookup) {
+      lookup.toStreamRemoved().forEach(address -> {
+         while (address != 0) {
+            long nextAddress = UNSAFE.getLong(address);
+            release(address);
+            address = nextAddress;
+         }
+      });
+   }
+
    class ValueCollection extends AbstractCollection<WrappedBytes> {
 
       @Override
@@ -422,8 +707,11 @@ public void evict(WrappedBytes key) {
       try {
          checkDeallocation();
          // TODO: this could be more efficient
-         passivator.passivate(get(key));
-         remove(key);
+         InternalCacheEntry<WrappedBytes, WrappedBytes> ice = peek(key);
+         if (ice != null) {
+            passivator.passivate(ice);
+            performRemove(key);
+         }
       } finally {
          lock.unlock();
       }
@@ -432,22 +720,27 @@ public void evict(WrappedBytes key) {
    @Override
    public InternalCacheEntry<WrappedBytes, WrappedBytes> compute(WrappedBytes key,
          ComputeAction<WrappedBytes, WrappedBytes> action) {
+      InternalCacheEntry<WrappedBytes, WrappedBytes> result;
       Lock lock = locks.getLock(key).writeLock();
       lock.lock();
       try {
          checkDeallocation();
-         InternalCacheEntry<WrappedBytes, WrappedBytes> prev = get(key);
-         InternalCacheEntry<WrappedBytes, WrappedBytes> result = action.compute(key, prev, internalEntryFactory);
-         if (result != null) {
-            // Could be more efficient
-            put(result.getKey(), result.getValue(), result.getMetadata());
-         } else {
-            remove(key);
+         InternalCacheEntry<WrappedBytes, WrappedBytes> prev = peek(key);
+         result = action.compute(key, prev, internalEntryFactory);
+         // If the result is the previous entry nothing changed
+         if (result != prev) {
+            if (result != null) {
+               // Could be more efficient
+               performPut(result.getKey(), result.getValue(), result.getMetadata());
+            } else {
+               performRemove(key);
+            }
          }
-         return result;
       } finally {
          lock.unlock();
       }
+      helpResize();
+      return result;
    }
 
    private void executeTask(Consumer<InternalCacheEntry<WrappedBytes, WrappedBytes>> consumer) {
@@ -456,8 +749,9 @@ private void executeTask(Consumer<InternalCacheEntry<WrappedBytes, WrappedBytes>
          lock.lock();
          try {
             checkDeallocation();
-            for (int j = i; j < memoryAddressCount; j += lockCount) {
-               long address = memoryLookup.getMemoryAddressOffset(j);
+            MemoryAddressHash lookup = lookupFor(i);
+            for (int j = i; j < lookup.getPointerCount(); j += lockCount) {
+               long address = lookup.getMemoryAddressOffset(j);
                while (address != 0) {
                   long nextAddress = UNSAFE.getLong(address);
                   long realAddress = address + 8;
@@ -493,43 +787,71 @@ public void executeTask(KeyValueFilter<? super WrappedBytes, ? super WrappedByte
    }
 
    private Stream<InternalCacheEntry<WrappedBytes, WrappedBytes>> entryStream() {
-      int limit = memoryAddressCount / lockCount;
       return IntStream.range(0, lockCount)
             // REALLY REALLY stupid there is no flatMapToObj on IntStream...
             .boxed()
-            .flatMap(l -> {
-               int value = l;
-               return LongStream.iterate(value, i -> i + lockCount).limit(limit)
-                     .boxed()
-                     .flatMap(a -> {
-                     Lock lock = locks.getLockWithOffset(value).readLock();
-                     lock.lock();
-                     try {
-                        checkDeallocation();
-                        long address = memoryLookup.getMemoryAddressOffset(a.intValue());
-                        if (address == 0) {
-                           return Stream.empty();
-                        }
-                        Stream.Builder<InternalCacheEntry<WrappedBytes, WrappedBytes>> builder = Stream.builder();
-                        while (address != 0) {
-                           long nextAddress;
-                           do {
-                              nextAddress = UNSAFE.getLong(address);
-                              long realAddress = address + 8;
-                              builder.accept(offHeapEntryFactory.fromMemory(realAddress));
-                           } while ((address = nextAddress) != 0);
-                        }
-                        return builder.build();
-                     } finally {
-                        lock.unlock();
-                     }
-                  });
-            });
+            .flatMap(stripe -> StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                  new StripeBucketIterator(stripe), Spliterator.ORDERED | Spliterator.NONNULL), false))
+            .flatMap(Function.identity());
+   }
+
+   /**
+    * Iterates over the buckets of a stripe, returning the entries of a single bucket at a time.  The buckets are
+    * visited by incrementing the bits above the stripe bits in reverse order.  When the lookup table is doubled
+    * between two buckets, the buckets the already visited ones were split into are then already visited too, so
+    * no entry is missed or returned twice.
+    */
+   private class StripeBucketIterator implements Iterator<Stream<InternalCacheEntry<WrappedBytes, WrappedBytes>>> {
+      private final int stripe;
+      private long cursor;
+      private boolean done;
+
+      StripeBucketIterator(int stripe) {
+         this.stripe = stripe;
+      }
+
+      @Override
+      public boolean hasNext() {
+         return !done;
+      }
+
+      @Override
+      public Stream<InternalCacheEntry<WrappedBytes, WrappedBytes>> next() {
+         if (done) {
+            throw new NoSuchElementException();
+         }
+         Lock lock = locks.getLockWithOffset(stripe).readLock();
+         lock.lock();
+         try {
+            checkDeallocation();
+            MemoryAddressHash lookup = lookupFor(stripe);
+            long mask = (lookup.getPointerCount() / lockCount) - 1;
+            long address = lookup.getMemoryAddressOffset((int) ((cursor & mask) * lockCount) | stripe);
+
+            cursor |= ~mask;
+            cursor = Long.reverse(Long.reverse(cursor) + 1);
+            done = cursor == 0;
+
+            if (address == 0) {
+               return Stream.empty();
+            }
+            Stream.Builder<InternalCacheEntry<WrappedBytes, WrappedBytes>> builder = Stream.builder();
+            do {
+               long nextAddress = UNSAFE.getLong(address);
+               long realAddress = address + 8;
+               builder.accept(offHeapEntryFactory.fromMemory(realAddress));
+               address = nextAddress;
+            } while (address != 0);
+            return builder.build();
+         } finally {
+            lock.unlock();
+         }
+      }
    }
 
    @Override
    public Iterator<InternalCacheEntry<WrappedBytes, WrappedBytes>> iterator() {
-      long time = timeService.time();
+      long time = timeService.wallClockTime();
       return entryStream().filter(e -> !e.isExpired(time)).iterator();
    }
 
@@ -537,4 +859,62 @@ public Iterator<InternalCacheEntry<WrappedBytes, WrappedBytes>> iterator() {
    public Iterator<InternalCacheEntry<WrappedBytes, WrappedBytes>> iteratorIncludingExpired() {
       return entryStream().iterator();
    }
+
+   /**
+    * {@inheritDoc}
+    * <p>
+    * Only the entries whose expiration time passed are read, instead of all entries.
+    */
+   @Override
+   public void forEachExpired(long currentTimeMillis,
+         Consumer<? super InternalCacheEntry<WrappedBytes, WrappedBytes>> action) {
+      expirationIndex.forEachExpired(currentTimeMillis, action);
+   }
+
+   /**
+    * Passes every entry whose key has the given hash code to the action.  The caller must hold the lock of the stripe
+    * of the hash code.
+    */
+   private void forEachEntryWithHash(int hashCode,
+         Consumer<InternalCacheEntry<WrappedBytes, WrappedBytes>> action) {
+      checkDeallocation();
+      MemoryAddressHash lookup = lookupFor(MemoryAddressHash.spread(hashCode) & (lockCount - 1));
+      long address = lookup.getMemoryAddressOffset(lookup.getOffset(hashCode));
+      while (address != 0) {
+         if (offHeapEntryFactory.getHashCode(address + 8) == hashCode) {
+            action.accept(offHeapEntryFactory.fromMemory(address + 8));
+         }
+         address = UNSAFE.getLong(address);
+      }
+   }
+
+   /**
+    * Whether the bucket of the hash code holds an entry with the given hash code.  The caller must hold the lock of
+    * the stripe of the hash code.
+    */
+   private boolean containsHashCode(MemoryAddressHash lookup, int hashCode) {
+      long address = lookup.getMemoryAddressOffset(lookup.getOffset(hashCode));
+      while (address != 0) {
+         if (offHeapEntryFactory.getHashCode(address + 8) == hashCode) {
+            return true;
+         }
+         address = UNSAFE.getLong(address);
+      }
+      return false;
+   }
+
+   private static class Resize {
+      // The new lookup table the buckets are moved to
+      final MemoryAddressHash lookup;
+      // Whether the buckets of a stripe were already moved, only written while holding the write lock of the stripe
+      final AtomicIntegerArray moved;
+      final AtomicInteger movedCount = new AtomicInteger();
+      // The next stripe a writer should help moving
+      final AtomicInteger cursor = new AtomicInteger();
+
+      Resize(MemoryAddressHash lookup, int lockCount) {
+         this.lookup = lookup;
+         this.moved = new AtomicIntegerArray(lockCount);
+      }
+   }
 }
@@ -20,6 +20,13 @@ public interface OffHeapEntryFactory {
     */
    long create(WrappedBytes key, WrappedBytes value, Metadata metadata);
 
+   /**
+    * Returns whether the entries created by this factory reserve the previous and next pointers of the LRU list,
+    * located right after the linked pointer at the beginning of the entry.
+    * @return whether eviction pointers are present in created entries
+    */
+   boolean isEvictionEnabled();
+
    /**
     * Returns how many bytes in memory this address location uses assuming it is an {@link InternalCacheEntry}
     * @param address
@@ -41,4 +48,11 @@ public interface OffHeapEntryFactory {
     * @return whether or not the keys are equal
     */
    boolean equalsKey(long address, WrappedBytes wrappedBytes);
+
+   /**
+    * Returns the hash code of the key stored in the entry for the given address.
+    * @param address the address of the entry excluding the pointer reference at the beginning
+    * @return the hash code of the entry's key
+    */
+   int getHashCode(long address);
 }
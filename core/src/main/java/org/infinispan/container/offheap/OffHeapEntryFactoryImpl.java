@@ -1,11 +1,13 @@
 package org.infinispan.container.offheap;
 
 import java.io.IOException;
+import java.nio.ByteOrder;
 
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.marshall.Marshaller;
 import org.infinispan.commons.marshall.WrappedByteArray;
 import org.infinispan.commons.marshall.WrappedBytes;
+import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.InternalEntryFactory;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.container.versioning.EntryVersion;
@@ -28,6 +30,9 @@ public class OffHeapEntryFactoryImpl implements OffHeapEntryFactory {
    private OffHeapMemoryAllocator allocator;
    private TimeService timeService;
    private InternalEntryFactory internalEntryFactory;
+   // Bounded containers require 2 additional pointers per entry for the LRU list
+   private boolean evictionEnabled;
+   private int lruPointerLength;
 
    // If custom than we just store the metadata as is (no other bits should be used)
    private static final byte CUSTOM = 1;
@@ -40,20 +45,27 @@ public class OffHeapEntryFactoryImpl implements OffHeapEntryFactory {
    private static final byte TRANSIENT_MORTAL = 1 << 5;
 
    private static final int BYTE_ARRAY_BASE_OFFSET = UNSAFE.arrayBaseOffset(byte[].class);
+   // The header ints are written in big endian order by Bits
+   private static final boolean NATIVE_BIG_ENDIAN = ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN;
 
    private static final int HEADER_LENGTH = 4 + 4 + 4 + 4 + 1;
 
    @Inject
    public void inject(Marshaller marshaller, OffHeapMemoryAllocator allocator, TimeService timeService,
-         InternalEntryFactory internalEntryFactory) {
+         InternalEntryFactory internalEntryFactory, Configuration configuration) {
       this.marshaller = marshaller;
       this.allocator = allocator;
       this.timeService = timeService;
       this.internalEntryFactory = internalEntryFactory;
+      // Same condition as DataContainerFactory uses to create a bounded container
+      this.evictionEnabled = configuration.memory().size() >= 0;
+      this.lruPointerLength = evictionEnabled ? 16 : 0;
    }
 
    /**
-    * Create an entry off-heap.  The first 8 bytes will always be 0, reserved for a future reference to another entry
+    * Create an entry off-heap.  The first 8 bytes will always be 0, reserved for a future reference to another entry.
+    * If eviction is enabled the following 16 bytes will also be 0, reserved for the previous and next references of
+    * the LRU list.
     * @param key
     * @param value
     * @param metadata
@@ -90,13 +102,13 @@ public long create(WrappedBytes key, WrappedBytes value, Metadata metadata) {
             metadataBytes = new byte[16 + versionBytes.length];
             Bits.putLong(metadataBytes, 0, lifespan);
             Bits.putLong(metadataBytes, 8, timeService.wallClockTime());
-            System.arraycopy(metadataBytes, 0, versionBytes, 16, versionBytes.length);
+            System.arraycopy(versionBytes, 0, metadataBytes, 16, versionBytes.length);
          } else if (lifespan < 0 && maxIdle > -1) {
             type |= TRANSIENT;
             metadataBytes = new byte[16 + versionBytes.length];
             Bits.putLong(metadataBytes, 0, maxIdle);
             Bits.putLong(metadataBytes, 8, timeService.wallClockTime());
-            System.arraycopy(metadataBytes, 0, versionBytes, 16, versionBytes.length);
+            System.arraycopy(versionBytes, 0, metadataBytes, 16, versionBytes.length);
          } else {
             type |= TRANSIENT_MORTAL;
             metadataBytes = new byte[32 + versionBytes.length];
@@ -104,7 +116,7 @@ public long create(WrappedBytes key, WrappedBytes value, Metadata metadata) {
             Bits.putLong(metadataBytes, 8, lifespan);
             Bits.putLong(metadataBytes, 16, timeService.wallClockTime());
             Bits.putLong(metadataBytes, 24, timeService.wallClockTime());
-            System.arraycopy(metadataBytes, 0, versionBytes, 16, versionBytes.length);
+            System.arraycopy(versionBytes, 0, metadataBytes, 32, versionBytes.length);
          }
       } else {
          type = CUSTOM;
@@ -117,7 +129,7 @@ public long create(WrappedBytes key, WrappedBytes value, Metadata metadata) {
       int keySize = key.getLength();
       int valueSize = value.getLength();
       int metadataSize = metadataBytes.length;
-      long totalSize = 8 + HEADER_LENGTH + keySize + metadataSize + valueSize;
+      long totalSize = 8 + lruPointerLength + HEADER_LENGTH + keySize + metadataSize + valueSize;
 
       long memoryAddress = allocator.allocate(totalSize);
 
@@ -140,6 +152,13 @@ public long create(WrappedBytes key, WrappedBytes value, Metadata metadata) {
       UNSAFE.putLong(memoryAddress, 0);
       memoryOffset += 8;
 
+      if (evictionEnabled) {
+         // Then the empty LRU previous and next pointers
+         UNSAFE.putLong(memoryOffset, 0);
+         UNSAFE.putLong(memoryOffset + 8, 0);
+         memoryOffset += 16;
+      }
+
       UNSAFE.copyMemory(header, BYTE_ARRAY_BASE_OFFSET, null, memoryOffset, HEADER_LENGTH);
       memoryOffset += HEADER_LENGTH;
 
@@ -155,10 +174,17 @@ public long create(WrappedBytes key, WrappedBytes value, Metadata metadata) {
       return memoryAddress;
    }
 
+   @Override
+   public boolean isEvictionEnabled() {
+      return evictionEnabled;
+   }
+
    @Override
    public long determineSize(long address) {
-      long offset = 8 + HEADER_LENGTH + address;
-      return 8 + HEADER_LENGTH + UNSAFE.getInt(offset) + UNSAFE.getInt(offset + 8) + UNSAFE.getInt(offset + 8);
+      // Skip the linked pointer, the LRU pointers and the hashCode to get to the key length
+      long offset = address + 8 + lruPointerLength + 4;
+      return 8 + lruPointerLength + HEADER_LENGTH + readHeaderInt(offset) + readHeaderInt(offset + 4) +
+            readHeaderInt(offset + 8);
    }
 
    /**
@@ -168,6 +194,7 @@ public long determineSize(long address) {
     */
    @Override
    public InternalCacheEntry<WrappedBytes, WrappedBytes> fromMemory(long address) {
+      address += lruPointerLength;
       byte[] header = readHeader(address);
 
       int offset = 0;
@@ -218,21 +245,25 @@ public InternalCacheEntry<WrappedBytes, WrappedBytes> fromMemory(long address) {
                break;
             case MORTAL:
                maxIdle = -1;
-               lifespan = Bits.getLong(metadataBytes, offset++);
-               created = Bits.getLong(metadataBytes, offset += 8);
+               lifespan = Bits.getLong(metadataBytes, 0);
+               created = Bits.getLong(metadataBytes, 8);
                lastUsed = -1;
+               offset = 16;
                break;
             case TRANSIENT:
                lifespan = -1;
-               maxIdle = Bits.getLong(metadataBytes, offset++);
+               maxIdle = Bits.getLong(metadataBytes, 0);
                created = -1;
-               lastUsed = Bits.getLong(metadataBytes, offset += 8);
+               lastUsed = Bits.getLong(metadataBytes, 8);
+               offset = 16;
                break;
             case TRANSIENT_MORTAL:
-               lifespan = Bits.getLong(metadataBytes, offset++);
-               maxIdle = Bits.getLong(metadataBytes, offset += 8);
-               created = Bits.getLong(metadataBytes, offset += 8);
-               lastUsed = Bits.getLong(metadataBytes, offset += 8);
+               // Written in the order max idle, lifespan, created, last used
+               maxIdle = Bits.getLong(metadataBytes, 0);
+               lifespan = Bits.getLong(metadataBytes, 8);
+               created = Bits.getLong(metadataBytes, 16);
+               lastUsed = Bits.getLong(metadataBytes, 24);
+               offset = 32;
                break;
             default:
                throw new IllegalArgumentException("Unsupported type: " + metadataType);
@@ -259,6 +290,11 @@ private byte[] readHeader(long address) {
       return header;
    }
 
+   private static int readHeaderInt(long address) {
+      int value = UNSAFE.getInt(address);
+      return NATIVE_BIG_ENDIAN ? value : Integer.reverseBytes(value);
+   }
+
    /**
     * Assumes the address points to the entry excluding the pointer reference at the beginning
     * @param address
@@ -267,16 +303,36 @@ private byte[] readHeader(long address) {
     */
    @Override
    public boolean equalsKey(long address, WrappedBytes wrappedBytes) {
-      byte[] header = readHeader(address);
-      int hashCode = wrappedBytes.hashCode();
-      if (hashCode != Bits.getInt(header, 0)) {
+      address += lruPointerLength;
+      // The stored hash acts as fingerprint, most entries in a bucket chain are rejected without touching the key
+      if (wrappedBytes.hashCode() != readHeaderInt(address)) {
+         return false;
+      }
+      int keyLength = readHeaderInt(address + 4);
+      if (keyLength != wrappedBytes.getLength()) {
          return false;
       }
-      int keyLength = Bits.getInt(header, 4);
-      byte[] keyBytes = new byte[keyLength];
-      UNSAFE.copyMemory(null, address + HEADER_LENGTH, keyBytes,
-            BYTE_ARRAY_BASE_OFFSET, keyLength);
+      long keyAddress = address + HEADER_LENGTH;
+      byte[] bytes = wrappedBytes.getBytes();
+      if (bytes != null) {
+         int offset = wrappedBytes.backArrayOffset();
+         for (int i = 0; i < keyLength; ++i) {
+            if (UNSAFE.getByte(keyAddress + i) != bytes[offset + i]) {
+               return false;
+            }
+         }
+      } else {
+         for (int i = 0; i < keyLength; ++i) {
+            if (UNSAFE.getByte(keyAddress + i) != wrappedBytes.getByte(i)) {
+               return false;
+            }
+         }
+      }
+      return true;
+   }
 
-      return new WrappedByteArray(keyBytes, hashCode).equalsWrappedBytes(wrappedBytes);
+   @Override
+   public int getHashCode(long address) {
+      return readHeaderInt(address + lruPointerLength);
    }
 }
@@ -0,0 +1,482 @@
+package org.infinispan.container.offheap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+
+import org.infinispan.commons.marshall.WrappedBytes;
+import org.infinispan.container.entries.InternalCacheEntry;
+
+/**
+ * Index of the off-heap entries that can expire, ordered by the time they expire, so that expired entries can be
+ * found without iterating over the whole container.
+ * <p>
+ * Like {@link org.infinispan.container.ExpirationIndex} this is a hashed timing wheel, but it holds the hash codes of
+ * the keys instead of the keys.  No key is copied to the heap and no object is allocated per indexed entry: a hash
+ * code costs an int in its slot of the wheel and an int and a long in the tick table of its lock stripe.  Expired
+ * entries are found by walking the bucket of the hash code.
+ * <p>
+ * Keys sharing a hash code share the index entry, which is never later than the expiration of any of their entries:
+ * an entry expiring later than the one already indexed for its hash code doesn't move it.  When an index entry is
+ * visited before all its entries expired it is moved to the earliest expiration time found.
+ * <p>
+ * The container must update the index while holding the write lock of the stripe of the hash code.  The tick table of
+ * a stripe is only accessed while holding its lock.
+ * @since 9.0
+ */
+class OffHeapExpirationIndex {
+   private static final long TICK_MILLIS = 1000;
+   private static final int WHEEL_SIZE = 1024;
+   private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+   private static final long NONE = -1;
+
+   /**
+    * Looks up the entries of the container by the hash code of their key.
+    */
+   interface EntryLookup {
+      /**
+       * Passes every entry whose key has the given hash code to the action.  The caller holds the lock of the stripe
+       * of the hash code.
+       */
+      void forEachEntry(int hashCode, Consumer<InternalCacheEntry<WrappedBytes, WrappedBytes>> action);
+   }
+
+   private final StripedLock locks;
+   private final int lockMask;
+   private final EntryLookup lookup;
+   private final TickTable[] tickTables;
+   private final IntSet[] wheel;
+   private final AtomicLong indexed = new AtomicLong();
+   // The last tick visited by the reaper, its slot is visited again by the next run as it may have been only partially
+   // due.  Entries expiring before it are added to its slot, otherwise they would only be found after a full rotation.
+   private volatile long reapedTick = -1;
+
+   OffHeapExpirationIndex(StripedLock locks, int lockCount, EntryLookup lookup) {
+      this.locks = locks;
+      this.lockMask = lockCount - 1;
+      this.lookup = lookup;
+      tickTables = new TickTable[lockCount];
+      for (int i = 0; i < lockCount; ++i) {
+         tickTables[i] = new TickTable();
+      }
+      wheel = new IntSet[WHEEL_SIZE];
+      for (int i = 0; i < WHEEL_SIZE; ++i) {
+         wheel[i] = new IntSet();
+      }
+   }
+
+   /**
+    * Records the expiration time of an entry that was written.  The caller must hold the write lock of the stripe of
+    * the hash code.  Entries that never expire don't update the index, an index entry left by a replaced entry is
+    * removed when it is visited.
+    * @param hashCode the hash code of the key of the written entry
+    * @param expiryTime the wall clock time the entry expires at, negative if it never expires
+    */
+   void update(int hashCode, long expiryTime) {
+      if (expiryTime < 0) {
+         return;
+      }
+      long tick = Math.max(expiryTime / TICK_MILLIS, reapedTick);
+      TickTable table = tickTables[stripeOf(hashCode)];
+      long indexedTick = table.get(hashCode);
+      if (indexedTick == NONE) {
+         table.put(hashCode, tick);
+         wheel[slotOf(tick)].add(hashCode);
+         indexed.incrementAndGet();
+      } else if (tick < indexedTick) {
+         move(table, hashCode, indexedTick, tick);
+      }
+   }
+
+   /**
+    * Removes the hash code from the index.  The caller must hold the write lock of the stripe of the hash code and
+    * must only invoke it once no entry with the hash code is left.
+    * @param hashCode the hash code of the key of the removed entry
+    */
+   void remove(int hashCode) {
+      // Avoid the lookup for containers without expiration
+      if (indexed.get() == 0) {
+         return;
+      }
+      TickTable table = tickTables[stripeOf(hashCode)];
+      long indexedTick = table.remove(hashCode);
+      if (indexedTick != NONE) {
+         wheel[slotOf(indexedTick)].remove(hashCode);
+         indexed.decrementAndGet();
+      }
+   }
+
+   /**
+    * Removes every hash code, the caller must hold the write lock of every stripe.
+    */
+   void clear() {
+      for (TickTable table : tickTables) {
+         table.clear();
+      }
+      for (IntSet slot : wheel) {
+         slot.clear();
+      }
+      indexed.set(0);
+   }
+
+   boolean isEmpty() {
+      return indexed.get() == 0;
+   }
+
+   /**
+    * @return how many hash codes are indexed
+    */
+   long size() {
+      return indexed.get();
+   }
+
+   /**
+    * Passes the entries that expired since the previous invocation to the action.  Only the slots of the ticks that
+    * passed since the previous invocation are visited, and only the buckets of the hash codes whose index entry is
+    * due are walked.  Entries that are still present after the action are passed again by the next invocation.
+    * <p>
+    * The action is invoked without holding any lock.
+    * @param currentTimeMillis the current wall clock time
+    * @param action invoked with every expired entry, may remove the entry from the container
+    */
+   void forEachExpired(long currentTimeMillis,
+         Consumer<? super InternalCacheEntry<WrappedBytes, WrappedBytes>> action) {
+      long currentTick = currentTimeMillis / TICK_MILLIS;
+      long firstTick = firstTick(currentTick);
+      reapedTick = currentTick;
+      if (indexed.get() == 0) {
+         return;
+      }
+      Visit visit = new Visit(currentTimeMillis);
+      for (long tick = firstTick; tick <= currentTick; ++tick) {
+         int slot = (int) (tick & WHEEL_MASK);
+         for (int hashCode : wheel[slot].toArray()) {
+            reap(hashCode, slot, currentTick, visit);
+            for (InternalCacheEntry<WrappedBytes, WrappedBytes> ice : visit.expired) {
+               action.accept(ice);
+            }
+         }
+      }
+   }
+
+   /**
+    * Counts the indexed entries that are expired.  Like {@link #forEachExpired(long, Consumer)}, only the slots of the
+    * ticks that passed since the last invocation of {@code forEachExpired} are visited, and only the buckets of the
+    * hash codes whose index entry is due are walked.
+    * @param currentTimeMillis the current wall clock time
+    * @return the amount of expired entries
+    */
+   long countExpired(long currentTimeMillis) {
+      if (indexed.get() == 0) {
+         return 0;
+      }
+      long currentTick = currentTimeMillis / TICK_MILLIS;
+      long firstTick = firstTick(currentTick);
+      Visit visit = new Visit(currentTimeMillis);
+      long count = 0;
+      for (long tick = firstTick; tick <= currentTick; ++tick) {
+         int slot = (int) (tick & WHEEL_MASK);
+         for (int hashCode : wheel[slot].toArray()) {
+            int stripe = stripeOf(hashCode);
+            Lock lock = locks.getLockWithOffset(stripe).readLock();
+            lock.lock();
+            try {
+               if (isDue(tickTables[stripe].get(hashCode), slot, currentTick)) {
+                  visit.reset();
+                  lookup.forEachEntry(hashCode, visit);
+                  count += visit.expired.size();
+               }
+            } finally {
+               lock.unlock();
+            }
+         }
+      }
+      return count;
+   }
+
+   private long firstTick(long currentTick) {
+      long previousTick = reapedTick;
+      // Visit every slot at most once, even if the previous invocation was more than one rotation ago
+      return previousTick < 0 ? currentTick - WHEEL_MASK : Math.max(previousTick, currentTick - WHEEL_MASK);
+   }
+
+   /**
+    * Walks the bucket of a due hash code and corrects its index entry, the expired entries are left in the visit.
+    */
+   private void reap(int hashCode, int slot, long currentTick, Visit visit) {
+      visit.reset();
+      int stripe = stripeOf(hashCode);
+      Lock lock = locks.getLockWithOffset(stripe).writeLock();
+      lock.lock();
+      try {
+         TickTable table = tickTables[stripe];
+         long indexedTick = table.get(hashCode);
+         if (!isDue(indexedTick, slot, currentTick)) {
+            return;
+         }
+         lookup.forEachEntry(hashCode, visit);
+         if (!visit.expired.isEmpty()) {
+            // The entries may be removed asynchronously or not at all, so they are visited again by the next run
+            if (indexedTick != currentTick) {
+               move(table, hashCode, indexedTick, currentTick);
+            }
+         } else if (visit.earliestExpiryTime >= 0) {
+            // The entry expiring first was written after the index entry, or was read since it was written
+            move(table, hashCode, indexedTick, visit.earliestExpiryTime / TICK_MILLIS);
+         } else {
+            // The entries were removed or replaced by entries that never expire
+            table.remove(hashCode);
+            wheel[slot].remove(hashCode);
+            indexed.decrementAndGet();
+         }
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   private static boolean isDue(long indexedTick, int slot, long currentTick) {
+      // The hash code may have been moved concurrently, or belong to a later rotation of the wheel
+      return indexedTick != NONE && slotOf(indexedTick) == slot && indexedTick <= currentTick;
+   }
+
+   private void move(TickTable table, int hashCode, long fromTick, long toTick) {
+      table.put(hashCode, toTick);
+      int fromSlot = slotOf(fromTick);
+      int toSlot = slotOf(toTick);
+      if (fromSlot != toSlot) {
+         wheel[toSlot].add(hashCode);
+         wheel[fromSlot].remove(hashCode);
+      }
+   }
+
+   private int stripeOf(int hashCode) {
+      return MemoryAddressHash.spread(hashCode) & lockMask;
+   }
+
+   private static int slotOf(long tick) {
+      return (int) (tick & WHEEL_MASK);
+   }
+
+   private static int probe(int hashCode, int mask) {
+      // The hash codes of a stripe share their low bits, which the multiplication spreads to the high bits
+      int h = hashCode * 0x9E3779B9;
+      return (h ^ (h >>> 16)) & mask;
+   }
+
+   /**
+    * Collects the expired entries of a bucket and the earliest expiration time of the others.
+    */
+   private static final class Visit implements Consumer<InternalCacheEntry<WrappedBytes, WrappedBytes>> {
+      final long currentTimeMillis;
+      final List<InternalCacheEntry<WrappedBytes, WrappedBytes>> expired = new ArrayList<>();
+      long earliestExpiryTime;
+
+      Visit(long currentTimeMillis) {
+         this.currentTimeMillis = currentTimeMillis;
+      }
+
+      void reset() {
+         expired.clear();
+         earliestExpiryTime = -1;
+      }
+
+      @Override
+      public void accept(InternalCacheEntry<WrappedBytes, WrappedBytes> ice) {
+         if (!ice.canExpire()) {
+            return;
+         }
+         if (ice.isExpired(currentTimeMillis)) {
+            expired.add(ice);
+         } else {
+            long expiryTime = ice.getExpiryTime();
+            if (earliestExpiryTime < 0 || expiryTime < earliestExpiryTime) {
+               earliestExpiryTime = expiryTime;
+            }
+         }
+      }
+   }
+
+   /**
+    * Open addressing table from hash code to tick, guarded by the lock of its stripe.  The ticks are stored
+    * incremented by one so that 0 marks a free cell.
+    */
+   private static final class TickTable {
+      private int[] hashCodes = new int[8];
+      private long[] ticks = new long[8];
+      private int size;
+
+      long get(int hashCode) {
+         int mask = ticks.length - 1;
+         for (int i = probe(hashCode, mask); ticks[i] != 0; i = (i + 1) & mask) {
+            if (hashCodes[i] == hashCode) {
+               return ticks[i] - 1;
+            }
+         }
+         return NONE;
+      }
+
+      void put(int hashCode, long tick) {
+         int mask = ticks.length - 1;
+         int i = probe(hashCode, mask);
+         for (; ticks[i] != 0; i = (i + 1) & mask) {
+            if (hashCodes[i] == hashCode) {
+               ticks[i] = tick + 1;
+               return;
+            }
+         }
+         hashCodes[i] = hashCode;
+         ticks[i] = tick + 1;
+         if (++size > (ticks.length >> 1) + (ticks.length >> 2)) {
+            resize(ticks.length << 1);
+         }
+      }
+
+      long remove(int hashCode) {
+         int mask = ticks.length - 1;
+         for (int i = probe(hashCode, mask); ticks[i] != 0; i = (i + 1) & mask) {
+            if (hashCodes[i] == hashCode) {
+               long tick = ticks[i] - 1;
+               shiftBack(i, mask);
+               size--;
+               return tick;
+            }
+         }
+         return NONE;
+      }
+
+      void clear() {
+         hashCodes = new int[8];
+         ticks = new long[8];
+         size = 0;
+      }
+
+      // Moves the following cells of the probe sequence into the freed cell, so that no tombstones are needed
+      private void shiftBack(int free, int mask) {
+         for (int i = (free + 1) & mask; ticks[i] != 0; i = (i + 1) & mask) {
+            int home = probe(hashCodes[i], mask);
+            if (((i - home) & mask) >= ((i - free) & mask)) {
+               hashCodes[free] = hashCodes[i];
+               ticks[free] = ticks[i];
+               free = i;
+            }
+         }
+         ticks[free] = 0;
+      }
+
+      private void resize(int capacity) {
+         int[] oldHashCodes = hashCodes;
+         long[] oldTicks = ticks;
+         hashCodes = new int[capacity];
+         ticks = new long[capacity];
+         int mask = capacity - 1;
+         for (int j = 0; j < oldTicks.length; ++j) {
+            if (oldTicks[j] != 0) {
+               int i = probe(oldHashCodes[j], mask);
+               while (ticks[i] != 0) {
+                  i = (i + 1) & mask;
+               }
+               hashCodes[i] = oldHashCodes[j];
+               ticks[i] = oldTicks[j];
+            }
+         }
+      }
+   }
+
+   /**
+    * Open addressing set of hash codes, shared by the stripes and thus synchronized.  0 marks a free cell, the hash
+    * code 0 is tracked separately.
+    */
+   private static final class IntSet {
+      private static final int[] EMPTY = new int[0];
+
+      // Most slots are empty, e.g. in the containers of the segments of a segmented container, so their table is only
+      // allocated when needed
+      private int[] hashCodes = EMPTY;
+      private int size;
+      private boolean containsZero;
+
+      synchronized void add(int hashCode) {
+         if (hashCode == 0) {
+            containsZero = true;
+            return;
+         }
+         if (hashCodes.length == 0) {
+            hashCodes = new int[8];
+         }
+         int mask = hashCodes.length - 1;
+         int i = probe(hashCode, mask);
+         for (; hashCodes[i] != 0; i = (i + 1) & mask) {
+            if (hashCodes[i] == hashCode) {
+               return;
+            }
+         }
+         hashCodes[i] = hashCode;
+         if (++size > (hashCodes.length >> 1) + (hashCodes.length >> 2)) {
+            resize(hashCodes.length << 1);
+         }
+      }
+
+      synchronized void remove(int hashCode) {
+         if (hashCode == 0) {
+            containsZero = false;
+            return;
+         }
+         if (size == 0) {
+            return;
+         }
+         int mask = hashCodes.length - 1;
+         for (int i = probe(hashCode, mask); hashCodes[i] != 0; i = (i + 1) & mask) {
+            if (hashCodes[i] == hashCode) {
+               shiftBack(i, mask);
+               size--;
+               return;
+            }
+         }
+      }
+
+      synchronized int[] toArray() {
+         int[] array = new int[containsZero ? size + 1 : size];
+         int j = 0;
+         for (int hashCode : hashCodes) {
+            if (hashCode != 0) {
+               array[j++] = hashCode;
+            }
+         }
+         return array;
+      }
+
+      synchronized void clear() {
+         hashCodes = EMPTY;
+         size = 0;
+         containsZero = false;
+      }
+
+      private void shiftBack(int free, int mask) {
+         for (int i = (free + 1) & mask; hashCodes[i] != 0; i = (i + 1) & mask) {
+            int home = probe(hashCodes[i], mask);
+            if (((i - home) & mask) >= ((i - free) & mask)) {
+               hashCodes[free] = hashCodes[i];
+               free = i;
+            }
+         }
+         hashCodes[free] = 0;
+      }
+
+      private void resize(int capacity) {
+         int[] old = hashCodes;
+         hashCodes = new int[capacity];
+         int mask = capacity - 1;
+         for (int hashCode : old) {
+            if (hashCode != 0) {
+               int i = probe(hashCode, mask);
+               while (hashCodes[i] != 0) {
+                  i = (i + 1) & mask;
+               }
+               hashCodes[i] = hashCode;
+            }
+         }
+      }
+   }
+}
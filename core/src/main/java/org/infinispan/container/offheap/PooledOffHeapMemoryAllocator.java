@@ -0,0 +1,316 @@
+package org.infinispan.container.offheap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.infinispan.factories.annotations.Stop;
+import org.infinispan.jmx.annotations.DisplayType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.Parameter;
+import org.infinispan.jmx.annotations.Units;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import sun.misc.Unsafe;
+
+/**
+ * Memory allocator that carves memory out of size-classed slabs instead of going to the native allocator for every
+ * request.  Freed chunks are kept in a free list per size class and handed out again by later allocations, the slabs
+ * themselves are only released when the allocator is stopped.
+ * <p>
+ * Every chunk starts with an 8 byte header holding its size class and the requested length, so that a chunk can be
+ * freed without having to determine the size of the entry it contains.  Requests larger than the biggest size class
+ * are allocated directly using {@link Unsafe}.
+ * <p>
+ * To reduce contention the free lists and slabs are split into arenas, the arena is chosen by the id of the calling
+ * thread.  A chunk is always returned to the arena of the thread freeing it, which doesn't have to be the one it was
+ * allocated from.
+ * @since 9.0
+ */
+@MBean(objectName = "OffHeapMemoryAllocator", description = "Statistics of the pooled off-heap memory allocator")
+public class PooledOffHeapMemoryAllocator implements OffHeapMemoryAllocator {
+   private static final Log log = LogFactory.getLog(PooledOffHeapMemoryAllocator.class);
+   private static final boolean trace = log.isTraceEnabled();
+   private static final Unsafe UNSAFE = UnsafeHolder.UNSAFE;
+
+   private static final int HEADER_LENGTH = 8;
+   private static final int HUGE_SIZE_CLASS = -1;
+   private static final int MIN_CHUNK_SIZE = 32;
+   private static final int MAX_CHUNK_SIZE = 32 * 1024;
+   // How many size classes there are between two powers of two
+   private static final int SIZE_CLASS_STEPS = 4;
+   private static final int SLAB_SIZE = 64 * 1024;
+   private static final int MIN_CHUNKS_PER_SLAB = 8;
+
+   private static final int[] CHUNK_SIZES = chunkSizes();
+
+   private final Arena[] arenas;
+   private final int arenaMask;
+
+   private final LongAdder allocatedAmount = new LongAdder();
+   private final LongAdder hugeAmount = new LongAdder();
+   private final LongAdder[] usedChunks = newAdders();
+   private final LongAdder[] reservedChunks = newAdders();
+   private final LongAdder[] requestedBytes = newAdders();
+
+   public PooledOffHeapMemoryAllocator() {
+      this(Runtime.getRuntime().availableProcessors());
+   }
+
+   PooledOffHeapMemoryAllocator(int arenaCount) {
+      arenaCount = OffHeapDataContainer.nextPowerOfTwo(arenaCount);
+      arenas = new Arena[arenaCount];
+      for (int i = 0; i < arenaCount; ++i) {
+         arenas[i] = new Arena();
+      }
+      arenaMask = arenaCount - 1;
+   }
+
+   static int[] chunkSizes() {
+      List<Integer> sizes = new ArrayList<>();
+      for (int base = MIN_CHUNK_SIZE; base < MAX_CHUNK_SIZE; base <<= 1) {
+         int step = base / SIZE_CLASS_STEPS;
+         for (int i = 0; i < SIZE_CLASS_STEPS; ++i) {
+            sizes.add(base + i * step);
+         }
+      }
+      sizes.add(MAX_CHUNK_SIZE);
+      return sizes.stream().mapToInt(Integer::intValue).toArray();
+   }
+
+   private static LongAdder[] newAdders() {
+      LongAdder[] adders = new LongAdder[CHUNK_SIZES.length];
+      for (int i = 0; i < adders.length; ++i) {
+         adders[i] = new LongAdder();
+      }
+      return adders;
+   }
+
+   /**
+    * @return the smallest size class whose chunks can hold the given amount of bytes or {@link #HUGE_SIZE_CLASS}
+    */
+   static int sizeClass(long chunkLength) {
+      if (chunkLength > MAX_CHUNK_SIZE) {
+         return HUGE_SIZE_CLASS;
+      }
+      int low = 0;
+      int high = CHUNK_SIZES.length - 1;
+      while (low < high) {
+         int mid = (low + high) >>> 1;
+         if (CHUNK_SIZES[mid] < chunkLength) {
+            low = mid + 1;
+         } else {
+            high = mid;
+         }
+      }
+      return low;
+   }
+
+   private Arena arena() {
+      return arenas[(int) Thread.currentThread().getId() & arenaMask];
+   }
+
+   @Override
+   public long allocate(long memoryLength) {
+      if (memoryLength > Integer.MAX_VALUE - HEADER_LENGTH) {
+         throw new IllegalArgumentException("Cannot allocate more than " + (Integer.MAX_VALUE - HEADER_LENGTH) +
+               " bytes, requested " + memoryLength);
+      }
+      long chunkLength = memoryLength + HEADER_LENGTH;
+      int sizeClass = sizeClass(chunkLength);
+      long chunk;
+      if (sizeClass == HUGE_SIZE_CLASS) {
+         chunk = UNSAFE.allocateMemory(chunkLength);
+         hugeAmount.add(chunkLength);
+         allocatedAmount.add(chunkLength);
+      } else {
+         chunk = arena().allocate(sizeClass);
+         usedChunks[sizeClass].increment();
+         requestedBytes[sizeClass].add(memoryLength);
+         allocatedAmount.add(CHUNK_SIZES[sizeClass]);
+      }
+      UNSAFE.putLong(chunk, ((long) sizeClass << 32) | memoryLength);
+      return chunk + HEADER_LENGTH;
+   }
+
+   @Override
+   public void deallocate(long memoryAddress) {
+      long chunk = memoryAddress - HEADER_LENGTH;
+      long header = UNSAFE.getLong(chunk);
+      int sizeClass = (int) (header >> 32);
+      long memoryLength = header & 0xFFFFFFFFL;
+      if (sizeClass == HUGE_SIZE_CLASS) {
+         long chunkLength = memoryLength + HEADER_LENGTH;
+         hugeAmount.add(-chunkLength);
+         allocatedAmount.add(-chunkLength);
+         UNSAFE.freeMemory(chunk);
+      } else {
+         usedChunks[sizeClass].decrement();
+         requestedBytes[sizeClass].add(-memoryLength);
+         allocatedAmount.add(-CHUNK_SIZES[sizeClass]);
+         arena().free(sizeClass, chunk);
+      }
+   }
+
+   @ManagedAttribute(
+         description = "Amount of off-heap memory handed out to entries, including the unused part of their chunks",
+         displayName = "Allocated memory",
+         displayType = DisplayType.SUMMARY
+   )
+   @Override
+   public long getAllocatedAmount() {
+      return allocatedAmount.sum();
+   }
+
+   @ManagedAttribute(
+         description = "Amount of off-heap memory reserved by the allocator, including free chunks and unused slabs",
+         displayName = "Reserved memory",
+         displayType = DisplayType.SUMMARY
+   )
+   public long getReservedAmount() {
+      long reserved = hugeAmount.sum();
+      for (int i = 0; i < CHUNK_SIZES.length; ++i) {
+         reserved += reservedChunks[i].sum() * CHUNK_SIZES[i];
+      }
+      return reserved;
+   }
+
+   @ManagedAttribute(
+         description = "Percentage of the reserved off-heap memory that is currently allocated to entries",
+         displayName = "Utilization",
+         units = Units.PERCENTAGE,
+         displayType = DisplayType.SUMMARY
+   )
+   public double getUtilization() {
+      return ratio(getAllocatedAmount(), getReservedAmount());
+   }
+
+   @ManagedAttribute(
+         description = "Percentage of the allocated off-heap memory that is wasted because chunks are larger than the requested size",
+         displayName = "Fragmentation",
+         units = Units.PERCENTAGE,
+         displayType = DisplayType.SUMMARY
+   )
+   public double getFragmentation() {
+      long used = 0;
+      long requested = 0;
+      for (int i = 0; i < CHUNK_SIZES.length; ++i) {
+         used += usedChunks[i].sum() * CHUNK_SIZES[i];
+         requested += requestedBytes[i].sum();
+      }
+      return 1 - ratio(requested, used);
+   }
+
+   @ManagedAttribute(
+         description = "Number of size classes used by the allocator",
+         displayName = "Size class count",
+         displayType = DisplayType.SUMMARY
+   )
+   public int getSizeClassCount() {
+      return CHUNK_SIZES.length;
+   }
+
+   @ManagedOperation(
+         description = "Returns the chunk size in bytes of the given size class",
+         displayName = "Size class chunk size"
+   )
+   public int sizeClassChunkSize(@Parameter(name = "sizeClass", description = "The size class") int sizeClass) {
+      return CHUNK_SIZES[sizeClass];
+   }
+
+   @ManagedOperation(
+         description = "Returns the percentage of reserved chunks of the given size class that are allocated",
+         displayName = "Size class utilization"
+   )
+   public double sizeClassUtilization(@Parameter(name = "sizeClass", description = "The size class") int sizeClass) {
+      return ratio(usedChunks[sizeClass].sum(), reservedChunks[sizeClass].sum());
+   }
+
+   @ManagedOperation(
+         description = "Returns the percentage of allocated memory of the given size class not used by entries",
+         displayName = "Size class fragmentation"
+   )
+   public double sizeClassFragmentation(@Parameter(name = "sizeClass", description = "The size class") int sizeClass) {
+      return 1 - ratio(requestedBytes[sizeClass].sum(), usedChunks[sizeClass].sum() * CHUNK_SIZES[sizeClass]);
+   }
+
+   private static double ratio(long part, long total) {
+      return total == 0 ? 0 : (double) part / total;
+   }
+
+   /**
+    * Releases all the slabs.  Must only be invoked after all entries have been freed, which the data container does
+    * in its own stop method with a lower priority.
+    */
+   @Stop(priority = Integer.MAX_VALUE)
+   public void stop() {
+      if (getAllocatedAmount() != hugeAmount.sum()) {
+         log.debugf("Releasing slabs while %d bytes are still allocated", getAllocatedAmount() - hugeAmount.sum());
+      }
+      for (Arena arena : arenas) {
+         arena.release();
+      }
+      for (int i = 0; i < CHUNK_SIZES.length; ++i) {
+         reservedChunks[i].reset();
+         usedChunks[i].reset();
+         requestedBytes[i].reset();
+      }
+      allocatedAmount.reset();
+      allocatedAmount.add(hugeAmount.sum());
+   }
+
+   /**
+    * Free lists and current slab for every size class.  The free lists are threaded through the first 8 bytes of
+    * the free chunks.  All state is guarded by the arena's monitor.
+    */
+   private final class Arena {
+      private final long[] freeLists = new long[CHUNK_SIZES.length];
+      private final long[] slabCursors = new long[CHUNK_SIZES.length];
+      private final long[] slabEnds = new long[CHUNK_SIZES.length];
+      private final List<Long> slabs = new ArrayList<>();
+
+      synchronized long allocate(int sizeClass) {
+         long chunk = freeLists[sizeClass];
+         if (chunk != 0) {
+            freeLists[sizeClass] = UNSAFE.getLong(chunk);
+            return chunk;
+         }
+         int chunkSize = CHUNK_SIZES[sizeClass];
+         if (slabCursors[sizeClass] == slabEnds[sizeClass]) {
+            int chunksPerSlab = Math.max(MIN_CHUNKS_PER_SLAB, SLAB_SIZE / chunkSize);
+            long slabLength = (long) chunksPerSlab * chunkSize;
+            long slab = UNSAFE.allocateMemory(slabLength);
+            if (trace) {
+               log.tracef("Allocated slab of %d bytes at %d for chunks of %d bytes", slabLength, slab, chunkSize);
+            }
+            slabs.add(slab);
+            slabCursors[sizeClass] = slab;
+            slabEnds[sizeClass] = slab + slabLength;
+            reservedChunks[sizeClass].add(chunksPerSlab);
+         }
+         chunk = slabCursors[sizeClass];
+         slabCursors[sizeClass] = chunk + chunkSize;
+         return chunk;
+      }
+
+      synchronized void free(int sizeClass, long chunk) {
+         UNSAFE.putLong(chunk, freeLists[sizeClass]);
+         freeLists[sizeClass] = chunk;
+      }
+
+      synchronized void release() {
+         for (Long slab : slabs) {
+            UNSAFE.freeMemory(slab);
+         }
+         slabs.clear();
+         for (int i = 0; i < CHUNK_SIZES.length; ++i) {
+            freeLists[i] = 0;
+            slabCursors[i] = 0;
+            slabEnds[i] = 0;
+         }
+      }
+   }
+}
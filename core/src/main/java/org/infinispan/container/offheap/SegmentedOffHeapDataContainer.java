@@ -0,0 +1,56 @@
+package org.infinispan.container.offheap;
+
+import java.util.function.IntFunction;
+
+import org.infinispan.commons.marshall.WrappedBytes;
+import org.infinispan.container.AbstractSegmentedDataContainer;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.InternalEntryFactory;
+import org.infinispan.eviction.PassivationManager;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Stop;
+import org.infinispan.util.TimeService;
+
+/**
+ * Off-heap {@link org.infinispan.container.SegmentedDataContainer} that holds a separate
+ * {@link OffHeapDataContainer} per segment.  The desired amount of memory addresses and the lock stripes of a single
+ * container are split evenly between the segments, so that all the segments together start as small as an unsegmented
+ * container.  Each segment grows its address table independently.
+ *
+ * @since 9.0
+ */
+public class SegmentedOffHeapDataContainer extends AbstractSegmentedDataContainer<WrappedBytes, WrappedBytes> {
+
+   public SegmentedOffHeapDataContainer(int desiredSize, int numSegments) {
+      super(numSegments, segmentFactory(desiredSize, numSegments));
+   }
+
+   private static IntFunction<OffHeapDataContainer> segmentFactory(int desiredSize, int numSegments) {
+      int addressCount = Math.max(1, desiredSize / numSegments);
+      int lockCount = OffHeapDataContainer.nextPowerOfTwo(
+            Math.max(1, OffHeapDataContainer.defaultLockCount() / numSegments));
+      return i -> new OffHeapDataContainer(addressCount, lockCount);
+   }
+
+   @Inject
+   public void inject(PassivationManager passivator, OffHeapEntryFactory offHeapEntryFactory,
+         OffHeapMemoryAllocator allocator, TimeService timeService, InternalEntryFactory internalEntryFactory) {
+      for (DataContainer<WrappedBytes, WrappedBytes> segment : segments) {
+         ((OffHeapDataContainer) segment).inject(passivator, offHeapEntryFactory, allocator, timeService,
+               internalEntryFactory);
+      }
+   }
+
+   /**
+    * Clears the memory lookups and cache data of all segments.
+    * <p>
+    * This is done right before the {@link OffHeapMemoryAllocator} is stopped, which may release the memory the entries
+    * were allocated from.
+    */
+   @Stop(priority = Integer.MAX_VALUE - 1)
+   public void deallocate() {
+      for (DataContainer<WrappedBytes, WrappedBytes> segment : segments) {
+         ((OffHeapDataContainer) segment).deallocate();
+      }
+   }
+}
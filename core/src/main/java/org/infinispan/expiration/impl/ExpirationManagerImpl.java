@@ -1,11 +1,12 @@
 package org.infinispan.expiration.impl;
 
-import java.util.Iterator;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 import org.infinispan.Cache;
 import org.infinispan.commons.util.Util;
@@ -18,6 +19,12 @@
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
+import org.infinispan.jmx.annotations.DisplayType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
 import org.infinispan.marshall.core.MarshalledEntry;
 import org.infinispan.metadata.Metadata;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
@@ -29,6 +36,7 @@
 import net.jcip.annotations.ThreadSafe;
 
 @ThreadSafe
+@MBean(objectName = "ExpirationManager", description = "Component that removes expired entries from memory.")
 public class ExpirationManagerImpl<K, V> implements ExpirationManager<K, V> {
    protected static final Log log = LogFactory.getLog(ExpirationManagerImpl.class);
    protected static final boolean trace = log.isTraceEnabled();
@@ -52,6 +60,13 @@
     */
    protected ConcurrentMap<K, Object> expiring;
 
+   private final AtomicLong reapedEntries = new AtomicLong();
+   private volatile long reaperLag;
+   private volatile long reaperDuration;
+
+   @ManagedAttribute(description = "Enables or disables the gathering of statistics by this component", displayName = "Statistics enabled", writable = true)
+   private boolean statisticsEnabled = false;
+
    @Inject
    public void initialize(@ComponentName(KnownComponentNames.EXPIRATION_SCHEDULED_EXECUTOR)
          ScheduledExecutorService executor, Cache<K, V> cache, Configuration cfg, DataContainer<K, V> dataContainer,
@@ -78,6 +93,7 @@ void initialize(ScheduledExecutorService executor, String cacheName, Configurati
    @Start(priority = 55)
    // make sure this starts after the PersistenceManager
    public void start() {
+      statisticsEnabled = configuration.jmxStatistics().enabled();
       // first check if eviction is enabled!
       enabled = configuration.expiration().reaperEnabled();
       if (enabled) {
@@ -103,13 +119,7 @@ public void processExpiration() {
                start = timeService.time();
             }
             long currentTimeMillis = timeService.wallClockTime();
-            for (Iterator<InternalCacheEntry<K, V>> purgeCandidates = dataContainer.iteratorIncludingExpired();
-                 purgeCandidates.hasNext();) {
-               InternalCacheEntry<K, V> e = purgeCandidates.next();
-               if (e.isExpired(currentTimeMillis)) {
-                  handleInMemoryExpiration(e, currentTimeMillis);
-               }
-            }
+            reapExpired(currentTimeMillis, e -> handleInMemoryExpiration(e, currentTimeMillis));
             if (trace) {
                log.tracef("Purging data container completed in %s",
                           Util.prettyPrintTime(timeService.timeDuration(start, TimeUnit.MILLISECONDS)));
@@ -124,6 +134,69 @@ public void processExpiration() {
       }
    }
 
+   /**
+    * Passes the expired entries of the data container to the handler, the container only visits the entries whose
+    * expiration time passed.  Updates the reaper statistics.
+    * @param currentTimeMillis the current wall clock time
+    * @param handler invoked with every expired entry
+    */
+   protected void reapExpired(long currentTimeMillis, Consumer<InternalCacheEntry<K, V>> handler) {
+      if (!statisticsEnabled) {
+         dataContainer.forEachExpired(currentTimeMillis, handler);
+         return;
+      }
+      long start = timeService.time();
+      final long[] maxLag = new long[1];
+      final long[] reaped = new long[1];
+      dataContainer.forEachExpired(currentTimeMillis, e -> {
+         maxLag[0] = Math.max(maxLag[0], currentTimeMillis - e.getExpiryTime());
+         reaped[0]++;
+         handler.accept(e);
+      });
+      reapedEntries.addAndGet(reaped[0]);
+      reaperLag = maxLag[0];
+      reaperDuration = timeService.timeDuration(start, TimeUnit.MILLISECONDS);
+   }
+
+   @ManagedAttribute(
+         description = "Number of expired entries found in memory by the expiration reaper",
+         displayName = "Number of reaped entries",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getReapedEntries() {
+      return reapedEntries.get();
+   }
+
+   @ManagedAttribute(
+         description = "Longest time between the expiration of an entry and its removal by the last reaper run",
+         displayName = "Reaper lag",
+         units = Units.MILLISECONDS,
+         displayType = DisplayType.SUMMARY
+   )
+   public long getReaperLag() {
+      return reaperLag;
+   }
+
+   @ManagedAttribute(
+         description = "Time the last reaper run took to remove the expired entries from memory",
+         displayName = "Reaper duration",
+         units = Units.MILLISECONDS,
+         displayType = DisplayType.SUMMARY
+   )
+   public long getReaperDuration() {
+      return reaperDuration;
+   }
+
+   @ManagedOperation(
+         description = "Resets statistics gathered by this component",
+         displayName = "Reset statistics"
+   )
+   public void resetStatistics() {
+      reapedEntries.set(0);
+      reaperLag = 0;
+      reaperDuration = 0;
+   }
+
    @Override
    public boolean isEnabled() {
       return enabled;
@@ -6,9 +6,12 @@
 import org.infinispan.configuration.cache.MemoryConfiguration;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.DefaultDataContainer;
+import org.infinispan.container.DefaultSegmentedDataContainer;
 import org.infinispan.container.StorageType;
 import org.infinispan.container.entries.PrimitiveEntrySizeCalculator;
+import org.infinispan.container.offheap.BoundedOffHeapDataContainer;
 import org.infinispan.container.offheap.OffHeapDataContainer;
+import org.infinispan.container.offheap.SegmentedOffHeapDataContainer;
 import org.infinispan.eviction.EvictionType;
 import org.infinispan.factories.annotations.DefaultFactoryFor;
 import org.infinispan.marshall.core.WrappedByteArraySizeCalculator;
@@ -37,21 +40,26 @@ public <T> T construct(Class<T> componentType) {
 
          //handle case when < 0 value signifies unbounded container
          if(thresholdSize < 0) {
+            // Segmenting the container only pays off when state transfer has to work with segments
+            boolean segmented = configuration.clustering().cacheMode().needsStateTransfer();
+            int numSegments = configuration.clustering().hash().numSegments();
             if (configuration.memory().storageType() == StorageType.OFF_HEAP) {
+               if (segmented) {
+                  return (T) new SegmentedOffHeapDataContainer(configuration.memory().addressCount(), numSegments);
+               }
                return (T) new OffHeapDataContainer(configuration.memory().addressCount());
             } else {
+               if (segmented) {
+                  return (T) new DefaultSegmentedDataContainer<>(level, numSegments);
+               }
                return (T) DefaultDataContainer.unBoundedDataContainer(level);
             }
          }
 
          DataContainer dataContainer;
          if (configuration.memory().storageType() == StorageType.OFF_HEAP) {
-            if (configuration.eviction().type() == EvictionType.MEMORY) {
-               // TODO: need to bound container
-               dataContainer = new OffHeapDataContainer(configuration.memory().addressCount());
-            } else {
-               dataContainer = new OffHeapDataContainer(configuration.memory().addressCount());
-            }
+            dataContainer = new BoundedOffHeapDataContainer(configuration.memory().addressCount(), thresholdSize,
+                  configuration.memory().evictionType());
          } else {
             dataContainer = DefaultDataContainer.boundedDataContainer(level, thresholdSize,
                   configuration.eviction().type());
@@ -11,6 +11,12 @@
 import org.infinispan.commons.io.ByteBufferFactory;
 import org.infinispan.commons.io.ByteBufferFactoryImpl;
 import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.container.offheap.OffHeapAllocatorType;
+import org.infinispan.container.offheap.OffHeapEntryFactory;
+import org.infinispan.container.offheap.OffHeapEntryFactoryImpl;
+import org.infinispan.container.offheap.OffHeapMemoryAllocator;
+import org.infinispan.container.offheap.PooledOffHeapMemoryAllocator;
+import org.infinispan.container.offheap.UnpooledOffHeapMemoryAllocator;
 import org.infinispan.context.InvocationContextFactory;
 import org.infinispan.context.NonTransactionalInvocationContextFactory;
 import org.infinispan.context.TransactionalInvocationContextFactory;
@@ -67,7 +73,8 @@
                               TotalOrderManager.class, ByteBufferFactory.class, MarshalledEntryFactory.class,
                               RemoteValueRetrievedListener.class, InvocationContextFactory.class, CommitManager.class,
                               XSiteStateTransferManager.class, XSiteStateConsumer.class, XSiteStateProvider.class,
-                              FunctionalNotifier.class, CommandAckCollector.class})
+                              FunctionalNotifier.class, CommandAckCollector.class, OffHeapEntryFactory.class,
+                              OffHeapMemoryAllocator.class})
 public class EmptyConstructorNamedCacheFactory extends AbstractNamedCacheComponentFactory implements AutoInstantiableFactory {
 
    @Override
@@ -143,6 +150,13 @@ public <T> T construct(Class<T> componentType) {
             return (T) new FunctionalNotifierImpl<>();
          } else if (componentType.equals(CommandAckCollector.class)) {
             return componentType.cast(new CommandAckCollector());
+         } else if (componentType.equals(OffHeapEntryFactory.class)) {
+            return componentType.cast(new OffHeapEntryFactoryImpl());
+         } else if (componentType.equals(OffHeapMemoryAllocator.class)) {
+            if (configuration.memory().allocatorType() == OffHeapAllocatorType.POOLED) {
+               return componentType.cast(new PooledOffHeapMemoryAllocator());
+            }
+            return componentType.cast(new UnpooledOffHeapMemoryAllocator());
          }
       }
 
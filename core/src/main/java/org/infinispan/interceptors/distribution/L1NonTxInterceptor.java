@@ -220,6 +220,12 @@ public BasicInvocationStage visitReplaceCommand(InvocationContext ctx, ReplaceCo
 
    @Override
    public BasicInvocationStage visitPutMapCommand(InvocationContext ctx, PutMapCommand command) throws Throwable {
+      if (command.hasFlag(Flag.CACHE_MODE_LOCAL)) {
+         if (trace) {
+            log.tracef("local mode forced, suppressing L1 calls.");
+         }
+         return invokeNext(ctx, command);
+      }
       Set<Object> keys = command.getMap().keySet();
       Set<Object> toInvalidate = new HashSet<Object>(keys.size());
       for (Object k : keys) {
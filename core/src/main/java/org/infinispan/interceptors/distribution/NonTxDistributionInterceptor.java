@@ -157,6 +157,9 @@ public BasicInvocationStage visitReadWriteKeyCommand(InvocationContext ctx, Read
    @Override
    public BasicInvocationStage visitPutMapCommand(InvocationContext ctx, PutMapCommand command)
          throws Throwable {
+      if (command.hasFlag(Flag.CACHE_MODE_LOCAL)) {
+         return invokeNext(ctx, command);
+      }
       return handleReadWriteManyCommand(ctx, command, putMapHelper);
    }
 
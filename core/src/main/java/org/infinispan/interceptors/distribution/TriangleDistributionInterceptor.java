@@ -92,6 +92,10 @@ public BasicInvocationStage visitPutKeyValueCommand(InvocationContext ctx, PutKe
 
    @Override
    public BasicInvocationStage visitPutMapCommand(InvocationContext ctx, PutMapCommand command) throws Throwable {
+      if (command.hasFlag(Flag.CACHE_MODE_LOCAL)) {
+         //don't go through the triangle
+         return invokeNext(ctx, command);
+      }
       if (ctx.isOriginLocal()) {
          return handleLocalPutMapCommand(ctx, command);
       } else {
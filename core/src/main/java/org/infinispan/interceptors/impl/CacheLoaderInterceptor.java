@@ -1,12 +1,20 @@
 package org.infinispan.interceptors.impl;
 
+import static org.infinispan.commons.util.Util.toStr;
 import static org.infinispan.factories.KnownComponentNames.PERSISTENCE_EXECUTOR;
 import static org.infinispan.persistence.PersistenceUtil.convert;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
@@ -37,6 +45,7 @@
 import org.infinispan.commands.write.RemoveCommand;
 import org.infinispan.commands.write.ReplaceCommand;
 import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.commons.CacheException;
 import org.infinispan.commons.equivalence.Equivalence;
 import org.infinispan.commons.equivalence.EquivalentHashSet;
 import org.infinispan.commons.util.CloseableIterator;
@@ -87,6 +96,11 @@
 public class CacheLoaderInterceptor<K, V> extends JmxStatsCommandInterceptor {
    private final AtomicLong cacheLoads = new AtomicLong(0);
    private final AtomicLong cacheMisses = new AtomicLong(0);
+   private final AtomicLong coalescedLoads = new AtomicLong(0);
+   // The loads in progress, shared by the concurrent commands that need the same key.  The local-only stores are
+   // skipped for remote invocations, so those can only share the loads among themselves.
+   private final ConcurrentMap<Object, CompletableFuture<InternalCacheEntry<K, V>>> pendingLoads = new ConcurrentHashMap<>();
+   private final ConcurrentMap<Object, CompletableFuture<InternalCacheEntry<K, V>>> pendingRemoteLoads = new ConcurrentHashMap<>();
 
    protected PersistenceManager persistenceManager;
    protected CacheNotifier notifier;
@@ -153,10 +167,7 @@ public BasicInvocationStage visitGetCacheEntryCommand(InvocationContext ctx,
    @Override
    public BasicInvocationStage visitGetAllCommand(InvocationContext ctx, GetAllCommand command)
          throws Throwable {
-      for (Object key : command.getKeys()) {
-         loadIfNeeded(ctx, key, command);
-      }
-      return invokeNext(ctx, command);
+      return visitManyDataCommand(ctx, command, command.getKeys());
    }
 
    @Override
@@ -185,9 +196,7 @@ public BasicInvocationStage visitReplaceCommand(InvocationContext ctx, ReplaceCo
 
    private BasicInvocationStage visitManyDataCommand(InvocationContext ctx, FlagAffectedCommand command, Collection<?> keys)
          throws Throwable {
-      for (Object key : keys) {
-         loadIfNeeded(ctx, key, command);
-      }
+      loadAllIfNeeded(ctx, keys, command);
       return invokeNext(ctx, command);
    }
 
@@ -335,10 +344,108 @@ protected final Boolean loadIfNeeded(final InvocationContext ctx, Object key, fi
    }
 
    private Boolean loadInContext(InvocationContext ctx, Object key, FlagAffectedCommand cmd) {
+      ConcurrentMap<Object, CompletableFuture<InternalCacheEntry<K, V>>> pending =
+            ctx.isOriginLocal() ? pendingLoads : pendingRemoteLoads;
+      CompletableFuture<InternalCacheEntry<K, V>> load = new CompletableFuture<>();
+      CompletableFuture<InternalCacheEntry<K, V>> inFlight = pending.putIfAbsent(key, load);
+      if (inFlight != null) {
+         return joinLoad(ctx, key, cmd, inFlight);
+      }
+
       final AtomicReference<Boolean> isLoaded = new AtomicReference<>();
-      InternalCacheEntry<K, V> entry = PersistenceUtil.loadAndStoreInDataContainer(dataContainer, persistenceManager, (K) key,
-                                                                             ctx, timeService, isLoaded);
+      InternalCacheEntry<K, V> entry;
+      try {
+         entry = PersistenceUtil.loadAndStoreInDataContainer(dataContainer, persistenceManager, (K) key,
+                                                             ctx, timeService, isLoaded);
+         load.complete(entry);
+      } catch (Throwable t) {
+         load.completeExceptionally(t);
+         throw t;
+      } finally {
+         pending.remove(key, load);
+      }
       Boolean isLoadedValue = isLoaded.get();
+      loadedInContext(ctx, key, cmd, entry, isLoadedValue);
+      return isLoadedValue;
+   }
+
+   /**
+    * Same as {@link #loadIfNeeded(InvocationContext, Object, FlagAffectedCommand)} for many keys, except that all the
+    * keys that are neither in memory nor being loaded by another command are loaded from each store at once.
+    */
+   protected final void loadAllIfNeeded(InvocationContext ctx, Collection<?> keys, FlagAffectedCommand cmd) {
+      Set<Object> toLoad = new HashSet<>();
+      long now = timeService.wallClockTime();
+      for (Object key : keys) {
+         if (skipLoad(cmd, key, ctx)) {
+            continue;
+         }
+         InternalCacheEntry<K, V> entry = dataContainer.peek(key);
+         if (entry != null && (!entry.canExpire() || !entry.isExpired(now))) {
+            loadedInContext(ctx, key, cmd, entry, null);
+         } else {
+            toLoad.add(key);
+         }
+      }
+      if (toLoad.size() <= 1) {
+         for (Object key : toLoad) {
+            loadInContext(ctx, key, cmd);
+         }
+         return;
+      }
+
+      ConcurrentMap<Object, CompletableFuture<InternalCacheEntry<K, V>>> pending =
+            ctx.isOriginLocal() ? pendingLoads : pendingRemoteLoads;
+      Map<Object, CompletableFuture<InternalCacheEntry<K, V>>> loads = new HashMap<>();
+      Map<Object, CompletableFuture<InternalCacheEntry<K, V>>> joined = new HashMap<>();
+      for (Object key : toLoad) {
+         CompletableFuture<InternalCacheEntry<K, V>> load = new CompletableFuture<>();
+         CompletableFuture<InternalCacheEntry<K, V>> inFlight = pending.putIfAbsent(key, load);
+         if (inFlight == null) {
+            loads.put(key, load);
+         } else {
+            joined.put(key, inFlight);
+         }
+      }
+
+      Map<Object, InternalCacheEntry<K, V>> entries = new HashMap<>();
+      Map<Object, Boolean> loadedKeys = new HashMap<>();
+      try {
+         if (!loads.isEmpty()) {
+            if (trace) {
+               log.tracef("Loading %d keys at once", loads.size());
+            }
+            Map<Object, MarshalledEntry> loaded = persistenceManager.loadAllFromAllStores(loads.keySet(), ctx);
+            for (Object key : loads.keySet()) {
+               AtomicReference<Boolean> isLoaded = new AtomicReference<>();
+               InternalCacheEntry<K, V> entry = PersistenceUtil.storeLoadedInDataContainer(dataContainer, (K) key,
+                     loaded.get(key), timeService, isLoaded);
+               entries.put(key, entry);
+               loadedKeys.put(key, isLoaded.get());
+            }
+         }
+      } catch (Throwable t) {
+         for (Map.Entry<Object, CompletableFuture<InternalCacheEntry<K, V>>> load : loads.entrySet()) {
+            load.getValue().completeExceptionally(t);
+            pending.remove(load.getKey(), load.getValue());
+         }
+         throw t;
+      }
+      // Release the other commands before the notifications, a listener could read one of the keys
+      for (Map.Entry<Object, CompletableFuture<InternalCacheEntry<K, V>>> load : loads.entrySet()) {
+         load.getValue().complete(entries.get(load.getKey()));
+         pending.remove(load.getKey(), load.getValue());
+      }
+      for (Object key : loads.keySet()) {
+         loadedInContext(ctx, key, cmd, entries.get(key), loadedKeys.get(key));
+      }
+      for (Map.Entry<Object, CompletableFuture<InternalCacheEntry<K, V>>> inFlight : joined.entrySet()) {
+         joinLoad(ctx, inFlight.getKey(), cmd, inFlight.getValue());
+      }
+   }
+
+   private void loadedInContext(InvocationContext ctx, Object key, FlagAffectedCommand cmd,
+                                InternalCacheEntry<K, V> entry, Boolean isLoadedValue) {
       if (trace) {
          log.tracef("Entry was loaded? %s", isLoadedValue);
       }
@@ -362,7 +469,40 @@ private Boolean loadInContext(InvocationContext ctx, Object key, FlagAffectedCom
             sendNotification(key, value, false, ctx, cmd);
          }
       }
-      return isLoadedValue;
+   }
+
+   /**
+    * Waits for a concurrent load of the same key instead of querying the stores again.  The loaded entry is already in
+    * the data container, and the command that loaded it has sent the notifications.
+    */
+   private Boolean joinLoad(InvocationContext ctx, Object key, FlagAffectedCommand cmd,
+                            CompletableFuture<InternalCacheEntry<K, V>> inFlight) {
+      if (trace) {
+         log.tracef("Waiting for a concurrent load of key %s", toStr(key));
+      }
+      if (getStatisticsEnabled()) {
+         coalescedLoads.incrementAndGet();
+      }
+      InternalCacheEntry<K, V> loaded;
+      try {
+         loaded = inFlight.join();
+      } catch (CompletionException e) {
+         Throwable cause = e.getCause();
+         throw cause instanceof RuntimeException ? (RuntimeException) cause : new CacheException(cause);
+      }
+      // A write may have changed the entry after it was loaded
+      InternalCacheEntry<K, V> entry = dataContainer.peek(key);
+      if (entry != null && entry.canExpire() && entry.isExpired(timeService.wallClockTime())) {
+         entry = null;
+      }
+      if (entry == null && loaded != null) {
+         // The loaded entry was evicted or removed in the meantime, so it is not safe to use it
+         return loadInContext(ctx, key, cmd);
+      }
+      if (entry != null) {
+         entryFactory.wrapExternalEntry(ctx, key, entry, cmd instanceof WriteCommand);
+      }
+      return null;
    }
 
    private boolean skipLoad(FlagAffectedCommand cmd, Object key, InvocationContext ctx) {
@@ -450,6 +590,16 @@ public long getCacheLoaderMisses() {
       return cacheMisses.get();
    }
 
+   @ManagedAttribute(
+         description = "Number of loads that waited for a concurrent load of the same key instead of querying the cache store",
+         displayName = "Number of coalesced cache store loads",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   @SuppressWarnings("unused")
+   public long getCacheLoaderCoalescedLoads() {
+      return coalescedLoads.get();
+   }
+
    @Override
    @ManagedOperation(
          description = "Resets statistics gathered by this component",
@@ -458,6 +608,7 @@ public long getCacheLoaderMisses() {
    public void resetStatistics() {
       cacheLoads.set(0);
       cacheMisses.set(0);
+      coalescedLoads.set(0);
    }
 
    @ManagedAttribute(
@@ -502,7 +653,22 @@ public WrappedEntrySet(EntrySetCommand command, CacheSet<CacheEntry<K, V>> entry
 
       @Override
       public CloseableIterator<CacheEntry<K, V>> iterator() {
-         CloseableIterator<CacheEntry<K, V>> iterator = Closeables.iterator(entrySet.stream());
+         return iterator(null);
+      }
+
+      @Override
+      protected boolean canIterateSegments() {
+         return true;
+      }
+
+      @Override
+      protected CloseableIterator<CacheEntry<K, V>> segmentedIterator(Set<Integer> segments) {
+         return iterator(segments);
+      }
+
+      private CloseableIterator<CacheEntry<K, V>> iterator(Set<Integer> segments) {
+         CloseableIterator<CacheEntry<K, V>> iterator = Closeables.iterator(segments == null ? entrySet.stream() :
+               entrySet.stream().filterKeySegments(segments));
          Set<K> seenKeys =
                new EquivalentHashSet<K>(cache.getAdvancedCache().getDataContainer().size(), keyEquivalence);
          // TODO: how to handle concurrent activation....
@@ -510,7 +676,7 @@ public CloseableIterator<CacheEntry<K, V>> iterator() {
 
                // TODO: how to pass in key filter...
                new PersistenceManagerCloseableSupplier<>(executorService, persistenceManager, iceFactory,
-                     new CollectionKeyFilter<>(seenKeys), 10, TimeUnit.SECONDS, 2048)), e -> e.getKey(),
+                     new CollectionKeyFilter<>(seenKeys), segments, 10, TimeUnit.SECONDS, 2048)), e -> e.getKey(),
                seenKeys);
       }
 
@@ -545,14 +711,29 @@ public WrappedKeySet(KeySetCommand command, CacheSet<K> keySet) {
 
       @Override
       public CloseableIterator<K> iterator() {
-         CloseableIterator<K> iterator = Closeables.iterator(keySet.stream());
+         return iterator(null);
+      }
+
+      @Override
+      protected boolean canIterateSegments() {
+         return true;
+      }
+
+      @Override
+      protected CloseableIterator<K> segmentedIterator(Set<Integer> segments) {
+         return iterator(segments);
+      }
+
+      private CloseableIterator<K> iterator(Set<Integer> segments) {
+         CloseableIterator<K> iterator = Closeables.iterator(segments == null ? keySet.stream() :
+               keySet.stream().filterKeySegments(segments));
          Set<K> seenKeys = new EquivalentHashSet<K>(cache.getAdvancedCache().getDataContainer().size(),
                keyEquivalence);
          // TODO: how to handle concurrent activation....
          return new DistinctKeyDoubleEntryCloseableIterator<>(iterator, new CloseableSuppliedIterator<>(new SupplierFunction<>(
                new PersistenceManagerCloseableSupplier<>(executorService, persistenceManager,
                      // TODO: how to pass in key filter...
-                     iceFactory, new CollectionKeyFilter<>(seenKeys), 10, TimeUnit.SECONDS, 2048))),
+                     iceFactory, new CollectionKeyFilter<>(seenKeys), segments, 10, TimeUnit.SECONDS, 2048))),
                Function.identity(), seenKeys);
       }
 
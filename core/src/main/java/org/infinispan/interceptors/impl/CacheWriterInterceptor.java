@@ -4,6 +4,10 @@
 import static org.infinispan.persistence.manager.PersistenceManager.AccessMode.BOTH;
 import static org.infinispan.persistence.manager.PersistenceManager.AccessMode.PRIVATE;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
@@ -57,10 +61,13 @@
 import org.infinispan.jmx.annotations.ManagedAttribute;
 import org.infinispan.jmx.annotations.ManagedOperation;
 import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.marshall.core.MarshalledEntry;
 import org.infinispan.marshall.core.MarshalledEntryImpl;
 import org.infinispan.metadata.EmbeddedMetadata;
 import org.infinispan.metadata.Metadata;
 import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.persistence.manager.PersistenceManager.AccessMode;
+import org.infinispan.persistence.support.BatchModification;
 import org.infinispan.transaction.xa.GlobalTransaction;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
@@ -217,11 +224,13 @@ public BasicInvocationStage visitPutMapCommand(InvocationContext ctx, PutMapComm
             return;
 
          Map<Object, Object> map = putMapCommand.getMap();
+         List<Object> keys = new ArrayList<>(map.size());
          for (Object key : map.keySet()) {
             if (isProperWriter(rCtx, putMapCommand, key)) {
-               storeEntry(rCtx, key, putMapCommand);
+               keys.add(key);
             }
          }
+         storeEntries(rCtx, keys, putMapCommand);
          if (getStatisticsEnabled())
             cacheStores.getAndAdd(map.size());
       });
@@ -358,6 +367,7 @@ protected final void store(TxInvocationContext ctx) throws Throwable {
             cacheCommand.acceptVisitor(ctx, modsBuilder);
          }
       }
+      modsBuilder.flush();
       if (getStatisticsEnabled() && modsBuilder.putCount > 0) {
          cacheStores.getAndAdd(modsBuilder.putCount);
       }
@@ -379,11 +389,41 @@ public class Updater extends AbstractVisitor {
 
       protected final boolean generateStatistics;
       int putCount;
+      // The modifications are written to the stores in batches, one per access mode
+      private final Map<AccessMode, BatchModification> batches = new EnumMap<>(AccessMode.class);
+      private final Map<Object, AccessMode> batchedKeys = new HashMap<>();
 
       public Updater(boolean generateStatistics) {
          this.generateStatistics = generateStatistics;
       }
 
+      private BatchModification batch(Object key, AccessMode mode) {
+         AccessMode previousMode = batchedKeys.put(key, mode);
+         if (previousMode != null && previousMode != mode) {
+            // The stores written with both modes must see the modifications of the key in order
+            flush();
+            batchedKeys.put(key, mode);
+         }
+         return batches.computeIfAbsent(mode, m -> new BatchModification(null));
+      }
+
+      /**
+       * Writes the batched modifications to the stores.
+       */
+      public void flush() {
+         for (Map.Entry<AccessMode, BatchModification> entry : batches.entrySet()) {
+            BatchModification batch = entry.getValue();
+            if (!batch.getMarshalledEntries().isEmpty()) {
+               persistenceManager.writeBatchToAllNonTxStores(batch.getMarshalledEntries(), entry.getKey());
+            }
+            if (!batch.getKeysToRemove().isEmpty()) {
+               persistenceManager.deleteBatchFromAllNonTxStores(batch.getKeysToRemove(), entry.getKey());
+            }
+         }
+         batches.clear();
+         batchedKeys.clear();
+      }
+
       @Override
       public Object visitPutKeyValueCommand(InvocationContext ctx, PutKeyValueCommand command) throws Throwable {
          return visitSingleStore(ctx, command, command.getKey());
@@ -404,7 +444,8 @@ public Object visitApplyDeltaCommand(InvocationContext ctx, ApplyDeltaCommand co
                ice = entryFactory.create(entry);
             }
             MarshalledEntryImpl marshalledEntry = new MarshalledEntryImpl(ice.getKey(), ice.getValue(), internalMetadata(ice), marshaller);
-            persistenceManager.writeToAllNonTxStores(marshalledEntry, skipSharedStores(ctx, command.getKey(), command) ? PRIVATE : BOTH);
+            batch(ice.getKey(), skipSharedStores(ctx, command.getKey(), command) ? PRIVATE : BOTH)
+                  .addMarshalledEntry(ice.getKey(), marshalledEntry);
          }
          return null;
       }
@@ -426,13 +467,14 @@ public Object visitPutMapCommand(InvocationContext ctx, PutMapCommand command) t
       public Object visitRemoveCommand(InvocationContext ctx, RemoveCommand command) throws Throwable {
          Object key = command.getKey();
          if (isProperWriter(ctx, command, key)) {
-            persistenceManager.deleteFromAllStores(key, skipSharedStores(ctx, key, command) ? PRIVATE : BOTH);
+            batch(key, skipSharedStores(ctx, key, command) ? PRIVATE : BOTH).removeEntry(key);
          }
          return null;
       }
 
       @Override
       public Object visitClearCommand(InvocationContext ctx, ClearCommand command) throws Throwable {
+         flush();
          persistenceManager.clearAllStores(ctx.isOriginLocal() ? PRIVATE : BOTH);
          return null;
       }
@@ -442,7 +484,7 @@ protected Object visitSingleStore(InvocationContext ctx, FlagAffectedCommand com
             if (generateStatistics) putCount++;
             InternalCacheValue sv = entryFactory.getValueFromCtxOrCreateNew(key, ctx);
             MarshalledEntryImpl me = new MarshalledEntryImpl(key, sv.getValue(), internalMetadata(sv), marshaller);
-            persistenceManager.writeToAllNonTxStores(me, skipSharedStores(ctx, key, command) ? PRIVATE : BOTH);
+            batch(key, skipSharedStores(ctx, key, command) ? PRIVATE : BOTH).addMarshalledEntry(key, me);
          }
          return null;
       }
@@ -473,6 +515,30 @@ void storeEntry(InvocationContext ctx, Object key, FlagAffectedCommand command)
       if (trace) getLog().tracef("Stored entry %s under key %s", sv, key);
    }
 
+   /**
+    * Writes the entries of the keys to the stores, with one batch per access mode.
+    */
+   void storeEntries(InvocationContext ctx, Collection<Object> keys, FlagAffectedCommand command) {
+      List<MarshalledEntry> privateEntries = new ArrayList<>();
+      List<MarshalledEntry> allEntries = new ArrayList<>(keys.size());
+      for (Object key : keys) {
+         InternalCacheValue sv = getStoredValue(key, ctx);
+         MarshalledEntry entry = new MarshalledEntryImpl(key, sv.getValue(), internalMetadata(sv), marshaller);
+         if (skipSharedStores(ctx, key, command)) {
+            privateEntries.add(entry);
+         } else {
+            allEntries.add(entry);
+         }
+      }
+      if (!allEntries.isEmpty()) {
+         persistenceManager.writeBatchToAllNonTxStores(allEntries, BOTH);
+      }
+      if (!privateEntries.isEmpty()) {
+         persistenceManager.writeBatchToAllNonTxStores(privateEntries, PRIVATE);
+      }
+      if (trace) getLog().tracef("Stored entries of keys %s", keys);
+   }
+
    protected boolean skipSharedStores(InvocationContext ctx, Object key, FlagAffectedCommand command) {
       return !ctx.isOriginLocal() || command.hasFlag(Flag.SKIP_SHARED_CACHE_STORE);
    }
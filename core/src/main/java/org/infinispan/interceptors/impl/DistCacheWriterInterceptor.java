@@ -4,6 +4,8 @@
 import static org.infinispan.persistence.manager.PersistenceManager.AccessMode.BOTH;
 import static org.infinispan.persistence.manager.PersistenceManager.AccessMode.PRIVATE;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import org.infinispan.commands.FlagAffectedCommand;
@@ -94,7 +96,7 @@ public BasicInvocationStage visitPutMapCommand(InvocationContext ctx, PutMapComm
             return rv;
 
          Map<Object, Object> map = putMapCommand.getMap();
-         int count = 0;
+         List<Object> keys = new ArrayList<>(map.size());
          for (Object key : map.keySet()) {
             // In non-tx mode, a node may receive the same forwarded PutMapCommand many times - but each time
             // it must write only the keys locked on the primary owner that forwarded the command
@@ -103,12 +105,12 @@ public BasicInvocationStage visitPutMapCommand(InvocationContext ctx, PutMapComm
                continue;
 
             if (isProperWriter(rCtx, putMapCommand, key)) {
-               storeEntry(rCtx, key, putMapCommand);
-               count++;
+               keys.add(key);
             }
          }
+         storeEntries(rCtx, keys, putMapCommand);
          if (getStatisticsEnabled())
-            cacheStores.getAndAdd(count);
+            cacheStores.getAndAdd(keys.size());
 
          return rv;
       });
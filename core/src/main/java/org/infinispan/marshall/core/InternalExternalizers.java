@@ -71,10 +71,8 @@
 import org.infinispan.metadata.EmbeddedMetadata;
 import org.infinispan.metadata.impl.InternalMetadataImpl;
 import org.infinispan.notifications.cachelistener.cluster.ClusterEvent;
-import org.infinispan.notifications.cachelistener.cluster.ClusterEventCallable;
 import org.infinispan.notifications.cachelistener.cluster.ClusterListenerRemoveCallable;
 import org.infinispan.notifications.cachelistener.cluster.ClusterListenerReplicateCallable;
-import org.infinispan.notifications.cachelistener.cluster.MultiClusterEventCallable;
 import org.infinispan.notifications.cachelistener.filter.CacheEventConverterAsConverter;
 import org.infinispan.notifications.cachelistener.filter.CacheEventFilterAsKeyValueFilter;
 import org.infinispan.notifications.cachelistener.filter.CacheEventFilterConverterAsKeyValueFilterConverter;
@@ -140,7 +138,7 @@ static ClassToExternalizerMap load(
       addInternalExternalizer(new CacheTopology.Externalizer(), exts);
       addInternalExternalizer(new ClearOperation.Externalizer(), exts);
       addInternalExternalizer(new ClusterEvent.Externalizer(), exts);
-      addInternalExternalizer(new ClusterEventCallable.Externalizer(), exts);
+      // Ids 69 and 82 are reserved: they belonged to the cluster event callables replaced by ClusterEventCommand
       addInternalExternalizer(new ClusterListenerRemoveCallable.Externalizer(), exts);
       addInternalExternalizer(new ClusterListenerReplicateCallable.Externalizer(), exts);
       addInternalExternalizer(new CollectionExternalizer(), exts);
@@ -202,7 +200,6 @@ static ClassToExternalizerMap load(
       addInternalExternalizer(new MIMECacheEntry.Externalizer(), exts); // new
       addInternalExternalizer(new MortalCacheEntry.Externalizer(), exts);
       addInternalExternalizer(new MortalCacheValue.Externalizer(), exts);
-      addInternalExternalizer(new MultiClusterEventCallable.Externalizer(), exts);
       addInternalExternalizer(new MurmurHash3.Externalizer(), exts);
       addInternalExternalizer(new NumericVersion.Externalizer(), exts);
       addInternalExternalizer(new OptionalExternalizer(), exts);
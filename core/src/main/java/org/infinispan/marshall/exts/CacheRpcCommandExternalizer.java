@@ -38,6 +38,7 @@
 import org.infinispan.commons.util.Util;
 import org.infinispan.factories.GlobalComponentRegistry;
 import org.infinispan.marshall.core.Ids;
+import org.infinispan.notifications.cachelistener.cluster.ClusterEventCommand;
 import org.infinispan.statetransfer.StateRequestCommand;
 import org.infinispan.statetransfer.StateResponseCommand;
 import org.infinispan.stream.impl.StreamRequestCommand;
@@ -84,7 +85,8 @@ public Set<Class<? extends CacheRpcCommand>> getTypeClasses() {
                ClusteredGetAllCommand.class,
                StreamRequestCommand.class, StreamSegmentResponseCommand.class, StreamResponseCommand.class,
                BackupAckCommand.class, PrimaryAckCommand.class,
-               PrimaryMultiKeyAckCommand.class, BackupMultiKeyAckCommand.class, ExceptionAckCommand.class, BackupWriteRcpCommand.class);
+               PrimaryMultiKeyAckCommand.class, BackupMultiKeyAckCommand.class, ExceptionAckCommand.class, BackupWriteRcpCommand.class,
+               ClusterEventCommand.class);
       // Only interested in cache specific replicable commands
       coreCommands.addAll(gcr.getModuleProperties().moduleCacheRpcCommands());
       return coreCommands;
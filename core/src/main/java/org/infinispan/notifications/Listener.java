@@ -243,6 +243,24 @@
 
    Observation observation() default Observation.BOTH;
 
+   /**
+    * Maximum number of events that can wait to be delivered to a listener with {@link #sync()} set to <tt>false</tt>.
+    * The events of an asynchronous listener are delivered one at a time, in the order they were raised, so a listener
+    * that cannot keep up makes its queue grow until this limit is reached and the {@link #overflowPolicy()} applies.
+    * Ignored for synchronous listeners.
+    * @return the maximum number of pending events of an asynchronous listener
+    * @since 9.0
+    */
+   int asyncQueueSize() default 8192;
+
+   /**
+    * Defines what happens when an event is raised while the queue of an asynchronous listener is full.  Ignored for
+    * synchronous listeners.
+    * @return the policy applied when the queue of an asynchronous listener is full
+    * @since 9.0
+    */
+   OverflowPolicy overflowPolicy() default OverflowPolicy.BLOCK;
+
 
    enum Observation {
       PRE() {
@@ -266,4 +284,29 @@ public boolean shouldInvoke(boolean pre) {
 
       public abstract boolean shouldInvoke(boolean pre);
    }
+
+   /**
+    * Policies applied when the queue of an asynchronous listener is full.
+    * @since 9.0
+    */
+   enum OverflowPolicy {
+      /**
+       * The thread raising the event waits until the listener has consumed an event.  Events raised while delivering
+       * events to an asynchronous listener never wait, as the listener they are destined to might be waiting in turn:
+       * they are queued even if the queue is full.
+       */
+      BLOCK,
+      /**
+       * The oldest pending event is discarded to make room for the new one.
+       */
+      DROP_OLDEST,
+      /**
+       * A new cache entry event replaces the most recent pending event of the same listener method and key, if any.
+       * The replaced event is removed from the queue and the new one is appended after all the pending events, so the
+       * listener still sees the events of a key in the order they were raised.  Events are only coalesced while the
+       * queue is full: when no event of the same method and key is pending, the thread raising the event waits as with
+       * {@link #BLOCK}.
+       */
+      COALESCE
+   }
 }
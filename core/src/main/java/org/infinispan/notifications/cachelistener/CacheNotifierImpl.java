@@ -64,6 +64,7 @@
 import org.infinispan.filter.KeyFilter;
 import org.infinispan.interceptors.AsyncInterceptorChain;
 import org.infinispan.interceptors.locking.ClusteringDependentLogic;
+import org.infinispan.jmx.annotations.MBean;
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.metadata.Metadata;
 import org.infinispan.notifications.Listener;
@@ -135,6 +136,7 @@
  * @author anistor@redhat.com
  * @since 4.0
  */
+@MBean(objectName = "CacheNotifier", description = "Delivers the events of the cache to the registered listeners.")
 public final class CacheNotifierImpl<K, V> extends AbstractListenerImpl<Event<K, V>, CacheEntryListenerInvocation<K, V>>
       implements ClusterCacheNotifier<K, V> {
 
@@ -287,6 +289,15 @@ protected Log getLog() {
       return log;
    }
 
+   @Override
+   protected Object getEventKey(Object event) {
+      // Only the events raised after the changes are applied can replace one another
+      if (event instanceof CacheEntryEvent && !((CacheEntryEvent) event).isPre()) {
+         return ((CacheEntryEvent) event).getKey();
+      }
+      return null;
+   }
+
    @Override
    public void setTypeConverter(TypeConverter typeConverter) {
       this.typeConverter = typeConverter;
@@ -0,0 +1,122 @@
+package org.infinispan.notifications.cachelistener.cluster;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import org.infinispan.Cache;
+import org.infinispan.commands.remote.BaseRpcCommand;
+import org.infinispan.commons.marshall.MarshallUtil;
+import org.infinispan.util.ByteString;
+import org.infinispan.util.concurrent.CompletableFutures;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+/**
+ * Command used to deliver a batch of cluster events to the node where the cluster listeners that are interested in
+ * them were registered.
+ * <p>
+ * The commands are sent with {@link org.infinispan.remoting.inboundhandler.DeliverOrder#PER_SENDER}, which the
+ * receiver honours by invoking them on the transport's delivery thread, one at a time.  That is what keeps the events of
+ * a key in the order they were raised, but it also means that a synchronous cluster listener runs on the delivery
+ * thread: while it executes, no other message from the same sender is delivered.  Asynchronous cluster listeners are
+ * only handed their events on that thread, so slow listeners should be registered with {@code sync = false}.
+ *
+ * @since 9.0
+ */
+public class ClusterEventCommand<K, V> extends BaseRpcCommand {
+   public static final byte COMMAND_ID = 64;
+
+   private static final Log log = LogFactory.getLog(ClusterEventCommand.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private Cache<K, V> cache;
+   private ClusterCacheNotifier<K, V> clusterCacheNotifier;
+
+   private Map<UUID, Collection<ClusterEvent<K, V>>> events;
+
+   // Only here for CommandIdUniquenessTest
+   private ClusterEventCommand() { super(null); }
+
+   public ClusterEventCommand(ByteString cacheName) {
+      super(cacheName);
+   }
+
+   public ClusterEventCommand(ByteString cacheName, Map<UUID, Collection<ClusterEvent<K, V>>> events) {
+      super(cacheName);
+      this.events = events;
+   }
+
+   public void init(Cache<K, V> cache, ClusterCacheNotifier<K, V> clusterCacheNotifier) {
+      this.cache = cache;
+      this.clusterCacheNotifier = clusterCacheNotifier;
+   }
+
+   @Override
+   public CompletableFuture<Object> invokeAsync() throws Throwable {
+      if (trace) {
+         log.tracef("Received cluster event(s) %s from %s", events, getOrigin());
+      }
+      for (Entry<UUID, Collection<ClusterEvent<K, V>>> entry : events.entrySet()) {
+         Collection<ClusterEvent<K, V>> listenerEvents = entry.getValue();
+         for (ClusterEvent<K, V> event : listenerEvents) {
+            event.cache = cache;
+         }
+         clusterCacheNotifier.notifyClusterListeners(listenerEvents, entry.getKey());
+      }
+      return CompletableFutures.completedNull();
+   }
+
+   public Map<UUID, Collection<ClusterEvent<K, V>>> getEvents() {
+      return events;
+   }
+
+   @Override
+   public byte getCommandId() {
+      return COMMAND_ID;
+   }
+
+   @Override
+   public void writeTo(ObjectOutput output) throws IOException {
+      MarshallUtil.marshallSize(output, events.size());
+      for (Entry<UUID, Collection<ClusterEvent<K, V>>> entry : events.entrySet()) {
+         MarshallUtil.marshallUUID(entry.getKey(), output, false);
+         MarshallUtil.marshallCollection(entry.getValue(), output);
+      }
+   }
+
+   @Override
+   public void readFrom(ObjectInput input) throws IOException, ClassNotFoundException {
+      int size = MarshallUtil.unmarshallSize(input);
+      events = new HashMap<>(size);
+      for (int i = 0; i < size; i++) {
+         UUID identifier = MarshallUtil.unmarshallUUID(input, false);
+         events.put(identifier, MarshallUtil.unmarshallCollection(input, ArrayList::new));
+      }
+   }
+
+   @Override
+   public boolean isReturnValueExpected() {
+      return false;
+   }
+
+   @Override
+   public boolean canBlock() {
+      return true;
+   }
+
+   @Override
+   public String toString() {
+      return "ClusterEventCommand{" +
+            "cacheName=" + cacheName +
+            ", events=" + events +
+            '}';
+   }
+}
@@ -1,36 +1,95 @@
 package org.infinispan.notifications.cachelistener.cluster.impl;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
-import org.infinispan.Cache;
+import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commons.CacheException;
-import org.infinispan.distexec.DistributedExecutionCompletionService;
-import org.infinispan.distexec.DistributedExecutorService;
-import org.infinispan.factories.annotations.Start;
+import org.infinispan.factories.KnownComponentNames;
+import org.infinispan.factories.annotations.ComponentName;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Stop;
 import org.infinispan.notifications.cachelistener.cluster.ClusterEvent;
-import org.infinispan.notifications.cachelistener.cluster.ClusterEventCallable;
+import org.infinispan.notifications.cachelistener.cluster.ClusterEventCommand;
 import org.infinispan.notifications.cachelistener.cluster.ClusterEventManager;
-import org.infinispan.notifications.cachelistener.cluster.MultiClusterEventCallable;
+import org.infinispan.remoting.inboundhandler.DeliverOrder;
+import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.rpc.ResponseMode;
+import org.infinispan.remoting.rpc.RpcManager;
 import org.infinispan.remoting.transport.Address;
+import org.infinispan.util.concurrent.CompletableFutures;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
 
+/**
+ * {@link ClusterEventManager} that coalesces the events sent to the same node into {@link ClusterEventCommand}s.
+ * <p>
+ * The events raised by an operation are gathered on a per thread basis until {@link #sendEvents()} is invoked, then
+ * they are appended to the queue of their target node.  The events destined to asynchronous listeners stay in the queue
+ * for at most {@link #MAX_BATCH_DELAY_MILLIS} or until {@link #MAX_BATCH_SIZE} events are pending, and are then sent
+ * without waiting for a response.  The events destined to synchronous listeners are sent straight away together with
+ * the pending ones, and the sending thread waits until they have been delivered.
+ * <p>
+ * The commands are sent with {@link DeliverOrder#PER_SENDER}, in the order the events were queued, so the listeners
+ * receive the events of a key in the order they were raised.  The receiver delivers the commands from the same sender
+ * one at a time, so when it falls behind the flow control of the transport blocks the thread that sends the next
+ * batch, which is either the timer flushing the queue or the producer that filled it, and the queue never holds more
+ * than {@link #MAX_BATCH_SIZE} events.
+ */
 public class BatchingClusterEventManagerImpl<K, V> implements ClusterEventManager<K, V> {
-   private final Cache<K, V> cache;
+   private static final Log log = LogFactory.getLog(BatchingClusterEventManagerImpl.class);
+   private static final boolean trace = log.isTraceEnabled();
 
-   private DistributedExecutorService distExecService;
+   /**
+    * Maximum number of events sent to a node in a single command.
+    */
+   static final int MAX_BATCH_SIZE = 1000;
+   /**
+    * Maximum time an event for an asynchronous listener waits for other events to be sent together with it.
+    */
+   static final long MAX_BATCH_DELAY_MILLIS = 5;
 
    private final ThreadLocal<EventContext<K, V>> localContext = new ThreadLocal<>();
+   private final ConcurrentMap<Address, TargetQueue> queues = new ConcurrentHashMap<>();
 
-   public BatchingClusterEventManagerImpl(Cache<K, V> cache) {
-      this.cache = cache;
+   private RpcManager rpcManager;
+   private CommandsFactory commandsFactory;
+   private ScheduledExecutorService timeoutExecutor;
+   private ExecutorService asyncTransportExecutor;
+
+   @Inject
+   public void inject(RpcManager rpcManager, CommandsFactory commandsFactory,
+                      @ComponentName(KnownComponentNames.TIMEOUT_SCHEDULE_EXECUTOR) ScheduledExecutorService timeoutExecutor,
+                      @ComponentName(KnownComponentNames.ASYNC_TRANSPORT_EXECUTOR) ExecutorService asyncTransportExecutor) {
+      this.rpcManager = rpcManager;
+      this.commandsFactory = commandsFactory;
+      this.timeoutExecutor = timeoutExecutor;
+      this.asyncTransportExecutor = asyncTransportExecutor;
    }
 
-   @Start
-   public void start() {
-      distExecService = SecurityActions.getDefaultExecutorService(cache);
+   @Stop
+   public void stop() {
+      for (TargetQueue queue : queues.values()) {
+         try {
+            queue.flush();
+         } catch (Throwable t) {
+            log.debugf(t, "Unable to send the pending cluster events to %s", queue.target);
+         }
+      }
+      queues.clear();
    }
 
    @Override
@@ -47,8 +106,8 @@ public void addEvents(Address target, UUID identifier, Collection<ClusterEvent<K
    public void sendEvents() {
       EventContext<K, V> ctx = localContext.get();
       if (ctx != null) {
-         ctx.sendToTargets(distExecService);
          localContext.remove();
+         ctx.sendToTargets(this);
       }
    }
 
@@ -57,10 +116,14 @@ public void dropEvents() {
       localContext.remove();
    }
 
+   private TargetQueue queue(Address target) {
+      return queues.computeIfAbsent(target, TargetQueue::new);
+   }
+
    private interface EventContext<K, V> {
       void addTargets(Address address, UUID identifier, Collection<ClusterEvent<K, V>> events, boolean sync);
 
-      void sendToTargets(DistributedExecutorService service);
+      void sendToTargets(BatchingClusterEventManagerImpl<K, V> manager);
    }
 
    protected static class UnicastEventContext<K, V> implements EventContext<K, V> {
@@ -87,37 +150,37 @@ public void addTargets(Address address, UUID identifier, Collection<ClusterEvent
       }
 
       @Override
-      public void sendToTargets(DistributedExecutorService service) {
-         DistributedExecutionCompletionService<Void> completion = new DistributedExecutionCompletionService<>(service);
-         int syncCount = 0;
+      public void sendToTargets(BatchingClusterEventManagerImpl<K, V> manager) {
+         List<CompletableFuture<Map<Address, Response>>> syncFutures = null;
          for (Entry<Address, TargetEvents<K, V>> entry : targets.entrySet()) {
             TargetEvents<K, V> value = entry.getValue();
-            if (value.events.size() > 1) {
-               if (value.sync) {
-                  completion.submit(entry.getKey(), new MultiClusterEventCallable<>(value.events));
-                  syncCount++;
-               } else {
-                  service.submit(entry.getKey(), new MultiClusterEventCallable<>(value.events));
-               }
-            } else if (value.events.size() == 1) {
-               Entry<UUID, Collection<ClusterEvent<K, V>>> entryValue = value.events.entrySet().iterator().next();
-               if (value.sync) {
-                  completion.submit(entry.getKey(), new ClusterEventCallable<>(entryValue.getKey(), entryValue.getValue()));
-                  syncCount++;
-               } else {
-                  service.submit(entry.getKey(), new ClusterEventCallable<>(entryValue.getKey(), entryValue.getValue()));
+            if (value.events.isEmpty()) {
+               continue;
+            }
+            BatchingClusterEventManagerImpl<K, V>.TargetQueue queue = manager.queue(entry.getKey());
+            if (value.sync) {
+               CompletableFuture<Map<Address, Response>> future = queue.sendSync(value.events);
+               if (future != null) {
+                  if (syncFutures == null) {
+                     syncFutures = new ArrayList<>(targets.size());
+                  }
+                  syncFutures.add(future);
                }
+            } else {
+               queue.add(value.events);
             }
          }
 
-         try {
-            for (int i = 0; i < syncCount; ++i) {
-               completion.take();
+         if (syncFutures != null) {
+            try {
+               CompletableFutures.await(CompletableFuture.allOf(syncFutures.toArray(new CompletableFuture[syncFutures.size()])));
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+               throw new CacheException("Interrupted while waiting for event notifications to complete.", e);
+            } catch (ExecutionException e) {
+               throw new CacheException(e.getCause());
             }
          }
-         catch (InterruptedException e) {
-            throw new CacheException("Interrupted while waiting for event notifications to complete.", e);
-         }
       }
    }
 
@@ -125,4 +188,93 @@ public void sendToTargets(DistributedExecutorService service) {
       final Map<UUID, Collection<ClusterEvent<K, V>>> events = new HashMap<>();
       boolean sync = false;
    }
+
+   /**
+    * Events waiting to be sent to a node.  The commands are sent while holding the lock of the queue, so that the
+    * transport sends them in the order they were created.
+    */
+   private class TargetQueue {
+      private final Address target;
+      // The following fields are guarded by this
+      private Map<UUID, Collection<ClusterEvent<K, V>>> pending = new HashMap<>();
+      private int pendingEvents;
+      private boolean flushScheduled;
+
+      TargetQueue(Address target) {
+         this.target = target;
+      }
+
+      synchronized void add(Map<UUID, Collection<ClusterEvent<K, V>>> events) {
+         append(events);
+         if (pendingEvents >= MAX_BATCH_SIZE) {
+            // The producers pay for sending full batches, which slows them down when the target falls behind
+            send(false);
+         } else if (!flushScheduled) {
+            flushScheduled = true;
+            timeoutExecutor.schedule(() -> asyncTransportExecutor.execute(this::scheduledFlush),
+                  MAX_BATCH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+         }
+      }
+
+      synchronized CompletableFuture<Map<Address, Response>> sendSync(Map<UUID, Collection<ClusterEvent<K, V>>> events) {
+         append(events);
+         return send(true);
+      }
+
+      synchronized void flush() {
+         send(false);
+      }
+
+      private void scheduledFlush() {
+         try {
+            synchronized (this) {
+               flushScheduled = false;
+               send(false);
+            }
+         } catch (Throwable t) {
+            log.debugf(t, "Unable to send cluster events to %s", target);
+         }
+      }
+
+      private void append(Map<UUID, Collection<ClusterEvent<K, V>>> events) {
+         for (Entry<UUID, Collection<ClusterEvent<K, V>>> entry : events.entrySet()) {
+            Collection<ClusterEvent<K, V>> listenerEvents = pending.get(entry.getKey());
+            if (listenerEvents == null) {
+               pending.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+            } else {
+               listenerEvents.addAll(entry.getValue());
+            }
+            pendingEvents += entry.getValue().size();
+         }
+      }
+
+      private CompletableFuture<Map<Address, Response>> send(boolean sync) {
+         if (pendingEvents == 0) {
+            return null;
+         }
+         Map<UUID, Collection<ClusterEvent<K, V>>> events = pending;
+         int size = pendingEvents;
+         pending = new HashMap<>();
+         pendingEvents = 0;
+
+         if (!rpcManager.getTransport().getMembers().contains(target)) {
+            // The listener node left the cluster, nobody is going to receive these events
+            if (trace) {
+               log.tracef("Dropping %d cluster event(s) for %s as it is no longer a member", size, target);
+            }
+            queues.remove(target, this);
+            return null;
+         }
+         if (trace) {
+            log.tracef("Sending %d cluster event(s) to %s", size, target);
+         }
+         ClusterEventCommand<K, V> command = commandsFactory.buildClusterEventCommand(events);
+         if (sync) {
+            return rpcManager.invokeRemotelyAsync(Collections.singleton(target), command,
+                  rpcManager.getRpcOptionsBuilder(ResponseMode.SYNCHRONOUS, DeliverOrder.PER_SENDER).build());
+         }
+         rpcManager.sendTo(target, command, DeliverOrder.PER_SENDER);
+         return null;
+      }
+   }
 }
@@ -14,6 +14,8 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 
 import javax.security.auth.Subject;
@@ -26,9 +28,16 @@
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
+import org.infinispan.jmx.annotations.DisplayType;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
 import org.infinispan.notifications.IncorrectListenerException;
 import org.infinispan.notifications.Listener;
 import org.infinispan.security.Security;
+import org.infinispan.util.KeyValuePair;
+import org.infinispan.util.TimeService;
 import org.infinispan.util.concurrent.WithinThreadExecutor;
 import org.infinispan.util.logging.Log;
 
@@ -43,6 +52,8 @@
 public abstract class AbstractListenerImpl<T, L extends ListenerInvocation<T>> {
 
    protected final Map<Class<? extends Annotation>, List<L>> listenersMap = new HashMap<>(16, 0.99f);
+   // the invocations of every asynchronous listener go through its own queue, keyed by listener
+   private final ConcurrentMap<Object, AsyncListenerQueue> asyncQueues = new ConcurrentHashMap<>();
 
    protected abstract class AbstractInvocationBuilder {
       protected Object target;
@@ -109,11 +120,14 @@ public AbstractInvocationBuilder setSubject(Subject subject) {
    // two separate executor services, one for sync and one for async listeners
    protected ExecutorService syncProcessor;
    protected ExecutorService asyncProcessor;
+   protected TimeService timeService;
 
    @Inject
    @SuppressWarnings("unused")
-   void injectExecutor(@ComponentName(KnownComponentNames.ASYNC_NOTIFICATION_EXECUTOR) ExecutorService executor) {
+   void injectExecutor(@ComponentName(KnownComponentNames.ASYNC_NOTIFICATION_EXECUTOR) ExecutorService executor,
+                       TimeService timeService) {
       this.asyncProcessor = executor;
+      this.timeService = timeService;
    }
 
    @Start(priority = 9)
@@ -131,6 +145,11 @@ public void stop() {
       }
 
       if (syncProcessor != null) syncProcessor.shutdownNow();
+
+      for (AsyncListenerQueue queue : asyncQueues.values()) {
+         queue.close();
+      }
+      asyncQueues.clear();
    }
 
    protected abstract Log getLog();
@@ -147,6 +166,97 @@ public void removeListener(Object listener) {
       for (Class<? extends Annotation> annotation :
             getAllowedMethodAnnotations(testListenerClassValidity(listener.getClass())).keySet())
          removeListenerInvocation(annotation, listener);
+      // The events already queued are still delivered
+      asyncQueues.remove(listener);
+   }
+
+   /**
+    * Returns the key of the given event, which allows the queue of an asynchronous listener to coalesce the events of
+    * the same key.
+    *
+    * @param event the event to be delivered
+    * @return the key of the event, or {@code null} if the event must not be coalesced with other events
+    */
+   protected Object getEventKey(Object event) {
+      return null;
+   }
+
+   private AsyncListenerQueue getAsyncQueue(Object listener) {
+      return asyncQueues.computeIfAbsent(listener, target -> {
+         Listener l = testListenerClassValidity(target.getClass());
+         return new AsyncListenerQueue(target, l.asyncQueueSize(), l.overflowPolicy(), asyncProcessor, timeService);
+      });
+   }
+
+   @ManagedAttribute(
+         description = "Number of events waiting to be delivered to the asynchronous listeners",
+         displayName = "Pending asynchronous listener events",
+         displayType = DisplayType.SUMMARY
+   )
+   public int getAsyncListenerPendingEvents() {
+      int pending = 0;
+      for (AsyncListenerQueue queue : asyncQueues.values()) {
+         pending += queue.getPendingEvents();
+      }
+      return pending;
+   }
+
+   @ManagedAttribute(
+         description = "Time the oldest event not yet delivered to an asynchronous listener has been waiting for",
+         displayName = "Asynchronous listener lag",
+         units = Units.MILLISECONDS,
+         displayType = DisplayType.SUMMARY
+   )
+   public long getAsyncListenerLag() {
+      long lag = 0;
+      for (AsyncListenerQueue queue : asyncQueues.values()) {
+         lag = Math.max(lag, queue.getLag());
+      }
+      return lag;
+   }
+
+   @ManagedAttribute(
+         description = "Number of events discarded because the queue of their asynchronous listener was full",
+         displayName = "Dropped asynchronous listener events",
+         measurementType = MeasurementType.TRENDSUP,
+         displayType = DisplayType.SUMMARY
+   )
+   public long getAsyncListenerDroppedEvents() {
+      long dropped = 0;
+      for (AsyncListenerQueue queue : asyncQueues.values()) {
+         dropped += queue.getDroppedEvents();
+      }
+      return dropped;
+   }
+
+   @ManagedAttribute(
+         description = "Number of events replaced by a newer event for the same key before reaching their asynchronous listener",
+         displayName = "Coalesced asynchronous listener events",
+         measurementType = MeasurementType.TRENDSUP,
+         displayType = DisplayType.SUMMARY
+   )
+   public long getAsyncListenerCoalescedEvents() {
+      long coalesced = 0;
+      for (AsyncListenerQueue queue : asyncQueues.values()) {
+         coalesced += queue.getCoalescedEvents();
+      }
+      return coalesced;
+   }
+
+   @ManagedOperation(
+         description = "Returns the pending, delivered, dropped and coalesced events and the lag of each asynchronous listener",
+         displayName = "Asynchronous listener statistics"
+   )
+   public String asyncListenerStatistics() {
+      StringBuilder sb = new StringBuilder();
+      for (AsyncListenerQueue queue : asyncQueues.values()) {
+         sb.append(queue.getTarget()).append(": pending=").append(queue.getPendingEvents())
+               .append(", lag=").append(queue.getLag())
+               .append("ms, delivered=").append(queue.getDeliveredEvents())
+               .append(", dropped=").append(queue.getDroppedEvents())
+               .append(", coalesced=").append(queue.getCoalescedEvents()).append('\n');
+      }
+      return sb.toString();
    }
 
    protected Set<L> removeListenerInvocation(Class<? extends Annotation> annotation, Object listener) {
@@ -253,6 +363,7 @@ protected static void testListenerMethodValidity(Method m, Class<?> allowedParam
       public final boolean sync;
       public final WeakReference<ClassLoader> classLoader;
       public final Subject subject;
+      private final AsyncListenerQueue asyncQueue;
 
       public ListenerInvocationImpl(Object target, Method method, boolean sync, ClassLoader classLoader, Subject subject) {
          this.target = target;
@@ -260,6 +371,7 @@ public ListenerInvocationImpl(Object target, Method method, boolean sync, ClassL
          this.sync = sync;
          this.classLoader = new WeakReference<ClassLoader>(classLoader);
          this.subject = subject;
+         this.asyncQueue = sync ? null : getAsyncQueue(target);
       }
 
       @Override
@@ -316,10 +428,14 @@ public Void run() throws Exception {
             }
          };
 
-         if (sync)
+         if (sync) {
             syncProcessor.execute(r);
-         else
-            asyncProcessor.execute(r);
+         } else {
+            // The queue is shared by all the methods of the listener, so only the events of a key delivered to the same
+            // method can be coalesced
+            Object eventKey = getEventKey(event);
+            asyncQueue.add(eventKey == null ? null : new KeyValuePair<>(method, eventKey), r);
+         }
       }
 
       @Override
@@ -0,0 +1,282 @@
+package org.infinispan.notifications.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.notifications.Listener;
+import org.infinispan.util.TimeService;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import net.jcip.annotations.GuardedBy;
+
+/**
+ * Bounded queue of the invocations of an asynchronous listener.
+ * <p>
+ * The invocations are run one at a time on the executor, in the order they were queued, so the listener sees the
+ * events of a key in the order they were raised and a slow listener only delays itself.  A task draining the queue
+ * gives its thread back to the executor after {@link #MAX_INVOCATIONS_PER_RUN} invocations, so that a busy listener
+ * cannot starve the others.
+ * <p>
+ * With {@link Listener.OverflowPolicy#COALESCE}, an event raised while the queue is full replaces the most recent
+ * pending event with the same key, which is unlinked from the queue: the new event is appended at the tail, after the
+ * other pending events of the key.
+ * <p>
+ * A thread raising an event while the queue is full waits until the listener has consumed an event.  The threads
+ * delivering events to asynchronous listeners never wait, as two listeners writing to the cache could otherwise wait for
+ * each other's queue forever: their events are queued even if the queue is full.
+ *
+ * @since 9.0
+ */
+final class AsyncListenerQueue {
+   private static final Log log = LogFactory.getLog(AsyncListenerQueue.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   static final int MAX_INVOCATIONS_PER_RUN = 64;
+
+   // Set while the current thread delivers events to an asynchronous listener
+   private static final ThreadLocal<Boolean> DELIVERING = new ThreadLocal<>();
+
+   private final Object target;
+   private final int capacity;
+   private final Listener.OverflowPolicy overflowPolicy;
+   private final Executor executor;
+   private final TimeService timeService;
+
+   // Doubly linked, so that a coalesced invocation can be unlinked wherever it is
+   @GuardedBy("this")
+   private Invocation head;
+   @GuardedBy("this")
+   private Invocation tail;
+   @GuardedBy("this")
+   private int size;
+   // The most recent pending invocation of each key, only with COALESCE
+   @GuardedBy("this")
+   private final Map<Object, Invocation> lastByKey;
+   @GuardedBy("this")
+   private boolean draining;
+   @GuardedBy("this")
+   private boolean closed;
+   @GuardedBy("this")
+   private long delivered;
+   @GuardedBy("this")
+   private long dropped;
+   @GuardedBy("this")
+   private long coalesced;
+
+   AsyncListenerQueue(Object target, int capacity, Listener.OverflowPolicy overflowPolicy, Executor executor,
+                      TimeService timeService) {
+      this.target = target;
+      this.capacity = Math.max(capacity, 1);
+      this.overflowPolicy = overflowPolicy;
+      this.executor = executor;
+      this.timeService = timeService;
+      this.lastByKey = overflowPolicy == Listener.OverflowPolicy.COALESCE ? new HashMap<>() : null;
+   }
+
+   /**
+    * Queues an invocation of the listener.
+    *
+    * @param key the key of the event, used to coalesce the invocations; might be null if the event cannot be coalesced
+    * @param invocation runs the listener method
+    */
+   void add(Object key, Runnable invocation) {
+      boolean schedule;
+      synchronized (this) {
+         if (closed) {
+            return;
+         }
+         while (size >= capacity && !closed) {
+            Invocation pending;
+            if (overflowPolicy == Listener.OverflowPolicy.DROP_OLDEST) {
+               removed(unlink(head));
+               dropped++;
+            } else if (lastByKey != null && key != null && (pending = lastByKey.get(key)) != null) {
+               // The new invocation takes its place at the tail, so the events of the key stay in order
+               removed(unlink(pending));
+               coalesced++;
+               break;
+            } else if (DELIVERING.get() != null) {
+               // A listener raised the event, and waiting for this queue could deadlock
+               break;
+            } else {
+               try {
+                  wait();
+               } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                  break;
+               }
+            }
+         }
+         if (closed) {
+            return;
+         }
+         Invocation queued = new Invocation(key, invocation, timeService.time());
+         link(queued);
+         if (lastByKey != null && key != null) {
+            lastByKey.put(key, queued);
+         }
+         schedule = !draining;
+         draining = true;
+      }
+      if (schedule) {
+         schedule();
+      }
+   }
+
+   private void schedule() {
+      try {
+         executor.execute(this::drain);
+      } catch (RejectedExecutionException e) {
+         synchronized (this) {
+            draining = false;
+            notifyAll();
+         }
+         throw e;
+      }
+   }
+
+   private void drain() {
+      // The executor might run the task on a thread that is already delivering events
+      boolean nested = DELIVERING.get() != null;
+      if (!nested) {
+         DELIVERING.set(Boolean.TRUE);
+      }
+      try {
+         for (int i = 0; i < MAX_INVOCATIONS_PER_RUN; i++) {
+            Invocation invocation;
+            synchronized (this) {
+               invocation = head;
+               if (invocation == null) {
+                  draining = false;
+                  return;
+               }
+               removed(unlink(invocation));
+               delivered++;
+               notifyAll();
+            }
+            try {
+               invocation.runnable.run();
+            } catch (Throwable t) {
+               log.debugf(t, "Exception invoking asynchronous listener %s", target);
+            }
+         }
+      } finally {
+         if (!nested) {
+            DELIVERING.remove();
+         }
+      }
+      if (trace) {
+         log.tracef("Rescheduling the invocations of listener %s", target);
+      }
+      schedule();
+   }
+
+   @GuardedBy("this")
+   private void link(Invocation invocation) {
+      invocation.prev = tail;
+      if (tail == null) {
+         head = invocation;
+      } else {
+         tail.next = invocation;
+      }
+      tail = invocation;
+      size++;
+   }
+
+   @GuardedBy("this")
+   private Invocation unlink(Invocation invocation) {
+      if (invocation.prev == null) {
+         head = invocation.next;
+      } else {
+         invocation.prev.next = invocation.next;
+      }
+      if (invocation.next == null) {
+         tail = invocation.prev;
+      } else {
+         invocation.next.prev = invocation.prev;
+      }
+      invocation.prev = null;
+      invocation.next = null;
+      size--;
+      return invocation;
+   }
+
+   @GuardedBy("this")
+   private void removed(Invocation invocation) {
+      if (lastByKey != null && invocation.key != null) {
+         lastByKey.remove(invocation.key, invocation);
+      }
+   }
+
+   /**
+    * Discards the pending invocations and releases the threads waiting for the queue to drain.
+    */
+   synchronized void close() {
+      closed = true;
+      head = null;
+      tail = null;
+      size = 0;
+      if (lastByKey != null) {
+         lastByKey.clear();
+      }
+      notifyAll();
+   }
+
+   Object getTarget() {
+      return target;
+   }
+
+   synchronized int getPendingEvents() {
+      return size;
+   }
+
+   /**
+    * @return the time in milliseconds the oldest pending event has been waiting for, or 0 if there are none
+    */
+   synchronized long getLag() {
+      return head == null ? 0 : timeService.timeDuration(head.queuedTime, TimeUnit.MILLISECONDS);
+   }
+
+   synchronized long getDeliveredEvents() {
+      return delivered;
+   }
+
+   synchronized long getDroppedEvents() {
+      return dropped;
+   }
+
+   synchronized long getCoalescedEvents() {
+      return coalesced;
+   }
+
+   @Override
+   public String toString() {
+      return "AsyncListenerQueue{" +
+            "target=" + target +
+            ", overflowPolicy=" + overflowPolicy +
+            ", pending=" + getPendingEvents() +
+            ", lag=" + getLag() +
+            ", delivered=" + getDeliveredEvents() +
+            ", dropped=" + getDroppedEvents() +
+            ", coalesced=" + getCoalescedEvents() +
+            '}';
+   }
+
+   private static class Invocation {
+      final Object key;
+      final Runnable runnable;
+      final long queuedTime;
+      Invocation prev;
+      Invocation next;
+
+      Invocation(Object key, Runnable runnable, long queuedTime) {
+         this.key = key;
+         this.runnable = runnable;
+         this.queuedTime = queuedTime;
+      }
+   }
+}
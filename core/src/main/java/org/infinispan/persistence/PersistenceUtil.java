@@ -93,6 +93,32 @@ public static <K, V> InternalCacheEntry<K,V> loadAndStoreInDataContainer(DataCon
       });
    }
 
+   /**
+    * Same as {@link #loadAndStoreInDataContainer(DataContainer, PersistenceManager, Object, InvocationContext,
+    * TimeService, AtomicReference)} for an entry that was already loaded from the stores, e.g. together with other
+    * keys.  A null entry means that the stores do not have the key.
+    */
+   public static <K, V> InternalCacheEntry<K,V> storeLoadedInDataContainer(DataContainer<K, V> dataContainer, K key,
+                                                                           MarshalledEntry<K, V> loaded, final TimeService timeService,
+                                                                           final AtomicReference<Boolean> isLoaded) {
+      return dataContainer.compute(key, (k, oldEntry, factory) -> {
+         long now = timeService.wallClockTime();
+         //under the lock, check if the entry exists in the DataContainer
+         if (oldEntry != null && (!oldEntry.canExpire() || !oldEntry.isExpired(now))) {
+            isLoaded.set(null); //not loaded
+            return oldEntry; //no changes in container
+         }
+
+         if (loaded == null || loaded.getMetadata() != null && loaded.getMetadata().isExpired(now)) {
+            isLoaded.set(Boolean.FALSE); //not loaded
+            return null; //no changed in container
+         }
+
+         isLoaded.set(Boolean.TRUE); //loaded!
+         return convert(loaded, factory);
+      });
+   }
+
    public static <K, V> InternalCacheEntry<K,V> loadAndComputeInDataContainer(DataContainer<K, V> dataContainer, final PersistenceManager persistenceManager,
                                                                               K key, final InvocationContext ctx, final TimeService timeService,
                                                                               DataContainer.ComputeAction<K, V> action) {
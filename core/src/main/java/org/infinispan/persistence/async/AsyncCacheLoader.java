@@ -1,5 +1,9 @@
 package org.infinispan.persistence.async;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.infinispan.marshall.core.MarshalledEntry;
@@ -46,6 +50,24 @@ public MarshalledEntry load(Object key) {
    }
 
 
+   @Override
+   public Map<Object, MarshalledEntry> loadAll(Set keys) {
+      Map<Object, MarshalledEntry> entries = new HashMap<>();
+      Set<Object> unmodified = new HashSet<>();
+      for (Object key : keys) {
+         Modification mod = state.get().get(key);
+         if (mod == null) {
+            unmodified.add(key);
+         } else if (mod.getType() == Modification.Type.STORE) {
+            entries.put(key, ((Store) mod).getStoredValue());
+         }
+      }
+      if (!unmodified.isEmpty()) {
+         entries.putAll(super.loadAll(unmodified));
+      }
+      return entries;
+   }
+
    @Override
    public boolean contains(Object key) {
       Modification mod = state.get().get(key);
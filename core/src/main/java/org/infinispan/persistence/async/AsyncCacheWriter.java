@@ -1,6 +1,7 @@
 package org.infinispan.persistence.async;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
@@ -11,10 +12,12 @@
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.infinispan.Cache;
 import org.infinispan.commons.CacheException;
+import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.configuration.cache.AsyncStoreConfiguration;
 import org.infinispan.configuration.cache.Configuration;
@@ -26,6 +29,7 @@
 import org.infinispan.persistence.spi.InitializationContext;
 import org.infinispan.persistence.spi.PersistenceException;
 import org.infinispan.persistence.support.DelegatingCacheWriter;
+import org.infinispan.util.TimeService;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -48,6 +52,12 @@
  * assumed synchronous and this decorator is not applied.
  * <p/>
  * Write operations affecting same key are now coalesced so that only the final state is actually stored.
+ * A modification replacing one that is still queued does not take more space in the modification queue.
+ * <p/>
+ * When the modification queue is full, the {@link AsyncStoreConfiguration#modificationQueueFullPolicy()} decides
+ * whether the caller blocks, the modification fails or it is written synchronously.
+ * <p/>
+ * With {@link AsyncStoreConfiguration#offHeap()} the queued entries are copied outside of the heap.
  * <p/>
  *
  * @author Manik Surtani
@@ -66,6 +76,12 @@ public class AsyncCacheWriter extends DelegatingCacheWriter {
    private Thread coordinator;
    private int concurrencyLevel;
    private String cacheName;
+   private TimeService timeService;
+
+   private final AtomicLong flushedModifications = new AtomicLong();
+   private final AtomicLong flushTime = new AtomicLong();
+   private final AtomicLong rejectedModifications = new AtomicLong();
+   private final AtomicLong writeThroughModifications = new AtomicLong();
 
    protected BufferLock stateLock;
    @GuardedBy("stateLock")
@@ -74,6 +90,7 @@ public class AsyncCacheWriter extends DelegatingCacheWriter {
    private boolean stopped;
 
    protected AsyncStoreConfiguration asyncConfiguration;
+   private StreamingMarshaller marshaller;
 
    public AsyncCacheWriter(CacheWriter delegate) {
       super(delegate);
@@ -83,6 +100,8 @@ public AsyncCacheWriter(CacheWriter delegate) {
    public void init(InitializationContext ctx) {
       super.init(ctx);
       this.asyncConfiguration = ctx.getConfiguration().async();
+      this.timeService = ctx.getTimeService();
+      this.marshaller = ctx.getMarshaller();
 
       Cache cache = ctx.getCache();
       Configuration cacheCfg = cache != null ? cache.getCacheConfiguration() : null;
@@ -142,28 +161,55 @@ public void stop() {
 
    @Override
    public void write(MarshalledEntry entry) {
-      put(new Store(entry.getKey(), entry), 1);
+      if (asyncConfiguration.offHeap()) {
+         // The entries passed in keep the unmarshalled value, which could stay on the heap for a long time otherwise
+         entry = new OffHeapMarshalledEntry<>(entry, marshaller);
+      }
+      put(new Store(entry.getKey(), entry), entry.getKey());
    }
 
    @Override
    public boolean delete(Object key) {
-      put(new Remove(key), 1);
+      put(new Remove(key), key);
       return true;
    }
 
+   @Override
+   public void writeBatch(Iterable entries) {
+      for (Object entry : entries) {
+         write((MarshalledEntry) entry);
+      }
+   }
+
+   @Override
+   public void deleteBatch(Iterable keys) {
+      for (Object key : keys) {
+         delete(key);
+      }
+   }
+
    protected void applyModificationsSync(List<Modification> mods) throws PersistenceException {
+      // Modifications are coalesced by key, so the stores and removes can be applied in any order
+      List<MarshalledEntry> entriesToWrite = new ArrayList<>(mods.size());
+      List<Object> keysToDelete = new ArrayList<>();
       for (Modification m : mods) {
          switch (m.getType()) {
             case STORE:
-               actual.write(((Store) m).getStoredValue());
+               entriesToWrite.add(((Store) m).getStoredValue());
                break;
             case REMOVE:
-               actual.delete(((Remove) m).getKey());
+               keysToDelete.add(((Remove) m).getKey());
                break;
             default:
                throw new IllegalArgumentException("Unknown modification type " + m.getType());
          }
       }
+      if (!entriesToWrite.isEmpty()) {
+         actual.writeBatch(entriesToWrite);
+      }
+      if (!keysToDelete.isEmpty()) {
+         actual.deleteBatch(keysToDelete);
+      }
    }
 
 
@@ -177,23 +223,108 @@ void assertNotStopped() throws CacheException {
          throw new CacheException("AsyncCacheWriter stopped; no longer accepting more entries.");
    }
 
-   private void put(Modification mod, int count) {
-      stateLock.writeLock(count);
+   private void put(Modification mod, Object key) {
+      // The current state could be handed off to the back-end store right after the check, so the queue can
+      // exceed its size by the number of concurrent writers
+      int count = state.get().modifications.containsKey(key) ? 0 : 1;
+      if (!stateLock.tryWriteLock(count)) {
+         switch (asyncConfiguration.modificationQueueFullPolicy()) {
+            case REJECT:
+               rejectedModifications.incrementAndGet();
+               throw log.asyncStoreModificationQueueFull(asyncConfiguration.modificationQueueSize());
+            case WRITE_THROUGH:
+               if (writeThrough(mod, key))
+                  return;
+               // an older modification of the key must be stored first
+            default:
+               stateLock.writeLock(count);
+         }
+      }
       try {
          if (trace)
             log.tracef("Queue modification: %s", mod);
 
          assertNotStopped();
-         state.get().put(mod);
+         State s = state.get();
+         if (s.firstModificationTime == 0)
+            s.firstModificationTime = timeService.wallClockTime();
+         s.put(mod);
       } finally {
          stateLock.writeUnlock();
       }
    }
 
+   private boolean writeThrough(Modification mod, Object key) {
+      // Modifications of a key are done while holding the lock of the key, so none can be queued before this one
+      // is stored
+      if (state.get().get(key) != null)
+         return false;
+
+      assertNotStopped();
+      if (trace)
+         log.tracef("Modification queue full, storing modification synchronously: %s", mod);
+      applyModificationsSync(Collections.singletonList(mod));
+      writeThroughModifications.incrementAndGet();
+      return true;
+   }
+
    public AtomicReference<State> getState() {
       return state;
    }
 
+   /**
+    * Returns the number of modifications that are not stored yet, including the ones being stored.
+    */
+   public int getQueueSize() {
+      int size = 0;
+      for (State s = state.get(); s != null; s = s.next)
+         size += s.modifications.size();
+      return size;
+   }
+
+   /**
+    * Returns the time in milliseconds since the oldest modification that is not stored yet was queued, or 0 if there
+    * are no modifications to store.
+    */
+   public long getOldestModificationAge() {
+      long oldest = 0;
+      // the chain goes from the newest to the oldest state
+      for (State s = state.get(); s != null; s = s.next) {
+         long time = s.firstModificationTime;
+         if (time != 0 && !s.modifications.isEmpty())
+            oldest = time;
+      }
+      return oldest == 0 ? 0 : Math.max(0, timeService.wallClockTime() - oldest);
+   }
+
+   /**
+    * Returns the number of modifications stored in the background.
+    */
+   public long getFlushedModifications() {
+      return flushedModifications.get();
+   }
+
+   /**
+    * Returns the time spent storing the modifications in the background.
+    */
+   public long getFlushTime(TimeUnit unit) {
+      return unit.convert(flushTime.get(), TimeUnit.NANOSECONDS);
+   }
+
+   /**
+    * Returns the number of modifications that failed because the modification queue was full.
+    */
+   public long getRejectedModifications() {
+      return rejectedModifications.get();
+   }
+
+   /**
+    * Returns the number of modifications stored synchronously because the modification queue was full.
+    */
+   public long getWriteThroughModifications() {
+      return writeThroughModifications.get();
+   }
+
    protected void clearStore() {
       // No-op, not supported for async
    }
@@ -327,7 +458,10 @@ private void retryWork(int maxRetries) {
                log.debugf("Retrying due to previous failure. %s attempts left.", maxRetries - attempt);
 
             try {
+               long start = timeService.time();
                AsyncCacheWriter.this.applyModificationsSync(modifications);
+               flushTime.addAndGet(timeService.timeDuration(start, TimeUnit.NANOSECONDS));
+               flushedModifications.addAndGet(modifications.size());
                return;
             } catch (Exception e) {
                if (log.isDebugEnabled())
@@ -146,6 +146,20 @@ void writeLock(int count) {
       sync.acquireShared(1);
    }
 
+   /**
+    * Same as {@link #writeLock(int)}, except that it doesn't block if the buffer is full.
+    *
+    * @param count
+    *           number of items the caller intends to write
+    * @return false if the buffer is full, in which case the write lock is not acquired
+    */
+   boolean tryWriteLock(int count) {
+      if (count > 0 && counter != null && counter.tryAcquireShared(count) < 0)
+         return false;
+      sync.acquireShared(1);
+      return true;
+   }
+
    /**
     * Releases the write lock.
     */
@@ -0,0 +1,104 @@
+package org.infinispan.persistence.async;
+
+import org.infinispan.commons.io.ByteBuffer;
+import org.infinispan.commons.io.ByteBufferImpl;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.marshall.core.MarshalledEntry;
+import org.infinispan.metadata.InternalMetadata;
+import org.infinispan.persistence.spi.PersistenceException;
+
+/**
+ * A {@link MarshalledEntry} queued by a write-behind store with
+ * {@link org.infinispan.configuration.cache.AsyncStoreConfiguration#offHeap()} enabled.
+ * <p>
+ * The marshalled key, value and metadata are copied to a direct buffer, so the queue does not keep the value and
+ * metadata instances alive on the heap. Only the key instance is kept, as the queue is indexed by it. The value and
+ * metadata are unmarshalled again each time they are read, and the native memory is released when the buffer is
+ * garbage collected after the modification is flushed.
+ *
+ * @since 9.0
+ */
+final class OffHeapMarshalledEntry<K, V> implements MarshalledEntry<K, V> {
+   private final K key;
+   private final StreamingMarshaller marshaller;
+   private final java.nio.ByteBuffer memory;
+   private final int keyLength;
+   private final int valueLength;
+   // -1 if there is no metadata
+   private final int metadataLength;
+
+   OffHeapMarshalledEntry(MarshalledEntry<K, V> entry, StreamingMarshaller marshaller) {
+      this.key = entry.getKey();
+      this.marshaller = marshaller;
+      ByteBuffer keyBytes = entry.getKeyBytes();
+      ByteBuffer valueBytes = entry.getValueBytes();
+      ByteBuffer metadataBytes = entry.getMetadataBytes();
+      keyLength = keyBytes.getLength();
+      valueLength = valueBytes.getLength();
+      metadataLength = metadataBytes == null ? -1 : metadataBytes.getLength();
+      memory = java.nio.ByteBuffer.allocateDirect(keyLength + valueLength + Math.max(metadataLength, 0));
+      memory.put(keyBytes.getBuf(), keyBytes.getOffset(), keyLength);
+      memory.put(valueBytes.getBuf(), valueBytes.getOffset(), valueLength);
+      if (metadataBytes != null) {
+         memory.put(metadataBytes.getBuf(), metadataBytes.getOffset(), metadataLength);
+      }
+   }
+
+   @Override
+   public ByteBuffer getKeyBytes() {
+      return copy(0, keyLength);
+   }
+
+   @Override
+   public ByteBuffer getValueBytes() {
+      return copy(keyLength, valueLength);
+   }
+
+   @Override
+   public ByteBuffer getMetadataBytes() {
+      return metadataLength < 0 ? null : copy(keyLength + valueLength, metadataLength);
+   }
+
+   @Override
+   public K getKey() {
+      return key;
+   }
+
+   @Override
+   public V getValue() {
+      return unmarshall(getValueBytes());
+   }
+
+   @Override
+   public InternalMetadata getMetadata() {
+      return metadataLength < 0 ? null : unmarshall(getMetadataBytes());
+   }
+
+   private ByteBuffer copy(int offset, int length) {
+      byte[] bytes = new byte[length];
+      // Readers share the buffer, so each one reads from its own view
+      java.nio.ByteBuffer view = memory.duplicate();
+      view.position(offset);
+      view.get(bytes);
+      return new ByteBufferImpl(bytes, 0, length);
+   }
+
+   @SuppressWarnings("unchecked")
+   private <T> T unmarshall(ByteBuffer buf) {
+      try {
+         return (T) marshaller.objectFromByteBuffer(buf.getBuf(), buf.getOffset(), buf.getLength());
+      } catch (Exception e) {
+         throw new PersistenceException(e);
+      }
+   }
+
+   @Override
+   public String toString() {
+      return "OffHeapMarshalledEntry{" +
+            "key=" + key +
+            ", keyLength=" + keyLength +
+            ", valueLength=" + valueLength +
+            ", metadataLength=" + metadataLength +
+            '}';
+   }
+}
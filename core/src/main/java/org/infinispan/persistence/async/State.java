@@ -40,6 +40,11 @@ public class State {
     */
    CountDownLatch workerThreads;
 
+   /**
+    * Time (from the TimeService) of the first modification added to this instance, 0 if none was added.
+    */
+   volatile long firstModificationTime;
+
    public State(boolean clear, ConcurrentMap<Object, Modification> modMap, State next) {
       this.clear = clear;
       this.modifications = modMap;
@@ -1,6 +1,7 @@
 package org.infinispan.persistence.manager;
 
 import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Executor;
 
@@ -58,8 +59,40 @@ public interface PersistenceManager extends Lifecycle {
 
    void processOnAllStores(Executor executor, KeyFilter keyFilter, AdvancedCacheLoader.CacheLoaderTask task, boolean fetchValue, boolean fetchMetadata, AccessMode mode);
 
+   /**
+    * Same as {@link #processOnAllStores(Executor, KeyFilter, AdvancedCacheLoader.CacheLoaderTask, boolean, boolean,
+    * AccessMode)} except that only the entries that map to one of the given segments are passed to the task. Stores
+    * implementing {@link org.infinispan.persistence.spi.SegmentedAdvancedLoadWriteStore} are only asked for those
+    * segments, the entries of the other stores are filtered.
+    */
+   void processOnAllStores(Set<Integer> segments, KeyFilter keyFilter, AdvancedCacheLoader.CacheLoaderTask task, boolean fetchValue, boolean fetchMetadata, AccessMode mode);
+
+   void processOnAllStores(Executor executor, Set<Integer> segments, KeyFilter keyFilter, AdvancedCacheLoader.CacheLoaderTask task, boolean fetchValue, boolean fetchMetadata, AccessMode mode);
+
+   /**
+    * Removes the entries of the given segments from the stores implementing {@link
+    * org.infinispan.persistence.spi.SegmentedAdvancedLoadWriteStore}, without iterating over their keys.  Stores
+    * written asynchronously are skipped, as the segments must not be removed before the modifications already queued
+    * for them.
+    *
+    * @param segments the segments to remove.
+    * @param accessMode the type of access to the underlying store.
+    * @return {@code true} if every store the access mode applies to removed the segments, {@code false} if the
+    *         entries of the segments have to be removed key by key from some of them.
+    */
+   boolean removeSegmentsFromAllStores(Set<Integer> segments, AccessMode accessMode);
+
    MarshalledEntry loadFromAllStores(Object key, InvocationContext context);
 
+   /**
+    * Loads the entries of all the given keys, asking each store in turn only for the keys that were not found in the
+    * previous ones, with a single {@link org.infinispan.persistence.spi.CacheLoader#loadAll(Set)} invocation per
+    * store.
+    *
+    * @return the entries found, mapped by their keys
+    */
+   Map<Object, MarshalledEntry> loadAllFromAllStores(Set<Object> keys, InvocationContext context);
+
    /**
     * Returns the store one configured with fetch persistent state, or null if none exist.
     */
@@ -125,6 +158,25 @@ protected boolean canPerform(StoreConfiguration configuration) {
     */
    void writeToAllNonTxStores(MarshalledEntry marshalledEntry, AccessMode modes);
 
+   /**
+    * Writes the entries to all the stores that are not transactional, see {@link #writeToAllNonTxStores(MarshalledEntry,
+    * AccessMode)}, with a single {@link org.infinispan.persistence.spi.CacheWriter#writeBatch(Iterable)} invocation per
+    * store.
+    *
+    * @param entries the entries to be written to all non-tx stores, without duplicate keys.
+    * @param accessMode the type of access to the underlying store.
+    */
+   void writeBatchToAllNonTxStores(Iterable<MarshalledEntry> entries, AccessMode accessMode);
+
+   /**
+    * Removes the keys from all the stores that are not transactional with a single {@link
+    * org.infinispan.persistence.spi.CacheWriter#deleteBatch(Iterable)} invocation per store.
+    *
+    * @param keys the keys to be removed from all non-tx stores.
+    * @param accessMode the type of access to the underlying store.
+    */
+   void deleteBatchFromAllNonTxStores(Iterable<Object> keys, AccessMode accessMode);
+
    /**
     * Perform the prepare phase of 2PC on all Tx stores.
     *
@@ -22,7 +22,7 @@
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -36,12 +36,16 @@
 import org.infinispan.commons.io.ByteBufferFactory;
 import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.commons.util.Util;
+import org.infinispan.compat.TypeConverter;
 import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.configuration.cache.Configurations;
 import org.infinispan.configuration.cache.EvictionConfigurationBuilder;
 import org.infinispan.configuration.cache.Index;
 import org.infinispan.configuration.cache.StoreConfiguration;
+import org.infinispan.container.DataContainer;
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
+import org.infinispan.distribution.ch.KeyPartitioner;
 import org.infinispan.eviction.EvictionType;
 import org.infinispan.expiration.ExpirationManager;
 import org.infinispan.factories.annotations.ComponentName;
@@ -54,8 +58,13 @@
 import org.infinispan.interceptors.impl.CacheLoaderInterceptor;
 import org.infinispan.interceptors.impl.CacheWriterInterceptor;
 import org.infinispan.interceptors.impl.TransactionalStoreInterceptor;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
 import org.infinispan.marshall.core.MarshalledEntry;
 import org.infinispan.marshall.core.MarshalledEntryFactory;
+import org.infinispan.metadata.EmbeddedMetadata;
 import org.infinispan.metadata.Metadata;
 import org.infinispan.metadata.impl.InternalMetadataImpl;
 import org.infinispan.persistence.InitializationContextImpl;
@@ -72,6 +81,7 @@
 import org.infinispan.persistence.spi.CacheWriter;
 import org.infinispan.persistence.spi.LocalOnlyCacheLoader;
 import org.infinispan.persistence.spi.PersistenceException;
+import org.infinispan.persistence.spi.SegmentedAdvancedLoadWriteStore;
 import org.infinispan.persistence.spi.TransactionalCacheWriter;
 import org.infinispan.persistence.support.AdvancedSingletonCacheWriter;
 import org.infinispan.persistence.support.BatchModification;
@@ -79,10 +89,10 @@
 import org.infinispan.persistence.support.DelegatingCacheWriter;
 import org.infinispan.persistence.support.SingletonCacheWriter;
 import org.infinispan.util.TimeService;
-import org.infinispan.util.concurrent.WithinThreadExecutor;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+@MBean(objectName = "PersistenceManager", description = "Component that manages the cache loaders and writers of the cache.")
 public class PersistenceManagerImpl implements PersistenceManager {
 
    private static final Log log = LogFactory.getLog(PersistenceManagerImpl.class);
@@ -115,13 +125,20 @@ public class PersistenceManagerImpl implements PersistenceManager {
    private ByteBufferFactory byteBufferFactory;
    private MarshalledEntryFactory marshalledEntryFactory;
    private volatile boolean clearOnStop;
+   private DataContainer<Object, Object> dataContainer;
+   private KeyPartitioner keyPartitioner;
+
+   private final AtomicLong preloadedEntries = new AtomicLong();
+   private volatile long preloadStart = -1;
+   private volatile long preloadEnd = -1;
 
    @Inject
    public void inject(AdvancedCache<Object, Object> cache, StreamingMarshaller marshaller,
                       Configuration configuration, TransactionManager transactionManager,
                       TimeService timeService, @ComponentName(PERSISTENCE_EXECUTOR) ExecutorService persistenceExecutor,
                       ByteBufferFactory byteBufferFactory, MarshalledEntryFactory marshalledEntryFactory,
-                      CacheStoreFactoryRegistry cacheStoreFactoryRegistry, ExpirationManager expirationManager) {
+                      CacheStoreFactoryRegistry cacheStoreFactoryRegistry, ExpirationManager expirationManager,
+                      DataContainer<Object, Object> dataContainer, KeyPartitioner keyPartitioner) {
       this.cache = cache;
       this.m = marshaller;
       this.configuration = configuration;
@@ -132,6 +149,8 @@ public void inject(AdvancedCache<Object, Object> cache, StreamingMarshaller mars
       this.marshalledEntryFactory = marshalledEntryFactory;
       this.cacheStoreFactoryRegistry = cacheStoreFactoryRegistry;
       this.expirationManager = expirationManager;
+      this.dataContainer = dataContainer;
+      this.keyPartitioner = keyPartitioner;
 
       this.advancedListener = new AdvancedPurgeListener(expirationManager);
    }
@@ -248,25 +267,192 @@ public void preload() {
       if (preloadCl == null)
          return;
 
-      long start = timeService.time();
+      preloadedEntries.set(0);
+      preloadEnd = -1;
+      preloadStart = timeService.time();
+      final long maxEntries = getMaxEntries();
+      AdvancedCacheLoader.CacheLoaderTask task;
+      if (canPreloadIntoDataContainer()) {
+         // The data container holds the keys and values in the form the cache stores them
+         TypeConverter<Object, Object, Object, Object> converter =
+               cache.getComponentRegistry().getComponent(TypeConverter.class);
+         task = (me, taskContext) -> {
+            if (reservePreloadSlot(maxEntries, taskContext)) {
+               dataContainer.put(converter.boxKey(me.getKey()), converter.boxValue(me.getValue()),
+                     preloadMetadata(me));
+            }
+         };
+      } else {
+         final AdvancedCache<Object, Object> flaggedCache = getCacheForStateInsertion();
+         task = (me, taskContext) -> {
+            if (reservePreloadSlot(maxEntries, taskContext)) {
+               preloadKey(flaggedCache, me.getKey(), me.getValue(), preloadMetadata(me));
+            }
+         };
+      }
+      try {
+         // The store splits the iteration into tasks run in parallel by the persistence executor
+         preloadCl.process(null, task, persistenceExecutor, true, true);
+      } finally {
+         preloadEnd = timeService.time();
+      }
 
+      log.debugf("Preloaded %s keys in %s", preloadedEntries, Util.prettyPrintTime(timeService.timeDuration(preloadStart, preloadEnd, MILLISECONDS)));
+   }
 
-      final long maxEntries = getMaxEntries();
-      final AtomicInteger loadedEntries = new AtomicInteger(0);
-      final AdvancedCache<Object, Object> flaggedCache = getCacheForStateInsertion();
-      preloadCl.process(null, new AdvancedCacheLoader.CacheLoaderTask() {
-         @Override
-         public void processEntry(MarshalledEntry me, AdvancedCacheLoader.TaskContext taskContext) throws InterruptedException {
-            if (loadedEntries.getAndIncrement() >= maxEntries) {
-               taskContext.stop();
-               return;
+   /**
+    * Entries can be written straight into the data container when no interceptor needs to see them: the index is
+    * only updated and the versions are only generated by the interceptor chain.  Compatibility mode converts the
+    * entries depending on the invocation, so they have to go through the cache.
+    */
+   private boolean canPreloadIntoDataContainer() {
+      return !configuration.indexing().index().isEnabled() && !Configurations.isVersioningEnabled(configuration)
+            && !configuration.compatibility().enabled();
+   }
+
+   private boolean reservePreloadSlot(long maxEntries, AdvancedCacheLoader.TaskContext taskContext) {
+      if (preloadedEntries.incrementAndGet() > maxEntries) {
+         preloadedEntries.decrementAndGet();
+         taskContext.stop();
+         return false;
+      }
+      return true;
+   }
+
+   private Metadata preloadMetadata(MarshalledEntry me) {
+      Metadata metadata = me.getMetadata() != null ? ((InternalMetadataImpl)me.getMetadata()).actual() : null; //the downcast will go away with ISPN-3460
+      if (metadata == null) {
+         // Same default as a put without metadata
+         return new EmbeddedMetadata.Builder()
+               .lifespan(configuration.expiration().lifespan()).maxIdle(configuration.expiration().maxIdle()).build();
+      }
+      return metadata;
+   }
+
+   @ManagedAttribute(
+         description = "Number of entries loaded from the cache store by the preload",
+         displayName = "Number of preloaded entries",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getPreloadedEntries() {
+      return preloadedEntries.get();
+   }
+
+   @ManagedAttribute(
+         description = "Whether the entries of the cache store are being preloaded",
+         displayName = "Preload in progress"
+   )
+   public boolean isPreloading() {
+      return preloadStart >= 0 && preloadEnd < 0;
+   }
+
+   @ManagedAttribute(
+         description = "Time spent preloading the entries of the cache store, or spent so far if it is in progress",
+         displayName = "Preload time",
+         units = Units.MILLISECONDS
+   )
+   public long getPreloadTime() {
+      long start = preloadStart;
+      if (start < 0) {
+         return 0;
+      }
+      long end = preloadEnd;
+      return end < 0 ? timeService.timeDuration(start, MILLISECONDS) : timeService.timeDuration(start, end, MILLISECONDS);
+   }
+
+   @ManagedAttribute(
+         description = "Number of modifications waiting to be stored by the write-behind cache stores",
+         displayName = "Write-behind queue size"
+   )
+   public int getWriteBehindQueueSize() {
+      int size = 0;
+      for (AsyncCacheWriter writer : getAsyncWriters()) {
+         size += writer.getQueueSize();
+      }
+      return size;
+   }
+
+   @ManagedAttribute(
+         description = "Time since the oldest modification waiting to be stored by a write-behind cache store was queued",
+         displayName = "Write-behind oldest modification age",
+         units = Units.MILLISECONDS
+   )
+   public long getWriteBehindOldestModificationAge() {
+      long age = 0;
+      for (AsyncCacheWriter writer : getAsyncWriters()) {
+         age = Math.max(age, writer.getOldestModificationAge());
+      }
+      return age;
+   }
+
+   @ManagedAttribute(
+         description = "Number of modifications stored in the background by the write-behind cache stores",
+         displayName = "Write-behind flushed modifications",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getWriteBehindFlushedModifications() {
+      long flushed = 0;
+      for (AsyncCacheWriter writer : getAsyncWriters()) {
+         flushed += writer.getFlushedModifications();
+      }
+      return flushed;
+   }
+
+   @ManagedAttribute(
+         description = "Average number of modifications stored per second by the write-behind cache stores, " +
+               "counting only the time spent storing them",
+         displayName = "Write-behind flush throughput"
+   )
+   public long getWriteBehindFlushThroughput() {
+      long flushed = 0;
+      long time = 0;
+      for (AsyncCacheWriter writer : getAsyncWriters()) {
+         flushed += writer.getFlushedModifications();
+         time += writer.getFlushTime(TimeUnit.NANOSECONDS);
+      }
+      return time == 0 ? 0 : flushed * TimeUnit.SECONDS.toNanos(1) / time;
+   }
+
+   @ManagedAttribute(
+         description = "Number of modifications that failed because the queue of a write-behind cache store was full",
+         displayName = "Write-behind rejected modifications",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getWriteBehindRejectedModifications() {
+      long rejected = 0;
+      for (AsyncCacheWriter writer : getAsyncWriters()) {
+         rejected += writer.getRejectedModifications();
+      }
+      return rejected;
+   }
+
+   @ManagedAttribute(
+         description = "Number of modifications stored synchronously because the queue of a write-behind cache " +
+               "store was full",
+         displayName = "Write-behind write-through modifications",
+         measurementType = MeasurementType.TRENDSUP
+   )
+   public long getWriteBehindWriteThroughModifications() {
+      long writeThrough = 0;
+      for (AsyncCacheWriter writer : getAsyncWriters()) {
+         writeThrough += writer.getWriteThroughModifications();
+      }
+      return writeThrough;
+   }
+
+   private List<AsyncCacheWriter> getAsyncWriters() {
+      storesMutex.readLock().lock();
+      try {
+         List<AsyncCacheWriter> asyncWriters = new ArrayList<>();
+         for (CacheWriter writer : nonTxWriters) {
+            if (writer instanceof AsyncCacheWriter) {
+               asyncWriters.add((AsyncCacheWriter) writer);
             }
-            Metadata metadata = me.getMetadata() != null ? ((InternalMetadataImpl)me.getMetadata()).actual() : null; //the downcast will go away with ISPN-3460
-            preloadKey(flaggedCache, me.getKey(), me.getValue(), metadata);
          }
-      }, new WithinThreadExecutor(), true, true);
-
-      log.debugf("Preloaded %s keys in %s", loadedEntries, Util.prettyPrintTime(timeService.timeDuration(start, MILLISECONDS)));
+         return asyncWriters;
+      } finally {
+         storesMutex.readLock().unlock();
+      }
    }
 
    @Override
@@ -473,6 +659,56 @@ public void processOnAllStores(Executor executor, KeyFilter keyFilter, AdvancedC
       }
    }
 
+   @Override
+   public void processOnAllStores(Set<Integer> segments, KeyFilter keyFilter, AdvancedCacheLoader.CacheLoaderTask task,
+                                  boolean fetchValue, boolean fetchMetadata, AccessMode mode) {
+      processOnAllStores(persistenceExecutor, segments, keyFilter, task, fetchValue, fetchMetadata, mode);
+   }
+
+   @Override
+   public void processOnAllStores(Executor executor, Set<Integer> segments, KeyFilter keyFilter, AdvancedCacheLoader.CacheLoaderTask task, boolean fetchValue, boolean fetchMetadata, AccessMode mode) {
+      KeyFilter segmentFilter = key -> segments.contains(keyPartitioner.getSegment(key)) &&
+            (keyFilter == null || keyFilter.accept(key));
+      storesMutex.readLock().lock();
+      try {
+         for (CacheLoader loader : loaders) {
+            if (mode.canPerform(configMap.get(loader))) {
+               if (loader instanceof SegmentedAdvancedLoadWriteStore) {
+                  ((SegmentedAdvancedLoadWriteStore) loader).process(segments, keyFilter, task, executor, fetchValue, fetchMetadata);
+               } else if (loader instanceof AdvancedCacheLoader) {
+                  ((AdvancedCacheLoader) loader).process(segmentFilter, task, executor, fetchValue, fetchMetadata);
+               }
+            }
+         }
+      } finally {
+         storesMutex.readLock().unlock();
+      }
+   }
+
+   @Override
+   public boolean removeSegmentsFromAllStores(Set<Integer> segments, AccessMode accessMode) {
+      storesMutex.readLock().lock();
+      try {
+         boolean[] removed = {true};
+         // Apply to txWriters as well as the segments are not removed in a Tx context
+         Consumer<CacheWriter> removeSegments = writer -> {
+            if (accessMode.canPerform(configMap.get(writer))) {
+               // An async writer is a delegate, so it is never segmented
+               if (writer instanceof SegmentedAdvancedLoadWriteStore) {
+                  ((SegmentedAdvancedLoadWriteStore) writer).removeSegments(segments);
+               } else {
+                  removed[0] = false;
+               }
+            }
+         };
+         nonTxWriters.forEach(removeSegments);
+         txWriters.forEach(removeSegments);
+         return removed[0];
+      } finally {
+         storesMutex.readLock().unlock();
+      }
+   }
+
    @Override
    public MarshalledEntry loadFromAllStores(Object key, InvocationContext context) {
       storesMutex.readLock().lock();
@@ -491,6 +727,28 @@ public MarshalledEntry loadFromAllStores(Object key, InvocationContext context)
       }
    }
 
+   @Override
+   public Map<Object, MarshalledEntry> loadAllFromAllStores(Set<Object> keys, InvocationContext context) {
+      Map<Object, MarshalledEntry> entries = new HashMap<>();
+      Set<Object> remaining = new HashSet<>(keys);
+      storesMutex.readLock().lock();
+      try {
+         for (CacheLoader l : loaders) {
+            if (remaining.isEmpty())
+               break;
+            if (!context.isOriginLocal() && isLocalOnlyLoader(l))
+               continue;
+
+            Map<Object, MarshalledEntry> loaded = l.loadAll(remaining);
+            entries.putAll(loaded);
+            remaining.removeAll(loaded.keySet());
+         }
+         return entries;
+      } finally {
+         storesMutex.readLock().unlock();
+      }
+   }
+
    private boolean isLocalOnlyLoader(CacheLoader loader) {
       if (loader instanceof LocalOnlyCacheLoader) return true;
       if (loader instanceof DelegatingCacheLoader) {
@@ -513,6 +771,34 @@ public void writeToAllNonTxStores(MarshalledEntry marshalledEntry, AccessMode ac
       }
    }
 
+   @Override
+   public void writeBatchToAllNonTxStores(Iterable<MarshalledEntry> entries, AccessMode accessMode) {
+      storesMutex.readLock().lock();
+      try {
+         for (CacheWriter writer : nonTxWriters) {
+            if (accessMode.canPerform(configMap.get(writer))) {
+               writer.writeBatch(entries);
+            }
+         }
+      } finally {
+         storesMutex.readLock().unlock();
+      }
+   }
+
+   @Override
+   public void deleteBatchFromAllNonTxStores(Iterable<Object> keys, AccessMode accessMode) {
+      storesMutex.readLock().lock();
+      try {
+         for (CacheWriter writer : nonTxWriters) {
+            if (accessMode.canPerform(configMap.get(writer))) {
+               writer.deleteBatch(keys);
+            }
+         }
+      } finally {
+         storesMutex.readLock().unlock();
+      }
+   }
+
    @Override
    public void prepareAllTxStores(Transaction transaction, BatchModification batchModification,
                                   AccessMode accessMode) throws PersistenceException {
@@ -598,7 +884,7 @@ private void createLoadersAndWriters() {
          loader = postProcessReader(processedConfiguration, writer, loader);
 
          InitializationContextImpl ctx = new InitializationContextImpl(processedConfiguration, cache, m, timeService, byteBufferFactory,
-                                                                       marshalledEntryFactory);
+                                                                       marshalledEntryFactory, keyPartitioner);
          initializeLoader(processedConfiguration, loader, ctx);
          initializeWriter(processedConfiguration, writer, ctx);
          initializeBareInstance(bareInstance, ctx);
@@ -2,6 +2,7 @@
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Executor;
 
@@ -75,15 +76,41 @@ public void processOnAllStores(KeyFilter keyFilter, AdvancedCacheLoader.CacheLoa
    public void processOnAllStores(Executor executor, KeyFilter keyFilter, AdvancedCacheLoader.CacheLoaderTask task, boolean fetchValue, boolean fetchMetadata, AccessMode mode) {
    }
 
+   @Override
+   public void processOnAllStores(Set<Integer> segments, KeyFilter keyFilter, AdvancedCacheLoader.CacheLoaderTask task, boolean fetchValue, boolean fetchMetadata, AccessMode mode) {
+   }
+
+   @Override
+   public void processOnAllStores(Executor executor, Set<Integer> segments, KeyFilter keyFilter, AdvancedCacheLoader.CacheLoaderTask task, boolean fetchValue, boolean fetchMetadata, AccessMode mode) {
+   }
+
+   @Override
+   public boolean removeSegmentsFromAllStores(Set<Integer> segments, AccessMode accessMode) {
+      return true;
+   }
+
    @Override
    public MarshalledEntry loadFromAllStores(Object key, InvocationContext context) {
       return null;
    }
 
+   @Override
+   public Map<Object, MarshalledEntry> loadAllFromAllStores(Set<Object> keys, InvocationContext context) {
+      return Collections.emptyMap();
+   }
+
    @Override
    public void writeToAllNonTxStores(MarshalledEntry marshalledEntry, AccessMode modes) {
    }
 
+   @Override
+   public void writeBatchToAllNonTxStores(Iterable<MarshalledEntry> entries, AccessMode accessMode) {
+   }
+
+   @Override
+   public void deleteBatchFromAllNonTxStores(Iterable<Object> keys, AccessMode accessMode) {
+   }
+
    @Override
    public AdvancedCacheLoader getStateTransferProvider() {
       return null;
@@ -1,5 +1,9 @@
 package org.infinispan.persistence.spi;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
 import org.infinispan.commons.api.Lifecycle;
 import org.infinispan.marshall.core.MarshalledEntry;
 
@@ -33,6 +37,26 @@
     */
    MarshalledEntry<K, V> load(Object key);
 
+   /**
+    * Fetches the entries of all the given keys.  Stores that can read many entries at once, e.g. with a single query,
+    * should override this method, by default the entries are loaded one by one.
+    *
+    * @param keys the keys to load
+    * @return the entries that exist, mapped by their keys
+    * @throws PersistenceException in case of an error, e.g. communicating with the external storage
+    * @since 9.0
+    */
+   default Map<Object, MarshalledEntry<K, V>> loadAll(Set<Object> keys) {
+      Map<Object, MarshalledEntry<K, V>> entries = new HashMap<>();
+      for (Object key : keys) {
+         MarshalledEntry<K, V> entry = load(key);
+         if (entry != null) {
+            entries.put(key, entry);
+         }
+      }
+      return entries;
+   }
+
    /**
     * Returns true if the storage contains an entry associated with the given key.
     *
@@ -35,4 +35,34 @@
     * @throws PersistenceException in case of an error, e.g. communicating with the external storage
     */
    boolean delete(Object key);
+
+   /**
+    * Persists all the provided entries to the storage.  Stores that can write many entries at once, e.g. in a single
+    * database transaction or with a single file write, should override this method, by default the entries are written
+    * one by one.
+    * <p>
+    * The entries don't contain duplicate keys.
+    *
+    * @param entries the entries to persist
+    * @throws PersistenceException in case of an error, e.g. communicating with the external storage
+    * @since 9.0
+    */
+   default void writeBatch(Iterable<MarshalledEntry<? extends K, ? extends V>> entries) {
+      for (MarshalledEntry<? extends K, ? extends V> entry : entries) {
+         write(entry);
+      }
+   }
+
+   /**
+    * Removes all the provided keys from the storage.  By default the keys are removed one by one.
+    *
+    * @param keys the keys to remove
+    * @throws PersistenceException in case of an error, e.g. communicating with the external storage
+    * @since 9.0
+    */
+   default void deleteBatch(Iterable<Object> keys) {
+      for (Object key : keys) {
+         delete(key);
+      }
+   }
 }
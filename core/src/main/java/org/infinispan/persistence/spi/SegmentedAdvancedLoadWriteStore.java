@@ -0,0 +1,54 @@
+package org.infinispan.persistence.spi;
+
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import org.infinispan.filter.KeyFilter;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * An {@link AdvancedLoadWriteStore} that keeps its entries partitioned by segment, so that the operations that only
+ * care about a subset of the segments (e.g. state transfer) do not have to look at every entry in the store.
+ * <p>
+ * The segment of a key is the one returned by the {@link org.infinispan.distribution.ch.KeyPartitioner} of the cache,
+ * which is available from {@link InitializationContext#getKeyPartitioner()}.  When a store is only partitioned
+ * depending on its configuration, the segmented operations have to fall back to filtering all the entries of the
+ * store otherwise.
+ *
+ * @since 9.0
+ */
+@ThreadSafe
+public interface SegmentedAdvancedLoadWriteStore<K, V> extends AdvancedLoadWriteStore<K, V> {
+
+   /**
+    * Same as {@link #process(KeyFilter, CacheLoaderTask, Executor, boolean, boolean)} except that only the entries
+    * that map to one of the given segments are passed to the task.
+    *
+    * @param segments      segments of the entries to iterate over
+    * @param filter        to validate which entries should be feed into the task. Might be null.
+    * @param task          callback to be invoked in parallel for each stored entry that passes the filter check
+    * @param executor      an external thread pool to be used for parallel iteration
+    * @param fetchValue    whether or not to fetch the value from the persistent store
+    * @param fetchMetadata whether or not to fetch the metadata from the persistent store
+    * @throws PersistenceException in case of an error, e.g. communicating with the external storage
+    */
+   void process(Set<Integer> segments, KeyFilter<? super K> filter, CacheLoaderTask<K, V> task, Executor executor,
+                boolean fetchValue, boolean fetchMetadata);
+
+   /**
+    * Returns the number of entries in the given segments.
+    *
+    * @param segments segments to count the entries of
+    * @throws PersistenceException in case of an error, e.g. communicating with the external storage
+    */
+   int size(Set<Integer> segments);
+
+   /**
+    * Removes all the entries that map to the given segments.
+    *
+    * @param segments segments to remove
+    * @throws PersistenceException in case of an error, e.g. communicating with the external storage
+    */
+   void removeSegments(Set<Integer> segments);
+}
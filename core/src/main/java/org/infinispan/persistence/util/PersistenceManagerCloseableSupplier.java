@@ -1,5 +1,6 @@
 package org.infinispan.persistence.util;
 
+import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Executor;
@@ -33,6 +34,7 @@
    private final Executor executor;
    private final PersistenceManager manager;
    private final KeyFilter<K> filter;
+   private final Set<Integer> segments;
    private final InternalEntryFactory factory;
    private final BlockingQueue<CacheEntry<K, V>> queue;
    private final long timeout;
@@ -47,10 +49,21 @@
    public PersistenceManagerCloseableSupplier(Executor executor, PersistenceManager manager,
                                               InternalEntryFactory factory, KeyFilter<K> filter, long timeout,
                                               TimeUnit unit, int maxQueue) {
+      this(executor, manager, factory, filter, null, timeout, unit, maxQueue);
+   }
+
+   /**
+    * Same as the other constructor except that only the entries mapping to the given segments are supplied.
+    * @param segments the segments of the entries to supply, null to supply the entries of all the segments
+    */
+   public PersistenceManagerCloseableSupplier(Executor executor, PersistenceManager manager,
+                                              InternalEntryFactory factory, KeyFilter<K> filter, Set<Integer> segments,
+                                              long timeout, TimeUnit unit, int maxQueue) {
       this.executor = executor;
       this.manager = manager;
       this.factory = factory;
       this.filter = filter;
+      this.segments = segments;
       this.timeout = timeout;
       this.unit = unit;
       this.queue = new ArrayBlockingQueue<>(maxQueue);
@@ -111,7 +124,12 @@ public CacheEntry<K, V> get() throws TimeoutException {
          // can't really use the persistence executor since we will block while waiting for additional work
          executor.execute(() -> {
             try {
-               manager.processOnAllStores(new WithinThreadExecutor(), filter, task, true, true);
+               if (segments == null) {
+                  manager.processOnAllStores(new WithinThreadExecutor(), filter, task, true, true);
+               } else {
+                  manager.processOnAllStores(new WithinThreadExecutor(), segments, filter, task, true, true,
+                        PersistenceManager.AccessMode.BOTH);
+               }
             } finally {
                close();
             }
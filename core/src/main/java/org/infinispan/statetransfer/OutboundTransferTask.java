@@ -1,7 +1,10 @@
 package org.infinispan.statetransfer;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -12,18 +15,24 @@
 
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commons.CacheException;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.commons.marshall.WrappedByteArray;
 import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.InternalEntryFactory;
+import org.infinispan.container.SegmentedDataContainer;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.filter.CollectionKeyFilter;
 import org.infinispan.marshall.core.MarshalledEntry;
 import org.infinispan.persistence.manager.PersistenceManager;
 import org.infinispan.persistence.spi.AdvancedCacheLoader;
+import org.infinispan.persistence.spi.SegmentedAdvancedLoadWriteStore;
 import org.infinispan.remoting.rpc.ResponseMode;
 import org.infinispan.remoting.rpc.RpcManager;
 import org.infinispan.remoting.rpc.RpcOptions;
+import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.responses.SuccessfulResponse;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.jgroups.SuspectException;
 import org.infinispan.util.ReadOnlyDataContainerBackedKeySet;
@@ -55,6 +64,21 @@ public class OutboundTransferTask implements Runnable {
 
    private final int stateTransferChunkSize;
 
+   /**
+    * The maximum estimated size of a chunk, 0 if only {@code stateTransferChunkSize} limits the chunks.
+    */
+   private final int chunkBytes;
+
+   /**
+    * The estimated size the destination allows for the next chunk, bounded by {@code chunkBytes}.
+    */
+   private int chunkCredit;
+
+   /**
+    * Whether the size of the entries is needed, either to limit the chunks or to limit the bandwidth.
+    */
+   private final boolean estimateSizes;
+
    private final ConsistentHash readCh;
 
    private final DataContainer<Object, Object> dataContainer;
@@ -76,6 +100,11 @@ public class OutboundTransferTask implements Runnable {
     */
    private int accumulatedEntries;
 
+   /**
+    * The estimated size of the entries accumulated in entriesBySegment.
+    */
+   private long accumulatedBytes;
+
    /**
     * The Future obtained from submitting this task to an executor service. This is used for cancellation.
     */
@@ -85,10 +114,13 @@ public class OutboundTransferTask implements Runnable {
 
    private InternalEntryFactory entryFactory;
 
-   public OutboundTransferTask(Address destination, Set<Integer> segments, int stateTransferChunkSize,
+   private final StreamingMarshaller marshaller;
+
+   public OutboundTransferTask(Address destination, Set<Integer> segments, int stateTransferChunkSize, int chunkBytes,
                                int topologyId, ConsistentHash readCh, StateProviderImpl stateProvider, DataContainer dataContainer,
                                PersistenceManager persistenceManager, RpcManager rpcManager,
-                               CommandsFactory commandsFactory, InternalEntryFactory ef, long timeout, String cacheName) {
+                               CommandsFactory commandsFactory, InternalEntryFactory ef, StreamingMarshaller marshaller,
+                               long timeout, String cacheName) {
       if (segments == null || segments.isEmpty()) {
          throw new IllegalArgumentException("Segments must not be null or empty");
       }
@@ -102,11 +134,15 @@ public OutboundTransferTask(Address destination, Set<Integer> segments, int stat
       this.destination = destination;
       this.segments.addAll(segments);
       this.stateTransferChunkSize = stateTransferChunkSize;
+      this.chunkBytes = chunkBytes;
+      this.chunkCredit = chunkBytes;
+      this.estimateSizes = chunkBytes > 0 || stateProvider.isBandwidthLimited();
       this.topologyId = topologyId;
       this.readCh = readCh;
       this.dataContainer = dataContainer;
       this.persistenceManager = persistenceManager;
       this.entryFactory = ef;
+      this.marshaller = marshaller;
       this.rpcManager = rpcManager;
       this.commandsFactory = commandsFactory;
       this.timeout = timeout;
@@ -145,11 +181,26 @@ public int getTopologyId() {
    public void run() {
       try {
          // send data container entries
-         for (InternalCacheEntry ice : dataContainer) {
-            Object key = ice.getKey();  //todo [anistor] should we check for expired entries?
-            int segmentId = readCh.getSegment(key);
-            if (segments.contains(segmentId) && !ice.isL1Entry()) {
-               sendEntry(ice, segmentId);
+         if (dataContainer instanceof SegmentedDataContainer) {
+            // only look at the entries of the requested segments
+            SegmentedDataContainer<Object, Object> segmentedContainer = (SegmentedDataContainer<Object, Object>) dataContainer;
+            for (int segmentId : segments) {
+               Iterator<InternalCacheEntry<Object, Object>> iterator =
+                     segmentedContainer.iterator(Collections.singleton(segmentId));
+               while (iterator.hasNext()) {
+                  InternalCacheEntry ice = iterator.next();
+                  if (!ice.isL1Entry()) {
+                     sendEntry(ice, segmentId);
+                  }
+               }
+            }
+         } else {
+            for (InternalCacheEntry ice : dataContainer) {
+               Object key = ice.getKey();  //todo [anistor] should we check for expired entries?
+               int segmentId = readCh.getSegment(key);
+               if (segments.contains(segmentId) && !ice.isL1Entry()) {
+                  sendEntry(ice, segmentId);
+               }
             }
          }
 
@@ -171,7 +222,13 @@ public void processEntry(MarshalledEntry me, AdvancedCacheLoader.TaskContext tas
                         }
                      }
                   };
-               stProvider.process(filter, task, new WithinThreadExecutor(), true, true);
+               if (stProvider instanceof SegmentedAdvancedLoadWriteStore) {
+                  // only look at the entries of the requested segments
+                  ((SegmentedAdvancedLoadWriteStore) stProvider).process(new HashSet<>(segments), filter, task,
+                        new WithinThreadExecutor(), true, true);
+               } else {
+                  stProvider.process(filter, task, new WithinThreadExecutor(), true, true);
+               }
             } catch (CacheException e) {
                log.failedLoadingKeysFromCacheStore(e);
             }
@@ -192,11 +249,12 @@ public void processEntry(MarshalledEntry me, AdvancedCacheLoader.TaskContext tas
       }
    }
 
-   private void sendEntry(InternalCacheEntry ice, int segmentId) {
+   private void sendEntry(InternalCacheEntry ice, int segmentId) throws InterruptedException {
       // send if we have a full chunk
-      if (accumulatedEntries >= stateTransferChunkSize) {
+      if (accumulatedEntries >= stateTransferChunkSize || (chunkCredit > 0 && accumulatedBytes >= chunkCredit)) {
          sendEntries(false);
          accumulatedEntries = 0;
+         accumulatedBytes = 0;
       }
 
       List<InternalCacheEntry> entries = entriesBySegment.get(segmentId);
@@ -205,10 +263,51 @@ private void sendEntry(InternalCacheEntry ice, int segmentId) {
          entriesBySegment.put(segmentId, entries);
       }
       entries.add(ice);
+      if (estimateSizes) {
+         // marshall the first value of each chunk to keep the size predictions of the marshaller accurate
+         accumulatedBytes += estimateSize(ice.getKey(), false) + estimateSize(ice.getValue(), accumulatedEntries == 0);
+      }
       accumulatedEntries++;
    }
 
-   private void sendEntries(boolean isLast) {
+   private int estimateSize(Object o, boolean measure) {
+      if (o instanceof WrappedByteArray) {
+         return ((WrappedByteArray) o).getLength();
+      } else if (o instanceof byte[]) {
+         return ((byte[]) o).length;
+      } else if (o instanceof String) {
+         return utf8Length((String) o);
+      }
+      if (measure) {
+         try {
+            return marshaller.objectToByteBuffer(o).length;
+         } catch (IOException e) {
+            log.tracef(e, "Could not marshall %s, using the predicted size", o);
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+      }
+      return marshaller.getBufferSizePredictor(o).nextSize(o);
+   }
+
+   /**
+    * @return the number of bytes of the UTF-8 encoding of the string, counting 3 bytes per surrogate like the
+    * marshaller does
+    */
+   private static int utf8Length(String s) {
+      int length = s.length();
+      for (int i = 0; i < s.length(); i++) {
+         char c = s.charAt(i);
+         if (c >= 0x800) {
+            length += 2;
+         } else if (c >= 0x80) {
+            length++;
+         }
+      }
+      return length;
+   }
+
+   private void sendEntries(boolean isLast) throws InterruptedException {
       List<StateChunk> chunks = new ArrayList<StateChunk>();
       for (Map.Entry<Integer, List<InternalCacheEntry>> e : entriesBySegment.entrySet()) {
          List<InternalCacheEntry> entries = e.getValue();
@@ -230,16 +329,18 @@ private void sendEntries(boolean isLast) {
       if (!chunks.isEmpty()) {
          if (trace) {
             if (isLast) {
-               log.tracef("Sending last chunk containing %d cache entries from segments %s of cache %s to node %s", accumulatedEntries, segments, cacheName, destination);
+               log.tracef("Sending last chunk containing %d cache entries (~%d bytes) from segments %s of cache %s to node %s", accumulatedEntries, accumulatedBytes, segments, cacheName, destination);
             } else {
-               log.tracef("Sending %d cache entries from segments %s of cache %s to node %s", accumulatedEntries, entriesBySegment.keySet(), cacheName, destination);
+               log.tracef("Sending %d cache entries (~%d bytes) from segments %s of cache %s to node %s", accumulatedEntries, accumulatedBytes, entriesBySegment.keySet(), cacheName, destination);
             }
          }
 
+         stateProvider.acquireBandwidth(accumulatedBytes);
          StateResponseCommand cmd = commandsFactory.buildStateResponseCommand(rpcManager.getAddress(), topologyId, chunks);
          // send synchronously, in order. it is important that the last chunk is received last in order to correctly detect completion of the stream of chunks
          try {
-            rpcManager.invokeRemotely(Collections.singleton(destination), cmd, rpcOptions);
+            Map<Address, Response> responses = rpcManager.invokeRemotely(Collections.singleton(destination), cmd, rpcOptions);
+            updateChunkCredit(responses);
          } catch (SuspectException e) {
             log.debugf("Node %s left cache %s while we were sending state to it, cancelling transfer.", destination, cacheName);
             cancel();
@@ -253,6 +354,19 @@ private void sendEntries(boolean isLast) {
       }
    }
 
+   private void updateChunkCredit(Map<Address, Response> responses) {
+      Response response = responses != null ? responses.get(destination) : null;
+      if (chunkBytes > 0 && response instanceof SuccessfulResponse) {
+         Object credit = ((SuccessfulResponse) response).getResponseValue();
+         if (credit instanceof Integer && (Integer) credit > 0) {
+            chunkCredit = Math.min(chunkBytes, (Integer) credit);
+            if (trace) {
+               log.tracef("Node %s allows chunks of %d bytes for cache %s", destination, chunkCredit, cacheName);
+            }
+         }
+      }
+   }
+
    /**
     * Cancel some of the segments. If all segments get cancelled then the whole task will be cancelled.
     *
@@ -292,6 +406,7 @@ public String toString() {
             ", destination=" + destination +
             ", segments=" + segments +
             ", stateTransferChunkSize=" + stateTransferChunkSize +
+            ", chunkBytes=" + chunkBytes +
             ", timeout=" + timeout +
             ", cacheName='" + cacheName + '\'' +
             '}';
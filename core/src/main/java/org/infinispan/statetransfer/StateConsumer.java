@@ -1,6 +1,8 @@
 package org.infinispan.statetransfer;
 
 import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.infinispan.factories.scopes.Scope;
 import org.infinispan.factories.scopes.Scopes;
@@ -33,6 +35,12 @@ public interface StateConsumer {
 
    void applyState(Address sender, int topologyId, Collection<StateChunk> stateChunks);
 
+   /**
+    * @return the estimated number of bytes that a node pushing state to this node may send in its next state chunk,
+    * or 0 if the chunks are only limited by their number of entries
+    */
+   int getChunkCredit();
+
    /**
     * Cancels all incoming state transfers. The already received data is not discarded.
     * This is executed when the cache is shutting down.
@@ -49,4 +57,19 @@ public interface StateConsumer {
     * @return  true if this node has already received the first rebalance command
     */
    boolean ownsData();
+
+   /**
+    * @return the number of entries received through state transfer and applied locally
+    */
+   long getAppliedEntries();
+
+   /**
+    * @return the time spent applying received entries, summed over all the threads applying them
+    */
+   long getApplyTime(TimeUnit unit);
+
+   /**
+    * @return the number of entries applied so far for each segment whose transfer is in progress
+    */
+   Map<Integer, Long> getInboundSegmentProgress();
 }
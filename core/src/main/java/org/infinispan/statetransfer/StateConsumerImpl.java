@@ -20,12 +20,16 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.transaction.SystemException;
 import javax.transaction.TransactionManager;
@@ -34,12 +38,14 @@
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commands.write.InvalidateCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.commands.write.PutMapCommand;
 import org.infinispan.commons.CacheException;
 import org.infinispan.commons.util.EnumUtil;
 import org.infinispan.commons.util.concurrent.ConcurrentHashSet;
 import org.infinispan.configuration.cache.CacheMode;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.DataContainer;
+import org.infinispan.container.SegmentedDataContainer;
 import org.infinispan.container.entries.InternalCacheEntry;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.InvocationContextFactory;
@@ -54,6 +60,7 @@
 import org.infinispan.factories.annotations.Stop;
 import org.infinispan.filter.KeyFilter;
 import org.infinispan.interceptors.InterceptorChain;
+import org.infinispan.metadata.Metadata;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
 import org.infinispan.persistence.manager.PersistenceManager;
 import org.infinispan.remoting.responses.CacheNotFoundResponse;
@@ -71,6 +78,7 @@
 import org.infinispan.transaction.totalorder.TotalOrderManager;
 import org.infinispan.transaction.xa.CacheTransaction;
 import org.infinispan.transaction.xa.GlobalTransaction;
+import org.infinispan.util.TimeService;
 import org.infinispan.util.concurrent.BlockingTaskAwareExecutorService;
 import org.infinispan.util.concurrent.CommandAckCollector;
 import org.infinispan.util.concurrent.TimeoutException;
@@ -112,6 +120,8 @@ public class StateConsumerImpl implements StateConsumer {
    private TotalOrderManager totalOrderManager;
    private BlockingTaskAwareExecutorService remoteCommandsExecutor;
    private long timeout;
+
+   private int chunkBytes;
    private boolean isFetchEnabled;
    private boolean isTransactional;
    private boolean isInvalidationMode;
@@ -120,9 +130,18 @@ public class StateConsumerImpl implements StateConsumer {
    private CommitManager commitManager;
    private ExecutorService stateTransferExecutor;
    private CommandAckCollector commandAckCollector;
+   private TimeService timeService;
 
    private volatile CacheTopology cacheTopology;
 
+   private final AtomicLong appliedEntries = new AtomicLong();
+   private final AtomicLong applyTime = new AtomicLong();
+
+   /**
+    * The number of entries applied so far for each segment whose transfer is in progress.
+    */
+   private final ConcurrentMap<Integer, AtomicLong> inboundSegmentProgress = new ConcurrentHashMap<>();
+
    /**
     * Indicates if there is a state transfer in progress. It is set to the new topology id when onTopologyUpdate with
     * isRebalance==true is called.
@@ -195,7 +214,8 @@ public void init(Cache cache,
                     TotalOrderManager totalOrderManager,
                     @ComponentName(KnownComponentNames.REMOTE_COMMAND_EXECUTOR) BlockingTaskAwareExecutorService remoteCommandsExecutor,
                     CommitManager commitManager,
-                    CommandAckCollector commandAckCollector) {
+                    CommandAckCollector commandAckCollector,
+                    TimeService timeService) {
       this.cache = cache;
       this.cacheName = cache.getName();
       this.stateTransferExecutor = stateTransferExecutor;
@@ -215,6 +235,7 @@ public void init(Cache cache,
       this.remoteCommandsExecutor = remoteCommandsExecutor;
       this.commitManager = commitManager;
       this.commandAckCollector = commandAckCollector;
+      this.timeService = timeService;
 
       isInvalidationMode = configuration.clustering().cacheMode().isInvalidation();
 
@@ -222,6 +243,7 @@ public void init(Cache cache,
       isTotalOrder = configuration.transaction().transactionProtocol().isTotalOrder();
 
       timeout = configuration.clustering().stateTransfer().timeout();
+      chunkBytes = configuration.clustering().stateTransfer().chunkBytes();
    }
 
    public boolean hasActiveTransfers() {
@@ -543,6 +565,19 @@ public void applyState(final Address sender, int topologyId, Collection<StateChu
       }
    }
 
+   @Override
+   public int getChunkCredit() {
+      if (chunkBytes == 0) {
+         return 0;
+      }
+      // Share the budget between all the nodes that are currently sending us state
+      int sources;
+      synchronized (transferMapsLock) {
+         sources = transfersBySource.size();
+      }
+      return Math.max(1, chunkBytes / Math.max(1, sources));
+   }
+
    private void applyChunk(Address sender, Set<Integer> mySegments, StateChunk stateChunk) {
       if (!mySegments.contains(stateChunk.getSegmentId())) {
          log.warnf("Discarding received cache entries for segment %d of cache %s because they do not belong to this node.", stateChunk.getSegmentId(), cacheName);
@@ -558,6 +593,9 @@ private void applyChunk(Address sender, Set<Integer> mySegments, StateChunk stat
          if (stateChunk.getCacheEntries() != null) {
             doApplyState(sender, stateChunk.getSegmentId(), stateChunk.getCacheEntries());
          }
+         if (stateChunk.isLastChunk()) {
+            inboundSegmentProgress.remove(stateChunk.getSegmentId());
+         }
 
          inboundTransfer.onStateReceived(stateChunk.getSegmentId(), stateChunk.isLastChunk());
       } else {
@@ -571,46 +609,131 @@ private void doApplyState(Address sender, int segmentId, Collection<InternalCach
       if (trace) log.tracef("Applying new state chunk for segment %d of cache %s from node %s: received %d cache entries",
             segmentId, cacheName, sender, cacheEntries.size());
 
-      // CACHE_MODE_LOCAL avoids handling by StateTransferInterceptor and any potential locks in StateTransferLock
-      boolean transactional = transactionManager != null;
-      for (InternalCacheEntry e : cacheEntries) {
-         try {
-            InvocationContext ctx;
-            if (transactional) {
-               transactionManager.begin();
-               ctx = icf.createInvocationContext(transactionManager.getTransaction(), true);
-               ((TxInvocationContext) ctx).getCacheTransaction().setStateTransferFlag(PUT_FOR_STATE_TRANSFER);
-            } else {
-               // non-tx cache
-               ctx = icf.createSingleKeyNonTxInvocationContext();
+      long start = timeService.time();
+      int applied;
+      if (transactionManager != null) {
+         applied = 0;
+         for (InternalCacheEntry e : cacheEntries) {
+            if (!applyEntry(e.getKey(), e.getValue(), e.getMetadata())) {
+               break;
             }
+            applied++;
+         }
+      } else {
+         applied = applyEntries(cacheEntries);
+      }
+      appliedEntries.addAndGet(applied);
+      applyTime.addAndGet(timeService.timeDuration(start, TimeUnit.NANOSECONDS));
+      inboundSegmentProgress.computeIfAbsent(segmentId, s -> new AtomicLong()).addAndGet(applied);
+      if (trace) log.tracef("Finished applying chunk of segment %d of cache %s", segmentId, cacheName);
+   }
 
-            PutKeyValueCommand put = commandsFactory.buildPutKeyValueCommand(
-                  e.getKey(), e.getValue(), e.getMetadata(), STATE_TRANSFER_FLAGS);
-            ctx.setLockOwner(put.getKeyLockOwner());
-            interceptorChain.invoke(ctx, put);
+   /**
+    * Applies the entries of a non-transactional cache with one {@link PutMapCommand} for all the entries with the same
+    * metadata, so that the keys are locked and the entries are committed and stored in one pass. If a bulk write
+    * fails, its entries are applied one by one.
+    *
+    * @return the number of entries applied, smaller than the number of entries only if the cache is stopping
+    */
+   private int applyEntries(Collection<InternalCacheEntry> cacheEntries) {
+      Map<Metadata, Map<Object, Object>> entriesByMetadata = new HashMap<>();
+      for (InternalCacheEntry e : cacheEntries) {
+         entriesByMetadata.computeIfAbsent(e.getMetadata(), m -> new HashMap<>()).put(e.getKey(), e.getValue());
+      }
 
-            if (transactionManager != null) {
-               transactionManager.commit();
-            }
-         } catch (Exception ex) {
-            if (!cache.getStatus().allowInvocations()) {
-               log.debugf("Cache %s is shutting down, stopping state transfer", cacheName);
-               break;
-            } else {
-               log.problemApplyingStateForKey(ex.getMessage(), e.getKey(), ex);
-            }
-         } finally {
+      int applied = 0;
+      for (Map.Entry<Metadata, Map<Object, Object>> group : entriesByMetadata.entrySet()) {
+         Metadata metadata = group.getKey();
+         Map<Object, Object> entries = group.getValue();
+         if (entries.size() > 1) {
             try {
-               if (transactional && transactionManager.getTransaction() != null) {
-                  transactionManager.rollback();
+               // CACHE_MODE_LOCAL avoids handling by StateTransferInterceptor and any potential locks in StateTransferLock
+               PutMapCommand putMap = commandsFactory.buildPutMapCommand(entries, metadata, STATE_TRANSFER_FLAGS);
+               InvocationContext ctx = icf.createInvocationContext(true, entries.size());
+               ctx.setLockOwner(putMap.getKeyLockOwner());
+               interceptorChain.invoke(ctx, putMap);
+               applied += entries.size();
+               continue;
+            } catch (Exception ex) {
+               if (!cache.getStatus().allowInvocations()) {
+                  log.debugf("Cache %s is shutting down, stopping state transfer", cacheName);
+                  return applied;
                }
-            } catch (SystemException e1) {
-               // Ignore
+               log.debugf(ex, "Failed to apply %d entries of cache %s at once, applying them one by one",
+                     entries.size(), cacheName);
+            }
+         }
+         for (Map.Entry<Object, Object> e : entries.entrySet()) {
+            if (!applyEntry(e.getKey(), e.getValue(), metadata)) {
+               return applied;
             }
+            applied++;
          }
       }
-      if (trace) log.tracef("Finished applying chunk of segment %d of cache %s", segmentId, cacheName);
+      return applied;
+   }
+
+   /**
+    * @return false if the cache is stopping and no more entries should be applied
+    */
+   private boolean applyEntry(Object key, Object value, Metadata metadata) {
+      // CACHE_MODE_LOCAL avoids handling by StateTransferInterceptor and any potential locks in StateTransferLock
+      boolean transactional = transactionManager != null;
+      try {
+         InvocationContext ctx;
+         if (transactional) {
+            transactionManager.begin();
+            ctx = icf.createInvocationContext(transactionManager.getTransaction(), true);
+            ((TxInvocationContext) ctx).getCacheTransaction().setStateTransferFlag(PUT_FOR_STATE_TRANSFER);
+         } else {
+            // non-tx cache
+            ctx = icf.createSingleKeyNonTxInvocationContext();
+         }
+
+         PutKeyValueCommand put = commandsFactory.buildPutKeyValueCommand(
+               key, value, metadata, STATE_TRANSFER_FLAGS);
+         ctx.setLockOwner(put.getKeyLockOwner());
+         interceptorChain.invoke(ctx, put);
+
+         if (transactionManager != null) {
+            transactionManager.commit();
+         }
+      } catch (Exception ex) {
+         if (!cache.getStatus().allowInvocations()) {
+            log.debugf("Cache %s is shutting down, stopping state transfer", cacheName);
+            return false;
+         } else {
+            log.problemApplyingStateForKey(ex.getMessage(), key, ex);
+         }
+      } finally {
+         try {
+            if (transactional && transactionManager.getTransaction() != null) {
+               transactionManager.rollback();
+            }
+         } catch (SystemException e1) {
+            // Ignore
+         }
+      }
+      return true;
+   }
+
+   @Override
+   public long getAppliedEntries() {
+      return appliedEntries.get();
+   }
+
+   @Override
+   public long getApplyTime(TimeUnit unit) {
+      return unit.convert(applyTime.get(), TimeUnit.NANOSECONDS);
+   }
+
+   @Override
+   public Map<Integer, Long> getInboundSegmentProgress() {
+      Map<Integer, Long> progress = new TreeMap<>();
+      for (Map.Entry<Integer, AtomicLong> e : inboundSegmentProgress.entrySet()) {
+         progress.put(e.getKey(), e.getValue().get());
+      }
+      return progress;
    }
 
    private void applyTransactions(Address sender, Collection<TransactionInfo> transactions, int topologyId) {
@@ -674,6 +797,7 @@ public void stop() {
             transfersBySource.clear();
             transfersBySegment.clear();
          }
+         inboundSegmentProgress.clear();
       } catch (Throwable t) {
          log.errorf(t, "Failed to stop StateConsumer of cache %s on node %s", cacheName, rpcManager.getAddress());
       }
@@ -897,6 +1021,7 @@ private void cancelTransfers(Set<Integer> removedSegments) {
                cancelledSegments.retainAll(inboundTransfer.getSegments());
                segmentsToCancel.removeAll(cancelledSegments);
                transfersBySegment.keySet().removeAll(cancelledSegments);
+               inboundSegmentProgress.keySet().removeAll(cancelledSegments);
                //this will also remove it from transfersBySource if the entire task gets cancelled
                inboundTransfer.cancelSegments(cancelledSegments);
                if (inboundTransfer.isCancelled()) {
@@ -919,24 +1044,32 @@ private void removeStaleData(final Set<Integer> removedSegments) throws Interrup
       // Keys that we used to own, and need to be removed from the data container AND the cache stores
       final ConcurrentHashSet<Object> keysToRemove = new ConcurrentHashSet<Object>();
 
-      dataContainer.executeTask(KeyFilter.ACCEPT_ALL_FILTER, (o, ice) -> {
-         Object key = ice.getKey();
-         int keySegment = getSegment(key);
-         if (removedSegments.contains(keySegment)) {
-            keysToRemove.add(key);
-         }
-      });
+      if (dataContainer instanceof SegmentedDataContainer) {
+         // only look at the entries of the removed segments
+         ((SegmentedDataContainer<Object, Object>) dataContainer).iteratorIncludingExpired(removedSegments)
+               .forEachRemaining(ice -> keysToRemove.add(ice.getKey()));
+      } else {
+         dataContainer.executeTask(KeyFilter.ACCEPT_ALL_FILTER, (o, ice) -> {
+            Object key = ice.getKey();
+            int keySegment = getSegment(key);
+            if (removedSegments.contains(keySegment)) {
+               keysToRemove.add(key);
+            }
+         });
+      }
 
-      // gather all keys from cache store that belong to the segments that are being removed/moved to L1
-      if (!removedSegments.isEmpty()) {
+      // Stores partitioned by segment drop the removed segments as a whole, only the keys of the other stores that
+      // belong to the segments that are being removed/moved to L1 are gathered
+      boolean segmentsRemoved = false;
+      try {
+         segmentsRemoved = persistenceManager.removeSegmentsFromAllStores(removedSegments, PRIVATE);
+      } catch (CacheException e) {
+         log.failedToInvalidateKeys(e);
+      }
+      if (!segmentsRemoved) {
          try {
-            KeyFilter filter = key -> {
-               if (dataContainer.containsKey(key))
-                  return false;
-               int keySegment = getSegment(key);
-               return (removedSegments.contains(keySegment));
-            };
-            persistenceManager.processOnAllStores(filter,
+            KeyFilter filter = key -> !dataContainer.containsKey(key);
+            persistenceManager.processOnAllStores(removedSegments, filter,
                   (marshalledEntry, taskContext) -> keysToRemove.add(marshalledEntry.getKey()), false, false, PRIVATE);
          } catch (CacheException e) {
             log.failedLoadingKeysFromCacheStore(e);
@@ -955,6 +1088,8 @@ private void removeStaleData(final Set<Integer> removedSegments) throws Interrup
             log.failedToInvalidateKeys(e);
          }
       }
+      // The segments are not dropped from a SegmentedDataContainer as a whole: that would bypass the key locks, and
+      // lose the entries written since the keys were gathered, e.g. L1 entries or segments that are owned again
    }
 
    /**
@@ -18,6 +18,7 @@
 import org.infinispan.Cache;
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.InternalEntryFactory;
@@ -36,6 +37,7 @@
 import org.infinispan.transaction.impl.LocalTransaction;
 import org.infinispan.transaction.impl.TransactionTable;
 import org.infinispan.transaction.xa.CacheTransaction;
+import org.infinispan.util.TimeService;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -64,9 +66,20 @@ public class StateProviderImpl implements StateProvider {
    private InternalEntryFactory entryFactory;
    private long timeout;
    private int chunkSize;
+   private int chunkBytes;
+   private long maxBandwidth;
+   private StreamingMarshaller marshaller;
+   private TimeService timeService;
 
    private StateConsumer stateConsumer;
 
+   /**
+    * The time (as returned by {@link TimeService#time()}) when the state already sent by all the outbound transfers
+    * is done sending at {@code maxBandwidth}. Guarded by {@code bandwidthLock}.
+    */
+   private long bandwidthFreeTime;
+   private final Object bandwidthLock = new Object();
+
    /**
     * A map that keeps track of current outbound state transfers by destination address. There could be multiple transfers
     * flowing to the same destination (but for different segments) so the values are lists.
@@ -87,7 +100,9 @@ public void init(Cache cache,
                     DataContainer dataContainer,
                     TransactionTable transactionTable,
                     StateTransferLock stateTransferLock,
-                    StateConsumer stateConsumer, InternalEntryFactory entryFactory) {
+                    StateConsumer stateConsumer, InternalEntryFactory entryFactory,
+                    StreamingMarshaller marshaller,
+                    TimeService timeService) {
       this.cacheName = cache.getName();
       this.executorService = executorService;
       this.configuration = configuration;
@@ -100,10 +115,14 @@ public void init(Cache cache,
       this.stateTransferLock = stateTransferLock;
       this.stateConsumer = stateConsumer;
       this.entryFactory = entryFactory;
+      this.marshaller = marshaller;
+      this.timeService = timeService;
 
       timeout = configuration.clustering().stateTransfer().timeout();
 
       this.chunkSize = configuration.clustering().stateTransfer().chunkSize();
+      this.chunkBytes = configuration.clustering().stateTransfer().chunkBytes();
+      this.maxBandwidth = configuration.clustering().stateTransfer().maxBandwidth();
    }
 
    public boolean isStateTransferInProgress() {
@@ -289,8 +308,9 @@ public void startOutboundTransfer(Address destination, int requestTopologyId, Se
       final CacheTopology cacheTopology = getCacheTopology(requestTopologyId, destination, false);
 
       // the destination node must already have an InboundTransferTask waiting for these segments
-      OutboundTransferTask outboundTransfer = new OutboundTransferTask(destination, segments, chunkSize, requestTopologyId,
-            cacheTopology.getReadConsistentHash(), this, dataContainer, persistenceManager, rpcManager, commandsFactory, entryFactory, timeout, cacheName);
+      OutboundTransferTask outboundTransfer = new OutboundTransferTask(destination, segments, chunkSize, chunkBytes,
+            requestTopologyId, cacheTopology.getReadConsistentHash(), this, dataContainer, persistenceManager, rpcManager,
+            commandsFactory, entryFactory, marshaller, timeout, cacheName);
       addTransfer(outboundTransfer);
       outboundTransfer.execute(executorService);
    }
@@ -341,6 +361,45 @@ private void removeTransfer(OutboundTransferTask transferTask) {
       }
    }
 
+   boolean isBandwidthLimited() {
+      return maxBandwidth > 0;
+   }
+
+   /**
+    * Blocks the calling outbound transfer until it can send {@code bytes} more bytes without all the outbound transfers
+    * of this cache exceeding the configured maximum bandwidth.
+    */
+   void acquireBandwidth(long bytes) throws InterruptedException {
+      long delay = reserveBandwidth(bytes);
+      if (delay > 0) {
+         if (trace) {
+            log.tracef("Delaying the outbound transfer of %d bytes of cache %s by %d ms to stay under %d bytes/s",
+                  bytes, cacheName, TimeUnit.NANOSECONDS.toMillis(delay), maxBandwidth);
+         }
+         TimeUnit.NANOSECONDS.sleep(delay);
+      }
+   }
+
+   /**
+    * Reserves the bandwidth needed to send {@code bytes} more bytes.
+    *
+    * @return the time in nanoseconds the caller must wait before sending them
+    */
+   long reserveBandwidth(long bytes) {
+      if (maxBandwidth <= 0) {
+         return 0;
+      }
+      synchronized (bandwidthLock) {
+         long now = timeService.time();
+         if (bandwidthFreeTime < now) {
+            bandwidthFreeTime = now;
+         }
+         long delay = bandwidthFreeTime - now;
+         bandwidthFreeTime += TimeUnit.SECONDS.toNanos(1) * bytes / maxBandwidth;
+         return delay;
+      }
+   }
+
    void onTaskCompletion(OutboundTransferTask transferTask) {
       if (trace) {
          log.tracef("Removing %s outbound transfer of segments %s to %s for cache %s",
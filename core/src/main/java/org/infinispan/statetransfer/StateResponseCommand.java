@@ -11,7 +11,6 @@
 import org.infinispan.commons.marshall.MarshallUtil;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.util.ByteString;
-import org.infinispan.util.concurrent.CompletableFutures;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -67,7 +66,8 @@ public CompletableFuture<Object> invokeAsync() throws Throwable {
       LogFactory.pushNDC(cacheName, trace);
       try {
          stateConsumer.applyState(getOrigin(), topologyId, stateChunks);
-         return CompletableFutures.completedNull();
+         // The response tells the sender how much it may send in the next chunk
+         return CompletableFuture.completedFuture(stateConsumer.getChunkCredit());
       } finally {
          LogFactory.popNDC(trace);
       }
@@ -75,7 +75,7 @@ public CompletableFuture<Object> invokeAsync() throws Throwable {
 
    @Override
    public boolean isReturnValueExpected() {
-      return false;
+      return true;
    }
 
    @Override
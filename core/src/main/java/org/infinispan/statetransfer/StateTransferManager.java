@@ -9,6 +9,7 @@
 import org.infinispan.jmx.annotations.DataType;
 import org.infinispan.jmx.annotations.MBean;
 import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.MeasurementType;
 import org.infinispan.remoting.responses.Response;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.topology.CacheTopology;
@@ -70,4 +71,13 @@ public interface StateTransferManager {
 
    @ManagedAttribute(description = "Retrieves the rebalancing status for this cache. Possible values are PENDING, SUSPENDED, IN_PROGRESS, BALANCED", displayName = "Rebalancing progress", dataType = DataType.TRAIT)
    String getRebalancingStatus() throws Exception;
+
+   @ManagedAttribute(description = "Number of entries received through state transfer and applied on this cluster member", displayName = "Applied state transfer entries", measurementType = MeasurementType.TRENDSUP)
+   long getAppliedStateTransferEntries();
+
+   @ManagedAttribute(description = "Average number of received entries applied per second by each state transfer thread", displayName = "State transfer apply throughput")
+   long getStateTransferApplyThroughput();
+
+   @ManagedAttribute(description = "Number of entries applied so far for each segment being transferred to this cluster member", displayName = "Inbound segments progress", dataType = DataType.TRAIT)
+   String getInboundSegmentsProgress();
 }
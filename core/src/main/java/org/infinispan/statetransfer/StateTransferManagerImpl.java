@@ -251,6 +251,22 @@ public String getRebalancingStatus() throws Exception {
       return localTopologyManager.getRebalancingStatus(cacheName).toString();
    }
 
+   @Override
+   public long getAppliedStateTransferEntries() {
+      return stateConsumer.getAppliedEntries();
+   }
+
+   @Override
+   public long getStateTransferApplyThroughput() {
+      long time = stateConsumer.getApplyTime(TimeUnit.NANOSECONDS);
+      return time == 0 ? 0 : stateConsumer.getAppliedEntries() * TimeUnit.SECONDS.toNanos(1) / time;
+   }
+
+   @Override
+   public String getInboundSegmentsProgress() {
+      return stateConsumer.getInboundSegmentProgress().toString();
+   }
+
    @Override
    public boolean isStateTransferInProgress() {
       return stateConsumer.isStateTransferInProgress();
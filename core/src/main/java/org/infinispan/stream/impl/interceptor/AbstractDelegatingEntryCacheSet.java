@@ -1,11 +1,18 @@
 package org.infinispan.stream.impl.interceptor;
 
+import java.util.Queue;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
 import org.infinispan.Cache;
 import org.infinispan.CacheSet;
 import org.infinispan.CacheStream;
+import org.infinispan.commons.util.CloseableIterator;
 import org.infinispan.commons.util.CloseableSpliterator;
+import org.infinispan.commons.util.Closeables;
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.distribution.DistributionManager;
 import org.infinispan.stream.impl.local.EntryStreamSupplier;
@@ -44,11 +51,41 @@ public CacheStream<CacheEntry<K, V>> parallelStream() {
    protected CacheStream<CacheEntry<K, V>> getStream(boolean parallel) {
       DistributionManager dm = cache.getAdvancedCache().getDistributionManager();
       CloseableSpliterator<CacheEntry<K, V>> closeableSpliterator = spliterator();
+      Queue<CloseableIterator<CacheEntry<K, V>>> segmentedIterators = new ConcurrentLinkedQueue<>();
       CacheStream<CacheEntry<K, V>> stream = new LocalCacheStream<>(new EntryStreamSupplier<>(cache, dm != null ?
-              dm.getConsistentHash() : null, () -> StreamSupport.stream(closeableSpliterator, false)), parallel,
+              dm.getConsistentHash() : null, () -> StreamSupport.stream(closeableSpliterator, false),
+              canIterateSegments() ? segments -> segmentedStream(segments, segmentedIterators) : null), parallel,
               cache.getAdvancedCache().getComponentRegistry());
       // We rely on the fact that on close returns the same instance
-      stream.onClose(() -> closeableSpliterator.close());
+      stream.onClose(() -> {
+         closeableSpliterator.close();
+         segmentedIterators.forEach(CloseableIterator::close);
+      });
       return stream;
    }
+
+   private Stream<CacheEntry<K, V>> segmentedStream(Set<Integer> segments,
+         Queue<CloseableIterator<CacheEntry<K, V>>> segmentedIterators) {
+      CloseableIterator<CacheEntry<K, V>> iterator = segmentedIterator(segments);
+      segmentedIterators.add(iterator);
+      return StreamSupport.stream(Closeables.spliterator(iterator, Long.MAX_VALUE,
+            Spliterator.CONCURRENT | Spliterator.NONNULL | Spliterator.DISTINCT), false);
+   }
+
+   /**
+    * @return whether {@link #segmentedIterator(Set)} is supported, so that a stream filtering segments doesn't have
+    * to filter all the entries of the set
+    */
+   protected boolean canIterateSegments() {
+      return false;
+   }
+
+   /**
+    * Returns an iterator over the entries of this set that map to the given segments, only invoked if {@link
+    * #canIterateSegments()} returns {@code true}.
+    * @param segments segments of the entries to return
+    */
+   protected CloseableIterator<CacheEntry<K, V>> segmentedIterator(Set<Integer> segments) {
+      throw new UnsupportedOperationException();
+   }
 }
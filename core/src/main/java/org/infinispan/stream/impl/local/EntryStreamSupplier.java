@@ -2,6 +2,7 @@
 
 import java.util.BitSet;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
@@ -28,11 +29,22 @@
    private final Cache<K, V> cache;
    private final ConsistentHash hash;
    private final Supplier<Stream<CacheEntry<K, V>>> supplier;
+   private final Function<Set<Integer>, Stream<CacheEntry<K, V>>> segmentedSupplier;
 
    public EntryStreamSupplier(Cache<K, V> cache, ConsistentHash hash, Supplier<Stream<CacheEntry<K, V>>> supplier) {
+      this(cache, hash, supplier, null);
+   }
+
+   /**
+    * @param segmentedSupplier optional function that provides a stream of only the given segments, used instead of
+    *                          filtering the stream from {@code supplier} when segments are to be filtered
+    */
+   public EntryStreamSupplier(Cache<K, V> cache, ConsistentHash hash, Supplier<Stream<CacheEntry<K, V>>> supplier,
+         Function<Set<Integer>, Stream<CacheEntry<K, V>>> segmentedSupplier) {
       this.cache = cache;
       this.hash = hash;
       this.supplier = supplier;
+      this.segmentedSupplier = segmentedSupplier;
    }
 
    @Override
@@ -54,6 +66,12 @@ public Stream<CacheEntry<K, V>> buildStream(Set<Integer> segmentsToFilter, Set<?
                .map(typeConverter::boxKey)
                .map(advancedCache::getCacheEntry)
                .filter(e -> e != null);
+      } else if (segmentsToFilter != null && segmentedSupplier != null) {
+         if (trace) {
+            log.tracef("Retrieving only segments %s", segmentsToFilter);
+         }
+         // The supplier only returns entries for the given segments so no filtering is required
+         return segmentedSupplier.apply(segmentsToFilter);
       } else {
          stream = supplier.get();
       }
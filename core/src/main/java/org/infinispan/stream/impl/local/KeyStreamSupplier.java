@@ -28,11 +28,22 @@
    private final Cache<K, V> cache;
    private final ConsistentHash hash;
    private final Supplier<Stream<K>> supplier;
+   private final Function<Set<Integer>, Stream<K>> segmentedSupplier;
 
    public KeyStreamSupplier(Cache<K, V> cache, ConsistentHash hash, Supplier<Stream<K>> supplier) {
+      this(cache, hash, supplier, null);
+   }
+
+   /**
+    * @param segmentedSupplier optional function that provides a stream of only the given segments, used instead of
+    *                          filtering the stream from {@code supplier} when segments are to be filtered
+    */
+   public KeyStreamSupplier(Cache<K, V> cache, ConsistentHash hash, Supplier<Stream<K>> supplier,
+         Function<Set<Integer>, Stream<K>> segmentedSupplier) {
       this.cache = cache;
       this.hash = hash;
       this.supplier = supplier;
+      this.segmentedSupplier = segmentedSupplier;
    }
 
    @Override
@@ -51,6 +62,12 @@ public Stream<K> buildStream(Set<Integer> segmentsToFilter, Set<?> keysToFilter)
          stream = (Stream<K>) keysToFilter.stream()
                .map(typeConverter::boxKey)
                .filter(advancedCache::containsKey);
+      } else if (segmentsToFilter != null && segmentedSupplier != null) {
+         if (trace) {
+            log.tracef("Retrieving only segments %s", segmentsToFilter);
+         }
+         // The supplier only returns entries for the given segments so no filtering is required
+         return segmentedSupplier.apply(segmentsToFilter);
       } else {
          stream = supplier.get();
       }
@@ -30,6 +30,18 @@ public DataContainerRemoveIterator(Cache<K, V> cache, DataContainer<K, V> dataCo
       this.dataContainerIterator = dataContainer.iterator();
    }
 
+   /**
+    * Same as {@link #DataContainerRemoveIterator(Cache, DataContainer)} except that the entries are provided by an
+    * already created data container iterator, such as one limited to some segments.
+    */
+   public DataContainerRemoveIterator(Cache<K, V> cache, Iterator<InternalCacheEntry<K, V>> dataContainerIterator) {
+      if (cache == null || dataContainerIterator == null) {
+         throw new NullPointerException();
+      }
+      this.cache = cache;
+      this.dataContainerIterator = dataContainerIterator;
+   }
+
    @Override
    public boolean hasNext() {
       return dataContainerIterator.hasNext();
@@ -1474,4 +1474,7 @@ TimeoutException timeoutWaitingForView(int expectedViewId, int currentViewId,
    @LogMessage(level = WARN)
    @Message(value = "The eviction element has been deprecated. Please use the memory element instead", id = 428)
    void evictionDeprecated();
+
+   @Message(value = "The modification queue of the write-behind store is full (%d modifications)", id = 429)
+   PersistenceException asyncStoreModificationQueueFull(int size);
 }
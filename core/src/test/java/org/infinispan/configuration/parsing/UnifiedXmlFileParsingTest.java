@@ -28,6 +28,7 @@
 import org.infinispan.configuration.cache.ClusterLoaderConfiguration;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.Index;
+import org.infinispan.configuration.cache.ModificationQueueFullPolicy;
 import org.infinispan.configuration.cache.InterceptorConfiguration;
 import org.infinispan.configuration.cache.SingleFileStoreConfiguration;
 import org.infinispan.configuration.cache.StoreConfiguration;
@@ -103,6 +104,13 @@ private static void configurationCheck90(EmbeddedCacheManager cm) {
       GlobalConfiguration globalConfiguration = cm.getCacheManagerConfiguration();
       assertEquals(4, globalConfiguration.transport().initialClusterSize());
       assertEquals(30000, globalConfiguration.transport().initialClusterTimeout());
+      Configuration c = cm.getCacheConfiguration("local");
+      StoreConfiguration store = c.persistence().stores().get(0);
+      assertEquals(ModificationQueueFullPolicy.WRITE_THROUGH, store.async().modificationQueueFullPolicy());
+      assertTrue(store.async().offHeap());
+      c = cm.getCacheConfiguration("dist");
+      assertEquals(1048576, c.clustering().stateTransfer().chunkBytes());
+      assertEquals(10485760, c.clustering().stateTransfer().maxBandwidth());
    }
 
    private static void configurationCheck82(EmbeddedCacheManager cm) {
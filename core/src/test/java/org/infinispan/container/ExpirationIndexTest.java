@@ -0,0 +1,129 @@
+package org.infinispan.container;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.infinispan.container.entries.ImmortalCacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.entries.MortalCacheEntry;
+import org.infinispan.container.entries.TransientCacheEntry;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "container.ExpirationIndexTest")
+public class ExpirationIndexTest extends AbstractInfinispanTest {
+   private static final long NOW = 1_000_000;
+
+   private Map<Object, InternalCacheEntry<Object, Object>> entries;
+   private ExpirationIndex<Object, Object> index;
+
+   @BeforeMethod
+   public void setUp() {
+      entries = new HashMap<>();
+      index = new ExpirationIndex<>();
+   }
+
+   private void put(InternalCacheEntry<Object, Object> entry) {
+      entries.put(entry.getKey(), entry);
+      index.update(entry.getKey(), entry.getExpiryTime());
+   }
+
+   private void remove(Object key) {
+      entries.remove(key);
+      index.remove(key);
+   }
+
+   private List<Object> expiredKeys(long currentTime) {
+      List<Object> keys = new ArrayList<>();
+      index.forEachExpired(currentTime, entries::get, e -> keys.add(e.getKey()));
+      return keys;
+   }
+
+   public void testOnlyExpiredEntriesAreFound() {
+      put(new MortalCacheEntry("k1", "v1", 1_000, NOW));
+      put(new MortalCacheEntry("k2", "v2", 10_000, NOW));
+      put(new ImmortalCacheEntry("k3", "v3"));
+      assertEquals(2, index.size());
+
+      assertTrue(expiredKeys(NOW).isEmpty());
+      assertEquals(0, index.countExpired(NOW, entries::get));
+
+      // Entries only expire after their expiration time
+      assertTrue(expiredKeys(NOW + 1_000).isEmpty());
+      List<Object> expired = expiredKeys(NOW + 1_001);
+      assertEquals(1, expired.size());
+      assertEquals("k1", expired.get(0));
+      assertEquals(1, index.countExpired(NOW + 1_001, entries::get));
+
+      remove("k1");
+      assertEquals(1, index.size());
+      expired = expiredKeys(NOW + 20_000);
+      assertEquals(1, expired.size());
+      assertEquals("k2", expired.get(0));
+   }
+
+   public void testEntriesStillPresentAreFoundAgain() {
+      put(new MortalCacheEntry("k1", "v1", 1_000, NOW));
+      assertEquals(1, expiredKeys(NOW + 5_000).size());
+      // The entry wasn't removed, so the next run must find it again
+      assertEquals(1, expiredKeys(NOW + 6_000).size());
+      remove("k1");
+      assertTrue(expiredKeys(NOW + 7_000).isEmpty());
+      assertTrue(index.isEmpty());
+   }
+
+   public void testUpdatedEntryIsMoved() {
+      put(new MortalCacheEntry("k1", "v1", 1_000, NOW));
+      put(new MortalCacheEntry("k1", "v1", 5_000, NOW));
+      assertEquals(1, index.size());
+      assertTrue(expiredKeys(NOW + 2_000).isEmpty());
+      assertEquals(1, expiredKeys(NOW + 5_001).size());
+
+      put(new ImmortalCacheEntry("k1", "v1"));
+      assertTrue(index.isEmpty());
+   }
+
+   public void testTouchedEntryIsRescheduled() {
+      TransientCacheEntry entry = new TransientCacheEntry("k1", "v1", 1_000, NOW);
+      put(entry);
+      // Reading the entry extends its expiration without updating the index
+      entry.touch(NOW + 900);
+      assertTrue(expiredKeys(NOW + 1_500).isEmpty());
+      assertEquals(1, index.size());
+      assertEquals(1, expiredKeys(NOW + 1_901).size());
+   }
+
+   public void testEntryRemovedWithoutIndexUpdateIsDropped() {
+      put(new MortalCacheEntry("k1", "v1", 1_000, NOW));
+      entries.remove("k1");
+      assertTrue(expiredKeys(NOW + 2_000).isEmpty());
+      assertTrue(index.isEmpty());
+   }
+
+   public void testEntriesFarInTheFutureWaitForTheirRound() {
+      // Further away than one rotation of the wheel
+      put(new MortalCacheEntry("k1", "v1", 2_000_000, NOW));
+      assertTrue(expiredKeys(NOW + 1_000).isEmpty());
+      assertTrue(expiredKeys(NOW + 1_500_000).isEmpty());
+      assertEquals(1, expiredKeys(NOW + 2_000_001).size());
+   }
+
+   public void testCountExpiredAfterReaping() {
+      put(new MortalCacheEntry("k1", "v1", 1_000, NOW));
+      put(new MortalCacheEntry("k2", "v2", 3_000, NOW));
+      put(new MortalCacheEntry("k3", "v3", 10_000, NOW));
+      assertEquals(1, expiredKeys(NOW + 2_000).size());
+      // k1 is still present and is counted with the entries expiring after the reaping
+      assertEquals(1, index.countExpired(NOW + 2_000, entries::get));
+      assertEquals(2, index.countExpired(NOW + 4_000, entries::get));
+      remove("k1");
+      assertEquals(1, index.countExpired(NOW + 4_000, entries::get));
+      assertEquals(2, index.countExpired(NOW + 20_000, entries::get));
+   }
+}
@@ -0,0 +1,78 @@
+package org.infinispan.container;
+
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.mock;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.eviction.ActivationManager;
+import org.infinispan.expiration.ExpirationManager;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.mockito.Mockito;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "container.SegmentedDataContainerTest")
+public class SegmentedDataContainerTest extends SimpleDataContainerTest {
+   private static final int NUM_SEGMENTS = 4;
+
+   @Override
+   protected DataContainer createContainer() {
+      DefaultSegmentedDataContainer dc = new DefaultSegmentedDataContainer<Object, String>(16, NUM_SEGMENTS);
+      InternalEntryFactoryImpl internalEntryFactory = new InternalEntryFactoryImpl();
+      internalEntryFactory.injectTimeService(TIME_SERVICE);
+      ActivationManager activationManager = mock(ActivationManager.class);
+      doNothing().when(activationManager).onUpdate(Mockito.anyObject(), Mockito.anyBoolean());
+      dc.injectPartitioner(key -> Math.abs(key.hashCode() % NUM_SEGMENTS));
+      dc.initialize(null, null, internalEntryFactory, activationManager, null, TIME_SERVICE, null, mock(
+            ExpirationManager.class));
+      return dc;
+   }
+
+   private int segment(Object key) {
+      return Math.abs(key.hashCode() % NUM_SEGMENTS);
+   }
+
+   public void testSegmentIteration() {
+      for (int i = 0; i < 20; i++) dc.put(i, "value", new EmbeddedMetadata.Builder().build());
+
+      SegmentedDataContainer<Object, String> sdc = (SegmentedDataContainer<Object, String>) dc;
+      Set<Integer> segments = new HashSet<>();
+      segments.add(1);
+      segments.add(3);
+
+      int count = 0;
+      for (Iterator<InternalCacheEntry<Object, String>> iter = sdc.iterator(segments); iter.hasNext(); ) {
+         InternalCacheEntry<Object, String> ice = iter.next();
+         assertTrue(segments.contains(segment(ice.getKey())));
+         count++;
+      }
+      assertEquals(10, count);
+      assertEquals(10, sdc.sizeIncludingExpired(segments));
+      assertEquals(5, sdc.sizeIncludingExpired(Collections.singleton(0)));
+   }
+
+   public void testRemoveSegments() {
+      for (int i = 0; i < 20; i++) dc.put(i, "value", new EmbeddedMetadata.Builder().build());
+
+      SegmentedDataContainer<Object, String> sdc = (SegmentedDataContainer<Object, String>) dc;
+      sdc.removeSegments(Collections.singleton(2));
+
+      assertEquals(15, dc.size());
+      for (int i = 0; i < 20; i++) {
+         if (segment(i) == 2) {
+            assertFalse(dc.containsKey(i));
+         } else {
+            assertNotNull(dc.get(i));
+         }
+      }
+      assertFalse(sdc.iterator(Collections.singleton(2)).hasNext());
+   }
+}
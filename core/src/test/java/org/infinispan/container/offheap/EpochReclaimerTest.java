@@ -0,0 +1,58 @@
+package org.infinispan.container.offheap;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "container.offheap.EpochReclaimerTest")
+public class EpochReclaimerTest extends AbstractInfinispanTest {
+
+   public void testRetiredMemoryIsFreedAfterReaderExits() throws Exception {
+      Set<Long> freed = new HashSet<>();
+      EpochReclaimer reclaimer = new EpochReclaimer(1, freed::add);
+
+      CountDownLatch entered = new CountDownLatch(1);
+      CountDownLatch retired = new CountDownLatch(1);
+      Future<Void> reader = fork(() -> {
+         EpochReclaimer.ReaderSlot slot = reclaimer.enter();
+         try {
+            entered.countDown();
+            retired.await(10, TimeUnit.SECONDS);
+         } finally {
+            reclaimer.exit(slot);
+         }
+         return null;
+      });
+
+      entered.await(10, TimeUnit.SECONDS);
+      // Enough to trigger reclamation, but the reader may still be reading all of them
+      for (long address = 1; address <= 100; ++address) {
+         reclaimer.retire(address);
+      }
+      assertTrue(freed.isEmpty());
+      retired.countDown();
+      reader.get(10, TimeUnit.SECONDS);
+
+      reclaimer.reclaimAll();
+      assertEquals(100, freed.size());
+   }
+
+   public void testNestedEnter() {
+      EpochReclaimer reclaimer = new EpochReclaimer(1, address -> { });
+      EpochReclaimer.ReaderSlot slot = reclaimer.enter();
+      assertNull(reclaimer.enter());
+      reclaimer.exit(null);
+      reclaimer.exit(slot);
+      // All readers exited, so this must not block
+      reclaimer.reclaimAll();
+   }
+}
@@ -0,0 +1,114 @@
+package org.infinispan.container.offheap;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.StorageType;
+import org.infinispan.eviction.EvictionType;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that the off-heap container honours the configured COUNT and MEMORY bounds.
+ */
+@Test(groups = "functional", testName = "container.offheap.OffHeapBoundedSingleNodeTest")
+public class OffHeapBoundedSingleNodeTest extends SingleCacheManagerTest {
+   private static final int COUNT_SIZE = 10;
+   private static final long MEMORY_SIZE = 1_000_000;
+   private static final int ADDRESS_COUNT = 1_024;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      cacheManager = TestCacheManagerFactory.createCacheManager(getDefaultStandaloneCacheConfig(false));
+
+      ConfigurationBuilder count = new ConfigurationBuilder();
+      count.memory().storageType(StorageType.OFF_HEAP).size(COUNT_SIZE).evictionType(EvictionType.COUNT)
+            .addressCount(ADDRESS_COUNT);
+      cacheManager.defineConfiguration("count", count.build());
+
+      ConfigurationBuilder memory = new ConfigurationBuilder();
+      memory.memory().storageType(StorageType.OFF_HEAP).size(MEMORY_SIZE).evictionType(EvictionType.MEMORY)
+            .addressCount(ADDRESS_COUNT);
+      cacheManager.defineConfiguration("memory", memory.build());
+
+      ConfigurationBuilder passivation = new ConfigurationBuilder();
+      passivation.memory().storageType(StorageType.OFF_HEAP).size(COUNT_SIZE).evictionType(EvictionType.COUNT)
+            .addressCount(ADDRESS_COUNT);
+      passivation.persistence().passivation(true).addStore(DummyInMemoryStoreConfigurationBuilder.class);
+      cacheManager.defineConfiguration("passivation", passivation.build());
+      return cacheManager;
+   }
+
+   public void testCountBound() {
+      Cache<String, String> cache = cacheManager.getCache("count");
+      for (int i = 0; i < COUNT_SIZE * 5; ++i) {
+         cache.put("key" + i, "value" + i);
+      }
+      DataContainer container = cache.getAdvancedCache().getDataContainer();
+      assertEquals(COUNT_SIZE, container.sizeIncludingExpired());
+      // The most recently written entries must still be present
+      assertEquals("value" + (COUNT_SIZE * 5 - 1), cache.get("key" + (COUNT_SIZE * 5 - 1)));
+   }
+
+   public void testLeastRecentlyUsedIsEvicted() {
+      Cache<String, String> cache = cacheManager.getCache("count");
+      cache.clear();
+      for (int i = 0; i < COUNT_SIZE; ++i) {
+         cache.put("lru" + i, "value" + i);
+      }
+      // Touch the first entry so that the second one becomes the least recently used
+      assertEquals("value0", cache.get("lru0"));
+      cache.put("lru" + COUNT_SIZE, "value" + COUNT_SIZE);
+
+      DataContainer container = cache.getAdvancedCache().getDataContainer();
+      assertEquals(COUNT_SIZE, container.sizeIncludingExpired());
+      assertNull(cache.get("lru1"));
+      assertEquals("value0", cache.get("lru0"));
+   }
+
+   public void testMemoryBound() {
+      Cache<String, String> cache = cacheManager.getCache("memory");
+      OffHeapMemoryAllocator allocator = cache.getAdvancedCache().getComponentRegistry()
+            .getComponent(OffHeapMemoryAllocator.class);
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < 1_000; ++i) {
+         sb.append('a');
+      }
+      String value = sb.toString();
+      for (int i = 0; i < 5_000; ++i) {
+         cache.put("key" + i, value);
+      }
+      long allocated = allocator.getAllocatedAmount();
+      assertTrue(allocated > 0);
+      assertTrue(allocated + (ADDRESS_COUNT << 3) <= MEMORY_SIZE);
+      assertTrue(cache.getAdvancedCache().getDataContainer().sizeIncludingExpired() < 5_000);
+
+      // Every evicted or removed entry must give back exactly what it allocated
+      cache.clear();
+      assertEquals(0, allocator.getAllocatedAmount());
+      cache.put("key", value);
+      long entrySize = allocator.getAllocatedAmount();
+      assertTrue(entrySize > value.length());
+      cache.remove("key");
+      assertEquals(0, allocator.getAllocatedAmount());
+   }
+
+   public void testEvictedEntriesArePassivated() {
+      Cache<String, String> cache = cacheManager.getCache("passivation");
+      for (int i = 0; i < COUNT_SIZE * 2; ++i) {
+         cache.put("key" + i, "value" + i);
+      }
+      assertEquals(COUNT_SIZE, cache.getAdvancedCache().getDataContainer().sizeIncludingExpired());
+      // Evicted entries are loaded back from the store
+      for (int i = 0; i < COUNT_SIZE * 2; ++i) {
+         assertEquals("value" + i, cache.get("key" + i));
+      }
+   }
+}
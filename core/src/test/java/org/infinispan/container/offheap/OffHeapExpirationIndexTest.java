@@ -0,0 +1,151 @@
+package org.infinispan.container.offheap;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.infinispan.commons.marshall.WrappedByteArray;
+import org.infinispan.commons.marshall.WrappedBytes;
+import org.infinispan.container.entries.ImmortalCacheEntry;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.entries.MortalCacheEntry;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "container.offheap.OffHeapExpirationIndexTest")
+public class OffHeapExpirationIndexTest extends AbstractInfinispanTest {
+   private static final long NOW = 1_000_000;
+   private static final int LOCK_COUNT = 4;
+
+   // The entries by the hash code of their key, like the buckets of the container
+   private Map<Integer, List<InternalCacheEntry<WrappedBytes, WrappedBytes>>> entries;
+   private OffHeapExpirationIndex index;
+
+   @BeforeMethod
+   public void setUp() {
+      entries = new HashMap<>();
+      index = new OffHeapExpirationIndex(new StripedLock(LOCK_COUNT), LOCK_COUNT,
+            (hashCode, action) -> entries.getOrDefault(hashCode, new ArrayList<>()).forEach(action));
+   }
+
+   private static WrappedBytes key(String key, int hashCode) {
+      return new WrappedByteArray(key.getBytes(), hashCode);
+   }
+
+   private static WrappedBytes value(String value) {
+      return new WrappedByteArray(value.getBytes());
+   }
+
+   private void put(InternalCacheEntry<WrappedBytes, WrappedBytes> entry) {
+      List<InternalCacheEntry<WrappedBytes, WrappedBytes>> bucket =
+            entries.computeIfAbsent(entry.getKey().hashCode(), h -> new ArrayList<>());
+      bucket.removeIf(e -> e.getKey().equals(entry.getKey()));
+      bucket.add(entry);
+      index.update(entry.getKey().hashCode(), entry.getExpiryTime());
+   }
+
+   private void remove(WrappedBytes key) {
+      int hashCode = key.hashCode();
+      List<InternalCacheEntry<WrappedBytes, WrappedBytes>> bucket = entries.get(hashCode);
+      bucket.removeIf(e -> e.getKey().equals(key));
+      if (bucket.isEmpty()) {
+         entries.remove(hashCode);
+         index.remove(hashCode);
+      }
+   }
+
+   private List<WrappedBytes> expiredKeys(long currentTime) {
+      List<WrappedBytes> keys = new ArrayList<>();
+      index.forEachExpired(currentTime, e -> keys.add(e.getKey()));
+      return keys;
+   }
+
+   public void testOnlyExpiredEntriesAreFound() {
+      WrappedBytes k1 = key("k1", 1);
+      put(new MortalCacheEntry(k1, value("v1"), 1_000, NOW));
+      put(new MortalCacheEntry(key("k2", 2), value("v2"), 10_000, NOW));
+      put(new ImmortalCacheEntry(key("k3", 3), value("v3")));
+      assertEquals(2, index.size());
+
+      assertTrue(expiredKeys(NOW).isEmpty());
+      assertEquals(0, index.countExpired(NOW));
+
+      assertTrue(expiredKeys(NOW + 1_000).isEmpty());
+      assertEquals(1, index.countExpired(NOW + 1_001));
+      assertEquals(1, expiredKeys(NOW + 1_001).size());
+
+      remove(k1);
+      assertEquals(1, index.size());
+      List<WrappedBytes> expired = expiredKeys(NOW + 20_000);
+      assertEquals(1, expired.size());
+      assertEquals(key("k2", 2), expired.get(0));
+   }
+
+   public void testKeysWithTheSameHashCodeShareTheIndexEntry() {
+      WrappedBytes k1 = key("k1", 7);
+      WrappedBytes k2 = key("k2", 7);
+      put(new MortalCacheEntry(k1, value("v1"), 5_000, NOW));
+      put(new MortalCacheEntry(k2, value("v2"), 1_000, NOW));
+      assertEquals(1, index.size());
+
+      List<WrappedBytes> expired = expiredKeys(NOW + 2_000);
+      assertEquals(1, expired.size());
+      assertEquals(k2, expired.get(0));
+      remove(k2);
+      // The index entry was moved to the expiration of the remaining key
+      assertEquals(1, index.size());
+      assertTrue(expiredKeys(NOW + 4_000).isEmpty());
+      assertEquals(1, expiredKeys(NOW + 5_001).size());
+      remove(k1);
+      assertTrue(index.isEmpty());
+   }
+
+   public void testEntryWrittenWithLaterExpirationIsFound() {
+      WrappedBytes k1 = key("k1", 1);
+      put(new MortalCacheEntry(k1, value("v1"), 1_000, NOW));
+      put(new MortalCacheEntry(k1, value("v1"), 5_000, NOW));
+      assertEquals(1, index.size());
+      assertTrue(expiredKeys(NOW + 2_000).isEmpty());
+      assertEquals(1, expiredKeys(NOW + 5_001).size());
+
+      // Replaced by an entry that never expires, which is detected when the index entry is visited
+      put(new MortalCacheEntry(k1, value("v1"), 1_000, NOW + 6_000));
+      put(new ImmortalCacheEntry(k1, value("v1")));
+      assertTrue(expiredKeys(NOW + 8_000).isEmpty());
+      assertTrue(index.isEmpty());
+   }
+
+   public void testEntriesStillPresentAreFoundAgain() {
+      put(new MortalCacheEntry(key("k1", 1), value("v1"), 1_000, NOW));
+      assertEquals(1, expiredKeys(NOW + 5_000).size());
+      assertEquals(1, index.countExpired(NOW + 5_500));
+      assertEquals(1, expiredKeys(NOW + 6_000).size());
+   }
+
+   public void testEntriesFarInTheFutureWaitForTheirRound() {
+      put(new MortalCacheEntry(key("k1", 1), value("v1"), 2_000_000, NOW));
+      assertTrue(expiredKeys(NOW + 1_000).isEmpty());
+      assertTrue(expiredKeys(NOW + 1_500_000).isEmpty());
+      assertEquals(1, expiredKeys(NOW + 2_000_001).size());
+   }
+
+   public void testManyHashCodes() {
+      int count = 10_000;
+      for (int i = 0; i < count; ++i) {
+         put(new MortalCacheEntry(key("k" + i, i), value("v"), 1_000 + (i % 3) * 1_000, NOW));
+      }
+      assertEquals(count, index.size());
+      // Remove every other key, which shifts the remaining hash codes back in the tables
+      for (int i = 0; i < count; i += 2) {
+         remove(key("k" + i, i));
+      }
+      assertEquals(count / 2, index.size());
+      assertEquals(count / 2, index.countExpired(NOW + 3_001));
+      assertEquals(count / 2, expiredKeys(NOW + 3_001).size());
+   }
+}
@@ -0,0 +1,61 @@
+package org.infinispan.container.offheap;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.StorageType;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that the off-heap memory lookup table grows when more entries are stored than it was sized for.
+ */
+@Test(groups = "functional", testName = "container.offheap.OffHeapResizeTest")
+public class OffHeapResizeTest extends SingleCacheManagerTest {
+   private static final int ENTRIES = 10_000;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = getDefaultStandaloneCacheConfig(false);
+      builder.memory().storageType(StorageType.OFF_HEAP).addressCount(1);
+      return TestCacheManagerFactory.createCacheManager(builder);
+   }
+
+   public void testLookupGrows() {
+      Cache<String, String> cache = cache();
+      OffHeapDataContainer container = (OffHeapDataContainer) cache.getAdvancedCache().getDataContainer();
+      int initialCount = container.memoryLookup.getPointerCount();
+
+      for (int i = 0; i < ENTRIES; ++i) {
+         cache.put("key" + i, "value" + i);
+      }
+      // Writes help moving the stripes, so continue writing until the resize completed
+      for (int i = 0; i < ENTRIES; ++i) {
+         cache.put("key" + i, "value" + i);
+      }
+
+      assertTrue(container.memoryLookup.getPointerCount() > initialCount);
+      assertEquals(ENTRIES, cache.size());
+      for (int i = 0; i < ENTRIES; ++i) {
+         assertEquals("value" + i, cache.get("key" + i));
+      }
+
+      Set<Object> keys = new HashSet<>();
+      container.iteratorIncludingExpired().forEachRemaining(ice -> assertTrue(keys.add(ice.getKey())));
+      assertEquals(ENTRIES, keys.size());
+
+      for (int i = 0; i < ENTRIES; i += 2) {
+         cache.remove("key" + i);
+      }
+      assertEquals(ENTRIES / 2, cache.size());
+      cache.clear();
+      assertEquals(0, container.sizeIncludingExpired());
+   }
+}
@@ -0,0 +1,86 @@
+package org.infinispan.container.offheap;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+import sun.misc.Unsafe;
+
+@Test(groups = "unit", testName = "container.offheap.PooledOffHeapMemoryAllocatorTest")
+public class PooledOffHeapMemoryAllocatorTest extends AbstractInfinispanTest {
+   private static final Unsafe UNSAFE = UnsafeHolder.UNSAFE;
+
+   public void testSizeClasses() {
+      int[] chunkSizes = PooledOffHeapMemoryAllocator.chunkSizes();
+      for (int i = 1; i < chunkSizes.length; ++i) {
+         assertTrue(chunkSizes[i] > chunkSizes[i - 1]);
+         assertEquals(0, chunkSizes[i] % 8);
+      }
+      assertEquals(0, PooledOffHeapMemoryAllocator.sizeClass(1));
+      assertEquals(0, PooledOffHeapMemoryAllocator.sizeClass(chunkSizes[0]));
+      assertEquals(1, PooledOffHeapMemoryAllocator.sizeClass(chunkSizes[0] + 1));
+      assertEquals(chunkSizes.length - 1, PooledOffHeapMemoryAllocator.sizeClass(chunkSizes[chunkSizes.length - 1]));
+      assertEquals(-1, PooledOffHeapMemoryAllocator.sizeClass(chunkSizes[chunkSizes.length - 1] + 1));
+   }
+
+   public void testChunksAreReused() {
+      PooledOffHeapMemoryAllocator allocator = new PooledOffHeapMemoryAllocator(1);
+      try {
+         long address = allocator.allocate(100);
+         UNSAFE.setMemory(address, 100, (byte) 1);
+         long allocated = allocator.getAllocatedAmount();
+         assertTrue(allocated >= 100);
+         long reserved = allocator.getReservedAmount();
+
+         allocator.deallocate(address);
+         assertEquals(0, allocator.getAllocatedAmount());
+         assertEquals(address, allocator.allocate(90));
+         assertEquals(reserved, allocator.getReservedAmount());
+         allocator.deallocate(address);
+      } finally {
+         allocator.stop();
+      }
+      assertEquals(0, allocator.getReservedAmount());
+   }
+
+   public void testHugeAllocation() {
+      PooledOffHeapMemoryAllocator allocator = new PooledOffHeapMemoryAllocator(2);
+      try {
+         int length = 1024 * 1024;
+         long address = allocator.allocate(length);
+         UNSAFE.setMemory(address, length, (byte) 1);
+         assertEquals(length + 8, allocator.getAllocatedAmount());
+         allocator.deallocate(address);
+         assertEquals(0, allocator.getAllocatedAmount());
+         assertEquals(0, allocator.getReservedAmount());
+      } finally {
+         allocator.stop();
+      }
+   }
+
+   public void testStatistics() {
+      PooledOffHeapMemoryAllocator allocator = new PooledOffHeapMemoryAllocator(1);
+      try {
+         int sizeClass = PooledOffHeapMemoryAllocator.sizeClass(64);
+         int chunkSize = allocator.sizeClassChunkSize(sizeClass);
+         // Smallest request that still ends up in this size class, taking the chunk header into account
+         int requested = allocator.sizeClassChunkSize(sizeClass - 1) + 1 - 8;
+         long[] addresses = new long[4];
+         for (int i = 0; i < addresses.length; ++i) {
+            addresses[i] = allocator.allocate(requested);
+         }
+         assertEquals(1 - (double) requested / chunkSize, allocator.sizeClassFragmentation(sizeClass), 0.001);
+         assertTrue(allocator.sizeClassUtilization(sizeClass) > 0);
+         assertEquals(4L * chunkSize, allocator.getAllocatedAmount());
+         for (long address : addresses) {
+            allocator.deallocate(address);
+         }
+         assertEquals(0, allocator.sizeClassUtilization(sizeClass), 0.001);
+         assertEquals(0, allocator.getUtilization(), 0.001);
+      } finally {
+         allocator.stop();
+      }
+   }
+}
@@ -0,0 +1,21 @@
+package org.infinispan.container.offheap;
+
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.StorageType;
+import org.testng.annotations.Test;
+
+/**
+ * Runs the off-heap single node tests with entries allocated from the {@link PooledOffHeapMemoryAllocator}.
+ */
+@Test(groups = "functional", testName = "container.offheap.PooledOffHeapSingleNodeTest")
+public class PooledOffHeapSingleNodeTest extends OffHeapSingleNodeTest {
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder dcc = getDefaultClusteredCacheConfig(CacheMode.LOCAL, true);
+      dcc.memory().storageType(StorageType.OFF_HEAP).allocatorType(OffHeapAllocatorType.POOLED);
+      // Only start up the 1 cache
+      addClusterEnabledCacheManager(dcc);
+   }
+}
@@ -5,6 +5,8 @@
 import java.util.concurrent.TimeUnit;
 
 import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.DataContainer;
+import org.infinispan.expiration.ExpirationManager;
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.test.SingleCacheManagerTest;
 import org.infinispan.test.TestingUtil;
@@ -58,4 +60,22 @@ public void testSimpleExpirationMaxIdle() throws Exception {
       timeService.advance(2);
       assertEquals(0, cache.size());
    }
+
+   public void testReaperRemovesExpiredEntries() throws Exception {
+      for (int i = 0; i < SIZE; i++) {
+         cache.put("key-" + i, "value-" + i, i < SIZE / 2 ? 1 : 10, TimeUnit.SECONDS);
+      }
+      cache.put("immortal", "value");
+      DataContainer<Object, Object> container = cache.getAdvancedCache().getDataContainer();
+      ExpirationManager<Object, Object> expirationManager = cache.getAdvancedCache().getExpirationManager();
+
+      timeService.advance(TimeUnit.SECONDS.toMillis(2));
+      assertEquals(SIZE / 2 + 1, cache.size());
+      expirationManager.processExpiration();
+      assertEquals(SIZE / 2 + 1, container.sizeIncludingExpired());
+
+      timeService.advance(TimeUnit.SECONDS.toMillis(10));
+      expirationManager.processExpiration();
+      assertEquals(1, container.sizeIncludingExpired());
+   }
 }
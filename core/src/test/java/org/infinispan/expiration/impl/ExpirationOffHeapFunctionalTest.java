@@ -0,0 +1,15 @@
+package org.infinispan.expiration.impl;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.StorageType;
+import org.testng.annotations.Test;
+
+@Test(groups = "functional", testName = "expiration.impl.ExpirationOffHeapFunctionalTest")
+public class ExpirationOffHeapFunctionalTest extends ExpirationFunctionalTest {
+
+   @Override
+   protected void configure(ConfigurationBuilder config) {
+      super.configure(config);
+      config.memory().storageType(StorageType.OFF_HEAP);
+   }
+}
@@ -0,0 +1,146 @@
+package org.infinispan.notifications.cachelistener;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryCreated;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryModified;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryRemoved;
+import org.infinispan.notifications.cachelistener.event.CacheEntryEvent;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.fwk.CleanupAfterMethod;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the overflow policies of asynchronous listeners registered on a cache.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "notifications.cachelistener.AsyncListenerOverflowTest")
+@CleanupAfterMethod
+public class AsyncListenerOverflowTest extends SingleCacheManagerTest {
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      return TestCacheManagerFactory.createCacheManager(false);
+   }
+
+   public void testCoalesceKeepsTheEventsOfEachMethod() throws Exception {
+      CoalescingListener listener = new CoalescingListener();
+      cache.addListener(listener);
+
+      // Keep the listener busy so that the following events are queued
+      cache.put("block", "v1");
+      assertTrue(listener.blocked.await(10, TimeUnit.SECONDS));
+      cache.put("k1", "v1");
+      cache.put("k1", "v2");
+      cache.put("k1", "v3");
+      // The queue is full, so the last modification replaces the previous one
+      cache.put("k1", "v4");
+      listener.unblock.countDown();
+
+      List<String> expected = Arrays.asList("created:block=v1", "created:k1=v1", "modified:k1=v2", "modified:k1=v4");
+      eventually(() -> listener.events.size() == expected.size());
+      assertEquals(expected, listener.events);
+   }
+
+   public void testCoalesceKeepsTheEventsOfAKeyInOrder() throws Exception {
+      CoalescingListener listener = new CoalescingListener();
+      cache.addListener(listener);
+
+      cache.put("block", "v1");
+      assertTrue(listener.blocked.await(10, TimeUnit.SECONDS));
+      cache.put("k1", "v1");
+      cache.put("k1", "v2");
+      cache.remove("k1");
+      // The queue is full: each event replaces the pending event of its method and is queued after the removal
+      cache.put("k1", "v3");
+      cache.put("k1", "v4");
+      listener.unblock.countDown();
+
+      List<String> expected = Arrays.asList("created:block=v1", "removed:k1", "created:k1=v3", "modified:k1=v4");
+      eventually(() -> listener.events.size() == expected.size());
+      assertEquals(expected, listener.events);
+   }
+
+   public void testListenersWritingToTheCacheDoNotDeadlock() {
+      // Each listener writes to the cache, raising events for the other listener while its queue is full
+      cache.addListener(new ForwardingListener("x-", "y-"));
+      cache.addListener(new ForwardingListener("y-", "z-"));
+      int count = 100;
+      for (int i = 0; i < count; i++) {
+         cache.put("x-" + i, "v" + i);
+      }
+      eventually(() -> {
+         for (int i = 0; i < count; i++) {
+            if (cache.get("z-" + i) == null) {
+               return false;
+            }
+         }
+         return true;
+      });
+   }
+
+   @Listener(sync = false, asyncQueueSize = 1, overflowPolicy = Listener.OverflowPolicy.BLOCK)
+   public class ForwardingListener {
+      private final String from;
+      private final String to;
+
+      ForwardingListener(String from, String to) {
+         this.from = from;
+         this.to = to;
+      }
+
+      @CacheEntryCreated
+      public void created(CacheEntryEvent<String, String> event) {
+         if (!event.isPre() && event.getKey().startsWith(from)) {
+            cache.put(to + event.getKey().substring(from.length()), event.getValue());
+         }
+      }
+   }
+
+   @Listener(sync = false, observation = Listener.Observation.POST, asyncQueueSize = 3,
+         overflowPolicy = Listener.OverflowPolicy.COALESCE)
+   public static class CoalescingListener {
+      final List<String> events = new CopyOnWriteArrayList<>();
+      final CountDownLatch blocked = new CountDownLatch(1);
+      final CountDownLatch unblock = new CountDownLatch(1);
+
+      @CacheEntryCreated
+      public void created(CacheEntryEvent<String, String> event) throws InterruptedException {
+         record("created", event);
+      }
+
+      @CacheEntryModified
+      public void modified(CacheEntryEvent<String, String> event) throws InterruptedException {
+         record("modified", event);
+      }
+
+      @CacheEntryRemoved
+      public void removed(CacheEntryEvent<String, String> event) throws InterruptedException {
+         if (!event.isPre()) {
+            events.add("removed:" + event.getKey());
+         }
+      }
+
+      private void record(String type, CacheEntryEvent<String, String> event) throws InterruptedException {
+         if (event.isPre()) {
+            return;
+         }
+         events.add(type + ":" + event.getKey() + "=" + event.getValue());
+         if ("block".equals(event.getKey())) {
+            blocked.countDown();
+            unblock.await(10, TimeUnit.SECONDS);
+         }
+      }
+   }
+}
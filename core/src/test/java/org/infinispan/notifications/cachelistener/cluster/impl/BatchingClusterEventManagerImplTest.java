@@ -0,0 +1,170 @@
+package org.infinispan.notifications.cachelistener.cluster.impl;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollection;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.commands.CommandsFactory;
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.distribution.TestAddress;
+import org.infinispan.notifications.cachelistener.cluster.ClusterEvent;
+import org.infinispan.notifications.cachelistener.cluster.ClusterEventCommand;
+import org.infinispan.remoting.inboundhandler.DeliverOrder;
+import org.infinispan.remoting.rpc.ResponseMode;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.rpc.RpcOptions;
+import org.infinispan.remoting.rpc.RpcOptionsBuilder;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.remoting.transport.Transport;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.util.ByteString;
+import org.infinispan.util.concurrent.WithinThreadExecutor;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Tests how {@link BatchingClusterEventManagerImpl} queues the events sent to a node.
+ *
+ * @since 9.0
+ */
+@Test(groups = "unit", testName = "notifications.cachelistener.cluster.impl.BatchingClusterEventManagerImplTest")
+public class BatchingClusterEventManagerImplTest extends AbstractInfinispanTest {
+   private static final Address TARGET = new TestAddress(1);
+   private static final UUID LISTENER = UUID.randomUUID();
+
+   private final List<Address> members = new ArrayList<>();
+   private final List<Runnable> scheduled = new ArrayList<>();
+   private final List<String> sent = new ArrayList<>();
+   private final List<Integer> sentSizes = new ArrayList<>();
+   private BatchingClusterEventManagerImpl<Object, Object> manager;
+
+   @BeforeMethod
+   @SuppressWarnings("unchecked")
+   public void setUp() {
+      members.clear();
+      members.add(TARGET);
+      scheduled.clear();
+      sent.clear();
+      sentSizes.clear();
+
+      Transport transport = mock(Transport.class);
+      when(transport.getMembers()).thenReturn(members);
+      RpcManager rpcManager = mock(RpcManager.class);
+      when(rpcManager.getTransport()).thenReturn(transport);
+      when(rpcManager.getRpcOptionsBuilder(any(ResponseMode.class), any(DeliverOrder.class))).thenReturn(
+            new RpcOptionsBuilder(10, TimeUnit.SECONDS, ResponseMode.SYNCHRONOUS, DeliverOrder.PER_SENDER));
+      when(rpcManager.invokeRemotelyAsync(anyCollection(), any(ReplicableCommand.class), any(RpcOptions.class)))
+            .thenAnswer(invocation -> {
+               record("sync", invocation.getArguments()[1]);
+               return CompletableFuture.completedFuture(Collections.emptyMap());
+            });
+      doAnswer(invocation -> {
+         record("async", invocation.getArguments()[1]);
+         return null;
+      }).when(rpcManager).sendTo(any(Address.class), any(ReplicableCommand.class), eq(DeliverOrder.PER_SENDER));
+
+      CommandsFactory commandsFactory = mock(CommandsFactory.class);
+      when(commandsFactory.buildClusterEventCommand(anyMap())).thenAnswer(invocation ->
+            new ClusterEventCommand<>(ByteString.fromString("cache"), (Map) invocation.getArguments()[0]));
+
+      // The test runs the scheduled flushes itself
+      ScheduledExecutorService timeoutExecutor = mock(ScheduledExecutorService.class);
+      when(timeoutExecutor.schedule(any(Runnable.class), eq(BatchingClusterEventManagerImpl.MAX_BATCH_DELAY_MILLIS),
+            eq(TimeUnit.MILLISECONDS))).thenAnswer(invocation -> {
+         scheduled.add((Runnable) invocation.getArguments()[0]);
+         return null;
+      });
+
+      manager = new BatchingClusterEventManagerImpl<>();
+      manager.inject(rpcManager, commandsFactory, timeoutExecutor, new WithinThreadExecutor());
+   }
+
+   public void testAsyncEventsAreBatched() {
+      addEvents(false, event("e1"));
+      addEvents(false, event("e2"));
+      assertEquals(Collections.emptyList(), sent);
+      assertEquals(1, scheduled.size());
+
+      runScheduled();
+      assertEquals(Arrays.asList("async [e1, e2]"), sent);
+   }
+
+   public void testFullBatchIsSentImmediately() {
+      ClusterEvent[] events = new ClusterEvent[BatchingClusterEventManagerImpl.MAX_BATCH_SIZE];
+      for (int i = 0; i < events.length; i++) {
+         events[i] = event("e" + i);
+      }
+      addEvents(false, events);
+      assertEquals(Arrays.asList(BatchingClusterEventManagerImpl.MAX_BATCH_SIZE), sentSizes);
+
+      // The scheduled flush has nothing left to send
+      runScheduled();
+      assertEquals(1, sentSizes.size());
+   }
+
+   public void testSyncEventsAreSentAfterPendingEvents() {
+      addEvents(false, event("e1"));
+      addEvents(true, event("e2"));
+      addEvents(false, event("e3"));
+      assertEquals(Arrays.asList("sync [e1, e2]"), sent);
+
+      runScheduled();
+      assertEquals(Arrays.asList("sync [e1, e2]", "async [e3]"), sent);
+   }
+
+   public void testEventsForLeaversAreDropped() {
+      addEvents(false, event("e1"));
+      members.clear();
+      runScheduled();
+      addEvents(true, event("e2"));
+      assertTrue(sent.isEmpty());
+
+      // The queue of the node is created again when it joins back
+      members.add(TARGET);
+      addEvents(false, event("e3"));
+      runScheduled();
+      assertEquals(Arrays.asList("async [e3]"), sent);
+   }
+
+   private ClusterEvent<Object, Object> event(String name) {
+      //noinspection unchecked
+      return mock(ClusterEvent.class, name);
+   }
+
+   @SafeVarargs
+   private final void addEvents(boolean sync, ClusterEvent<Object, Object>... events) {
+      manager.addEvents(TARGET, LISTENER, new ArrayList<>(Arrays.asList(events)), sync);
+      manager.sendEvents();
+   }
+
+   private void runScheduled() {
+      List<Runnable> tasks = new ArrayList<>(scheduled);
+      scheduled.clear();
+      tasks.forEach(Runnable::run);
+   }
+
+   @SuppressWarnings("unchecked")
+   private void record(String mode, Object command) {
+      Map<UUID, Collection<ClusterEvent<Object, Object>>> events = ((ClusterEventCommand<Object, Object>) command).getEvents();
+      Collection<ClusterEvent<Object, Object>> listenerEvents = events.get(LISTENER);
+      sent.add(mode + " " + listenerEvents);
+      sentSizes.add(listenerEvents.size());
+   }
+}
@@ -0,0 +1,135 @@
+package org.infinispan.notifications.impl;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.fail;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.infinispan.notifications.Listener;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.util.ControlledTimeService;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the ordering and the overflow policies of {@link AsyncListenerQueue}.
+ *
+ * @since 9.0
+ */
+@Test(groups = "unit", testName = "notifications.impl.AsyncListenerQueueTest")
+public class AsyncListenerQueueTest extends AbstractInfinispanTest {
+   private final Queue<Runnable> tasks = new ArrayDeque<>();
+   private final Executor executor = tasks::add;
+   private final List<String> delivered = new ArrayList<>();
+
+   private void add(AsyncListenerQueue queue, String key, String value) {
+      queue.add(key, () -> delivered.add(key + "=" + value));
+   }
+
+   private void runTasks() {
+      Runnable task;
+      while ((task = tasks.poll()) != null) {
+         task.run();
+      }
+   }
+
+   public void testEventsAreDeliveredInOrder() {
+      AsyncListenerQueue queue = new AsyncListenerQueue(this, 10, Listener.OverflowPolicy.BLOCK, executor,
+            TIME_SERVICE);
+      add(queue, "k1", "v1");
+      add(queue, "k2", "v1");
+      add(queue, "k1", "v2");
+      // A single task drains the queue
+      assertEquals(1, tasks.size());
+      runTasks();
+      assertEquals(Arrays.asList("k1=v1", "k2=v1", "k1=v2"), delivered);
+      assertEquals(3, queue.getDeliveredEvents());
+      assertEquals(0, queue.getPendingEvents());
+   }
+
+   public void testDropOldest() {
+      AsyncListenerQueue queue = new AsyncListenerQueue(this, 2, Listener.OverflowPolicy.DROP_OLDEST, executor,
+            TIME_SERVICE);
+      add(queue, "k1", "v1");
+      add(queue, "k2", "v1");
+      add(queue, "k3", "v1");
+      assertEquals(2, queue.getPendingEvents());
+      assertEquals(1, queue.getDroppedEvents());
+      runTasks();
+      assertEquals(Arrays.asList("k2=v1", "k3=v1"), delivered);
+   }
+
+   public void testCoalesce() {
+      AsyncListenerQueue queue = new AsyncListenerQueue(this, 3, Listener.OverflowPolicy.COALESCE, executor,
+            TIME_SERVICE);
+      // Events are only coalesced once the queue is full
+      add(queue, "k1", "v1");
+      add(queue, "k2", "v1");
+      add(queue, "k1", "v2");
+      assertEquals(0, queue.getCoalescedEvents());
+      // The most recent event of the key is replaced, and the new one is delivered after the other pending events
+      add(queue, "k1", "v3");
+      add(queue, "k2", "v2");
+      assertEquals(3, queue.getPendingEvents());
+      assertEquals(2, queue.getCoalescedEvents());
+      runTasks();
+      assertEquals(Arrays.asList("k1=v1", "k1=v3", "k2=v2"), delivered);
+   }
+
+   public void testListenerEventsDoNotBlock() {
+      AsyncListenerQueue queue = new AsyncListenerQueue(this, 1, Listener.OverflowPolicy.BLOCK, executor,
+            TIME_SERVICE);
+      // The listener raises another event while the queue is full
+      queue.add("k1", () -> {
+         add(queue, "k2", "v1");
+         add(queue, "k3", "v1");
+      });
+      runTasks();
+      assertEquals(Arrays.asList("k2=v1", "k3=v1"), delivered);
+   }
+
+   public void testBlockedEventWaitsForTheListener() throws Exception {
+      BlockingQueue<Runnable> pendingTasks = new LinkedBlockingQueue<>();
+      AsyncListenerQueue queue = new AsyncListenerQueue(this, 1, Listener.OverflowPolicy.BLOCK, pendingTasks::add,
+            TIME_SERVICE);
+      add(queue, "k1", "v1");
+      Future<?> future = fork(() -> add(queue, "k2", "v1"));
+      try {
+         future.get(100, TimeUnit.MILLISECONDS);
+         fail("The event should wait until the queue has room for it");
+      } catch (TimeoutException e) {
+         // expected
+      }
+
+      pendingTasks.take().run();
+      future.get(10, TimeUnit.SECONDS);
+      Runnable task;
+      while ((task = pendingTasks.poll()) != null) {
+         task.run();
+      }
+      assertEquals(Arrays.asList("k1=v1", "k2=v1"), delivered);
+      assertEquals(0, queue.getDroppedEvents());
+   }
+
+   public void testLag() {
+      ControlledTimeService timeService = new ControlledTimeService(0);
+      AsyncListenerQueue queue = new AsyncListenerQueue(this, 10, Listener.OverflowPolicy.BLOCK, executor,
+            timeService);
+      assertEquals(0, queue.getLag());
+      add(queue, "k1", "v1");
+      timeService.advance(TimeUnit.SECONDS.toMillis(1));
+      add(queue, "k2", "v1");
+      assertEquals(TimeUnit.SECONDS.toMillis(1), queue.getLag());
+      runTasks();
+      assertEquals(0, queue.getLag());
+   }
+}
@@ -10,10 +10,12 @@
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.infinispan.commons.marshall.StreamingMarshaller;
@@ -413,6 +415,53 @@ public void testStoreAndRemove() throws PersistenceException {
       assertEquals("k4", set.iterator().next().getKey());
    }
 
+   public void testWriteAndDeleteBatch() throws Exception {
+      assertIsEmpty();
+
+      int numEntries = 50;
+      List<MarshalledEntry<?, ?>> entries = new ArrayList<>(numEntries + 1);
+      for (int i = 0; i < numEntries; i++) {
+         entries.add(marshalledEntry("k" + i, "v" + i, null));
+      }
+      long lifespan = 3000;
+      entries.add(marshalledEntry(internalCacheEntry("mortal", "v", lifespan)));
+      cl.writeBatch(entries);
+
+      assertSize(TestingUtil.allEntries(cl), numEntries + 1);
+      for (int i = 0; i < numEntries; i++) {
+         assertEquals("v" + i, unwrap(cl.load("k" + i).getValue()));
+      }
+      assertEquals("v", unwrap(cl.load("mortal").getValue()));
+
+      // overwrite the first 10 entries, remove the next 10 and a key that was never written
+      List<MarshalledEntry<?, ?>> updates = new ArrayList<>();
+      List<Object> keysToDelete = new ArrayList<>();
+      for (int i = 0; i < 10; i++) {
+         updates.add(marshalledEntry("k" + i, "u" + i, null));
+         keysToDelete.add("k" + (i + 10));
+      }
+      keysToDelete.add("missing");
+      cl.writeBatch(updates);
+      cl.deleteBatch(keysToDelete);
+      cl.writeBatch(Collections.emptyList());
+      cl.deleteBatch(Collections.emptyList());
+
+      assertSize(TestingUtil.allEntries(cl), numEntries - 9);
+      for (int i = 0; i < numEntries; i++) {
+         if (i < 10) {
+            assertEquals("u" + i, unwrap(cl.load("k" + i).getValue()));
+         } else if (i < 20) {
+            assertContains("k" + i, false);
+         } else {
+            assertEquals("v" + i, unwrap(cl.load("k" + i).getValue()));
+         }
+      }
+      assertContains("missing", false);
+
+      timeService.advance(lifespan + 1);
+      assertNull(cl.load("mortal"));
+   }
+
    public void testPurgeExpired() throws Exception {
       assertIsEmpty();
       // Increased lifespan and idle timeouts to accommodate slower cache stores
@@ -0,0 +1,83 @@
+package org.infinispan.persistence;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.interceptors.AsyncInterceptorChain;
+import org.infinispan.interceptors.impl.CacheLoaderInterceptor;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
+import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that the keys of a multi-key read that are not in memory are loaded from the store at once.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "persistence.BulkLoadTest")
+public class BulkLoadTest extends SingleCacheManagerTest {
+   private static final int NUM_KEYS = 10;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.jmxStatistics().enable();
+      builder.persistence().addStore(DummyInMemoryStoreConfigurationBuilder.class).storeName(getClass().getName());
+      return TestCacheManagerFactory.createCacheManager(builder);
+   }
+
+   public void testGetAllLoadsMissesAtOnce() {
+      Set<Object> keys = new HashSet<>();
+      Map<Object, Object> expected = new HashMap<>();
+      for (int i = 0; i < NUM_KEYS; i++) {
+         cache.put("k" + i, "v" + i);
+         keys.add("k" + i);
+         if (i % 2 == 0) {
+            expected.put("k" + i, "v" + i);
+         }
+      }
+      // Keep only the even keys in the store, and none of them in memory
+      for (int i = 1; i < NUM_KEYS; i += 2) {
+         cache.remove("k" + i);
+      }
+      cache.getAdvancedCache().getDataContainer().clear();
+
+      AtomicInteger bulkLoads = new AtomicInteger();
+      AtomicInteger singleLoads = new AtomicInteger();
+      PersistenceManager persistenceManager = TestingUtil.extractComponent(cache, PersistenceManager.class);
+      PersistenceManager spyManager = spy(persistenceManager);
+      doAnswer(invocation -> {
+         bulkLoads.incrementAndGet();
+         return invocation.callRealMethod();
+      }).when(spyManager).loadAllFromAllStores(any(), any(InvocationContext.class));
+      doAnswer(invocation -> {
+         singleLoads.incrementAndGet();
+         return invocation.callRealMethod();
+      }).when(spyManager).loadFromAllStores(any(), any(InvocationContext.class));
+      TestingUtil.replaceComponent(cache, PersistenceManager.class, spyManager, true);
+
+      assertEquals(expected, cache.getAdvancedCache().getAll(keys));
+      assertEquals(1, bulkLoads.get());
+      assertEquals(0, singleLoads.get());
+      assertEquals(NUM_KEYS / 2, cache.getAdvancedCache().getDataContainer().size());
+
+      CacheLoaderInterceptor interceptor = TestingUtil.extractComponent(cache, AsyncInterceptorChain.class)
+            .findInterceptorExtending(CacheLoaderInterceptor.class);
+      assertEquals(NUM_KEYS / 2, interceptor.getCacheLoaderLoads());
+      assertEquals(NUM_KEYS / 2, interceptor.getCacheLoaderMisses());
+   }
+}
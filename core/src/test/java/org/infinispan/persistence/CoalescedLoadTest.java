@@ -0,0 +1,74 @@
+package org.infinispan.persistence;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.interceptors.AsyncInterceptorChain;
+import org.infinispan.interceptors.impl.CacheLoaderInterceptor;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
+import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that concurrent reads of a key that is not in memory share a single load from the store.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "persistence.CoalescedLoadTest")
+public class CoalescedLoadTest extends SingleCacheManagerTest {
+   private static final int NUM_READERS = 10;
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.jmxStatistics().enable();
+      builder.persistence().addStore(DummyInMemoryStoreConfigurationBuilder.class).storeName(getClass().getName());
+      return TestCacheManagerFactory.createCacheManager(builder);
+   }
+
+   public void testConcurrentMissesShareLoad() throws Exception {
+      CountDownLatch loadStarted = new CountDownLatch(1);
+      CountDownLatch resumeLoad = new CountDownLatch(1);
+      AtomicInteger loads = new AtomicInteger();
+      PersistenceManager persistenceManager = TestingUtil.extractComponent(cache, PersistenceManager.class);
+      PersistenceManager spyManager = spy(persistenceManager);
+      doAnswer(invocation -> {
+         loads.incrementAndGet();
+         loadStarted.countDown();
+         resumeLoad.await(10, SECONDS);
+         return invocation.callRealMethod();
+      }).when(spyManager).loadFromAllStores(any(), any(InvocationContext.class));
+      TestingUtil.replaceComponent(cache, PersistenceManager.class, spyManager, true);
+
+      CacheLoaderInterceptor interceptor = TestingUtil.extractComponent(cache, AsyncInterceptorChain.class)
+            .findInterceptorExtending(CacheLoaderInterceptor.class);
+      Future<?>[] readers = new Future[NUM_READERS];
+      readers[0] = fork(() -> cache.get("k"));
+      loadStarted.await(10, SECONDS);
+      for (int i = 1; i < NUM_READERS; i++) {
+         readers[i] = fork(() -> cache.get("k"));
+      }
+      eventually(() -> interceptor.getCacheLoaderCoalescedLoads() == NUM_READERS - 1);
+      resumeLoad.countDown();
+      for (Future<?> reader : readers) {
+         assertNull(reader.get(10, SECONDS));
+      }
+
+      assertEquals(1, loads.get());
+      assertEquals(1, interceptor.getCacheLoaderMisses());
+   }
+}
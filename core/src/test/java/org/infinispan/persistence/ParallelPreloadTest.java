@@ -0,0 +1,153 @@
+package org.infinispan.persistence;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.Cache;
+import org.infinispan.compat.TypeConverter;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.StorageType;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.eviction.EvictionStrategy;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
+import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.persistence.manager.PersistenceManagerImpl;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the preload that writes the entries straight into the data container from the persistence executor.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "persistence.ParallelPreloadTest")
+public class ParallelPreloadTest extends SingleCacheManagerTest {
+   private static final int NUM_ENTRIES = 1000;
+   private static final String BOUNDED_CACHE_NAME = "bounded";
+   private static final String OFF_HEAP_CACHE_NAME = "off-heap";
+   private static final String BINARY_CACHE_NAME = "binary";
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      EmbeddedCacheManager cm = TestCacheManagerFactory.createCacheManager(config(false));
+      cm.defineConfiguration(BOUNDED_CACHE_NAME, config(true).build());
+      cm.defineConfiguration(OFF_HEAP_CACHE_NAME, config(StorageType.OFF_HEAP, OFF_HEAP_CACHE_NAME).build());
+      cm.defineConfiguration(BINARY_CACHE_NAME, config(StorageType.BINARY, BINARY_CACHE_NAME).build());
+      return cm;
+   }
+
+   private ConfigurationBuilder config(StorageType storageType, String storeName) {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.memory().storageType(storageType);
+      builder.persistence()
+            .addStore(DummyInMemoryStoreConfigurationBuilder.class)
+            .preload(true)
+            .storeName(getClass().getName() + "-" + storeName);
+      return builder;
+   }
+
+   private ConfigurationBuilder config(boolean bounded) {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.persistence()
+            .addStore(DummyInMemoryStoreConfigurationBuilder.class)
+            .preload(true)
+            .storeName(getClass().getName() + (bounded ? "-bounded" : ""));
+      if (bounded) {
+         builder.eviction().strategy(EvictionStrategy.LRU).size(NUM_ENTRIES / 2);
+      }
+      return builder;
+   }
+
+   public void testPreloadKeepsMetadata() {
+      cache.clear();
+      for (int i = 0; i < NUM_ENTRIES; i++) {
+         if (i % 2 == 0) {
+            cache.put("k" + i, "v" + i);
+         } else {
+            cache.put("k" + i, "v" + i, 1, TimeUnit.HOURS);
+         }
+      }
+      cache.stop();
+      cache.start();
+
+      DataContainer<Object, Object> dataContainer = cache.getAdvancedCache().getDataContainer();
+      assertEquals(NUM_ENTRIES, dataContainer.size());
+      for (int i = 0; i < NUM_ENTRIES; i++) {
+         InternalCacheEntry<Object, Object> entry = dataContainer.get("k" + i);
+         assertEquals("v" + i, entry.getValue());
+         assertEquals(i % 2 == 0 ? -1 : TimeUnit.HOURS.toMillis(1), entry.getLifespan());
+      }
+
+      PersistenceManagerImpl persistenceManager = persistenceManager(cache);
+      assertEquals(NUM_ENTRIES, persistenceManager.getPreloadedEntries());
+      assertFalse(persistenceManager.isPreloading());
+   }
+
+   public void testPreloadStopsAtMaxEntries() {
+      Cache<Object, Object> bounded = cacheManager.getCache(BOUNDED_CACHE_NAME);
+      for (int i = 0; i < NUM_ENTRIES; i++) {
+         bounded.put("k" + i, "v" + i);
+      }
+      bounded.stop();
+      bounded.start();
+
+      assertTrue(bounded.getAdvancedCache().getDataContainer().size() <= NUM_ENTRIES / 2);
+      assertEquals(NUM_ENTRIES / 2, persistenceManager(bounded).getPreloadedEntries());
+   }
+
+   public void testPreloadOffHeap() {
+      testPreloadBoxesEntries(cacheManager.getCache(OFF_HEAP_CACHE_NAME));
+   }
+
+   public void testPreloadBinary() {
+      testPreloadBoxesEntries(cacheManager.getCache(BINARY_CACHE_NAME));
+   }
+
+   public void testPreloadByteArrayKeys() {
+      cache.clear();
+      for (int i = 0; i < NUM_ENTRIES; i++) {
+         cache.put(("k" + i).getBytes(), "v" + i);
+      }
+      cache.stop();
+      cache.start();
+
+      for (int i = 0; i < NUM_ENTRIES; i++) {
+         assertEquals("v" + i, containerValue(cache, ("k" + i).getBytes()));
+      }
+      assertEquals(NUM_ENTRIES, persistenceManager(cache).getPreloadedEntries());
+      cache.clear();
+   }
+
+   private void testPreloadBoxesEntries(Cache<Object, Object> cache) {
+      for (int i = 0; i < NUM_ENTRIES; i++) {
+         cache.put("k" + i, "v" + i);
+      }
+      cache.stop();
+      cache.start();
+
+      assertEquals(NUM_ENTRIES, cache.getAdvancedCache().getDataContainer().size());
+      // The preloaded entries must be found with the boxed keys the cache uses for lookups
+      for (int i = 0; i < NUM_ENTRIES; i++) {
+         assertEquals("v" + i, containerValue(cache, "k" + i));
+      }
+      assertEquals(NUM_ENTRIES, persistenceManager(cache).getPreloadedEntries());
+   }
+
+   private Object containerValue(Cache<?, ?> cache, Object key) {
+      TypeConverter<Object, Object, Object, Object> converter = TestingUtil.extractComponent(cache, TypeConverter.class);
+      DataContainer dataContainer = cache.getAdvancedCache().getDataContainer();
+      InternalCacheEntry entry = dataContainer.get(converter.boxKey(key));
+      return entry == null ? null : converter.unboxValue(entry.getValue());
+   }
+
+   private PersistenceManagerImpl persistenceManager(Cache<?, ?> cache) {
+      return (PersistenceManagerImpl) TestingUtil.extractComponent(cache, PersistenceManager.class);
+   }
+}
@@ -7,6 +7,7 @@
 import static org.testng.AssertJUnit.assertFalse;
 import static org.testng.AssertJUnit.assertNotNull;
 import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
 import static org.testng.AssertJUnit.fail;
 
 import java.lang.reflect.Method;
@@ -16,7 +17,9 @@
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.infinispan.Cache;
@@ -27,6 +30,7 @@
 import org.infinispan.configuration.cache.AsyncStoreConfiguration;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.ModificationQueueFullPolicy;
 import org.infinispan.configuration.cache.PersistenceConfigurationBuilder;
 import org.infinispan.configuration.cache.SingletonStoreConfiguration;
 import org.infinispan.container.entries.InternalCacheEntry;
@@ -499,6 +503,23 @@ public boolean delete(Object key) {
       }
    }
 
+   public static class BatchRecordingStore extends LockableStore {
+      private final AtomicInteger writeBatches = new AtomicInteger();
+      private final AtomicInteger deleteBatches = new AtomicInteger();
+
+      @Override
+      public void writeBatch(Iterable entries) {
+         writeBatches.incrementAndGet();
+         super.writeBatch(entries);
+      }
+
+      @Override
+      public void deleteBatch(Iterable keys) {
+         deleteBatches.incrementAndGet();
+         super.deleteBatch(keys);
+      }
+   }
+
    public void testModificationQueueSize(final Method m) throws Exception {
       LockableStore underlying = new LockableStore();
       ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
@@ -548,6 +569,151 @@ public void run() {
       assertEquals(3, underlying.threads.size());
    }
 
+   public void testModificationQueueFullReject(final Method m) throws Exception {
+      LockableStore underlying = new LockableStore();
+      createLockableWriter(underlying, ModificationQueueFullPolicy.REJECT);
+      try {
+         underlying.lock.lock();
+         try {
+            // Replacing a queued modification does not need more space in the queue
+            for (int i = 0; i < 100; i++)
+               writer.write(new MarshalledEntryImpl(k(m), v(m, i), null, marshaller()));
+
+            try {
+               for (int i = 0; i < 100; i++)
+                  writer.write(new MarshalledEntryImpl(k(m, i), v(m, i), null, marshaller()));
+               fail("The modification queue should be full");
+            } catch (PersistenceException e) {
+               log.trace("Expected exception", e);
+            }
+            assertEquals(1, writer.getRejectedModifications());
+         } finally {
+            underlying.lock.unlock();
+         }
+      } finally {
+         writer.stop();
+      }
+   }
+
+   public void testModificationQueueFullWriteThrough(final Method m) throws Exception {
+      LockableStore underlying = new LockableStore();
+      createLockableWriter(underlying, ModificationQueueFullPolicy.WRITE_THROUGH);
+      Future<Thread> writing;
+      underlying.lock.lock();
+      try {
+         writing = fork(() -> {
+            for (int i = 0; i < 100; i++)
+               writer.write(new MarshalledEntryImpl(k(m, i), v(m, i), null, marshaller()));
+            return Thread.currentThread();
+         });
+         // the background thread and the writing thread are both waiting for the store
+         eventually(() -> underlying.lock.getQueueLength() == 2);
+      } finally {
+         underlying.lock.unlock();
+      }
+      Thread writingThread = writing.get(10, TimeUnit.SECONDS);
+      writer.stop();
+
+      assertTrue(underlying.threads.contains(writingThread));
+      assertTrue(writer.getWriteThroughModifications() > 0);
+      for (int i = 0; i < 100; i++)
+         assertEquals(v(m, i), underlying.load(k(m, i)).getValue());
+   }
+
+   public void testBatchedFlushKeepsTheLastModificationOfEachKey(final Method m) throws Exception {
+      BatchRecordingStore underlying = new BatchRecordingStore();
+      createLockableWriter(underlying, ModificationQueueFullPolicy.BLOCK);
+      try {
+         underlying.lock.lock();
+         try {
+            // hold the first flush in the store, so the following modifications are queued behind it
+            writer.write(new MarshalledEntryImpl(k(m, "held"), v(m, "held"), null, marshaller()));
+            eventually(() -> underlying.lock.getQueueLength() == 1);
+
+            for (int i = 0; i < 6; i++)
+               writer.write(new MarshalledEntryImpl(k(m, i), v(m, i), null, marshaller()));
+            for (int i = 0; i < 6; i += 2)
+               writer.delete(k(m, i));
+            writer.write(new MarshalledEntryImpl(k(m, 0), v(m, "last"), null, marshaller()));
+            writer.delete(k(m, "held"));
+         } finally {
+            underlying.lock.unlock();
+         }
+      } finally {
+         writer.stop();
+      }
+
+      assertEquals(v(m, "last"), underlying.load(k(m, 0)).getValue());
+      for (int i = 1; i < 6; i++) {
+         if (i % 2 == 0)
+            assertNull(underlying.load(k(m, i)));
+         else
+            assertEquals(v(m, i), underlying.load(k(m, i)).getValue());
+      }
+      assertNull(underlying.load(k(m, "held")));
+      assertTrue(underlying.writeBatches.get() > 0);
+      assertTrue(underlying.deleteBatches.get() > 0);
+   }
+
+   public void testOffHeapQueue(final Method m) throws Exception {
+      LockableStore underlying = new LockableStore();
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      LockableStoreConfigurationBuilder lcscsBuilder = (LockableStoreConfigurationBuilder) builder
+            .persistence()
+            .addStore(new LockableStoreConfigurationBuilder(builder.persistence()));
+      lcscsBuilder.async().offHeap(true);
+
+      writer = new AdvancedAsyncCacheWriter(underlying);
+      InitializationContext ctx =
+            PersistenceMockUtil.createContext(getClass().getSimpleName(), builder.build(), marshaller);
+      writer.init(ctx);
+      writer.start();
+      loader = new AdvancedAsyncCacheLoader(underlying, writer.getState());
+      loader.init(ctx);
+      loader.start();
+      underlying.init(ctx);
+      underlying.start();
+      try {
+         underlying.lock.lock();
+         try {
+            for (int i = 0; i < 10; i++)
+               writer.write(new MarshalledEntryImpl(k(m, i), v(m, i), null, marshaller()));
+
+            // the queued entries do not keep the written values, they are unmarshalled again
+            for (int i = 0; i < 10; i++) {
+               MarshalledEntry entry = loader.load(k(m, i));
+               assertEquals(v(m, i), entry.getValue());
+               assertFalse(v(m, i) == entry.getValue());
+               assertNull(entry.getMetadata());
+            }
+         } finally {
+            underlying.lock.unlock();
+         }
+      } finally {
+         writer.stop();
+      }
+      for (int i = 0; i < 10; i++)
+         assertEquals(v(m, i), underlying.load(k(m, i)).getValue());
+   }
+
+   private void createLockableWriter(LockableStore underlying, ModificationQueueFullPolicy policy) {
+      ConfigurationBuilder builder = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      LockableStoreConfigurationBuilder lcscsBuilder = (LockableStoreConfigurationBuilder) builder
+            .persistence()
+            .addStore(new LockableStoreConfigurationBuilder(builder.persistence()));
+      lcscsBuilder.async()
+            .modificationQueueSize(10)
+            .modificationQueueFullPolicy(policy);
+
+      writer = new AdvancedAsyncCacheWriter(underlying);
+      InitializationContext ctx =
+            PersistenceMockUtil.createContext(getClass().getSimpleName(), builder.build(), marshaller);
+      writer.init(ctx);
+      writer.start();
+      underlying.init(ctx);
+      underlying.start();
+   }
+
    private static abstract class OneEntryCacheManagerCallable extends CacheManagerCallable {
       protected final Cache<String, String> cache;
       protected final LockableStore store;
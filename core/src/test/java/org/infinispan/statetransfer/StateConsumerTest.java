@@ -1,7 +1,9 @@
 package org.infinispan.statetransfer;
 
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
@@ -13,6 +15,7 @@
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -28,6 +31,10 @@
 
 import org.infinispan.Cache;
 import org.infinispan.commands.CommandsFactory;
+import org.infinispan.commands.VisitableCommand;
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.commands.write.PutMapCommand;
+import org.infinispan.commons.CacheException;
 import org.infinispan.commons.equivalence.AnyEquivalence;
 import org.infinispan.commons.hash.MurmurHash3;
 import org.infinispan.commons.util.CollectionFactory;
@@ -35,16 +42,19 @@
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
 import org.infinispan.configuration.cache.VersioningScheme;
-import org.infinispan.configuration.global.GlobalConfiguration;
-import org.infinispan.configuration.global.GlobalConfigurationBuilder;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.entries.ImmortalCacheEntry;
 import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.entries.metadata.MetadataMortalCacheEntry;
+import org.infinispan.context.InvocationContext;
 import org.infinispan.context.InvocationContextFactory;
 import org.infinispan.distribution.TestAddress;
 import org.infinispan.distribution.ch.impl.DefaultConsistentHash;
 import org.infinispan.distribution.ch.impl.DefaultConsistentHashFactory;
 import org.infinispan.interceptors.InterceptorChain;
+import org.infinispan.lifecycle.ComponentStatus;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.metadata.Metadata;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
 import org.infinispan.persistence.manager.PersistenceManager;
 import org.infinispan.remoting.inboundhandler.DeliverOrder;
@@ -67,6 +77,8 @@
 import org.infinispan.transaction.impl.TransactionTable;
 import org.infinispan.transaction.totalorder.TotalOrderManager;
 import org.infinispan.util.ByteString;
+import org.infinispan.util.ControlledTimeService;
+import org.infinispan.util.TimeService;
 import org.infinispan.util.concurrent.BlockingTaskAwareExecutorService;
 import org.infinispan.util.concurrent.CommandAckCollector;
 import org.infinispan.util.concurrent.IsolationLevel;
@@ -87,8 +99,23 @@
 public class StateConsumerTest extends AbstractInfinispanTest {
 
    private static final Log log = LogFactory.getLog(StateConsumerTest.class);
+   private static final int CHUNK_BYTES = 3000;
 
    private ExecutorService pooledExecutorService;
+   private PersistentUUIDManager persistentUUIDManager;
+   private Address[] addresses;
+   private DefaultConsistentHash ch1;
+   private DefaultConsistentHash ch2;
+   private DefaultConsistentHash ch3;
+   private DefaultConsistentHash ch23;
+   private Cache cache;
+   private CommandsFactory commandsFactory;
+   private DataContainer dataContainer;
+   private TransactionTable transactionTable;
+   private InterceptorChain interceptorChain;
+   private InvocationContextFactory icf;
+   private Map<Address, Set<Integer>> requestedSegments;
+   private Set<Integer> flatRequestedSegments;
 
    @AfterMethod
    public void tearDown() {
@@ -102,18 +129,160 @@ public void test1() throws Exception {
       ConfigurationBuilder cb = new ConfigurationBuilder();
       cb.clustering().invocationBatching().enable()
             .clustering().cacheMode(CacheMode.DIST_SYNC)
-            .clustering().stateTransfer().timeout(10000)
+            .clustering().stateTransfer().timeout(10000).chunkBytes(CHUNK_BYTES)
             .versioning().enable().scheme(VersioningScheme.SIMPLE)
             .locking().lockAcquisitionTimeout(TestingUtil.shortTimeoutMillis())
             .locking().writeSkewCheck(true).isolationLevel(IsolationLevel.REPEATABLE_READ);
-
-      GlobalConfigurationBuilder gcb = GlobalConfigurationBuilder.defaultClusteredBuilder();
-      GlobalConfiguration globalConfiguration = gcb.build();
       Configuration configuration = cb.build();
-      PersistentUUIDManager persistentUUIDManager = new PersistentUUIDManagerImpl();
+
+      createConsistentHashes();
+      final StateConsumerImpl stateConsumer = createStateConsumer(configuration, TIME_SERVICE);
+
+      final List<InternalCacheEntry> cacheEntries = new ArrayList<InternalCacheEntry>();
+      Object key1 = new TestKey("key1", 0, ch1);
+      Object key2 = new TestKey("key2", 0, ch1);
+      cacheEntries.add(new ImmortalCacheEntry(key1, "value1"));
+      cacheEntries.add(new ImmortalCacheEntry(key2, "value2"));
+      when(dataContainer.iterator()).thenAnswer(new Answer<Iterator<InternalCacheEntry>>() {
+         @Override
+         public Iterator<InternalCacheEntry> answer(InvocationOnMock invocation) {
+            return cacheEntries.iterator();
+         }
+      });
+      when(transactionTable.getLocalTransactions()).thenReturn(Collections.<LocalTransaction>emptyList());
+      when(transactionTable.getRemoteTransactions()).thenReturn(Collections.<RemoteTransaction>emptyList());
+
+      assertFalse(stateConsumer.hasActiveTransfers());
+
+      // node 4 leaves
+      stateConsumer.onTopologyUpdate(new CacheTopology(1, 1, ch2, null, ch2.getMembers(), persistentUUIDManager.mapAddresses(ch2.getMembers())), false);
+      assertFalse(stateConsumer.hasActiveTransfers());
+      assertEquals(CHUNK_BYTES, stateConsumer.getChunkCredit());
+
+      // start a rebalance
+      stateConsumer.onTopologyUpdate(new CacheTopology(2, 2, ch2, ch3, ch23, ch23.getMembers(), persistentUUIDManager.mapAddresses(ch23.getMembers())), true);
+      assertTrue(stateConsumer.hasActiveTransfers());
+
+      // check that all segments have been requested
+      Set<Integer> oldSegments = ch2.getSegmentsForOwner(addresses[0]);
+      final Set<Integer> newSegments = ch3.getSegmentsForOwner(addresses[0]);
+      newSegments.removeAll(oldSegments);
+      log.debugf("Rebalancing. Added segments=%s, old segments=%s", newSegments, oldSegments);
+      assertEquals(flatRequestedSegments, newSegments);
+
+      // the chunk budget is shared between all the nodes sending state
+      assertEquals(CHUNK_BYTES / requestedSegments.size(), stateConsumer.getChunkCredit());
+
+      // simulate a cluster state recovery and return to ch2
+      Future<Object> future = fork(new Callable<Object>() {
+         @Override
+         public Object call() throws Exception {
+            stateConsumer.onTopologyUpdate(new CacheTopology(3, 2, ch2, null, ch2.getMembers(), persistentUUIDManager.mapAddresses(ch2.getMembers())), false);
+            return null;
+         }
+      });
+      stateConsumer.onTopologyUpdate(new CacheTopology(3, 2, ch2, null, ch2.getMembers(), persistentUUIDManager.mapAddresses(ch2.getMembers())), false);
+      future.get();
+      assertFalse(stateConsumer.hasActiveTransfers());
+
+
+      // restart the rebalance
+      requestedSegments.clear();
+      stateConsumer.onTopologyUpdate(new CacheTopology(4, 4, ch2, ch3, ch23, ch23.getMembers(), persistentUUIDManager.mapAddresses(ch23.getMembers())), true);
+      assertTrue(stateConsumer.hasActiveTransfers());
+      assertEquals(flatRequestedSegments, newSegments);
+
+      // apply state
+      ArrayList<StateChunk> stateChunks = new ArrayList<StateChunk>();
+      for (Integer segment : newSegments) {
+         stateChunks.add(new StateChunk(segment, Collections.<InternalCacheEntry>emptyList(), true));
+      }
+      stateConsumer.applyState(addresses[1], 2, stateChunks);
+
+      stateConsumer.stop();
+      assertFalse(stateConsumer.hasActiveTransfers());
+   }
+
+   public void testApplyStateWritesEntriesWithTheSameMetadataTogether() throws Exception {
+      ConfigurationBuilder cb = new ConfigurationBuilder();
+      cb.clustering().cacheMode(CacheMode.DIST_SYNC)
+            .clustering().stateTransfer().timeout(10000).chunkBytes(CHUNK_BYTES);
+      createConsistentHashes();
+      ControlledTimeService timeService = new ControlledTimeService(0);
+      StateConsumerImpl stateConsumer = createStateConsumer(cb.build(), timeService);
+      when(cache.getStatus()).thenReturn(ComponentStatus.RUNNING);
+      when(transactionTable.getLocalTransactions()).thenReturn(Collections.<LocalTransaction>emptyList());
+      when(transactionTable.getRemoteTransactions()).thenReturn(Collections.<RemoteTransaction>emptyList());
+      when(dataContainer.iterator()).thenAnswer(invocation -> Collections.emptyIterator());
+
+      Metadata bulkMetadata = new EmbeddedMetadata.Builder().lifespan(10, TimeUnit.MINUTES).build();
+      Metadata failingMetadata = new EmbeddedMetadata.Builder().lifespan(20, TimeUnit.MINUTES).build();
+      Metadata singleMetadata = new EmbeddedMetadata.Builder().lifespan(30, TimeUnit.MINUTES).build();
+      List<InternalCacheEntry> cacheEntries = new ArrayList<>();
+      for (String key : Arrays.asList("a1", "a2", "a3")) {
+         cacheEntries.add(new MetadataMortalCacheEntry(key, "v", bulkMetadata, 0));
+      }
+      for (String key : Arrays.asList("b1", "b2")) {
+         cacheEntries.add(new MetadataMortalCacheEntry(key, "v", failingMetadata, 0));
+      }
+      cacheEntries.add(new MetadataMortalCacheEntry("c1", "v", singleMetadata, 0));
+
+      List<Metadata> putMapMetadata = Collections.synchronizedList(new ArrayList<>());
+      List<Object> singleKeys = Collections.synchronizedList(new ArrayList<>());
+      List<Object> failingCommands = Collections.synchronizedList(new ArrayList<>());
+      when(commandsFactory.buildPutMapCommand(any(Map.class), any(Metadata.class), anyLong())).thenAnswer(invocation -> {
+         Metadata metadata = (Metadata) invocation.getArguments()[1];
+         putMapMetadata.add(metadata);
+         PutMapCommand command = mock(PutMapCommand.class);
+         if (metadata == failingMetadata) {
+            failingCommands.add(command);
+         }
+         return command;
+      });
+      when(commandsFactory.buildPutKeyValueCommand(any(), any(), any(Metadata.class), anyLong())).thenAnswer(invocation -> {
+         singleKeys.add(invocation.getArguments()[0]);
+         return mock(PutKeyValueCommand.class);
+      });
+      when(icf.createInvocationContext(anyBoolean(), anyInt())).thenReturn(mock(InvocationContext.class));
+      when(icf.createSingleKeyNonTxInvocationContext()).thenReturn(mock(InvocationContext.class));
+      when(interceptorChain.invoke(any(InvocationContext.class), any(VisitableCommand.class))).thenAnswer(invocation -> {
+         timeService.advance(1);
+         if (failingCommands.contains(invocation.getArguments()[1])) {
+            throw new CacheException("Bulk write failed");
+         }
+         return null;
+      });
+
+      // start a rebalance, all the segments added to node 0 are requested
+      stateConsumer.onTopologyUpdate(new CacheTopology(1, 1, ch2, null, ch2.getMembers(), persistentUUIDManager.mapAddresses(ch2.getMembers())), false);
+      stateConsumer.onTopologyUpdate(new CacheTopology(2, 2, ch2, ch3, ch23, ch23.getMembers(), persistentUUIDManager.mapAddresses(ch23.getMembers())), true);
+      assertTrue(stateConsumer.hasActiveTransfers());
+      Set<Integer> newSegments = ch3.getSegmentsForOwner(addresses[0]);
+      newSegments.removeAll(ch2.getSegmentsForOwner(addresses[0]));
+      int segment = newSegments.iterator().next();
+
+      stateConsumer.applyState(addresses[1], 2, Collections.singletonList(new StateChunk(segment, cacheEntries, false)));
+
+      // one bulk write per metadata shared by several entries, the failed one is retried entry by entry
+      assertEquals(2, putMapMetadata.size());
+      assertTrue(putMapMetadata.contains(bulkMetadata));
+      assertTrue(putMapMetadata.contains(failingMetadata));
+      assertEquals(new HashSet<>(Arrays.asList("b1", "b2", "c1")), new HashSet<>(singleKeys));
+      assertEquals(3, singleKeys.size());
+
+      assertEquals(6, stateConsumer.getAppliedEntries());
+      // 2 bulk writes and 3 single writes, each one taking 1 millisecond
+      assertEquals(5, stateConsumer.getApplyTime(TimeUnit.MILLISECONDS));
+      assertEquals(Long.valueOf(6), stateConsumer.getInboundSegmentProgress().get(segment));
+
+      stateConsumer.stop();
+   }
+
+   private void createConsistentHashes() {
+      persistentUUIDManager = new PersistentUUIDManagerImpl();
 
       // create list of 6 members
-      Address[] addresses = new Address[4];
+      addresses = new Address[4];
       for (int i = 0; i < 4; i++) {
          addresses[i] = new TestAddress(i);
          persistentUUIDManager.addPersistentAddressMapping(addresses[i], PersistentUUID.randomUUID());
@@ -123,16 +292,18 @@ public void test1() throws Exception {
 
       // create CHes
       DefaultConsistentHashFactory chf = new DefaultConsistentHashFactory();
-      DefaultConsistentHash ch1 = chf.create(MurmurHash3.getInstance(), 2, 40, members1, null);
-      final DefaultConsistentHash ch2 = chf.updateMembers(ch1, members2, null);
-      DefaultConsistentHash ch3 = chf.rebalance(ch2);
-      DefaultConsistentHash ch23 = chf.union(ch2, ch3);
+      ch1 = chf.create(MurmurHash3.getInstance(), 2, 40, members1, null);
+      ch2 = chf.updateMembers(ch1, members2, null);
+      ch3 = chf.rebalance(ch2);
+      ch23 = chf.union(ch2, ch3);
 
       log.debug(ch1);
       log.debug(ch2);
+   }
 
+   private StateConsumerImpl createStateConsumer(Configuration configuration, TimeService timeService) {
       // create dependencies
-      Cache cache = mock(Cache.class);
+      cache = mock(Cache.class);
       when(cache.getName()).thenReturn("testCache");
 
       ThreadFactory threadFactory = new ThreadFactory() {
@@ -150,13 +321,13 @@ public Thread newThread(Runnable r) {
       CacheNotifier cacheNotifier = mock(CacheNotifier.class);
       RpcManager rpcManager = mock(RpcManager.class);
       Transport transport = mock(Transport.class);
-      CommandsFactory commandsFactory = mock(CommandsFactory.class);
+      commandsFactory = mock(CommandsFactory.class);
       PersistenceManager persistenceManager = mock(PersistenceManager.class);
-      DataContainer dataContainer = mock(DataContainer.class);
-      TransactionTable transactionTable = mock(TransactionTable.class);
+      dataContainer = mock(DataContainer.class);
+      transactionTable = mock(TransactionTable.class);
       StateTransferLock stateTransferLock = mock(StateTransferLock.class);
-      InterceptorChain interceptorChain = mock(InterceptorChain.class);
-      InvocationContextFactory icf = mock(InvocationContextFactory.class);
+      interceptorChain = mock(InterceptorChain.class);
+      icf = mock(InvocationContextFactory.class);
       TotalOrderManager totalOrderManager = mock(TotalOrderManager.class);
       BlockingTaskAwareExecutorService remoteCommandsExecutor = mock(BlockingTaskAwareExecutorService.class);
 
@@ -171,8 +342,8 @@ public StateRequestCommand answer(InvocationOnMock invocation) {
       when(rpcManager.getAddress()).thenReturn(addresses[0]);
       when(rpcManager.getTransport()).thenReturn(transport);
 
-      final Map<Address, Set<Integer>> requestedSegments = CollectionFactory.makeConcurrentMap();
-      final Set<Integer> flatRequestedSegments = new ConcurrentSkipListSet<Integer>();
+      requestedSegments = CollectionFactory.makeConcurrentMap();
+      flatRequestedSegments = new ConcurrentSkipListSet<Integer>();
       when(rpcManager.invokeRemotely(any(Collection.class), any(StateRequestCommand.class), any(RpcOptions.class)))
             .thenAnswer(new Answer<Map<Address, Response>>() {
                @Override
@@ -203,70 +374,11 @@ public RpcOptionsBuilder answer(InvocationOnMock invocation) {
 
 
       // create state provider
-      final StateConsumerImpl stateConsumer = new StateConsumerImpl();
+      StateConsumerImpl stateConsumer = new StateConsumerImpl();
       stateConsumer.init(cache, pooledExecutorService, stateTransferManager, interceptorChain, icf, configuration, rpcManager, null,
             commandsFactory, persistenceManager, dataContainer, transactionTable, stateTransferLock, cacheNotifier,
-            totalOrderManager, remoteCommandsExecutor, new CommitManager(), new CommandAckCollector());
+            totalOrderManager, remoteCommandsExecutor, new CommitManager(), new CommandAckCollector(), timeService);
       stateConsumer.start();
-
-      final List<InternalCacheEntry> cacheEntries = new ArrayList<InternalCacheEntry>();
-      Object key1 = new TestKey("key1", 0, ch1);
-      Object key2 = new TestKey("key2", 0, ch1);
-      cacheEntries.add(new ImmortalCacheEntry(key1, "value1"));
-      cacheEntries.add(new ImmortalCacheEntry(key2, "value2"));
-      when(dataContainer.iterator()).thenAnswer(new Answer<Iterator<InternalCacheEntry>>() {
-         @Override
-         public Iterator<InternalCacheEntry> answer(InvocationOnMock invocation) {
-            return cacheEntries.iterator();
-         }
-      });
-      when(transactionTable.getLocalTransactions()).thenReturn(Collections.<LocalTransaction>emptyList());
-      when(transactionTable.getRemoteTransactions()).thenReturn(Collections.<RemoteTransaction>emptyList());
-
-      assertFalse(stateConsumer.hasActiveTransfers());
-
-      // node 4 leaves
-      stateConsumer.onTopologyUpdate(new CacheTopology(1, 1, ch2, null, ch2.getMembers(), persistentUUIDManager.mapAddresses(ch2.getMembers())), false);
-      assertFalse(stateConsumer.hasActiveTransfers());
-
-      // start a rebalance
-      stateConsumer.onTopologyUpdate(new CacheTopology(2, 2, ch2, ch3, ch23, ch23.getMembers(), persistentUUIDManager.mapAddresses(ch23.getMembers())), true);
-      assertTrue(stateConsumer.hasActiveTransfers());
-
-      // check that all segments have been requested
-      Set<Integer> oldSegments = ch2.getSegmentsForOwner(addresses[0]);
-      final Set<Integer> newSegments = ch3.getSegmentsForOwner(addresses[0]);
-      newSegments.removeAll(oldSegments);
-      log.debugf("Rebalancing. Added segments=%s, old segments=%s", newSegments, oldSegments);
-      assertEquals(flatRequestedSegments, newSegments);
-
-      // simulate a cluster state recovery and return to ch2
-      Future<Object> future = fork(new Callable<Object>() {
-         @Override
-         public Object call() throws Exception {
-            stateConsumer.onTopologyUpdate(new CacheTopology(3, 2, ch2, null, ch2.getMembers(), persistentUUIDManager.mapAddresses(ch2.getMembers())), false);
-            return null;
-         }
-      });
-      stateConsumer.onTopologyUpdate(new CacheTopology(3, 2, ch2, null, ch2.getMembers(), persistentUUIDManager.mapAddresses(ch2.getMembers())), false);
-      future.get();
-      assertFalse(stateConsumer.hasActiveTransfers());
-
-
-      // restart the rebalance
-      requestedSegments.clear();
-      stateConsumer.onTopologyUpdate(new CacheTopology(4, 4, ch2, ch3, ch23, ch23.getMembers(), persistentUUIDManager.mapAddresses(ch23.getMembers())), true);
-      assertTrue(stateConsumer.hasActiveTransfers());
-      assertEquals(flatRequestedSegments, newSegments);
-
-      // apply state
-      ArrayList<StateChunk> stateChunks = new ArrayList<StateChunk>();
-      for (Integer segment : newSegments) {
-         stateChunks.add(new StateChunk(segment, Collections.<InternalCacheEntry>emptyList(), true));
-      }
-      stateConsumer.applyState(addresses[1], 2, stateChunks);
-
-      stateConsumer.stop();
-      assertFalse(stateConsumer.hasActiveTransfers());
+      return stateConsumer;
    }
 }
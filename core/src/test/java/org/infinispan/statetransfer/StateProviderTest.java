@@ -26,6 +26,8 @@
 import org.infinispan.Cache;
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commons.hash.MurmurHash3;
+import org.infinispan.commons.marshall.BufferSizePredictor;
+import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.configuration.cache.CacheMode;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
@@ -40,8 +42,11 @@
 import org.infinispan.notifications.cachelistener.cluster.ClusterCacheNotifier;
 import org.infinispan.persistence.manager.PersistenceManager;
 import org.infinispan.remoting.inboundhandler.DeliverOrder;
+import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.responses.SuccessfulResponse;
 import org.infinispan.remoting.rpc.ResponseMode;
 import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.rpc.RpcOptions;
 import org.infinispan.remoting.rpc.RpcOptionsBuilder;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.test.TestingUtil;
@@ -53,6 +58,8 @@
 import org.infinispan.transaction.impl.RemoteTransaction;
 import org.infinispan.transaction.impl.TransactionTable;
 import org.infinispan.util.ByteString;
+import org.infinispan.util.ControlledTimeService;
+import org.infinispan.util.DefaultTimeService;
 import org.infinispan.util.concurrent.IsolationLevel;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
@@ -99,6 +106,7 @@ public class StateProviderTest {
    private StateConsumer stateConsumer;
    private CacheTopology cacheTopology;
    private InternalEntryFactory ef;
+   private StreamingMarshaller marshaller;
 
    @BeforeClass
    public void setUp() {
@@ -132,6 +140,7 @@ public Thread newThread(Runnable r) {
       stateTransferLock = mock(StateTransferLock.class);
       stateConsumer = mock(StateConsumer.class);
       ef = mock(InternalEntryFactory.class);
+      marshaller = mock(StreamingMarshaller.class);
       when(stateConsumer.getCacheTopology()).thenAnswer(new Answer<CacheTopology>() {
          @Override
          public CacheTopology answer(InvocationOnMock invocation) {
@@ -176,7 +185,7 @@ public RpcOptionsBuilder answer(InvocationOnMock invocation) {
       StateProviderImpl stateProvider = new StateProviderImpl();
       stateProvider.init(cache, mockExecutorService,
             configuration, rpcManager, commandsFactory, cacheNotifier, persistenceManager,
-            dataContainer, transactionTable, stateTransferLock, stateConsumer, ef);
+            dataContainer, transactionTable, stateTransferLock, stateConsumer, ef, marshaller, new DefaultTimeService());
 
       final List<InternalCacheEntry> cacheEntries = new ArrayList<InternalCacheEntry>();
       Object key1 = new TestKey("key1", 0, ch1);
@@ -285,7 +294,7 @@ public RpcOptionsBuilder answer(InvocationOnMock invocation) {
       StateProviderImpl stateProvider = new StateProviderImpl();
       stateProvider.init(cache, mockExecutorService,
             configuration, rpcManager, commandsFactory, cacheNotifier, persistenceManager,
-            dataContainer, transactionTable, stateTransferLock, stateConsumer, ef);
+            dataContainer, transactionTable, stateTransferLock, stateConsumer, ef, marshaller, new DefaultTimeService());
 
       final List<InternalCacheEntry> cacheEntries = new ArrayList<InternalCacheEntry>();
       Object key1 = new TestKey("key1", 0, ch1);
@@ -341,4 +350,82 @@ public Iterator<InternalCacheEntry> answer(InvocationOnMock invocation) {
 
       assertFalse(stateProvider.isStateTransferInProgress());
    }
+
+   public void testChunkClosesAtCredit() {
+      DefaultConsistentHash ch = new DefaultConsistentHashFactory().create(MurmurHash3.getInstance(), 2, 4,
+            Arrays.<Address>asList(A, B), null);
+      ConfigurationBuilder cb = new ConfigurationBuilder();
+      cb.clustering().cacheMode(CacheMode.DIST_SYNC).stateTransfer().chunkBytes(250);
+
+      RpcManager rpcManager = mock(RpcManager.class);
+      CommandsFactory commandsFactory = mock(CommandsFactory.class);
+      DataContainer dataContainer = mock(DataContainer.class);
+      StreamingMarshaller marshaller = mock(StreamingMarshaller.class);
+      BufferSizePredictor predictor = mock(BufferSizePredictor.class);
+      when(marshaller.getBufferSizePredictor(any())).thenReturn(predictor);
+      when(predictor.nextSize(any())).thenReturn(10);
+      when(rpcManager.getAddress()).thenReturn(A);
+      when(rpcManager.getRpcOptionsBuilder(any(ResponseMode.class))).thenAnswer(invocation ->
+            new RpcOptionsBuilder(10000, TimeUnit.MILLISECONDS, (ResponseMode) invocation.getArguments()[0], DeliverOrder.PER_SENDER));
+
+      final List<Integer> chunkEntries = new ArrayList<>();
+      when(commandsFactory.buildStateResponseCommand(any(Address.class), anyInt(), any(Collection.class))).thenAnswer(invocation -> {
+         Collection<StateChunk> chunks = (Collection<StateChunk>) invocation.getArguments()[2];
+         chunkEntries.add(chunks.stream().mapToInt(chunk -> chunk.getCacheEntries().size()).sum());
+         return new StateResponseCommand(ByteString.fromString("testCache"), A, 1, chunks);
+      });
+      // The destination lowers the credit after every chunk
+      when(rpcManager.invokeRemotely(any(Collection.class), any(StateResponseCommand.class), any(RpcOptions.class)))
+            .thenReturn(Collections.<Address, Response>singletonMap(B, SuccessfulResponse.create(120)));
+
+      final List<InternalCacheEntry> cacheEntries = new ArrayList<>();
+      char[] value = new char[100];
+      Arrays.fill(value, 'v');
+      for (int i = 0; i < 6; i++) {
+         cacheEntries.add(new ImmortalCacheEntry(new TestKey("key" + i, 0, ch), new String(value)));
+      }
+      when(dataContainer.iterator()).thenAnswer(invocation -> cacheEntries.iterator());
+
+      StateProviderImpl stateProvider = new StateProviderImpl();
+      stateProvider.init(cache, mockExecutorService,
+            cb.build(), rpcManager, commandsFactory, cacheNotifier, persistenceManager,
+            dataContainer, transactionTable, stateTransferLock, stateConsumer, ef, marshaller, new DefaultTimeService());
+
+      OutboundTransferTask task = new OutboundTransferTask(B, Collections.singleton(0), 512, 250, 1, ch, stateProvider,
+            dataContainer, persistenceManager, rpcManager, commandsFactory, ef, marshaller, 10000, "testCache");
+      task.run();
+
+      // Each entry is estimated at 110 bytes: 3 entries reach the initial credit of 250 bytes, then 2 entries reach the
+      // credit of 120 bytes returned by the destination, and the last chunk holds the remaining entry
+      assertEquals(Arrays.asList(3, 2, 1), chunkEntries);
+   }
+
+   public void testBandwidthDelaysChunks() {
+      ConfigurationBuilder cb = new ConfigurationBuilder();
+      cb.clustering().cacheMode(CacheMode.DIST_SYNC).stateTransfer().maxBandwidth(1000);
+      ControlledTimeService timeService = new ControlledTimeService(0);
+
+      StateProviderImpl stateProvider = new StateProviderImpl();
+      stateProvider.init(cache, mockExecutorService,
+            cb.build(), rpcManager, commandsFactory, cacheNotifier, persistenceManager,
+            dataContainer, transactionTable, stateTransferLock, stateConsumer, ef, marshaller, timeService);
+      assertTrue(stateProvider.isBandwidthLimited());
+
+      // The first chunk is sent straight away, the next ones when the previous ones are done at 1000 bytes/s
+      assertEquals(0, stateProvider.reserveBandwidth(500));
+      assertEquals(TimeUnit.MILLISECONDS.toNanos(500), stateProvider.reserveBandwidth(500));
+      timeService.advance(200);
+      assertEquals(TimeUnit.MILLISECONDS.toNanos(800), stateProvider.reserveBandwidth(500));
+      // The bandwidth that was not used in the past can't be used later
+      timeService.advance(2000);
+      assertEquals(0, stateProvider.reserveBandwidth(500));
+      assertEquals(TimeUnit.MILLISECONDS.toNanos(500), stateProvider.reserveBandwidth(500));
+
+      StateProviderImpl unlimited = new StateProviderImpl();
+      unlimited.init(cache, mockExecutorService,
+            configuration, rpcManager, commandsFactory, cacheNotifier, persistenceManager,
+            dataContainer, transactionTable, stateTransferLock, stateConsumer, ef, marshaller, timeService);
+      assertFalse(unlimited.isBandwidthLimited());
+      assertEquals(0, unlimited.reserveBandwidth(500));
+   }
 }
@@ -14,6 +14,8 @@
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.global.GlobalConfiguration;
 import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.distribution.ch.KeyPartitioner;
+import org.infinispan.distribution.ch.impl.HashFunctionPartitioner;
 import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.factories.GlobalComponentRegistry;
 import org.infinispan.lifecycle.ComponentStatus;
@@ -38,8 +40,11 @@ public static InitializationContext createContext(String cacheName, Configuratio
 
    public static InitializationContext createContext(String cacheName, Configuration configuration, StreamingMarshaller marshaller, TimeService timeService) {
       Cache mockCache = mockCache(cacheName, configuration, timeService);
+      KeyPartitioner keyPartitioner = new HashFunctionPartitioner();
+      keyPartitioner.init(configuration.clustering().hash());
       return new InitializationContextImpl(configuration.persistence().stores().get(0), mockCache, marshaller,
-                                           timeService, new ByteBufferFactoryImpl(), new MarshalledEntryFactoryImpl(marshaller));
+                                           timeService, new ByteBufferFactoryImpl(), new MarshalledEntryFactoryImpl(marshaller),
+                                           keyPartitioner);
    }
 
    public static Cache mockCache(String name, Configuration configuration) {
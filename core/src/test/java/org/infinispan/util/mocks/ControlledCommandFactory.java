@@ -81,6 +81,8 @@
 import org.infinispan.functional.impl.Params;
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.metadata.Metadata;
+import org.infinispan.notifications.cachelistener.cluster.ClusterEvent;
+import org.infinispan.notifications.cachelistener.cluster.ClusterEventCommand;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.statetransfer.StateChunk;
 import org.infinispan.statetransfer.StateRequestCommand;
@@ -480,4 +482,9 @@ public ExceptionAckCommand buildExceptionAckCommand(CommandInvocationId id, Thro
    public BackupWriteRcpCommand buildBackupWriteRcpCommand(DataWriteCommand command) {
       return actual.buildBackupWriteRcpCommand(command);
    }
+
+   @Override
+   public <K, V> ClusterEventCommand<K, V> buildClusterEventCommand(Map<UUID, Collection<ClusterEvent<K, V>>> events) {
+      return actual.buildClusterEventCommand(events);
+   }
 }
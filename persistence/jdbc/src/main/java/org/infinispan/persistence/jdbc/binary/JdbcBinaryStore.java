@@ -310,30 +310,74 @@ public void prepareWithModifications(Transaction transaction, BatchModification
       try {
          Connection connection = getTxConnection(transaction);
          connection.setAutoCommit(false);
+         writeBuckets(connection, batchModification);
+      } catch (SQLException | InterruptedException e) {
+         throw log.prepareTxFailure(e);
+      }
+   }
 
-         // We load all existing buckets up front to prevent multiple SQL statements loading/writing the same bucket
-         Map<Integer, Bucket> existingBuckets = getExistingBuckets(connection, batchModification);
-         Set<Bucket> newBuckets = updateAndCreateBuckets(batchModification.getMarshalledEntries(),
-                                                         batchModification.getKeysToRemove(), existingBuckets);
-
-         // Write changes to DB
-         try (PreparedStatement insertBatch = connection.prepareStatement(tableManager.getInsertRowSql());
-              PreparedStatement updateBatch = connection.prepareStatement(tableManager.getUpdateRowSql())) {
-
-            for (Bucket bucket : existingBuckets.values()) {
-               if (newBuckets.contains(bucket)) {
-                  prepareWriteStatement(insertBatch, bucket, tableManager.getInsertRowSql());
-                  insertBatch.addBatch();
-               } else {
-                  prepareWriteStatement(updateBatch, bucket, tableManager.getUpdateRowSql());
-                  updateBatch.addBatch();
-               }
+   /**
+    * Like {@link #prepareWithModifications(Transaction, BatchModification)}, every affected bucket is loaded and
+    * written only once, and all the buckets are written in a single local transaction.
+    */
+   @Override
+   public void writeBatch(Iterable<MarshalledEntry<? extends K, ? extends V>> entries) {
+      Set<Object> affectedKeys = new HashSet<>();
+      BatchModification batchModification = new BatchModification(affectedKeys);
+      for (MarshalledEntry<? extends K, ? extends V> entry : entries) {
+         affectedKeys.add(entry.getKey());
+         batchModification.addMarshalledEntry(entry.getKey(), entry);
+      }
+      writeBatch(batchModification);
+   }
+
+   @Override
+   public void deleteBatch(Iterable<Object> keys) {
+      Set<Object> affectedKeys = new HashSet<>();
+      BatchModification batchModification = new BatchModification(affectedKeys);
+      for (Object key : keys) {
+         affectedKeys.add(key);
+         batchModification.removeEntry(key);
+      }
+      writeBatch(batchModification);
+   }
+
+   private void writeBatch(BatchModification batchModification) {
+      if (batchModification.getAffectedKeys().isEmpty())
+         return;
+
+      try {
+         executeInTransaction(connection -> writeBuckets(connection, batchModification));
+      } catch (SQLException e) {
+         log.sqlFailureStoringKeys(e);
+         throw new PersistenceException("SQL error while storing a batch of buckets", e);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new PersistenceException("Interrupted while storing a batch of buckets", e);
+      }
+   }
+
+   private void writeBuckets(Connection connection, BatchModification batchModification) throws SQLException, InterruptedException {
+      // We load all existing buckets up front to prevent multiple SQL statements loading/writing the same bucket
+      Map<Integer, Bucket> existingBuckets = getExistingBuckets(connection, batchModification);
+      Set<Bucket> newBuckets = updateAndCreateBuckets(batchModification.getMarshalledEntries(),
+                                                      batchModification.getKeysToRemove(), existingBuckets);
+
+      // Write changes to DB
+      try (PreparedStatement insertBatch = connection.prepareStatement(tableManager.getInsertRowSql());
+           PreparedStatement updateBatch = connection.prepareStatement(tableManager.getUpdateRowSql())) {
+
+         for (Bucket bucket : existingBuckets.values()) {
+            if (newBuckets.contains(bucket)) {
+               prepareWriteStatement(insertBatch, bucket, tableManager.getInsertRowSql());
+               insertBatch.addBatch();
+            } else {
+               prepareWriteStatement(updateBatch, bucket, tableManager.getUpdateRowSql());
+               updateBatch.addBatch();
             }
-            insertBatch.executeBatch();
-            updateBatch.executeBatch();
          }
-      } catch (SQLException | InterruptedException e) {
-         throw log.prepareTxFailure(e);
+         insertBatch.executeBatch();
+         updateBatch.executeBatch();
       }
    }
 
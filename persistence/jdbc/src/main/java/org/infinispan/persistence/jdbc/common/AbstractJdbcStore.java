@@ -150,6 +150,37 @@ protected void destroyTxConnection(Transaction tx) {
          connectionFactory.releaseConnection(connection);
    }
 
+   /**
+    * Runs the statements of a batch in a local transaction of their own, so that either all or none of them are
+    * applied.  The auto-commit mode of the connection is restored before it is released.
+    */
+   protected void executeInTransaction(BatchTask task) throws SQLException, InterruptedException {
+      Connection connection = connectionFactory.getConnection();
+      try {
+         boolean autoCommit = connection.getAutoCommit();
+         connection.setAutoCommit(false);
+         try {
+            task.execute(connection);
+            connection.commit();
+         } catch (SQLException | InterruptedException | RuntimeException e) {
+            try {
+               connection.rollback();
+            } catch (SQLException rollbackException) {
+               e.addSuppressed(rollbackException);
+            }
+            throw e;
+         } finally {
+            connection.setAutoCommit(autoCommit);
+         }
+      } finally {
+         connectionFactory.releaseConnection(connection);
+      }
+   }
+
+   protected interface BatchTask {
+      void execute(Connection connection) throws SQLException, InterruptedException;
+   }
+
    /**
     * Keeps a reference to the connection factory for further use. Also initializes the {@link
     * TableManager} that needs connections. This method should be called when you don't
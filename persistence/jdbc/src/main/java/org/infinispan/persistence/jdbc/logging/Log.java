@@ -170,4 +170,8 @@ public interface Log extends org.infinispan.util.logging.Log {
    @Message(value = "Unable to notify the PurgeListener of expired cache entries as the configured key2StringMapper " +
          "does not implement %s", id = 8036)
    void twoWayKey2StringMapperIsMissing(String className);
+
+   @LogMessage(level = ERROR)
+   @Message(value = "SQL error while fetching a batch of stored entries", id = 8037)
+   void sqlFailureReadingKeys(@Cause SQLException e);
 }
@@ -8,6 +8,11 @@
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Executor;
 
 import javax.transaction.Transaction;
@@ -224,6 +229,59 @@ public MarshalledEntry load(Object key) {
       return storedValue;
    }
 
+   @Override
+   public Map<Object, MarshalledEntry<K, V>> loadAll(Set<Object> keys) {
+      Map<String, Object> lockingKeys = new HashMap<>(keys.size());
+      for (Object key : keys) {
+         lockingKeys.put(key2Str(key), key);
+      }
+      Map<Object, MarshalledEntry<K, V>> entries = new HashMap<>(keys.size());
+      List<String> chunk = new ArrayList<>(tableManager.getBatchSize());
+      Connection conn = null;
+      try {
+         conn = connectionFactory.getConnection();
+         for (String lockingKey : lockingKeys.keySet()) {
+            chunk.add(lockingKey);
+            if (chunk.size() == tableManager.getBatchSize()) {
+               loadAll(conn, chunk, lockingKeys, entries);
+               chunk.clear();
+            }
+         }
+         if (!chunk.isEmpty()) {
+            loadAll(conn, chunk, lockingKeys, entries);
+         }
+      } catch (SQLException e) {
+         log.sqlFailureReadingKeys(e);
+         throw new PersistenceException("SQL error while fetching a batch of stored entries", e);
+      } finally {
+         connectionFactory.releaseConnection(conn);
+      }
+      return entries;
+   }
+
+   private void loadAll(Connection conn, List<String> lockingKeys, Map<String, Object> keys,
+                        Map<Object, MarshalledEntry<K, V>> entries) throws SQLException {
+      long now = ctx.getTimeService().wallClockTime();
+      try (PreparedStatement ps = conn.prepareStatement(tableManager.getSelectMultipleRowSql(lockingKeys.size()))) {
+         int count = 0;
+         for (String lockingKey : lockingKeys) {
+            ps.setString(++count, lockingKey);
+         }
+         try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+               Object key = keys.get(rs.getString(1));
+               InputStream inputStream = rs.getBinaryStream(2);
+               KeyValuePair<ByteBuffer, ByteBuffer> icv = unmarshall(inputStream);
+               MarshalledEntry<K, V> storedValue = ctx.getMarshalledEntryFactory().newMarshalledEntry(key,
+                     icv.getKey(), icv.getValue());
+               if (storedValue.getMetadata() == null || !storedValue.getMetadata().isExpired(now)) {
+                  entries.put(key, storedValue);
+               }
+            }
+         }
+      }
+   }
+
    @Override
    public boolean delete(Object key) {
       Connection connection = null;
@@ -360,37 +418,71 @@ public void prepareWithModifications(Transaction transaction, BatchModification
       try {
          Connection connection = getTxConnection(transaction);
          connection.setAutoCommit(false);
+         writeBatch(connection, batchModification.getMarshalledEntries());
+         deleteBatch(connection, batchModification.getKeysToRemove());
+         // We do not call connection.close() in the event of an exception, as close() on active Tx behaviour is implementation
+         // dependent. See https://docs.oracle.com/javase/8/docs/api/java/sql/Connection.html#close--
+      } catch (SQLException | InterruptedException e) {
+         throw log.prepareTxFailure(e);
+      }
+   }
 
-         boolean upsertSupported = tableManager.isUpsertSupported();
-         try (PreparedStatement upsertBatch = upsertSupported ? connection.prepareStatement(tableManager.getUpsertRowSql()) : null;
-              PreparedStatement deleteBatch = connection.prepareStatement(tableManager.getDeleteRowSql())) {
-
-            for (MarshalledEntry entry : batchModification.getMarshalledEntries()) {
-               if (upsertSupported) {
-                  String keyStr = key2Str(entry.getKey());
-                  prepareUpdateStatement(entry, keyStr, upsertBatch);
-                  upsertBatch.addBatch();
-               } else {
-                  write(entry, connection);
-               }
-            }
+   @Override
+   public void writeBatch(Iterable<MarshalledEntry<? extends K, ? extends V>> entries) {
+      try {
+         executeInTransaction(connection -> writeBatch(connection, entries));
+      } catch (SQLException ex) {
+         log.sqlFailureStoringKeys(ex);
+         throw new PersistenceException("Error while storing a batch of string keys to database", ex);
+      } catch (InterruptedException e) {
+         if (trace) {
+            log.trace("Interrupted while marshalling to store");
+         }
+         Thread.currentThread().interrupt();
+      }
+   }
 
-            for (Object key : batchModification.getKeysToRemove()) {
-               String keyStr = key2Str(key);
-               deleteBatch.setString(1, keyStr);
-               deleteBatch.addBatch();
-            }
+   @Override
+   public void deleteBatch(Iterable<Object> keys) {
+      try {
+         executeInTransaction(connection -> deleteBatch(connection, keys));
+      } catch (SQLException ex) {
+         log.sqlFailureRemovingKeys(ex);
+         throw new PersistenceException("Error while removing a batch of string keys from database", ex);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+   }
 
-            if (upsertSupported && !batchModification.getMarshalledEntries().isEmpty())
-               upsertBatch.executeBatch();
+   private void writeBatch(Connection connection, Iterable<? extends MarshalledEntry> entries) throws SQLException, InterruptedException {
+      if (!tableManager.isUpsertSupported()) {
+         for (MarshalledEntry entry : entries) {
+            write(entry, connection);
+         }
+         return;
+      }
+      try (PreparedStatement upsertBatch = connection.prepareStatement(tableManager.getUpsertRowSql())) {
+         boolean empty = true;
+         for (MarshalledEntry entry : entries) {
+            prepareUpdateStatement(entry, key2Str(entry.getKey()), upsertBatch);
+            upsertBatch.addBatch();
+            empty = false;
+         }
+         if (!empty)
+            upsertBatch.executeBatch();
+      }
+   }
 
-            if (!batchModification.getKeysToRemove().isEmpty())
-               deleteBatch.executeUpdate();
+   private void deleteBatch(Connection connection, Iterable<?> keys) throws SQLException {
+      try (PreparedStatement deleteBatch = connection.prepareStatement(tableManager.getDeleteRowSql())) {
+         boolean empty = true;
+         for (Object key : keys) {
+            deleteBatch.setString(1, key2Str(key));
+            deleteBatch.addBatch();
+            empty = false;
          }
-         // We do not call connection.close() in the event of an exception, as close() on active Tx behaviour is implementation
-         // dependent. See https://docs.oracle.com/javase/8/docs/api/java/sql/Connection.html#close--
-      } catch (SQLException | InterruptedException e) {
-         throw log.prepareTxFailure(e);
+         if (!empty)
+            deleteBatch.executeBatch();
       }
    }
 
@@ -2,9 +2,13 @@
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
+import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertNull;
 
 import java.io.IOException;
+import java.util.HashSet;
+
+import javax.transaction.Transaction;
 
 import org.infinispan.configuration.cache.ConfigurationBuilder;
 import org.infinispan.persistence.BaseStoreTest;
@@ -15,6 +19,7 @@
 import org.infinispan.persistence.keymappers.UnsupportedKeyTypeException;
 import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
 import org.infinispan.persistence.spi.PersistenceException;
+import org.infinispan.persistence.support.BatchModification;
 import org.infinispan.test.fwk.TestCacheManagerFactory;
 import org.infinispan.test.fwk.UnitTestDatabaseManager;
 import org.testng.annotations.Test;
@@ -74,6 +79,27 @@ public void testNotCreateConnectionFactory() throws Exception {
       stringBasedCacheStore.stop();
    }
 
+   public void testPrepareWithModifications() throws Exception {
+      JdbcStringBasedStore store = (JdbcStringBasedStore) cl;
+      cl.write(marshalledEntry(internalCacheEntry("k1", "v1", -1)));
+      cl.write(marshalledEntry(internalCacheEntry("k2", "v2", -1)));
+      cl.write(marshalledEntry(internalCacheEntry("k3", "v3", -1)));
+
+      BatchModification modification = new BatchModification(new HashSet<>());
+      modification.addMarshalledEntry("k1", marshalledEntry(internalCacheEntry("k1", "u1", -1)));
+      modification.addMarshalledEntry("k4", marshalledEntry(internalCacheEntry("k4", "v4", -1)));
+      modification.removeEntry("k2");
+      modification.removeEntry("k3");
+      Transaction tx = mock(Transaction.class);
+      store.prepareWithModifications(tx, modification);
+      store.commit(tx);
+
+      assertEquals("u1", unwrap(cl.load("k1").getValue()));
+      assertContains("k2", false);
+      assertContains("k3", false);
+      assertEquals("v4", unwrap(cl.load("k4").getValue()));
+   }
+
    @Override
    protected boolean storePurgesAllExpired() {
       // expiration listener is not called for the entries
@@ -1,6 +1,13 @@
 package org.infinispan.persistence.remote;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
 import org.infinispan.client.hotrod.Flag;
@@ -15,9 +22,11 @@
 import org.infinispan.commons.marshall.Marshaller;
 import org.infinispan.commons.marshall.WrappedByteArray;
 import org.infinispan.commons.marshall.jboss.GenericJBossMarshaller;
+import org.infinispan.commons.util.CloseableIterator;
 import org.infinispan.commons.util.Util;
 import org.infinispan.container.InternalEntryFactory;
 import org.infinispan.container.versioning.NumericVersion;
+import org.infinispan.executors.ExecutorAllCompletionService;
 import org.infinispan.filter.KeyFilter;
 import org.infinispan.marshall.core.MarshalledEntry;
 import org.infinispan.metadata.EmbeddedMetadata;
@@ -67,6 +76,8 @@ public class RemoteStore implements AdvancedLoadWriteStore {
    private InternalEntryFactory iceFactory;
    private static final String LIFESPAN = "lifespan";
    private static final String MAXIDLE = "maxidle";
+   // Batches handed to the executor but not processed yet, each holding iterationBatchSize entries in memory
+   static final int MAX_BATCHES_IN_FLIGHT = Runtime.getRuntime().availableProcessors() * 2;
    protected InitializationContext ctx;
 
    @Override
@@ -115,18 +126,7 @@ public MarshalledEntry load(Object key) throws PersistenceException {
          }
          MetadataValue<?> value = remoteCache.getWithMetadata(unwrappedKey);
          if (value != null) {
-            Metadata metadata = new EmbeddedMetadata.Builder()
-                  .version(new NumericVersion(value.getVersion()))
-                  .lifespan(value.getLifespan(), TimeUnit.SECONDS)
-                  .maxIdle(value.getMaxIdle(), TimeUnit.SECONDS).build();
-            long created = value.getCreated();
-            long lastUsed = value.getLastUsed();
-            Object realValue = value.getValue();
-            if (realValue instanceof byte[]) {
-               realValue = new WrappedByteArray((byte[]) realValue);
-            }
-            return ctx.getMarshalledEntryFactory().newMarshalledEntry(key, realValue,
-                                    new InternalMetadataImpl(metadata, created, lastUsed));
+            return toMarshalledEntry(key, value);
          } else {
             return null;
          }
@@ -138,6 +138,28 @@ public MarshalledEntry load(Object key) throws PersistenceException {
       }
    }
 
+   @Override
+   public Map<Object, MarshalledEntry> loadAll(Set keys) throws PersistenceException {
+      if (configuration.rawValues()) {
+         // getAll does not return the metadata of the entries
+         return AdvancedLoadWriteStore.super.loadAll(keys);
+      }
+      Set<Object> unwrappedKeys = new HashSet<>(keys.size());
+      for (Object key : keys) {
+         unwrappedKeys.add(key instanceof WrappedByteArray ? ((WrappedByteArray) key).getBytes() : key);
+      }
+      Map<Object, Object> values = remoteCache.getAll(unwrappedKeys);
+      Map<Object, MarshalledEntry> entries = new HashMap<>(values.size());
+      for (Map.Entry<Object, Object> value : values.entrySet()) {
+         Object key = value.getKey();
+         if (key instanceof byte[]) {
+            key = new WrappedByteArray((byte[]) key);
+         }
+         entries.put(key, (MarshalledEntry) value.getValue());
+      }
+      return entries;
+   }
+
    @Override
    public boolean contains(Object key) throws PersistenceException {
       if (key instanceof WrappedByteArray) {
@@ -148,6 +170,105 @@ public boolean contains(Object key) throws PersistenceException {
 
    @Override
    public void process(KeyFilter filter, CacheLoaderTask task, Executor executor, boolean fetchValue, boolean fetchMetadata) {
+      if (configuration.protocol().compareTo(ProtocolVersion.PROTOCOL_VERSION_23) > 0) {
+         // Servers older than 2.3 do not support iteration
+         processKeys(filter, task);
+         return;
+      }
+      int batchSize = configuration.iterationBatchSize();
+      ExecutorAllCompletionService eacs = new ExecutorAllCompletionService(executor);
+      TaskContextImpl taskContext = new TaskContextImpl();
+      Semaphore batchPermits = new Semaphore(MAX_BATCHES_IN_FLIGHT);
+      boolean withMetadata = configuration.rawValues() && fetchMetadata;
+      try (CloseableIterator<? extends Map.Entry<Object, ?>> it = withMetadata ?
+            remoteCache.retrieveEntriesWithMetadata(null, batchSize) : remoteCache.retrieveEntries(null, batchSize)) {
+         List<Map.Entry<Object, ?>> batch = new ArrayList<>(batchSize);
+         while (it.hasNext() && !taskContext.isStopped()) {
+            batch.add(it.next());
+            if (batch.size() == batchSize) {
+               submitProcessTask(batch, filter, task, eacs, taskContext, batchPermits);
+               batch = new ArrayList<>(batchSize);
+            }
+         }
+         if (!batch.isEmpty()) {
+            submitProcessTask(batch, filter, task, eacs, taskContext, batchPermits);
+         }
+      }
+      eacs.waitUntilAllCompleted();
+      if (eacs.isExceptionThrown()) {
+         throw new PersistenceException("Execution exception!", eacs.getFirstException());
+      }
+   }
+
+   @SuppressWarnings("unchecked")
+   private void submitProcessTask(List<Map.Entry<Object, ?>> batch, KeyFilter filter, CacheLoaderTask task,
+                                  ExecutorAllCompletionService eacs, TaskContextImpl taskContext,
+                                  Semaphore batchPermits) {
+      // Stop reading from the remote cache while the executor is behind, instead of queueing every batch
+      try {
+         batchPermits.acquire();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new PersistenceException(e);
+      }
+      try {
+         eacs.submit(() -> {
+            try {
+               for (Map.Entry<Object, ?> remoteEntry : batch) {
+                  if (taskContext.isStopped()) {
+                     break;
+                  }
+                  Object key = remoteEntry.getKey();
+                  if (key instanceof byte[]) {
+                     key = new WrappedByteArray((byte[]) key);
+                  }
+                  if (filter == null || filter.accept(key)) {
+                     MarshalledEntry marshalledEntry = toMarshalledEntry(key, remoteEntry.getValue());
+                     if (marshalledEntry != null) {
+                        task.processEntry(marshalledEntry, taskContext);
+                     }
+                  }
+               }
+               return null;
+            } finally {
+               batchPermits.release();
+            }
+         });
+      } catch (RuntimeException e) {
+         batchPermits.release();
+         throw e;
+      }
+   }
+
+   private MarshalledEntry toMarshalledEntry(Object key, Object value) {
+      if (!configuration.rawValues()) {
+         return (MarshalledEntry) value;
+      } else if (value instanceof MetadataValue) {
+         return toMarshalledEntry(key, (MetadataValue<?>) value);
+      } else {
+         if (value instanceof byte[]) {
+            value = new WrappedByteArray((byte[]) value);
+         }
+         return ctx.getMarshalledEntryFactory().newMarshalledEntry(key, value, (InternalMetadata) null);
+      }
+   }
+
+   private MarshalledEntry toMarshalledEntry(Object key, MetadataValue<?> value) {
+      Metadata metadata = new EmbeddedMetadata.Builder()
+            .version(new NumericVersion(value.getVersion()))
+            .lifespan(value.getLifespan(), TimeUnit.SECONDS)
+            .maxIdle(value.getMaxIdle(), TimeUnit.SECONDS).build();
+      long created = value.getCreated();
+      long lastUsed = value.getLastUsed();
+      Object realValue = value.getValue();
+      if (realValue instanceof byte[]) {
+         realValue = new WrappedByteArray((byte[]) realValue);
+      }
+      return ctx.getMarshalledEntryFactory().newMarshalledEntry(key, realValue,
+            new InternalMetadataImpl(metadata, created, lastUsed));
+   }
+
+   private void processKeys(KeyFilter filter, CacheLoaderTask task) {
       TaskContextImpl taskContext = new TaskContextImpl();
       for (Object key : remoteCache.keySet()) {
          if (key instanceof byte[]) {
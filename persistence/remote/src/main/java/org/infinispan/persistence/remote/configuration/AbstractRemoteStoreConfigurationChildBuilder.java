@@ -94,6 +94,11 @@ public RemoteStoreConfigurationBuilder socketTimeout(long socketTimeout) {
       return builder.socketTimeout(socketTimeout);
    }
 
+   @Override
+   public RemoteStoreConfigurationBuilder iterationBatchSize(int iterationBatchSize) {
+      return builder.iterationBatchSize(iterationBatchSize);
+   }
+
    @Override
    public RemoteStoreConfigurationBuilder tcpNoDelay(boolean tcpNoDelay) {
       return builder.tcpNoDelay(tcpNoDelay);
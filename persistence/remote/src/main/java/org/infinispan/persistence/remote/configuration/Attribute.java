@@ -21,6 +21,7 @@ public enum Attribute {
    FORCE_RETURN_VALUES("force-return-values"),
    HOST("host"),
    HOTROD_WRAPPING("hotrod-wrapping"),
+   ITERATION_BATCH_SIZE("iteration-batch-size"),
    MARSHALLER("marshaller"),
    MAX_ACTIVE("max-active"),
    MAX_IDLE("max-idle"),
@@ -27,6 +27,7 @@ public class RemoteStoreConfiguration extends AbstractStoreConfiguration {
    static final AttributeDefinition<Boolean> FORCE_RETURN_VALUES = AttributeDefinition.builder("forceReturnValues", false).immutable().build();
    static final AttributeDefinition<Boolean> HOTROD_WRAPPING = AttributeDefinition.builder("hotRodWrapping", false).immutable().xmlName("hotrod-wrapping").build();
    static final AttributeDefinition<Boolean> RAW_VALUES = AttributeDefinition.builder("rawValues", false).immutable().build();
+   static final AttributeDefinition<Integer> ITERATION_BATCH_SIZE = AttributeDefinition.builder("iterationBatchSize", 1000).immutable().build();
    static final AttributeDefinition<Integer> KEY_SIZE_ESTIMATE = AttributeDefinition.builder("keySizeEstimate", ConfigurationProperties.DEFAULT_KEY_SIZE).immutable().build();
    static final AttributeDefinition<Integer> VALUE_SIZE_ESTIMATE = AttributeDefinition.builder("valueSizeEstimate", ConfigurationProperties.DEFAULT_VALUE_SIZE).immutable().build();
    static final AttributeDefinition<String> MARSHALLER = AttributeDefinition.builder("marshaller", null, String.class).immutable().build();
@@ -40,7 +41,7 @@ public class RemoteStoreConfiguration extends AbstractStoreConfiguration {
 
    public static AttributeSet attributeDefinitionSet() {
       return new AttributeSet(RemoteStoreConfiguration.class, AbstractStoreConfiguration.attributeDefinitionSet(), BALANCING_STRATEGY, CONNECTION_TIMEOUT, FORCE_RETURN_VALUES,
-            HOTROD_WRAPPING, RAW_VALUES, KEY_SIZE_ESTIMATE, MARSHALLER, PROTOCOL_VERSION, REMOTE_CACHE_NAME, SERVERS, SOCKET_TIMEOUT, TCP_NO_DELAY, TRANSPORT_FACTORY, VALUE_SIZE_ESTIMATE);
+            HOTROD_WRAPPING, RAW_VALUES, ITERATION_BATCH_SIZE, KEY_SIZE_ESTIMATE, MARSHALLER, PROTOCOL_VERSION, REMOTE_CACHE_NAME, SERVERS, SOCKET_TIMEOUT, TCP_NO_DELAY, TRANSPORT_FACTORY, VALUE_SIZE_ESTIMATE);
    }
 
    private final Attribute<String> balancingStrategy;
@@ -48,6 +49,7 @@ public static AttributeSet attributeDefinitionSet() {
    private final Attribute<Boolean> forceReturnValues;
    private final Attribute<Boolean> hotRodWrapping;
    private final Attribute<Boolean> rawValues;
+   private final Attribute<Integer> iterationBatchSize;
    private final Attribute<Integer> keySizeEstimate;
    private final Attribute<Integer> valueSizeEstimate;
    private final Attribute<String> marshaller;
@@ -68,6 +70,7 @@ public RemoteStoreConfiguration(AttributeSet attributes, AsyncStoreConfiguration
       forceReturnValues = attributes.attribute(FORCE_RETURN_VALUES);
       hotRodWrapping = attributes.attribute(HOTROD_WRAPPING);
       rawValues = attributes.attribute(RAW_VALUES);
+      iterationBatchSize = attributes.attribute(ITERATION_BATCH_SIZE);
       keySizeEstimate = attributes.attribute(KEY_SIZE_ESTIMATE);
       valueSizeEstimate = attributes.attribute(VALUE_SIZE_ESTIMATE);
       marshaller = attributes.attribute(MARSHALLER);
@@ -105,6 +108,10 @@ public boolean hotRodWrapping() {
       return hotRodWrapping.get();
    }
 
+   public int iterationBatchSize() {
+      return iterationBatchSize.get();
+   }
+
    public int keySizeEstimate() {
       return keySizeEstimate.get();
    }
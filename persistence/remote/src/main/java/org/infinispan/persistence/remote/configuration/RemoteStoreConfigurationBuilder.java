@@ -4,6 +4,7 @@
 import static org.infinispan.persistence.remote.configuration.RemoteStoreConfiguration.CONNECTION_TIMEOUT;
 import static org.infinispan.persistence.remote.configuration.RemoteStoreConfiguration.FORCE_RETURN_VALUES;
 import static org.infinispan.persistence.remote.configuration.RemoteStoreConfiguration.HOTROD_WRAPPING;
+import static org.infinispan.persistence.remote.configuration.RemoteStoreConfiguration.ITERATION_BATCH_SIZE;
 import static org.infinispan.persistence.remote.configuration.RemoteStoreConfiguration.KEY_SIZE_ESTIMATE;
 import static org.infinispan.persistence.remote.configuration.RemoteStoreConfiguration.MARSHALLER;
 import static org.infinispan.persistence.remote.configuration.RemoteStoreConfiguration.PROTOCOL_VERSION;
@@ -134,6 +135,12 @@ public RemoteStoreConfigurationBuilder socketTimeout(long socketTimeout) {
       return this;
    }
 
+   @Override
+   public RemoteStoreConfigurationBuilder iterationBatchSize(int iterationBatchSize) {
+      attributes.attribute(ITERATION_BATCH_SIZE).set(iterationBatchSize);
+      return this;
+   }
+
    @Override
    public RemoteStoreConfigurationBuilder tcpNoDelay(boolean tcpNoDelay) {
       attributes.attribute(TCP_NO_DELAY).set(tcpNoDelay);
@@ -96,6 +96,12 @@
     */
    RemoteStoreConfigurationBuilder socketTimeout(long socketTimeout);
 
+   /**
+    * The number of entries fetched from the remote cache in a single request when iterating over all the entries,
+    * e.g. for preloading or a rolling upgrade. Defaults to 1000
+    */
+   RemoteStoreConfigurationBuilder iterationBatchSize(int iterationBatchSize);
+
    /**
     * Affects TCP NODELAY on the TCP stack. Defaults to enabled
     */
@@ -201,6 +201,10 @@ private void parseRemoteStoreAttributes(XMLExtendedStreamReader reader, RemoteSt
                builder.hotRodWrapping(Boolean.parseBoolean(value));
                break;
             }
+            case ITERATION_BATCH_SIZE: {
+               builder.iterationBatchSize(Integer.parseInt(value));
+               break;
+            }
             case KEY_SIZE_ESTIMATE: {
                builder.keySizeEstimate(Integer.parseInt(value));
                break;
@@ -1,9 +1,20 @@
 package org.infinispan.persistence.remote;
 
 import static org.infinispan.server.hotrod.test.HotRodTestingUtil.hotRodCacheConfiguration;
+import static org.testng.AssertJUnit.assertEquals;
 import static org.testng.AssertJUnit.assertNull;
 import static org.testng.AssertJUnit.assertTrue;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.infinispan.client.hotrod.test.HotRodClientTestingUtil;
 import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
@@ -29,6 +40,7 @@
 public class RemoteStoreTest extends BaseStoreTest {
 
    private static final String REMOTE_CACHE = "remote-cache";
+   private static final int ITERATION_BATCH_SIZE = 10;
    private EmbeddedCacheManager localCacheManager;
    private HotRodServer hrServer;
 
@@ -55,7 +67,8 @@ protected AdvancedLoadWriteStore createStore() throws Exception {
       RemoteStoreConfigurationBuilder storeConfigurationBuilder = builder
             .persistence()
                .addStore(RemoteStoreConfigurationBuilder.class)
-               .remoteCacheName(REMOTE_CACHE);
+               .remoteCacheName(REMOTE_CACHE)
+               .iterationBatchSize(ITERATION_BATCH_SIZE);
       storeConfigurationBuilder
                .addServer()
                   .host(hrServer.getHost())
@@ -83,6 +96,64 @@ protected boolean storePurgesAllExpired() {
       return false;
    }
 
+   public void testProcessInBatches() throws Exception {
+      int numEntries = 5 * ITERATION_BATCH_SIZE + 3;
+      for (int i = 0; i < numEntries; i++) {
+         cl.write(marshalledEntry(internalCacheEntry("k" + i, "v" + i, -1)));
+      }
+      Set<Object> keys = ConcurrentHashMap.newKeySet();
+      ExecutorService executor = Executors.newFixedThreadPool(4, getTestThreadFactory("Process"));
+      try {
+         cl.process(null, (me, taskContext) -> {
+            assertEquals("v" + me.getKey().toString().substring(1), unwrap(me.getValue()));
+            keys.add(me.getKey());
+         }, executor, true, true);
+      } finally {
+         executor.shutdownNow();
+      }
+      assertEquals(numEntries, keys.size());
+   }
+
+   public void testProcessBoundsTheBatchesInFlight() throws Exception {
+      int numEntries = (RemoteStore.MAX_BATCHES_IN_FLIGHT + 3) * ITERATION_BATCH_SIZE;
+      for (int i = 0; i < numEntries; i++) {
+         cl.write(marshalledEntry(internalCacheEntry("k" + i, "v" + i, -1)));
+      }
+      Set<Object> keys = ConcurrentHashMap.newKeySet();
+      CountDownLatch processLatch = new CountDownLatch(1);
+      AtomicInteger pendingBatches = new AtomicInteger();
+      ExecutorService delegate = Executors.newFixedThreadPool(4, getTestThreadFactory("Process"));
+      Executor executor = command -> {
+         pendingBatches.incrementAndGet();
+         delegate.execute(() -> {
+            try {
+               command.run();
+            } finally {
+               pendingBatches.decrementAndGet();
+            }
+         });
+      };
+      try {
+         Future<Void> future = fork(() -> {
+            cl.process(null, (me, taskContext) -> {
+               processLatch.await();
+               keys.add(me.getKey());
+            }, executor, true, true);
+            return null;
+         });
+         eventuallyEquals(RemoteStore.MAX_BATCHES_IN_FLIGHT, pendingBatches::get);
+         // The iteration waits for a batch to complete before submitting more
+         Thread.sleep(100);
+         assertEquals(RemoteStore.MAX_BATCHES_IN_FLIGHT, pendingBatches.get());
+         processLatch.countDown();
+         future.get(10, TimeUnit.SECONDS);
+      } finally {
+         processLatch.countDown();
+         delegate.shutdownNow();
+      }
+      assertEquals(numEntries, keys.size());
+   }
+
    @Override
    public void testReplaceExpiredEntry() throws Exception {
       cl.write(marshalledEntry(internalCacheEntry("k1", "v1", 100l)));
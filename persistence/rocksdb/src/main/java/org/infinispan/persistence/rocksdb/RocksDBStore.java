@@ -3,28 +3,34 @@
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.BlockingQueue;
+import java.util.Set;
 import java.util.concurrent.CompletionService;
 import java.util.concurrent.Executor;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import org.infinispan.commons.CacheConfigurationException;
 import org.infinispan.commons.configuration.ConfiguredBy;
 import org.infinispan.commons.util.Util;
+import org.infinispan.distribution.ch.KeyPartitioner;
 import org.infinispan.executors.ExecutorAllCompletionService;
 import org.infinispan.filter.KeyFilter;
 import org.infinispan.marshall.core.MarshalledEntry;
-import org.infinispan.metadata.InternalMetadata;
 import org.infinispan.persistence.PersistenceUtil;
 import org.infinispan.persistence.TaskContextImpl;
 import org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration;
 import org.infinispan.persistence.rocksdb.logging.Log;
-import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
 import org.infinispan.persistence.spi.InitializationContext;
 import org.infinispan.persistence.spi.PersistenceException;
+import org.infinispan.persistence.spi.SegmentedAdvancedLoadWriteStore;
+import org.infinispan.util.concurrent.WithinThreadExecutor;
 import org.infinispan.util.logging.LogFactory;
 import org.rocksdb.CompressionType;
 import org.rocksdb.Options;
@@ -32,15 +38,30 @@
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.RocksIterator;
-
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteOptions;
+
+/**
+ * Stores each entry as a RocksDB key-value pair, with the expiration time of the entry in front of its value so that
+ * expired entries can be recognized without unmarshalling them.
+ * <p>
+ * The layout of the entries is recorded under an empty key, which can't be the marshalled form of a cache key.  The
+ * databases written before the expiration times were kept with the values have no such record, and their values are
+ * rewritten in the current layout when the store starts.  The record of a segmented store holds the number of segments,
+ * the keys are rewritten with their new segment when it or the segmented option changes.
+ */
 @ConfiguredBy(RocksDBStoreConfiguration.class)
-public class RocksDBStore implements AdvancedLoadWriteStore {
+public class RocksDBStore implements SegmentedAdvancedLoadWriteStore {
     private static final Log log = LogFactory.getLog(RocksDBStore.class, Log.class);
+    private static final int SEGMENT_PREFIX_LENGTH = 4;
+    private static final int EXPIRY_PREFIX_LENGTH = 8;
+    private static final int PURGE_BATCH_SIZE = 1000;
+    private static final byte[] FORMAT_KEY = new byte[0];
+    private static final byte FORMAT_EXPIRY_PREFIX = 1;
     private RocksDBStoreConfiguration configuration;
-    private BlockingQueue<ExpiryEntry> expiryEntryQueue;
     private RocksDB db;
-    private RocksDB expiredDb;
     private InitializationContext ctx;
+    private KeyPartitioner keyPartitioner;
     private Semaphore semaphore;
     private volatile boolean stopped = true;
 
@@ -48,16 +69,15 @@ public class RocksDBStore implements AdvancedLoadWriteStore {
     public void init(InitializationContext ctx) {
         this.configuration = ctx.getConfiguration();
         this.ctx = ctx;
+        this.keyPartitioner = ctx.getKeyPartitioner();
         this.semaphore = new Semaphore(Integer.MAX_VALUE, true);
     }
 
     @Override
     public void start() {
-        expiryEntryQueue = new LinkedBlockingQueue<>(configuration.expiryQueueSize());
-
         try {
-            db = openDatabase(getQualifiedLocation(), dataDbOptions());
-            expiredDb = openDatabase(getQualifiedExpiredLocation(), expiredDbOptions());
+            db = openDataDatabase();
+            removeExpiredDatabase();
             stopped = false;
         } catch (Exception e) {
             throw new CacheConfigurationException("Unable to open database", e);
@@ -72,10 +92,127 @@ private String getQualifiedLocation() {
         return configuration.location() + sanitizedCacheName();
     }
 
+    /**
+     * Location of the database that held the expiration times of the entries before they were kept with the values.
+     */
     private String getQualifiedExpiredLocation() {
         return configuration.expiredLocation() + sanitizedCacheName();
     }
 
+    private RocksDB openDataDatabase() throws IOException, RocksDBException, ClassNotFoundException, InterruptedException {
+        RocksDB dataDb = openDatabase(getQualifiedLocation(), dataDbOptions());
+        try {
+            checkFormat(dataDb);
+        } catch (Exception e) {
+            dataDb.close();
+            throw e;
+        }
+        return dataDb;
+    }
+
+    /**
+     * Records the layout of the entries in a new database, or rewrites the entries of a database that was written with
+     * another layout: before the expiration times were kept with the values, or with another segment count or without
+     * segment prefixes.
+     */
+    private void checkFormat(RocksDB dataDb) throws IOException, RocksDBException, ClassNotFoundException, InterruptedException {
+        byte[] format = dataDb.get(FORMAT_KEY);
+        byte[] currentFormat = currentFormat();
+        if (Arrays.equals(format, currentFormat)) {
+            return;
+        }
+        boolean expiryPrefixed = false;
+        int previousSegments = 0;
+        if (format != null) {
+            if ((format.length != 1 && format.length != 1 + SEGMENT_PREFIX_LENGTH) || format[0] != FORMAT_EXPIRY_PREFIX) {
+                throw new CacheConfigurationException("Unsupported RocksDB store format " + Util.printArray(format, false));
+            }
+            expiryPrefixed = true;
+            previousSegments = segmentCount(format);
+        }
+        try (RocksIterator it = dataDb.newIterator(new ReadOptions().setFillCache(false));
+             WriteOptions writeOptions = new WriteOptions()) {
+            it.seekToFirst();
+            // The empty format key sorts first
+            if (it.isValid() && isFormatKey(it.key())) {
+                it.next();
+            }
+            if (it.isValid()) {
+                if (!expiryPrefixed) {
+                    log.upgradingStoreFormat(getQualifiedLocation());
+                } else {
+                    log.changingStoreSegments(getQualifiedLocation(), previousSegments, segmentCount(currentFormat));
+                }
+            }
+            // The iterator reads a snapshot of the database, so the entries can be rewritten while iterating
+            WriteBatch batch = new WriteBatch();
+            try {
+                for (it.seekToFirst(); it.isValid(); it.next()) {
+                    byte[] key = it.key();
+                    if (isFormatKey(key)) {
+                        continue;
+                    }
+                    byte[] value = expiryPrefixed ? it.value() : marshallValue((MarshalledEntry) unmarshall(it.value()));
+                    byte[] dataKey = key;
+                    if (previousSegments != segmentCount(currentFormat)) {
+                        dataKey = dataKey(unmarshallDataKey(key, previousSegments != 0));
+                        if (!Arrays.equals(key, dataKey)) {
+                            batch.remove(key);
+                        }
+                    }
+                    batch.put(dataKey, value);
+                    if (batch.count() >= PURGE_BATCH_SIZE) {
+                        dataDb.write(writeOptions, batch);
+                        batch.close();
+                        batch = new WriteBatch();
+                    }
+                }
+                batch.put(FORMAT_KEY, currentFormat);
+                dataDb.write(writeOptions, batch);
+            } finally {
+                batch.close();
+            }
+        }
+    }
+
+    /**
+     * Returns the record of the layout of the entries: the values are prefixed with their expiration time, followed by
+     * the number of segments when the keys are prefixed with their segment.  The key partitioner maps the keys to
+     * other segments when the number of segments changes, which requires the keys to be rewritten.
+     */
+    private byte[] currentFormat() {
+        if (!configuration.segmented()) {
+            return new byte[] {FORMAT_EXPIRY_PREFIX};
+        }
+        int numSegments = ctx.getCache().getCacheConfiguration().clustering().hash().numSegments();
+        byte[] format = new byte[1 + SEGMENT_PREFIX_LENGTH];
+        format[0] = FORMAT_EXPIRY_PREFIX;
+        System.arraycopy(segmentPrefix(numSegments), 0, format, 1, SEGMENT_PREFIX_LENGTH);
+        return format;
+    }
+
+    /**
+     * @return the number of segments recorded in the layout, 0 if the keys are not prefixed with their segment
+     */
+    private static int segmentCount(byte[] format) {
+        if (format.length == 1) {
+            return 0;
+        }
+        return (format[1] & 0xFF) << 24 | (format[2] & 0xFF) << 16 | (format[3] & 0xFF) << 8 | (format[4] & 0xFF);
+    }
+
+    private void removeExpiredDatabase() {
+        File expiredLocation = new File(getQualifiedExpiredLocation());
+        if (expiredLocation.exists() && !expiredLocation.equals(new File(getQualifiedLocation()))) {
+            log.removingExpiredDatabase(expiredLocation.getPath());
+            Util.recursiveFileRemove(expiredLocation);
+        }
+    }
+
+    private static boolean isFormatKey(byte[] key) {
+        return key.length == 0;
+    }
+
     private Options dataDbOptions() {
         Options options = new Options().setCreateIfMissing(true);
         options.setCompressionType(CompressionType.getCompressionType(configuration.compressionType().toString()));
@@ -83,10 +220,6 @@ private Options dataDbOptions() {
         return options;
     }
 
-    private Options expiredDbOptions() {
-        return new Options().setCreateIfMissing(true);
-    }
-
     /**
      * Creates database if it doesn't exist.
      */
@@ -118,9 +251,8 @@ protected void reinitAllDatabases() throws IOException, RocksDBException {
                 throw new PersistenceException("RocksDB is stopped");
             }
             db.close();
-            expiredDb.close();
-            db = reinitDatabase(getQualifiedLocation(), dataDbOptions());
-            expiredDb = reinitDatabase(getQualifiedExpiredLocation(), expiredDbOptions());
+            destroyDatabase(getQualifiedLocation());
+            db = openDataDatabase();
         } finally {
             semaphore.release(Integer.MAX_VALUE);
         }
@@ -135,7 +267,6 @@ public void stop() {
         }
         try {
             db.close();
-            expiredDb.close();
         } finally {
             stopped = true;
             semaphore.release(Integer.MAX_VALUE);
@@ -159,6 +290,9 @@ public void clear() {
             if (optionalIterator.isPresent() && configuration.clearThreshold() <= 0) {
                 try (RocksIterator it = optionalIterator.get()) {
                     for(it.seekToFirst(); it.isValid(); it.next()) {
+                        if (isFormatKey(it.key())) {
+                            continue;
+                        }
                         db.remove(it.key());
                         count++;
 
@@ -198,6 +332,14 @@ public int size() {
         return PersistenceUtil.count(this, null);
     }
 
+    @SuppressWarnings("unchecked")
+    @Override
+    public int size(Set segments) {
+        AtomicInteger count = new AtomicInteger();
+        process(segments, null, (me, taskContext) -> count.incrementAndGet(), new WithinThreadExecutor(), false, false);
+        return count.get();
+    }
+
     @Override
     public boolean contains(Object key) {
         try {
@@ -207,12 +349,18 @@ public boolean contains(Object key) {
         }
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public void process(KeyFilter keyFilter, CacheLoaderTask cacheLoaderTask, Executor executor, boolean loadValues, boolean loadMetadata) {
+        process(null, keyFilter, cacheLoaderTask, executor, loadValues, loadMetadata);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void process(Set segments, KeyFilter keyFilter, CacheLoaderTask cacheLoaderTask, Executor executor, boolean loadValues, boolean loadMetadata) {
         int batchSize = 100;
         ExecutorAllCompletionService eacs = new ExecutorAllCompletionService(executor);
         final TaskContext taskContext = new TaskContextImpl();
+        KeyFilter filter = segments == null || configuration.segmented() ? keyFilter : segmentFilter(segments, keyFilter);
 
         List<Entry> entries = new ArrayList<>(batchSize);
         try {
@@ -227,17 +375,15 @@ public void process(KeyFilter keyFilter, CacheLoaderTask cacheLoaderTask, Execut
             Optional<RocksIterator> optionalIterator = wrapIterator(this.db);
             if (optionalIterator.isPresent()) {
                 try (RocksIterator it = optionalIterator.get()) {
-                    for (it.seekToFirst(); it.isValid(); it.next()) {
-                        Entry entry = new Entry(it.key(), it.value());
-                        entries.add(entry);
+                    forEachEntry(it, segments, i -> {
+                        entries.add(new Entry(i.key(), i.value()));
                         if (entries.size() == batchSize) {
-                            final List<Entry> batch = entries;
-                            entries = new ArrayList<>(batchSize);
-                            submitProcessTask(cacheLoaderTask, keyFilter, eacs, taskContext, batch, loadValues, loadMetadata);
+                            submitProcessTask(cacheLoaderTask, filter, eacs, taskContext, new ArrayList<>(entries), loadValues, loadMetadata);
+                            entries.clear();
                         }
-                    }
+                    });
                     if (!entries.isEmpty()) {
-                        submitProcessTask(cacheLoaderTask, keyFilter, eacs, taskContext, entries, loadValues, loadMetadata);
+                        submitProcessTask(cacheLoaderTask, filter, eacs, taskContext, entries, loadValues, loadMetadata);
                     }
 
                     eacs.waitUntilAllCompleted();
@@ -264,17 +410,20 @@ private void submitProcessTask(final CacheLoaderTask cacheLoaderTask, final KeyF
                     if (taskContext.isStopped()) {
                         break;
                     }
-                    Object key = unmarshall(pair.key);
+                    if (isExpired(pair.value, now)) {
+                        continue;
+                    }
+                    Object key = unmarshallDataKey(pair.key);
                     if (filter == null || filter.accept(key)) {
-                        MarshalledEntry entry = loadValues || loadMetadata ? (MarshalledEntry) unmarshall(pair.value) : null;
-                        boolean isExpired = entry != null && entry.getMetadata() != null && entry.getMetadata().isExpired(now);
-                        if (!isExpired) {
-                            if (!loadValues || !loadMetadata) {
-                                entry = ctx.getMarshalledEntryFactory().newMarshalledEntry(
-                                      key, loadValues ? entry.getValue() : null, loadMetadata ? entry.getMetadata() : null);
-                            }
-                            cacheLoaderTask.processEntry(entry, taskContext);
+                        MarshalledEntry entry;
+                        if (loadValues && loadMetadata) {
+                            entry = unmarshallValue(pair.value);
+                        } else {
+                            MarshalledEntry stored = loadValues || loadMetadata ? unmarshallValue(pair.value) : null;
+                            entry = ctx.getMarshalledEntryFactory().newMarshalledEntry(
+                                  key, loadValues ? stored.getValue() : null, loadMetadata ? stored.getMetadata() : null);
                         }
+                        cacheLoaderTask.processEntry(entry, taskContext);
                     }
                 }
                 return null;
@@ -288,7 +437,7 @@ private void submitProcessTask(final CacheLoaderTask cacheLoaderTask, final KeyF
     @Override
     public boolean delete(Object key) {
         try {
-            byte[] keyBytes = marshall(key);
+            byte[] keyBytes = dataKey(key);
             semaphore.acquire();
             try {
                 if (stopped) {
@@ -310,8 +459,8 @@ public boolean delete(Object key) {
     @Override
     public void write(MarshalledEntry me) {
         try {
-            byte[] marshelledKey = marshall(me.getKey());
-            byte[] marshalledEntry = marshall(me);
+            byte[] marshelledKey = dataKey(me.getKey());
+            byte[] marshalledEntry = marshallValue(me);
             semaphore.acquire();
             try {
                 if (stopped) {
@@ -321,15 +470,80 @@ public void write(MarshalledEntry me) {
             } finally {
                 semaphore.release();
             }
-            InternalMetadata meta = me.getMetadata();
-            if (meta != null && meta.expiryTime() > -1) {
-                addNewExpiry(me);
+        } catch (Exception e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    @Override
+    public void writeBatch(Iterable entries) {
+        try (WriteBatch batch = new WriteBatch(); WriteOptions writeOptions = new WriteOptions()) {
+            for (Object o : entries) {
+                MarshalledEntry me = (MarshalledEntry) o;
+                batch.put(dataKey(me.getKey()), marshallValue(me));
             }
+            write(batch, writeOptions);
         } catch (Exception e) {
             throw new PersistenceException(e);
         }
     }
 
+    @Override
+    public void deleteBatch(Iterable keys) {
+        try (WriteBatch batch = new WriteBatch(); WriteOptions writeOptions = new WriteOptions()) {
+            for (Object key : keys) {
+                batch.remove(dataKey(key));
+            }
+            write(batch, writeOptions);
+        } catch (Exception e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void removeSegments(Set segments) {
+        try (WriteBatch batch = new WriteBatch(); WriteOptions writeOptions = new WriteOptions()) {
+            semaphore.acquire();
+            try {
+                if (stopped) {
+                    throw new PersistenceException("RocksDB is stopped");
+                }
+                KeyFilter filter = configuration.segmented() ? null : segmentFilter(segments, null);
+                try (RocksIterator it = db.newIterator(new ReadOptions().setFillCache(false))) {
+                    forEachEntry(it, segments, i -> {
+                        byte[] key = i.key();
+                        if (filter == null || filter.accept(unmarshallKey(key))) {
+                            batch.remove(key);
+                        }
+                    });
+                }
+            } finally {
+                semaphore.release();
+            }
+            write(batch, writeOptions);
+        } catch (PersistenceException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    private void write(WriteBatch batch, WriteOptions writeOptions) throws InterruptedException, RocksDBException {
+        if (batch.count() == 0) {
+            return;
+        }
+        semaphore.acquire();
+        try {
+            if (stopped) {
+                throw new PersistenceException("RocksDB is stopped");
+            }
+            db.write(writeOptions, batch);
+        } finally {
+            semaphore.release();
+        }
+    }
+
     @Override
     public MarshalledEntry load(Object key) {
         try {
@@ -339,18 +553,46 @@ public MarshalledEntry load(Object key) {
                 if (stopped) {
                     throw new PersistenceException("RocksDB is stopped");
                 }
-                marshalledEntry = db.get(marshall(key));
+                marshalledEntry = db.get(dataKey(key));
             } finally {
                 semaphore.release();
             }
-            MarshalledEntry me = (MarshalledEntry) unmarshall(marshalledEntry);
-            if (me == null) return null;
-
-            InternalMetadata meta = me.getMetadata();
-            if (meta != null && meta.isExpired(ctx.getTimeService().wallClockTime())) {
+            if (marshalledEntry == null || isExpired(marshalledEntry, ctx.getTimeService().wallClockTime())) {
                 return null;
             }
-            return me;
+            return unmarshallValue(marshalledEntry);
+        } catch (Exception e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<Object, MarshalledEntry> loadAll(Set keys) {
+        try {
+            // multiGet returns the values by the identity of the given byte[] keys
+            Map<byte[], Object> dataKeys = new IdentityHashMap<>(keys.size());
+            for (Object key : (Set<Object>) keys) {
+                dataKeys.put(dataKey(key), key);
+            }
+            Map<byte[], byte[]> values;
+            semaphore.acquire();
+            try {
+                if (stopped) {
+                    throw new PersistenceException("RocksDB is stopped");
+                }
+                values = db.multiGet(new ArrayList<>(dataKeys.keySet()));
+            } finally {
+                semaphore.release();
+            }
+            long now = ctx.getTimeService().wallClockTime();
+            Map<Object, MarshalledEntry> entries = new HashMap<>(values.size());
+            for (Map.Entry<byte[], byte[]> value : values.entrySet()) {
+                if (value.getValue() != null && !isExpired(value.getValue(), now)) {
+                    entries.put(dataKeys.get(value.getKey()), unmarshallValue(value.getValue()));
+                }
+            }
+            return entries;
         } catch (Exception e) {
             throw new PersistenceException(e);
         }
@@ -368,79 +610,24 @@ public void purge(Executor executor, PurgeListener purgeListener) {
             if (stopped) {
                 throw new PersistenceException("RocksDB is stopped");
             }
-            // Drain queue and update expiry tree
-            List<ExpiryEntry> entries = new ArrayList<>();
-            expiryEntryQueue.drainTo(entries);
-            for (ExpiryEntry entry : entries) {
-                final byte[] expiryBytes = marshall(entry.expiry);
-                final byte[] keyBytes = marshall(entry.key);
-                final byte[] existingBytes = expiredDb.get(expiryBytes);
-
-                if (existingBytes != null) {
-                    // in the case of collision make the key a List ...
-                    final Object existing = unmarshall(existingBytes);
-                    if (existing instanceof List) {
-                        ((List<Object>) existing).add(entry.key);
-                        expiredDb.put(expiryBytes, marshall(existing));
-                    } else {
-                        List<Object> al = new ArrayList<>(2);
-                        al.add(existing);
-                        al.add(entry.key);
-                        expiredDb.put(expiryBytes, marshall(al));
-                    }
-                } else {
-                    expiredDb.put(expiryBytes, keyBytes);
-                }
-            }
-
-            List<Long> times = new ArrayList<>();
-            List<Object> keys = new ArrayList<>();
-
+            // The expired entries are found by their expiration prefix alone, only their keys are unmarshalled
+            // to notify the listener.
             long now = ctx.getTimeService().wallClockTime();
-            Optional<RocksIterator> optionalIterator = wrapIterator(expiredDb);
-            if (optionalIterator.isPresent()) {
-                try (RocksIterator it = optionalIterator.get()) {
-                    for (it.seekToFirst(); it.isValid(); it.next()) {
-                        Long time = (Long) unmarshall(it.key());
-                        if (time > now)
-                            break;
-                        times.add(time);
-                        Object key = unmarshall(it.value());
-                        if (key instanceof List)
-                            keys.addAll((List<?>) key);
-                        else
-                            keys.add(key);
-                    }
-
-                    for (Long time : times) {
-                        expiredDb.remove(marshall(time));
-                    }
-
-                    if (!keys.isEmpty())
-                        log.debugf("purge (up to) %d entries", keys.size());
-                    int count = 0;
-                    for (Object key : keys) {
-                        byte[] keyBytes = marshall(key);
-
-                        byte[] b = db.get(keyBytes);
-                        if (b == null)
-                            continue;
-                        MarshalledEntry me = (MarshalledEntry) ctx.getMarshaller().objectFromByteBuffer(b);
-                        // TODO race condition: the entry could be updated between the get and delete!
-                        if (me.getMetadata() != null && me.getMetadata().isExpired(now)) {
-                            // somewhat inefficient to FIND then REMOVE...
-                            db.remove(keyBytes);
-                            purgeListener.entryPurged(key);
-                            count++;
+            List<byte[]> expired = new ArrayList<>(PURGE_BATCH_SIZE);
+            int count = 0;
+            try (RocksIterator it = db.newIterator(new ReadOptions().setFillCache(false))) {
+                for (it.seekToFirst(); it.isValid(); it.next()) {
+                    if (!isFormatKey(it.key()) && isExpired(it.value(), now)) {
+                        expired.add(it.key());
+                        if (expired.size() == PURGE_BATCH_SIZE) {
+                            count += removeExpired(expired, purgeListener);
                         }
-
                     }
-                    if (count != 0)
-                        log.debugf("purged %d entries", count);
-                } catch (Exception e) {
-                    throw new PersistenceException(e);
                 }
             }
+            count += removeExpired(expired, purgeListener);
+            if (count != 0)
+                log.debugf("purged %d entries", count);
         } catch (PersistenceException e) {
             throw e;
         } catch (Exception e) {
@@ -450,6 +637,56 @@ public void purge(Executor executor, PurgeListener purgeListener) {
         }
     }
 
+    /**
+     * Removes the expired entries with a single write and notifies the listener about them.
+     */
+    @SuppressWarnings("unchecked")
+    private int removeExpired(List<byte[]> expired, PurgeListener purgeListener) throws RocksDBException {
+        if (expired.isEmpty()) {
+            return 0;
+        }
+        // TODO race condition: an entry could be updated between the iteration and the delete!
+        try (WriteBatch batch = new WriteBatch(); WriteOptions writeOptions = new WriteOptions()) {
+            for (byte[] key : expired) {
+                batch.remove(key);
+            }
+            db.write(writeOptions, batch);
+        }
+        int count = expired.size();
+        for (byte[] key : expired) {
+            purgeListener.entryPurged(unmarshallKey(key));
+        }
+        expired.clear();
+        return count;
+    }
+
+    /**
+     * Marshalls the entry with its expiration time in front, -1 when the entry does not expire.
+     */
+    private byte[] marshallValue(MarshalledEntry entry) throws IOException, InterruptedException {
+        byte[] bytes = marshall(entry);
+        long expiry = entry.getMetadata() == null ? -1 : entry.getMetadata().expiryTime();
+        byte[] value = new byte[EXPIRY_PREFIX_LENGTH + bytes.length];
+        for (int i = EXPIRY_PREFIX_LENGTH - 1; i >= 0; i--) {
+            value[i] = (byte) expiry;
+            expiry >>>= 8;
+        }
+        System.arraycopy(bytes, 0, value, EXPIRY_PREFIX_LENGTH, bytes.length);
+        return value;
+    }
+
+    private MarshalledEntry unmarshallValue(byte[] value) throws IOException, ClassNotFoundException {
+        return (MarshalledEntry) ctx.getMarshaller().objectFromByteBuffer(value, EXPIRY_PREFIX_LENGTH, value.length - EXPIRY_PREFIX_LENGTH);
+    }
+
+    private static boolean isExpired(byte[] value, long now) {
+        long expiry = 0;
+        for (int i = 0; i < EXPIRY_PREFIX_LENGTH; i++) {
+            expiry = (expiry << 8) | (value[i] & 0xFF);
+        }
+        return expiry > 0 && expiry <= now;
+    }
+
     private byte[] marshall(Object entry) throws IOException, InterruptedException {
         return ctx.getMarshaller().objectToByteBuffer(entry);
     }
@@ -461,58 +698,79 @@ private Object unmarshall(byte[] bytes) throws IOException, ClassNotFoundExcepti
         return ctx.getMarshaller().objectFromByteBuffer(bytes);
     }
 
-    private void addNewExpiry(MarshalledEntry entry) throws IOException {
-        long expiry = entry.getMetadata().expiryTime();
-        long maxIdle = entry.getMetadata().maxIdle();
-        if (maxIdle > 0) {
-            // Coding getExpiryTime() for transient entries has the risk of being a moving target
-            // which could lead to unexpected results, hence, InternalCacheEntry calls are required
-            expiry = maxIdle + ctx.getTimeService().wallClockTime();
+    /**
+     * Returns the key of an entry in the data database, prefixed with the segment of the key when the store is
+     * segmented so that the entries of a segment are contiguous.
+     */
+    private byte[] dataKey(Object key) throws IOException, InterruptedException {
+        byte[] keyBytes = marshall(key);
+        if (!configuration.segmented()) {
+            return keyBytes;
         }
-        Long at = expiry;
-        Object key = entry.getKey();
+        byte[] dataKey = new byte[SEGMENT_PREFIX_LENGTH + keyBytes.length];
+        System.arraycopy(segmentPrefix(keyPartitioner.getSegment(key)), 0, dataKey, 0, SEGMENT_PREFIX_LENGTH);
+        System.arraycopy(keyBytes, 0, dataKey, SEGMENT_PREFIX_LENGTH, keyBytes.length);
+        return dataKey;
+    }
+
+    private Object unmarshallDataKey(byte[] dataKey) throws IOException, ClassNotFoundException {
+        return unmarshallDataKey(dataKey, configuration.segmented());
+    }
 
+    private Object unmarshallDataKey(byte[] dataKey, boolean segmented) throws IOException, ClassNotFoundException {
+        if (!segmented) {
+            return unmarshall(dataKey);
+        }
+        return ctx.getMarshaller().objectFromByteBuffer(dataKey, SEGMENT_PREFIX_LENGTH, dataKey.length - SEGMENT_PREFIX_LENGTH);
+    }
+
+    private Object unmarshallKey(byte[] dataKey) {
         try {
-            expiryEntryQueue.put(new ExpiryEntry(at, key));
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt(); // Restore interruption status
+            return unmarshallDataKey(dataKey);
+        } catch (IOException | ClassNotFoundException e) {
+            throw new PersistenceException(e);
         }
     }
 
-    private static final class ExpiryEntry {
-        private final Long expiry;
-        private final Object key;
+    private static byte[] segmentPrefix(int segment) {
+        return new byte[] {(byte) (segment >>> 24), (byte) (segment >>> 16), (byte) (segment >>> 8), (byte) segment};
+    }
 
-        private ExpiryEntry(long expiry, Object key) {
-            this.expiry = expiry;
-            this.key = key;
+    private static boolean hasPrefix(byte[] key, byte[] prefix) {
+        if (key.length < prefix.length) {
+            return false;
         }
-
-        @Override
-        public int hashCode() {
-            final int prime = 31;
-            int result = 1;
-            result = prime * result + ((key == null) ? 0 : key.hashCode());
-            return result;
+        for (int i = 0; i < prefix.length; i++) {
+            if (key[i] != prefix[i]) {
+                return false;
+            }
         }
+        return true;
+    }
 
-        @Override
-        public boolean equals(Object obj) {
-            if (this == obj)
-                return true;
-            if (obj == null)
-                return false;
-            if (getClass() != obj.getClass())
-                return false;
-            ExpiryEntry other = (ExpiryEntry) obj;
-            if (key == null) {
-                if (other.key != null)
-                    return false;
-            } else if (!key.equals(other.key))
-                return false;
-            return true;
+    /**
+     * Positions the iterator on each entry of the given segments in turn, or on every entry when all the segments
+     * are requested or the entries are not grouped by segment.
+     */
+    private void forEachEntry(RocksIterator it, Set<Integer> segments, Consumer<RocksIterator> action) {
+        if (segments == null || !configuration.segmented()) {
+            for (it.seekToFirst(); it.isValid(); it.next()) {
+                if (!isFormatKey(it.key())) {
+                    action.accept(it);
+                }
+            }
+        } else {
+            for (Integer segment : segments) {
+                byte[] prefix = segmentPrefix(segment);
+                for (it.seek(prefix); it.isValid() && hasPrefix(it.key(), prefix); it.next()) {
+                    action.accept(it);
+                }
+            }
         }
+    }
 
+    private KeyFilter segmentFilter(Set<Integer> segments, KeyFilter keyFilter) {
+        return key -> segments.contains(keyPartitioner.getSegment(key)) && (keyFilter == null || keyFilter.accept(key));
     }
 
     private static final class Entry {
@@ -23,6 +23,7 @@ public enum Attribute {
    PATH("path"),
    RELATIVE_TO("relative-to"),
    QUEUE_SIZE("queue-size"),
+   SEGMENTED("segmented"),
    TYPE("type"),
    ;
 
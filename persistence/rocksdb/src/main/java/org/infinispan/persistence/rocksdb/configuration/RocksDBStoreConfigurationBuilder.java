@@ -11,6 +11,7 @@
 import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.EXPIRED_LOCATION;
 import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.EXPIRY_QUEUE_SIZE;
 import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.COMPRESSION_TYPE;
+import static org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfiguration.SEGMENTED;
 
 /**
  *
@@ -28,6 +29,10 @@ public RocksDBStoreConfigurationBuilder location(String location) {
       return self();
    }
 
+   /**
+    * @deprecated Since 9.0, no longer used: the expiration time is kept with the entries in the data database.
+    */
+   @Deprecated
    public RocksDBStoreConfigurationBuilder expiredLocation(String expiredLocation) {
       attributes.attribute(EXPIRED_LOCATION).set(expiredLocation);
       return self();
@@ -43,6 +48,10 @@ public RocksDBStoreConfigurationBuilder cacheSize(long cacheSize) {
       return self();
    }
 
+   /**
+    * @deprecated Since 9.0, no longer used: the expiration time is kept with the entries in the data database.
+    */
+   @Deprecated
    public RocksDBStoreConfigurationBuilder expiryQueueSize(int expiryQueueSize) {
       attributes.attribute(EXPIRY_QUEUE_SIZE).set(expiryQueueSize);
       return self();
@@ -58,6 +67,15 @@ public RocksDBStoreConfigurationBuilder compressionType(CompressionType compress
       return self();
    }
 
+   /**
+    * Whether the entries are stored grouped by segment, so that the entries of a few segments can be iterated or
+    * removed without going through all the entries of the store.  Existing data is converted when the store starts.
+    */
+   public RocksDBStoreConfigurationBuilder segmented(boolean segmented) {
+      attributes.attribute(SEGMENTED).set(segmented);
+      return self();
+   }
+
    @Override
    public void validate() {
       // how do you validate required attributes?
@@ -6,6 +6,7 @@
 import org.jboss.logging.annotations.MessageLogger;
 
 import static org.jboss.logging.Logger.Level.DEBUG;
+import static org.jboss.logging.Logger.Level.INFO;
 import static org.jboss.logging.Logger.Level.WARN;
 
 /**
@@ -30,4 +31,16 @@ public interface Log extends org.infinispan.util.logging.Log {
    @LogMessage(level = DEBUG)
    @Message(value = "An internal RocksDB exception occurred", id = 23008)
    void warnAboutExceptionInRocksDB(@Cause Exception e);
+
+   @LogMessage(level = INFO)
+   @Message(value = "Upgrading the RocksDB store at %s to keep the expiration times with the values", id = 23009)
+   void upgradingStoreFormat(String location);
+
+   @LogMessage(level = INFO)
+   @Message(value = "Removing the expired entries database at %s, which is no longer used", id = 23010)
+   void removingExpiredDatabase(String location);
+
+   @LogMessage(level = INFO)
+   @Message(value = "Rewriting the keys of the RocksDB store at %s from %d to %d segments, 0 meaning not segmented", id = 23011)
+   void changingStoreSegments(String location, int previousSegments, int segments);
 }
@@ -0,0 +1,151 @@
+package org.infinispan.persistence.rocksdb;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.PersistenceConfigurationBuilder;
+import org.infinispan.distribution.ch.KeyPartitioner;
+import org.infinispan.distribution.ch.impl.HashFunctionPartitioner;
+import org.infinispan.persistence.rocksdb.configuration.RocksDBStoreConfigurationBuilder;
+import org.infinispan.persistence.spi.SegmentedAdvancedLoadWriteStore;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.util.concurrent.WithinThreadExecutor;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", testName = "persistence.rocksdb.RocksDBSegmentedStoreTest")
+public class RocksDBSegmentedStoreTest extends RocksDBStoreTest {
+   private static final int NUM_KEYS = 100;
+
+   @Override
+   protected RocksDBStoreConfigurationBuilder createCacheStoreConfig(PersistenceConfigurationBuilder lcb) {
+      return super.createCacheStoreConfig(lcb).segmented(true);
+   }
+
+   public void testProcessSegments() {
+      KeyPartitioner keyPartitioner = keyPartitioner();
+      Set<Integer> segments = Collections.singleton(keyPartitioner.getSegment("k0"));
+      Set<Object> expected = new HashSet<>();
+      for (int i = 0; i < NUM_KEYS; i++) {
+         String key = "k" + i;
+         cl.write(marshalledEntry(internalCacheEntry(key, "v" + i, -1)));
+         if (segments.contains(keyPartitioner.getSegment(key))) {
+            expected.add(key);
+         }
+      }
+
+      SegmentedAdvancedLoadWriteStore<Object, Object> store = (SegmentedAdvancedLoadWriteStore<Object, Object>) cl;
+      Set<Object> processed = new HashSet<>();
+      store.process(segments, null, (me, taskContext) -> processed.add(me.getKey()), new WithinThreadExecutor(),
+            true, true);
+      assertEquals(processed, expected);
+      assertEquals(store.size(segments), expected.size());
+   }
+
+   public void testRemoveSegments() {
+      KeyPartitioner keyPartitioner = keyPartitioner();
+      Set<Integer> segments = Collections.singleton(keyPartitioner.getSegment("k0"));
+      for (int i = 0; i < NUM_KEYS; i++) {
+         cl.write(marshalledEntry(internalCacheEntry("k" + i, "v" + i, -1)));
+      }
+
+      ((SegmentedAdvancedLoadWriteStore<Object, Object>) cl).removeSegments(segments);
+      for (int i = 0; i < NUM_KEYS; i++) {
+         String key = "k" + i;
+         if (segments.contains(keyPartitioner.getSegment(key))) {
+            assertFalse(cl.contains(key), key);
+         } else {
+            assertTrue(cl.contains(key), key);
+         }
+      }
+   }
+
+   @Override
+   public void testReadValuesWithoutExpiryPrefix() {
+      // The databases written before the expiration times were kept with the values were never segmented
+   }
+
+   public void testKeysAreRewrittenWhenTheSegmentCountChanges() throws Exception {
+      for (int i = 0; i < NUM_KEYS; i++) {
+         cl.write(marshalledEntry(internalCacheEntry("k" + i, "v" + i, -1)));
+      }
+      cl.stop();
+
+      int numSegments = 7;
+      RocksDBStore store = startStore(true, numSegments);
+      try {
+         assertSegmentsProcessed(store, keyPartitioner(numSegments));
+      } finally {
+         store.stop();
+      }
+      cl.start();
+      assertSegmentsProcessed((SegmentedAdvancedLoadWriteStore<Object, Object>) cl, keyPartitioner());
+   }
+
+   public void testUnsegmentedKeysAreRewritten() throws Exception {
+      cl.stop();
+      RocksDBStore store = startStore(false, 0);
+      try {
+         for (int i = 0; i < NUM_KEYS; i++) {
+            store.write(marshalledEntry(internalCacheEntry("k" + i, "v" + i, -1)));
+         }
+      } finally {
+         store.stop();
+      }
+      cl.start();
+      assertSegmentsProcessed((SegmentedAdvancedLoadWriteStore<Object, Object>) cl, keyPartitioner());
+   }
+
+   private void assertSegmentsProcessed(SegmentedAdvancedLoadWriteStore<Object, Object> store,
+         KeyPartitioner keyPartitioner) {
+      Set<Integer> segments = Collections.singleton(keyPartitioner.getSegment("k0"));
+      Set<Object> expected = new HashSet<>();
+      for (int i = 0; i < NUM_KEYS; i++) {
+         String key = "k" + i;
+         if (segments.contains(keyPartitioner.getSegment(key))) {
+            expected.add(key);
+         }
+         assertEquals(unwrap(store.load(key).getValue()), "v" + i);
+      }
+      Set<Object> processed = new HashSet<>();
+      store.process(segments, null, (me, taskContext) -> processed.add(me.getKey()), new WithinThreadExecutor(),
+            true, true);
+      assertEquals(processed, expected);
+      assertEquals(store.size(), NUM_KEYS);
+   }
+
+   /**
+    * Starts another store on the database of the tested store, which must be stopped.
+    * @param numSegments the number of segments of the cache, the default if 0
+    */
+   private RocksDBStore startStore(boolean segmented, int numSegments) {
+      ConfigurationBuilder cb = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      if (numSegments > 0) {
+         cb.clustering().hash().numSegments(numSegments);
+      }
+      createCacheStoreConfig(cb.persistence()).segmented(segmented);
+      RocksDBStore store = new RocksDBStore();
+      store.init(createContext(cb.build()));
+      store.start();
+      return store;
+   }
+
+   private KeyPartitioner keyPartitioner() {
+      return keyPartitioner(0);
+   }
+
+   private KeyPartitioner keyPartitioner(int numSegments) {
+      ConfigurationBuilder cb = TestCacheManagerFactory.getDefaultCacheConfiguration(false);
+      if (numSegments > 0) {
+         cb.clustering().hash().numSegments(numSegments);
+      }
+      KeyPartitioner keyPartitioner = new HashFunctionPartitioner();
+      keyPartitioner.init(cb.build().clustering().hash());
+      return keyPartitioner;
+   }
+}
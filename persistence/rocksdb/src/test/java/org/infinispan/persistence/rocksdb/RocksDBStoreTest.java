@@ -1,8 +1,13 @@
 package org.infinispan.persistence.rocksdb;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
+import java.io.File;
+import java.util.Arrays;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -20,6 +25,9 @@
 import org.infinispan.test.TestingUtil;
 import org.infinispan.test.fwk.TestCacheManagerFactory;
 import org.infinispan.test.fwk.TestInternalCacheEntryFactory;
+import org.rocksdb.Options;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksIterator;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.Test;
 
@@ -52,6 +60,66 @@ protected AdvancedLoadWriteStore createStore() throws Exception {
       return fcs;
    }
 
+   public void testExpiredEntryIsNotLoaded() throws Exception {
+      cl.write(marshalledEntry(internalCacheEntry("k1", "v1", 100)));
+      assertEquals(cl.load("k1").getValue(), "v1");
+      timeService.advance(101);
+      assertNull(cl.load("k1"));
+      assertFalse(cl.contains("k1"));
+   }
+
+   public void testPurgeRemovesOnlyExpiredEntries() throws Exception {
+      cl.write(marshalledEntry(internalCacheEntry("k1", "v1", 100)));
+      cl.write(marshalledEntry(internalCacheEntry("k2", "v2", 1000)));
+      cl.write(marshalledEntry(internalCacheEntry("k3", "v3", -1)));
+      timeService.advance(101);
+      purgeExpired("k1");
+      assertEquals(cl.size(), 2);
+      assertEquals(cl.load("k2").getValue(), "v2");
+      assertEquals(cl.load("k3").getValue(), "v3");
+   }
+
+   public void testReadValuesWithoutExpiryPrefix() throws Exception {
+      cl.write(marshalledEntry(internalCacheEntry("k1", "v1", -1)));
+      cl.write(marshalledEntry(internalCacheEntry("k2", "v2", 100)));
+      cl.stop();
+
+      // Rewrite the database as it was before the expiration times were kept with the values
+      try (Options options = new Options();
+           RocksDB db = RocksDB.open(options, dataLocation());
+           RocksIterator it = db.newIterator()) {
+         for (it.seekToFirst(); it.isValid(); it.next()) {
+            if (it.key().length == 0) {
+               db.remove(it.key());
+            } else {
+               byte[] value = it.value();
+               db.put(it.key(), Arrays.copyOfRange(value, 8, value.length));
+            }
+         }
+      }
+
+      cl.start();
+      assertEquals(cl.size(), 2);
+      assertEquals(cl.load("k1").getValue(), "v1");
+      assertEquals(cl.load("k2").getValue(), "v2");
+      timeService.advance(101);
+      assertNull(cl.load("k2"));
+      purgeExpired("k2");
+      assertEquals(cl.size(), 1);
+   }
+
+   public void testExpiredDatabaseIsRemoved() throws Exception {
+      cl.stop();
+      File expiredLocation = new File(tmpDirectory + "/expiry" + getClass().getSimpleName());
+      assertTrue(expiredLocation.mkdirs());
+      cl.start();
+      assertFalse(expiredLocation.exists());
+   }
+
+   private String dataLocation() {
+      return tmpDirectory + "/data" + getClass().getSimpleName();
+   }
+
    @Test(groups = "stress")
    public void testConcurrentWriteAndRestart() {
       concurrentWriteAndRestart(true);
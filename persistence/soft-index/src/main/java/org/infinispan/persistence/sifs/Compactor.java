@@ -5,9 +5,10 @@
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.infinispan.commons.marshall.Marshaller;
 import org.infinispan.util.TimeService;
@@ -19,14 +20,18 @@
  * becomes cluttered with old records, the valid records are moved to another file and the old ones are dropped.
  * Expired records are moved as tombstones without values (records of entry removal).
  *
+ * Files are compacted by a configurable number of threads, the files with the highest ratio of unused space being
+ * compacted first. The throughput of the compaction may be limited so that it does not starve the other reads and
+ * writes to the disk.
+ *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
-class Compactor extends Thread {
+class Compactor {
    private static final Log log = LogFactory.getLog(Compactor.class);
    private static final boolean trace = log.isTraceEnabled();
 
    private final ConcurrentMap<Integer, Stats> fileStats = new ConcurrentHashMap<Integer, Stats>();
-   private final BlockingQueue<Integer> scheduledCompaction = new LinkedBlockingQueue<Integer>();
+   private final BlockingQueue<ScheduledFile> scheduledCompaction = new PriorityBlockingQueue<ScheduledFile>();
    private final BlockingQueue<IndexRequest> indexQueue;
    private final FileProvider fileProvider;
    private final TemporaryTable temporaryTable;
@@ -34,6 +39,11 @@ class Compactor extends Thread {
    private final TimeService timeService;
    private final int maxFileSize;
    private final double compactionThreshold;
+   private final Thread[] threads;
+   private final ThroughputLimiter throughputLimiter;
+   private final AtomicLong compactedFiles = new AtomicLong();
+   private final AtomicLong compactedBytes = new AtomicLong();
+   private final AtomicLong writtenBytes = new AtomicLong();
 
    private Index index;
    // as processing single scheduled compaction takes a lot of time, we don't use the queue to signalize
@@ -47,7 +57,14 @@ public Compactor(FileProvider fileProvider,
                     TemporaryTable temporaryTable,
                     BlockingQueue<IndexRequest> indexQueue,
                     Marshaller marshaller, TimeService timeService, int maxFileSize, double compactionThreshold) {
-      super("BCS-Compactor");
+      this(fileProvider, temporaryTable, indexQueue, marshaller, timeService, maxFileSize, compactionThreshold, 1, 0);
+   }
+
+   public Compactor(FileProvider fileProvider,
+                    TemporaryTable temporaryTable,
+                    BlockingQueue<IndexRequest> indexQueue,
+                    Marshaller marshaller, TimeService timeService, int maxFileSize, double compactionThreshold,
+                    int compactionThreads, long maxThroughput) {
       this.fileProvider = fileProvider;
       this.temporaryTable = temporaryTable;
       this.indexQueue = indexQueue;
@@ -55,7 +72,12 @@ public Compactor(FileProvider fileProvider,
       this.timeService = timeService;
       this.maxFileSize = maxFileSize;
       this.compactionThreshold = compactionThreshold;
-      this.start();
+      this.throughputLimiter = maxThroughput > 0 ? new ThroughputLimiter(maxThroughput) : null;
+      this.threads = new Thread[compactionThreads];
+      for (int i = 0; i < compactionThreads; ++i) {
+         threads[i] = new Thread(this::compact, compactionThreads == 1 ? "BCS-Compactor" : "BCS-Compactor-" + i);
+         threads[i].start();
+      }
    }
 
    public void setIndex(Index index) {
@@ -112,9 +134,11 @@ private void schedule(int file, Stats stats) {
       try {
          synchronized (stats) {
             if (!stats.isScheduled()) {
-               log.debug(String.format("Scheduling file %d for compaction: %d/%d free", file, stats.free.get(), stats.total));
+               int free = stats.free.get();
+               int total = stats.total;
+               log.debug(String.format("Scheduling file %d for compaction: %d/%d free", file, free, total));
                stats.setScheduled();
-               scheduledCompaction.put(file);
+               scheduledCompaction.put(new ScheduledFile(file, total > 0 ? (double) free / total : 0));
             }
          }
       } catch (InterruptedException e) {
@@ -122,15 +146,17 @@ private void schedule(int file, Stats stats) {
       }
    }
 
-   @Override
-   public void run() {
+   private void compact() {
       try {
          FileProvider.Log logFile = null;
          int currentOffset = 0;
          for(;;) {
             Integer scheduledFile = null;
             try {
-               scheduledFile = scheduledCompaction.poll(1, TimeUnit.MINUTES);
+               ScheduledFile scheduled = scheduledCompaction.poll(1, TimeUnit.MINUTES);
+               if (scheduled != null) {
+                  scheduledFile = scheduled.file;
+               }
             } catch (InterruptedException e) {
             }
             if (terminateSignal) {
@@ -145,7 +171,7 @@ public void run() {
                logFile = null;
                continue;
             }
-            if (scheduledFile == null) {
+            if (scheduledFile == null || scheduledFile < 0) {
                if (logFile != null) {
                   logFile.close();
                   completeFile(logFile.fileId);
@@ -166,6 +192,9 @@ public void run() {
                   if (header == null) {
                      break;
                   }
+                  if (throughputLimiter != null) {
+                     throughputLimiter.acquire(header.totalLength());
+                  }
                   byte[] serializedKey = EntryRecord.readKey(handle, header, scheduledOffset);
                   Object key = marshaller.objectFromByteBuffer(serializedKey);
 
@@ -284,6 +313,7 @@ public void run() {
                            scheduledFile, indexedOffset));
 
                      currentOffset += writtenLength;
+                     writtenBytes.addAndGet(writtenLength);
                   }
                   scheduledOffset += header.totalLength();
                }
@@ -302,6 +332,8 @@ public void run() {
             } else {
                // The deletion must be executed only after the index is fully updated.
                log.debugf("Finished compacting %d, scheduling delete", scheduledFile);
+               compactedFiles.incrementAndGet();
+               compactedBytes.addAndGet(scheduledOffset);
                indexQueue.put(IndexRequest.deleteFileRequest(scheduledFile));
             }
          }
@@ -321,9 +353,9 @@ private void pauseCompactor(FileProvider.Log logFile) throws IOException, Interr
 
    public void clearAndPause() throws InterruptedException {
       compactorResume = new CountDownLatch(1);
-      compactorStop = new CountDownLatch(1);
+      compactorStop = new CountDownLatch(threads.length);
       clearSignal = true;
-      scheduledCompaction.put(-1);
+      wakeUpThreads();
       compactorStop.await();
       scheduledCompaction.clear();
       fileStats.clear();
@@ -336,8 +368,109 @@ public void resumeAfterPause() {
 
    public void stopOperations() throws InterruptedException {
       terminateSignal = true;
-      scheduledCompaction.put(-1);
-      this.join();
+      wakeUpThreads();
+      for (Thread thread : threads) {
+         thread.join();
+      }
+   }
+
+   private void wakeUpThreads() throws InterruptedException {
+      for (int i = 0; i < threads.length; ++i) {
+         scheduledCompaction.put(ScheduledFile.WAKE_UP);
+      }
+   }
+
+   /**
+    * @return number of files compacted and scheduled for deletion
+    */
+   public long getCompactedFiles() {
+      return compactedFiles.get();
+   }
+
+   /**
+    * @return total size of the files compacted and scheduled for deletion, in bytes
+    */
+   public long getCompactedBytes() {
+      return compactedBytes.get();
+   }
+
+   /**
+    * @return number of bytes the compaction has copied to other files
+    */
+   public long getWrittenBytes() {
+      return writtenBytes.get();
+   }
+
+   /**
+    * @return number of files waiting to be compacted
+    */
+   public int getScheduledFiles() {
+      int scheduled = 0;
+      for (ScheduledFile file : scheduledCompaction) {
+         if (file.file >= 0) {
+            scheduled++;
+         }
+      }
+      return scheduled;
+   }
+
+   /**
+    * @return number of bytes used by overwritten or removed records in data files
+    */
+   public long getFreeBytes() {
+      long free = 0;
+      for (Stats stats : fileStats.values()) {
+         free += stats.getFree();
+      }
+      return free;
+   }
+
+   /**
+    * A file waiting for compaction, the files with the highest ratio of free space are compacted first.
+    */
+   private static class ScheduledFile implements Comparable<ScheduledFile> {
+      // wakes up a compactor thread in order to handle a signal, handled before any file
+      static final ScheduledFile WAKE_UP = new ScheduledFile(-1, Double.MAX_VALUE);
+
+      private final int file;
+      private final double freeRatio;
+
+      private ScheduledFile(int file, double freeRatio) {
+         this.file = file;
+         this.freeRatio = freeRatio;
+      }
+
+      @Override
+      public int compareTo(ScheduledFile other) {
+         return Double.compare(other.freeRatio, freeRatio);
+      }
+   }
+
+   /**
+    * Limits the number of bytes processed per second, shared by all the compactor threads.
+    */
+   private static class ThroughputLimiter {
+      private final double nanosPerByte;
+      private long nextAvailable = System.nanoTime();
+
+      private ThroughputLimiter(long maxBytesPerSecond) {
+         this.nanosPerByte = (double) TimeUnit.SECONDS.toNanos(1) / maxBytesPerSecond;
+      }
+
+      void acquire(int bytes) throws InterruptedException {
+         long waitNanos;
+         synchronized (this) {
+            long now = System.nanoTime();
+            if (nextAvailable < now) {
+               nextAvailable = now;
+            }
+            waitNanos = nextAvailable - now;
+            nextAvailable += (long) (bytes * nanosPerByte);
+         }
+         if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+         }
+      }
    }
 
    private static class Stats {
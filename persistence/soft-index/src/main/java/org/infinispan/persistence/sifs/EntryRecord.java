@@ -4,6 +4,8 @@
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 
+import org.infinispan.commons.io.ByteBufferImpl;
+
 /**
  * Helper for reading/writing entries into file.
  *
@@ -124,48 +126,46 @@ private static boolean read(FileChannel fileChannel, ByteBuffer buffer, int leng
    }
 
    public static void writeEntry(FileChannel fileChannel, byte[] serializedKey, byte[] serializedMetadata, byte[] serializedValue, long seqId, long expiration) throws IOException {
-      ByteBuffer header = ByteBuffer.allocate(EntryHeader.HEADER_SIZE);
-      if (EntryHeader.useMagic) {
-         header.putInt(EntryHeader.MAGIC);
-      }
-      header.putShort((short) serializedKey.length);
-      header.putShort(serializedMetadata == null ? (short) 0 : (short) serializedMetadata.length);
-      header.putInt(serializedValue == null ? 0 : serializedValue.length);
-      header.putLong(seqId);
-      header.putLong(expiration);
-      header.flip();
-      write(fileChannel, header);
-      write(fileChannel, ByteBuffer.wrap(serializedKey));
-      if (serializedMetadata != null) {
-         write(fileChannel, ByteBuffer.wrap(serializedMetadata));
-      }
-      if (serializedValue != null) {
-         write(fileChannel, ByteBuffer.wrap(serializedValue));
-      }
+      writeEntry(fileChannel, wrap(serializedKey), wrap(serializedMetadata), wrap(serializedValue), seqId, expiration);
    }
 
    public static void writeEntry(FileChannel fileChannel, org.infinispan.commons.io.ByteBuffer serializedKey, org.infinispan.commons.io.ByteBuffer serializedMetadata, org.infinispan.commons.io.ByteBuffer serializedValue, long seqId, long expiration) throws IOException {
-      ByteBuffer header = ByteBuffer.allocate(EntryHeader.HEADER_SIZE);
+      int length = EntryHeader.HEADER_SIZE + serializedKey.getLength()
+            + (serializedMetadata == null ? 0 : serializedMetadata.getLength())
+            + (serializedValue == null ? 0 : serializedValue.getLength());
+      ByteBuffer buffer = ByteBuffer.allocate(length);
+      putEntry(buffer, serializedKey, serializedMetadata, serializedValue, seqId, expiration);
+      buffer.flip();
+      write(fileChannel, buffer);
+   }
+
+   /**
+    * Serializes the record into the buffer instead of writing it to the file directly, so that several records
+    * can be appended with a single write. The buffer must have at least {@link LogRequest#length()} bytes remaining.
+    */
+   public static void putEntry(ByteBuffer buffer, org.infinispan.commons.io.ByteBuffer serializedKey, org.infinispan.commons.io.ByteBuffer serializedMetadata, org.infinispan.commons.io.ByteBuffer serializedValue, long seqId, long expiration) {
       if (EntryHeader.useMagic) {
-         header.putInt(EntryHeader.MAGIC);
+         buffer.putInt(EntryHeader.MAGIC);
       }
-      header.putShort((short) serializedKey.getLength());
-      header.putShort(serializedMetadata == null ? (short) 0 : (short) serializedMetadata.getLength());
-      header.putInt(serializedValue == null ? 0 : serializedValue.getLength());
-      header.putLong(seqId);
-      header.putLong(expiration);
-      header.flip();
-      write(fileChannel, header);
-      write(fileChannel, ByteBuffer.wrap(serializedKey.getBuf(), serializedKey.getOffset(), serializedKey.getLength()));
+      buffer.putShort((short) serializedKey.getLength());
+      buffer.putShort(serializedMetadata == null ? (short) 0 : (short) serializedMetadata.getLength());
+      buffer.putInt(serializedValue == null ? 0 : serializedValue.getLength());
+      buffer.putLong(seqId);
+      buffer.putLong(expiration);
+      buffer.put(serializedKey.getBuf(), serializedKey.getOffset(), serializedKey.getLength());
       if (serializedMetadata != null) {
-         write(fileChannel, ByteBuffer.wrap(serializedMetadata.getBuf(), serializedMetadata.getOffset(), serializedMetadata.getLength()));
+         buffer.put(serializedMetadata.getBuf(), serializedMetadata.getOffset(), serializedMetadata.getLength());
       }
       if (serializedValue != null) {
-         write(fileChannel, ByteBuffer.wrap(serializedValue.getBuf(), serializedValue.getOffset(), serializedValue.getLength()));
+         buffer.put(serializedValue.getBuf(), serializedValue.getOffset(), serializedValue.getLength());
       }
    }
 
-   private static void write(FileChannel fileChannel, ByteBuffer buffer) throws IOException {
+   private static org.infinispan.commons.io.ByteBuffer wrap(byte[] bytes) {
+      return bytes == null ? null : new ByteBufferImpl(bytes, 0, bytes.length);
+   }
+
+   static void write(FileChannel fileChannel, ByteBuffer buffer) throws IOException {
       while (buffer.hasRemaining()) fileChannel.write(buffer);
    }
 }
@@ -6,25 +6,36 @@
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import org.infinispan.container.offheap.UnsafeHolder;
 import org.infinispan.util.logging.LogFactory;
 
 /**
  * Provides resource management for files - only limited amount of files may be opened in one moment, and opened file
  * should not be deleted. Also allows to generate file indexes.
  *
+ * Files that are not written anymore may be memory-mapped, up to a configurable total size: when the limit is reached,
+ * the mapping of the least recently read file is dropped. Reads from a mapped file don't need any system call. A dropped
+ * mapping is released explicitly once no read uses it anymore, instead of when the buffer is garbage collected, and it
+ * counts towards the limit until then.
+ *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
 class FileProvider {
@@ -37,11 +48,22 @@ class FileProvider {
    private final AtomicInteger currentOpenFiles = new AtomicInteger(0);
    private final ReadWriteLock lock = new ReentrantReadWriteLock();
    private final Set<Integer> logFiles = new HashSet<Integer>();
+   private final long mappedSizeLimit;
+   // guarded by itself
+   private final List<Record> mappedRecords = new ArrayList<Record>();
+   private long mappedSize;
+   private final AtomicLong mappedReads = new AtomicLong();
+   private final AtomicLong unmappedReads = new AtomicLong();
 
    private int nextFileId = 0;
 
    public FileProvider(String dataDir, int openFileLimit) {
+      this(dataDir, openFileLimit, 0);
+   }
+
+   public FileProvider(String dataDir, int openFileLimit, long mappedSizeLimit) {
       this.openFileLimit = openFileLimit;
+      this.mappedSizeLimit = mappedSizeLimit;
       this.recordQueue = new ArrayBlockingQueue<Record>(openFileLimit);
       this.dataDir = new File(dataDir);
       this.dataDir.mkdirs();
@@ -157,6 +179,127 @@ protected FileChannel openChannel(int fileId) throws FileNotFoundException {
       return new RandomAccessFile(new File(dataDir, String.valueOf(fileId)), "r").getChannel();
    }
 
+   private boolean isLogFile(int fileId) {
+      lock.readLock().lock();
+      try {
+         return logFiles.contains(fileId);
+      } finally {
+         lock.readLock().unlock();
+      }
+   }
+
+   /**
+    * @return the mapping of the file, or null if the file cannot be mapped now
+    */
+   private Mapping map(Record record, FileChannel fileChannel) throws IOException {
+      long size = fileChannel.size();
+      if (size > mappedSizeLimit || size > Integer.MAX_VALUE) {
+         record.mappable = false;
+         return null;
+      }
+      synchronized (mappedRecords) {
+         if (record.mapping != null) {
+            return record.mapping;
+         }
+         while (mappedSize + size > mappedSizeLimit && !mappedRecords.isEmpty()) {
+            Record lru = mappedRecords.get(0);
+            for (Record r : mappedRecords) {
+               if (r.lastMappedRead < lru.lastMappedRead) {
+                  lru = r;
+               }
+            }
+            unmap(lru);
+         }
+         if (mappedSize + size > mappedSizeLimit) {
+            // the dropped mappings are still read, the file is read through the channel until they are released
+            return null;
+         }
+         // the mapping stays valid after the channel is closed
+         Mapping mapping = new Mapping(record.getFileId(), fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+         if (log.isTraceEnabled()) {
+            log.tracef("Mapped file %d (%d bytes)", record.getFileId(), size);
+         }
+         record.mapping = mapping;
+         mappedRecords.add(record);
+         mappedSize += size;
+         return mapping;
+      }
+   }
+
+   private void unmap(Record record) {
+      Mapping mapping;
+      synchronized (mappedRecords) {
+         mapping = record.mapping;
+         if (mapping == null) {
+            return;
+         }
+         record.mapping = null;
+         mappedRecords.remove(record);
+      }
+      // drops the reference held while the file is mapped
+      mapping.release();
+   }
+
+   /**
+    * Releases the memory of the buffer right away, the buffer must not be accessed anymore.  Falls back to releasing
+    * the memory when the buffer is garbage collected if the JVM doesn't provide the cleaner of direct buffers.
+    */
+   private static void clean(MappedByteBuffer buffer) {
+      try {
+         Method invokeCleaner;
+         try {
+            // Java 9 and later
+            invokeCleaner = UnsafeHolder.UNSAFE.getClass().getMethod("invokeCleaner", ByteBuffer.class);
+         } catch (NoSuchMethodException e) {
+            invokeCleaner = null;
+         }
+         if (invokeCleaner != null) {
+            invokeCleaner.invoke(UnsafeHolder.UNSAFE, buffer);
+            return;
+         }
+         Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+         cleanerMethod.setAccessible(true);
+         Object cleaner = cleanerMethod.invoke(buffer);
+         if (cleaner != null) {
+            cleaner.getClass().getMethod("clean").invoke(cleaner);
+         }
+      } catch (Exception e) {
+         log.debug("Cannot release the memory-mapped buffer, it will be released when garbage collected", e);
+      }
+   }
+
+   /**
+    * @return number of reads served from memory-mapped files
+    */
+   public long getMappedReads() {
+      return mappedReads.get();
+   }
+
+   /**
+    * @return number of reads that could not be served from a memory-mapped file, zero if mapping is disabled
+    */
+   public long getUnmappedReads() {
+      return unmappedReads.get();
+   }
+
+   /**
+    * @return total size of the memory-mapped files, including the dropped mappings still being read, in bytes
+    */
+   public long getMappedSize() {
+      synchronized (mappedRecords) {
+         return mappedSize;
+      }
+   }
+
+   /**
+    * @return number of memory-mapped files
+    */
+   public int getMappedFiles() {
+      synchronized (mappedRecords) {
+         return mappedRecords.size();
+      }
+   }
+
    public Log getFileForLog() throws IOException {
       lock.writeLock().lock();
       try {
@@ -288,7 +431,7 @@ private Handle(Record record) {
 
       public int read(ByteBuffer buffer, long offset) throws IOException {
          if (!usable) throw new IllegalStateException();
-         return record.getFileChannel().read(buffer, offset);
+         return record.read(buffer, offset);
       }
 
       @Override
@@ -308,11 +451,58 @@ public int getFileId() {
       }
    }
 
+   /**
+    * A memory-mapped file, counting the reads in progress.  The file provider holds a reference while the file is
+    * mapped, the buffer is released when the last reference is dropped.
+    */
+   private final class Mapping {
+      private final int fileId;
+      private final MappedByteBuffer buffer;
+      private final AtomicInteger references = new AtomicInteger(1);
+
+      private Mapping(int fileId, MappedByteBuffer buffer) {
+         this.fileId = fileId;
+         this.buffer = buffer;
+      }
+
+      /**
+       * @return false if the buffer was already released
+       */
+      boolean retain() {
+         for (;;) {
+            int current = references.get();
+            if (current == 0) {
+               return false;
+            }
+            if (references.compareAndSet(current, current + 1)) {
+               return true;
+            }
+         }
+      }
+
+      void release() {
+         if (references.decrementAndGet() == 0) {
+            clean(buffer);
+            synchronized (mappedRecords) {
+               mappedSize -= buffer.capacity();
+            }
+            if (log.isTraceEnabled()) {
+               log.tracef("Released the mapping of file %d (%d bytes)", fileId, buffer.capacity());
+            }
+         }
+      }
+   }
+
    private class Record {
       private final int fileId;
       private FileChannel fileChannel;
       private int handleCount;
       private boolean deleteOnClose = false;
+      // guarded by mappedRecords, read without the lock
+      private volatile Mapping mapping;
+      private volatile long lastMappedRead;
+      // the file is not mapped when it is bigger than the limit
+      private volatile boolean mappable = true;
 
       private Record(FileChannel fileChannel, int fileId) {
          this.fileChannel = fileChannel;
@@ -323,6 +513,37 @@ FileChannel getFileChannel() {
          return fileChannel;
       }
 
+      int read(ByteBuffer buffer, long offset) throws IOException {
+         FileChannel fileChannel = this.fileChannel;
+         if (mappedSizeLimit <= 0) {
+            return fileChannel.read(buffer, offset);
+         }
+         Mapping mapping = this.mapping;
+         if (mapping == null && mappable && !isLogFile(fileId)) {
+            mapping = map(this, fileChannel);
+         }
+         // the mapping may be dropped concurrently, in which case the file is read through the channel
+         if (mapping == null || !mapping.retain()) {
+            unmappedReads.incrementAndGet();
+            return fileChannel.read(buffer, offset);
+         }
+         try {
+            mappedReads.incrementAndGet();
+            lastMappedRead = System.nanoTime();
+            MappedByteBuffer mapped = mapping.buffer;
+            if (offset >= mapped.capacity()) {
+               return -1;
+            }
+            int length = (int) Math.min(buffer.remaining(), mapped.capacity() - offset);
+            ByteBuffer source = mapped.duplicate();
+            source.position((int) offset).limit((int) offset + length);
+            buffer.put(source);
+            return length;
+         } finally {
+            mapping.release();
+         }
+      }
+
       void increaseHandleCount() {
          handleCount++;
       }
@@ -332,6 +553,7 @@ void decreaseHandleCount() throws IOException {
          if (handleCount == 0 && deleteOnClose) {
             // we cannot easily remove the record from queue - keep it there until collection,
             // but physically close and delete the file
+            unmap(this);
             fileChannel.close();
             fileChannel = null;
             openFiles.remove(fileId, this);
@@ -352,6 +574,7 @@ public int getFileId() {
       }
 
       public void close() throws IOException {
+         unmap(this);
          fileChannel.close();
          fileChannel = null;
          if (deleteOnClose) {
@@ -366,6 +589,7 @@ public void delete() {
 
       public void deleteOnClose() throws IOException {
          if (handleCount == 0) {
+            unmap(this);
             if (fileChannel != null) {
                fileChannel.close();
                fileChannel = null;
@@ -1,8 +1,12 @@
 package org.infinispan.persistence.sifs;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
-import org.infinispan.commons.io.ByteBuffer;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -11,6 +15,9 @@
  * It writes the records to append-only log files, inserts the entry position into TemporaryTable and queues the position
  * to be persisted in Index.
  *
+ * All the requests that are waiting in the queue are appended with a single write. The file is forced to disk once
+ * per such batch when the writes are synchronous, at most once per sync interval if that is set, and never otherwise.
+ *
  * @author Radim Vansa &lt;rvansa@redhat.com&gt;
  */
 public class LogAppender extends Thread {
@@ -18,19 +25,41 @@ public class LogAppender extends Thread {
 
    private final SyncProcessingQueue<LogRequest> queue;
    private final BlockingQueue<IndexRequest> indexQueue;
+   private static final int BATCH_BUFFER_SIZE = 64 * 1024;
+
    private final boolean syncWrites;
+   private final long syncInterval;
    private final TemporaryTable temporaryTable;
    private final int maxFileSize;
    private final Compactor compactor;
    private final FileProvider fileProvider;
    private LogRequest pausedRequest;
    private long seqId = 0;
+   // the following fields are accessed only by the appender thread
+   private final List<LogRequest> batchRequests = new ArrayList<>();
+   private ByteBuffer batchBuffer = ByteBuffer.allocate(BATCH_BUFFER_SIZE);
+   private FileProvider.Log logFile;
+   private int currentOffset;
+   private boolean unsynced;
+   private long lastSync = System.nanoTime();
+   // written only by the appender thread
+   private volatile long appendedBytes = 0;
+   private volatile long writes = 0;
+   private volatile long syncs = 0;
 
    LogAppender(SyncProcessingQueue<LogRequest> inboundQueue,
                BlockingQueue<IndexRequest> indexQueue,
                TemporaryTable temporaryTable,
                Compactor compactor,
                FileProvider fileProvider, boolean syncWrites, int maxFileSize) {
+      this(inboundQueue, indexQueue, temporaryTable, compactor, fileProvider, syncWrites, 0, maxFileSize);
+   }
+
+   LogAppender(SyncProcessingQueue<LogRequest> inboundQueue,
+               BlockingQueue<IndexRequest> indexQueue,
+               TemporaryTable temporaryTable,
+               Compactor compactor,
+               FileProvider fileProvider, boolean syncWrites, long syncInterval, int maxFileSize) {
       super("BCS-LogAppender");
       this.setDaemon(true);
       this.queue = inboundQueue;
@@ -39,10 +68,32 @@ public class LogAppender extends Thread {
       this.compactor = compactor;
       this.fileProvider = fileProvider;
       this.syncWrites = syncWrites;
+      this.syncInterval = syncInterval;
       this.maxFileSize = maxFileSize;
       start();
    }
 
+   /**
+    * @return number of bytes appended to the data files since the store was started
+    */
+   public long getAppendedBytes() {
+      return appendedBytes;
+   }
+
+   /**
+    * @return number of writes to the data files, each appending one or more records
+    */
+   long getWrites() {
+      return writes;
+   }
+
+   /**
+    * @return number of times the data files were forced to disk
+    */
+   long getSyncs() {
+      return syncs;
+   }
+
    public void setSeqId(long seqId) {
       this.seqId = seqId;
    }
@@ -67,49 +118,65 @@ public void resumeAfterPause() {
    @Override
    public void run() {
       try {
-         FileProvider.Log logFile = fileProvider.getFileForLog();
-         int currentOffset = 0;
+         logFile = fileProvider.getFileForLog();
+         currentOffset = 0;
          while (true) {
             LogRequest request = queue.pop();
             if (request != null) {
                if (request.isClear()) {
+                  flush();
                   logFile.close();
                   queue.notifyNoWait();
                   request.pause();
                   currentOffset = 0;
+                  unsynced = false;
                   logFile = fileProvider.getFileForLog();
                   log.debug("Appending records to " + logFile.fileId);
                   continue;
                } else if (request.isStop()) {
+                  flush();
+                  if (unsynced && (syncWrites || syncInterval > 0)) {
+                     sync();
+                  }
                   queue.notifyNoWait();
                   break;
                } else if (request.isPause()) {
+                  flush();
                   queue.notifyNoWait();
                   request.pause();
                   continue;
                }
-               if (currentOffset + request.length() > maxFileSize) {
+               if (currentOffset + batchBuffer.position() + request.length() > maxFileSize) {
                   // switch to next file
+                  flush();
+                  if (unsynced && (syncWrites || syncInterval > 0)) {
+                     sync();
+                  }
                   logFile.close();
                   compactor.completeFile(logFile.fileId);
                   currentOffset = 0;
+                  unsynced = false;
                   logFile = fileProvider.getFileForLog();
                   log.debug("Appending records to " + logFile.fileId);
                }
-               long seqId = nextSeqId();
-               EntryRecord.writeEntry(logFile.fileChannel, request.getSerializedKey(), request.getSerializedMetadata(), request.getSerializedValue(), seqId, request.getExpiration());
-               int offset = request.getSerializedValue() == null ? ~currentOffset : currentOffset;
-               temporaryTable.set(request.getKey(), logFile.fileId, offset);
-               IndexRequest indexRequest = IndexRequest.update(request.getKey(), raw(request.getSerializedKey()),
-                     logFile.fileId, offset, request.length());
-               request.setIndexRequest(indexRequest);
-               indexQueue.put(indexRequest);
-               currentOffset += request.length();
+               append(request);
             } else {
-               if (syncWrites) {
-                  logFile.fileChannel.force(false);
+               flush();
+               long waitTime = 0;
+               if (unsynced) {
+                  if (syncWrites) {
+                     sync();
+                  } else if (syncInterval > 0) {
+                     long remaining = syncInterval - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastSync);
+                     if (remaining <= 0) {
+                        sync();
+                     } else {
+                        // wake up in time to sync the file even if there are no more writes
+                        waitTime = remaining;
+                     }
+                  }
                }
-               queue.notifyAndWait();
+               queue.notifyAndWait(waitTime);
             }
          }
       } catch (Exception e) {
@@ -118,7 +185,61 @@ public void run() {
       }
    }
 
-   private byte[] raw(ByteBuffer buffer) {
+   private void append(LogRequest request) throws IOException, InterruptedException {
+      int length = request.length();
+      if (batchBuffer.remaining() < length) {
+         flush();
+         if (batchBuffer.capacity() < length) {
+            batchBuffer = ByteBuffer.allocate(length);
+         }
+      }
+      EntryRecord.putEntry(batchBuffer, request.getSerializedKey(), request.getSerializedMetadata(), request.getSerializedValue(), nextSeqId(), request.getExpiration());
+      batchRequests.add(request);
+   }
+
+   /**
+    * Writes all the buffered records with a single write and only then publishes their positions, as the records
+    * cannot be read before they are in the file.
+    */
+   private void flush() throws IOException, InterruptedException {
+      if (batchRequests.isEmpty()) {
+         return;
+      }
+      batchBuffer.flip();
+      EntryRecord.write(logFile.fileChannel, batchBuffer);
+      writes++;
+      if (batchBuffer.capacity() > BATCH_BUFFER_SIZE) {
+         // do not keep the buffer allocated for a single large record
+         batchBuffer = ByteBuffer.allocate(BATCH_BUFFER_SIZE);
+      } else {
+         batchBuffer.clear();
+      }
+      for (LogRequest request : batchRequests) {
+         int offset = request.getSerializedValue() == null ? ~currentOffset : currentOffset;
+         temporaryTable.set(request.getKey(), logFile.fileId, offset);
+         IndexRequest indexRequest = IndexRequest.update(request.getKey(), raw(request.getSerializedKey()),
+               logFile.fileId, offset, request.length());
+         request.setIndexRequest(indexRequest);
+         indexQueue.put(indexRequest);
+         currentOffset += request.length();
+         appendedBytes += request.length();
+      }
+      batchRequests.clear();
+      unsynced = true;
+      if (!syncWrites && syncInterval > 0 && System.nanoTime() - lastSync >= TimeUnit.MILLISECONDS.toNanos(syncInterval)) {
+         // the queue might never get empty under a steady load
+         sync();
+      }
+   }
+
+   private void sync() throws IOException {
+      logFile.fileChannel.force(false);
+      syncs++;
+      unsynced = false;
+      lastSync = System.nanoTime();
+   }
+
+   private byte[] raw(org.infinispan.commons.io.ByteBuffer buffer) {
       if (buffer.getBuf().length == buffer.getLength()) {
          return buffer.getBuf();
       } else {
@@ -1,15 +1,23 @@
 package org.infinispan.persistence.sifs;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicLong;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.infinispan.Cache;
 import org.infinispan.commons.equivalence.Equivalence;
 import org.infinispan.commons.io.ByteBuffer;
 import org.infinispan.commons.io.ByteBufferFactory;
 import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.configuration.global.GlobalConfiguration;
 import org.infinispan.filter.KeyFilter;
+import org.infinispan.jmx.JmxUtil;
 import org.infinispan.marshall.core.MarshalledEntry;
 import org.infinispan.marshall.core.MarshalledEntryFactory;
 import org.infinispan.metadata.InternalMetadata;
@@ -117,6 +125,9 @@ public class SoftIndexFileStore implements AdvancedLoadWriteStore {
    private TimeService timeService;
    private Equivalence<Object> keyEquivalence;
    private int maxKeyLength;
+   private Cache cache;
+   private MBeanServer mBeanServer;
+   private ObjectName statisticsObjectName;
 
    @Override
    public void init(InitializationContext ctx) {
@@ -125,6 +136,7 @@ public void init(InitializationContext ctx) {
       marshalledEntryFactory = ctx.getMarshalledEntryFactory();
       byteBufferFactory = ctx.getByteBufferFactory();
       timeService = ctx.getTimeService();
+      cache = ctx.getCache();
       keyEquivalence = ctx.getCache().getAdvancedCache().getCacheConfiguration().dataContainer().keyEquivalence();
       maxKeyLength = configuration.maxNodeSize() - IndexNode.RESERVED_SPACE;
    }
@@ -138,9 +150,12 @@ public void start() {
       temporaryTable = new TemporaryTable(configuration.indexQueueLength() * configuration.indexSegments(), keyEquivalence);
       storeQueue = new SyncProcessingQueue<LogRequest>();
       indexQueue = new IndexQueue(configuration.indexSegments(), configuration.indexQueueLength(), keyEquivalence);
-      fileProvider = new FileProvider(configuration.dataLocation(), configuration.openFilesLimit());
-      compactor = new Compactor(fileProvider, temporaryTable, indexQueue, marshaller, timeService, configuration.maxFileSize(), configuration.compactionThreshold());
-      logAppender = new LogAppender(storeQueue, indexQueue, temporaryTable, compactor, fileProvider, configuration.syncWrites(), configuration.maxFileSize());
+      fileProvider = new FileProvider(configuration.dataLocation(), configuration.openFilesLimit(),
+            configuration.mappedSizeLimit());
+      compactor = new Compactor(fileProvider, temporaryTable, indexQueue, marshaller, timeService, configuration.maxFileSize(), configuration.compactionThreshold(),
+            configuration.compactionThreads(), configuration.maxCompactionThroughput());
+      logAppender = new LogAppender(storeQueue, indexQueue, temporaryTable, compactor, fileProvider, configuration.syncWrites(), configuration.syncInterval(), configuration.maxFileSize());
+      registerStatistics();
       try {
          index = new Index(fileProvider, configuration.indexLocation(), configuration.indexSegments(),
                configuration.minNodeSize(), configuration.maxNodeSize(),
@@ -191,6 +206,36 @@ public void afterFile(int file) {
       logAppender.setSeqId(maxSeqId.get() + 1);
    }
 
+   private void registerStatistics() {
+      GlobalConfiguration globalConfiguration = cache.getCacheManager().getCacheManagerConfiguration();
+      if (!globalConfiguration.globalJmxStatistics().enabled()) {
+         return;
+      }
+      try {
+         mBeanServer = JmxUtil.lookupMBeanServer(globalConfiguration);
+         String groupName = "type=SoftIndexFileStore,manager="
+               + ObjectName.quote(globalConfiguration.globalJmxStatistics().cacheManagerName())
+               + ",cache=" + ObjectName.quote(cache.getName());
+         String jmxDomain = JmxUtil.buildJmxDomain(globalConfiguration, mBeanServer, groupName);
+         statisticsObjectName = new ObjectName(jmxDomain + ":" + groupName + ",component=Statistics");
+         JmxUtil.registerMBean(new SoftIndexFileStoreStatistics(fileProvider, compactor, logAppender), statisticsObjectName, mBeanServer);
+      } catch (Exception e) {
+         log.debug("Cannot register the statistics of the soft-index file store", e);
+         statisticsObjectName = null;
+      }
+   }
+
+   private void unregisterStatistics() {
+      if (statisticsObjectName != null) {
+         try {
+            JmxUtil.unregisterMBean(statisticsObjectName, mBeanServer);
+         } catch (Exception e) {
+            log.debug("Cannot unregister the statistics of the soft-index file store", e);
+         }
+         statisticsObjectName = null;
+      }
+   }
+
    protected boolean isSeqIdOld(long seqId, Object key, byte[] serializedKey) throws IOException {
       for (; ; ) {
          EntryPosition entry = temporaryTable.get(key);
@@ -234,6 +279,10 @@ protected boolean isIndexLoaded() {
       return index.isLoaded();
    }
 
+   LogAppender getLogAppender() {
+      return logAppender;
+   }
+
    @Override
    public void stop() {
       try {
@@ -243,6 +292,7 @@ public void stop() {
          compactor = null;
          index.stopOperations();
          index = null;
+         unregisterStatistics();
          fileProvider.stop();
          fileProvider = null;
          temporaryTable = null;
@@ -301,6 +351,34 @@ public void purge(Executor threadPool, PurgeListener listener) {
 
    @Override
    public void write(MarshalledEntry entry) {
+      checkKeyLength(entry);
+      try {
+         storeQueue.pushAndWait(LogRequest.storeRequest(entry));
+      } catch (Exception e) {
+         throw new PersistenceException(e);
+      }
+   }
+
+   @Override
+   public void writeBatch(Iterable entries) {
+      try {
+         List<LogRequest> requests = new ArrayList<>();
+         for (Object o : entries) {
+            MarshalledEntry entry = (MarshalledEntry) o;
+            checkKeyLength(entry);
+            requests.add(LogRequest.storeRequest(entry));
+         }
+         if (!requests.isEmpty()) {
+            storeQueue.pushAllAndWait(requests);
+         }
+      } catch (PersistenceException e) {
+         throw e;
+      } catch (Exception e) {
+         throw new PersistenceException(e);
+      }
+   }
+
+   private void checkKeyLength(MarshalledEntry entry) {
       int keyLength = entry.getKeyBytes().getLength();
       if (keyLength > maxKeyLength) {
          throw new PersistenceException("Configuration 'maxNodeSize' is too low - with maxNodeSize="
@@ -310,11 +388,6 @@ public void write(MarshalledEntry entry) {
          // TODO this limitation could be removed by different key length encoding
          throw new PersistenceException("SoftIndexFileStore is limited to keys with serialized size <= 32767 bytes");
       }
-      try {
-         storeQueue.pushAndWait(LogRequest.storeRequest(entry));
-      } catch (Exception e) {
-         throw new PersistenceException(e);
-      }
    }
 
    @Override
@@ -328,6 +401,21 @@ public boolean delete(Object key) {
       }
    }
 
+   @Override
+   public void deleteBatch(Iterable keys) {
+      try {
+         List<LogRequest> requests = new ArrayList<>();
+         for (Object key : keys) {
+            requests.add(LogRequest.deleteRequest(key, toBuffer(marshaller.objectToByteBuffer(key))));
+         }
+         if (!requests.isEmpty()) {
+            storeQueue.pushAllAndWait(requests);
+         }
+      } catch (Exception e) {
+         throw new PersistenceException(e);
+      }
+   }
+
    @Override
    public boolean contains(Object key) {
       try {
@@ -0,0 +1,67 @@
+package org.infinispan.persistence.sifs;
+
+/**
+ * Standard MBean exposing the statistics of the files and of the compaction of a {@link SoftIndexFileStore}.
+ *
+ * @since 9.0
+ */
+public class SoftIndexFileStoreStatistics implements SoftIndexFileStoreStatisticsMBean {
+   private final FileProvider fileProvider;
+   private final Compactor compactor;
+   private final LogAppender logAppender;
+
+   SoftIndexFileStoreStatistics(FileProvider fileProvider, Compactor compactor, LogAppender logAppender) {
+      this.fileProvider = fileProvider;
+      this.compactor = compactor;
+      this.logAppender = logAppender;
+   }
+
+   @Override
+   public long getMappedReads() {
+      return fileProvider.getMappedReads();
+   }
+
+   @Override
+   public long getUnmappedReads() {
+      return fileProvider.getUnmappedReads();
+   }
+
+   @Override
+   public long getMappedSize() {
+      return fileProvider.getMappedSize();
+   }
+
+   @Override
+   public int getMappedFiles() {
+      return fileProvider.getMappedFiles();
+   }
+
+   @Override
+   public long getCompactedFiles() {
+      return compactor.getCompactedFiles();
+   }
+
+   @Override
+   public long getReclaimedBytes() {
+      return compactor.getCompactedBytes() - compactor.getWrittenBytes();
+   }
+
+   @Override
+   public int getCompactionBacklog() {
+      return compactor.getScheduledFiles();
+   }
+
+   @Override
+   public long getFreeBytes() {
+      return compactor.getFreeBytes();
+   }
+
+   @Override
+   public double getWriteAmplification() {
+      long appended = logAppender.getAppendedBytes();
+      if (appended == 0) {
+         return 1;
+      }
+      return (double) (appended + compactor.getWrittenBytes()) / appended;
+   }
+}
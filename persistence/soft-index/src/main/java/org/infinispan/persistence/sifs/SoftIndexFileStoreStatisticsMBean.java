@@ -0,0 +1,56 @@
+package org.infinispan.persistence.sifs;
+
+/**
+ * Statistics of a {@link SoftIndexFileStore} exposed through JMX.
+ *
+ * @since 9.0
+ */
+public interface SoftIndexFileStoreStatisticsMBean {
+   /**
+    * @return number of reads of data files served from memory-mapped files
+    */
+   long getMappedReads();
+
+   /**
+    * @return number of reads of data files that could not be served from a memory-mapped file, always zero when
+    * memory mapping is disabled
+    */
+   long getUnmappedReads();
+
+   /**
+    * @return total size of the memory-mapped data files, in bytes
+    */
+   long getMappedSize();
+
+   /**
+    * @return number of memory-mapped data files
+    */
+   int getMappedFiles();
+
+   /**
+    * @return number of data files compacted since the store was started
+    */
+   long getCompactedFiles();
+
+   /**
+    * @return number of bytes freed by the compaction since the store was started: the size of the compacted files
+    * minus the size of the records the compaction has copied
+    */
+   long getReclaimedBytes();
+
+   /**
+    * @return number of data files waiting to be compacted
+    */
+   int getCompactionBacklog();
+
+   /**
+    * @return number of bytes used by overwritten or removed records in the data files
+    */
+   long getFreeBytes();
+
+   /**
+    * @return ratio of the bytes written to the data files (appended and copied by the compaction) to the bytes
+    * appended, or 1 if nothing was appended yet
+    */
+   double getWriteAmplification();
+}
@@ -46,6 +46,23 @@ public void pushAndWait(T element) throws InterruptedException {
       waitFor(push(element));
    }
 
+   /**
+    * Pushes all the elements at once and waits until the consumer has processed all of them, so that a batch
+    * costs the producer a single wait (and a single sync of the log when the writes are synchronous).
+    */
+   public void pushAllAndWait(Iterable<T> elements) throws InterruptedException {
+      long lastIndex;
+      synchronized (queue) {
+         for (T element : elements) {
+            queue.push(element);
+            pushIndex++;
+         }
+         queue.notify();
+         lastIndex = pushIndex;
+      }
+      waitFor(lastIndex);
+   }
+
    public long push(T element) {
       synchronized (queue) {
          queue.push(element);
@@ -85,6 +102,15 @@ public T pop() {
    }
 
    public void notifyAndWait() {
+      notifyAndWait(0);
+   }
+
+   /**
+    * Same as {@link #notifyAndWait()} but waits for new elements at most the given time.
+    *
+    * @param timeoutMillis maximum time to wait when the queue is empty, or 0 to wait until an element is pushed
+    */
+   public void notifyAndWait(long timeoutMillis) {
       poppedInRow = 0;
       popIndex = processorPopIndex;
       synchronized (sync) {
@@ -93,7 +119,7 @@ public void notifyAndWait() {
       synchronized (queue) {
          if (queue.isEmpty()) {
             try {
-               queue.wait();
+               queue.wait(timeoutMillis);
             } catch (InterruptedException e) {
                return;
             }
@@ -11,14 +11,18 @@
 public enum Attribute {
    // must be first
    UNKNOWN(null),
+   COMPACTION_THREADS("compaction-threads"),
    COMPACTION_THRESHOLD("compaction-threshold"),
    PATH("path"),
    INDEX_QUEUE_LENGTH("max-queue-length"),
+   MAPPED_SIZE_LIMIT("mapped-size-limit"),
    SEGMENTS("segments"),
+   MAX_COMPACTION_THROUGHPUT("max-compaction-throughput"),
    MAX_FILE_SIZE("max-file-size"),
    MAX_NODE_SIZE("max-node-size"),
    MIN_NODE_SIZE("min-node-size"),
    OPEN_FILES_LIMIT("open-files-limit"),
+   SYNC_INTERVAL("sync-interval"),
    SYNC_WRITES("sync-writes")
    ;
 
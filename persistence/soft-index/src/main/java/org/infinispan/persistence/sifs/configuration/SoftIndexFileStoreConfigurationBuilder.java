@@ -1,16 +1,21 @@
 package org.infinispan.persistence.sifs.configuration;
 
+import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.COMPACTION_THREADS;
 import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.COMPACTION_THRESHOLD;
 import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.DATA_LOCATION;
 import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.INDEX_LOCATION;
 import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.INDEX_QUEUE_LENGTH;
 import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.INDEX_SEGMENTS;
+import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.MAPPED_SIZE_LIMIT;
+import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.MAX_COMPACTION_THROUGHPUT;
 import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.MAX_FILE_SIZE;
 import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.MAX_NODE_SIZE;
 import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.MIN_NODE_SIZE;
 import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.OPEN_FILES_LIMIT;
+import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.SYNC_INTERVAL;
 import static org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfiguration.SYNC_WRITES;
 
+import org.infinispan.commons.CacheConfigurationException;
 import org.infinispan.commons.configuration.Builder;
 import org.infinispan.configuration.cache.AbstractStoreConfigurationBuilder;
 import org.infinispan.configuration.cache.PersistenceConfigurationBuilder;
@@ -63,6 +68,17 @@ public SoftIndexFileStoreConfigurationBuilder syncWrites(boolean syncWrites) {
       return this;
    }
 
+   /**
+    * When the writes are not synchronous, the data files are still forced to disk at most every given number of
+    * milliseconds, so that at most that much of the acknowledged writes can be lost on a crash. Zero (the default)
+    * leaves flushing the files to the operating system. Ignored when {@link #syncWrites(boolean)} is enabled, which
+    * forces the files once per batch of writes.
+    */
+   public SoftIndexFileStoreConfigurationBuilder syncInterval(long syncInterval) {
+      attributes.attribute(SYNC_INTERVAL).set(syncInterval);
+      return this;
+   }
+
    public SoftIndexFileStoreConfigurationBuilder openFilesLimit(int openFilesLimit) {
       attributes.attribute(OPEN_FILES_LIMIT).set(openFilesLimit);
       return this;
@@ -73,6 +89,43 @@ public SoftIndexFileStoreConfigurationBuilder compactionThreshold(double compact
       return this;
    }
 
+   /**
+    * Maximum total size of the data files that are memory-mapped for reading, in bytes. Only the files that are not
+    * written anymore are mapped. Zero (the default) disables memory mapping.
+    */
+   public SoftIndexFileStoreConfigurationBuilder mappedSizeLimit(long mappedSizeLimit) {
+      attributes.attribute(MAPPED_SIZE_LIMIT).set(mappedSizeLimit);
+      return this;
+   }
+
+   /**
+    * Number of threads compacting the data files concurrently. Defaults to 1.
+    */
+   public SoftIndexFileStoreConfigurationBuilder compactionThreads(int compactionThreads) {
+      attributes.attribute(COMPACTION_THREADS).set(compactionThreads);
+      return this;
+   }
+
+   /**
+    * Maximum number of bytes per second read by the compaction, shared by all the compaction threads. Zero (the
+    * default) does not limit the compaction.
+    */
+   public SoftIndexFileStoreConfigurationBuilder maxCompactionThroughput(long maxCompactionThroughput) {
+      attributes.attribute(MAX_COMPACTION_THROUGHPUT).set(maxCompactionThroughput);
+      return this;
+   }
+
+   @Override
+   public void validate() {
+      super.validate();
+      if (attributes.attribute(COMPACTION_THREADS).get() < 1) {
+         throw new CacheConfigurationException("The soft-index file store needs at least one compaction thread");
+      }
+      if (attributes.attribute(SYNC_INTERVAL).get() < 0) {
+         throw new CacheConfigurationException("The sync interval of the soft-index file store must not be negative");
+      }
+   }
+
    @Override
    public SoftIndexFileStoreConfiguration create() {
       return new SoftIndexFileStoreConfiguration(attributes.protect(),
@@ -0,0 +1,39 @@
+package org.infinispan.persistence.sifs;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+
+import org.infinispan.marshall.core.MarshalledEntry;
+import org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfigurationBuilder;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+/**
+ * Runs the soft-index file store tests with several throttled compaction threads.
+ *
+ * @since 9.0
+ */
+@Test(groups = "unit", testName = "persistence.SoftIndexFileStoreConcurrentCompactionTest")
+public class SoftIndexFileStoreConcurrentCompactionTest extends SoftIndexFileStoreTest {
+
+   @Override
+   protected void configureStore(SoftIndexFileStoreConfigurationBuilder builder) {
+      builder.compactionThreads(4).maxCompactionThroughput(10 * 1024 * 1024);
+   }
+
+   public void testOverwritesAreCompacted() {
+      int numEntries = 100;
+      for (int round = 0; round < 20; ++round) {
+         for (int i = 0; i < numEntries; ++i) {
+            store.write(marshalledEntry(internalCacheEntry(key(i), "value" + round, -1)));
+         }
+      }
+      Compactor compactor = TestingUtil.extractField(store, "compactor");
+      eventually(() -> compactor.getCompactedFiles() > 0);
+      for (int i = 0; i < numEntries; ++i) {
+         MarshalledEntry entry = store.load(key(i));
+         assertNotNull(key(i), entry);
+         assertEquals("value19", unwrap(entry.getValue()));
+      }
+   }
+}
@@ -0,0 +1,71 @@
+package org.infinispan.persistence.sifs;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.infinispan.commons.util.Util;
+import org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfigurationBuilder;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+/**
+ * Runs the soft-index file store tests with the completed data files memory-mapped.
+ *
+ * @since 9.0
+ */
+@Test(groups = "unit", testName = "persistence.SoftIndexFileStoreMappedTest")
+public class SoftIndexFileStoreMappedTest extends SoftIndexFileStoreTest {
+   private static final long MAPPED_SIZE_LIMIT = 10 * 1000;
+
+   @Override
+   protected void configureStore(SoftIndexFileStoreConfigurationBuilder builder) {
+      builder.mappedSizeLimit(MAPPED_SIZE_LIMIT);
+   }
+
+   public void testReadsFromMappedFiles() {
+      int numEntries = 1000;
+      for (int i = 0; i < numEntries; ++i) {
+         store.write(marshalledEntry(internalCacheEntry(key(i), "value" + i, -1)));
+      }
+      FileProvider fileProvider = (FileProvider) TestingUtil.extractField(store, "fileProvider");
+      long mappedReads = fileProvider.getMappedReads();
+      for (int i = 0; i < numEntries; ++i) {
+         assertNotNull(key(i), store.load(key(i)));
+      }
+      assertTrue(fileProvider.getMappedReads() > mappedReads);
+      assertTrue(fileProvider.getMappedSize() <= MAPPED_SIZE_LIMIT);
+      assertEquals(numEntries, store.size());
+   }
+
+   public void testDroppedMappingIsReleased() throws IOException {
+      String dataDir = TestingUtil.tmpDirectory(getClass()) + "/mapping";
+      Util.recursiveFileRemove(dataDir);
+      FileProvider fileProvider = new FileProvider(dataDir, 10, 150);
+      try {
+         for (int i = 0; i < 2; ++i) {
+            try (FileProvider.Log log = fileProvider.getFileForLog()) {
+               log.fileChannel.write(ByteBuffer.allocate(100));
+            }
+         }
+         for (int fileId = 0; fileId < 2; ++fileId) {
+            FileProvider.Handle handle = fileProvider.getFile(fileId);
+            try {
+               assertEquals(10, handle.read(ByteBuffer.allocate(10), 0));
+            } finally {
+               handle.close();
+            }
+         }
+         // The first file was unmapped to map the second one, and its mapping released as no read used it anymore
+         assertEquals(2, fileProvider.getMappedReads());
+         assertEquals(1, fileProvider.getMappedFiles());
+         assertEquals(100, fileProvider.getMappedSize());
+      } finally {
+         fileProvider.stop();
+         Util.recursiveFileRemove(dataDir);
+      }
+   }
+}
@@ -0,0 +1,68 @@
+package org.infinispan.persistence.sifs;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.marshall.core.MarshalledEntry;
+import org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfigurationBuilder;
+import org.testng.annotations.Test;
+
+/**
+ * Runs the soft-index file store tests with the data files forced to disk periodically.
+ *
+ * @since 9.0
+ */
+@Test(groups = "unit", testName = "persistence.SoftIndexFileStoreSyncIntervalTest")
+public class SoftIndexFileStoreSyncIntervalTest extends SoftIndexFileStoreTest {
+
+   @Override
+   protected void configureStore(SoftIndexFileStoreConfigurationBuilder builder) {
+      builder.syncInterval(10);
+   }
+
+   public void testConcurrentWritesAreBatched() throws Exception {
+      int numThreads = 4;
+      int numBatches = 25;
+      int batchSize = 10;
+      Future<?>[] writers = new Future[numThreads];
+      for (int t = 0; t < numThreads; ++t) {
+         int thread = t;
+         writers[t] = fork(() -> {
+            for (int b = 0; b < numBatches; ++b) {
+               List<MarshalledEntry<?, ?>> batch = new ArrayList<>(batchSize);
+               for (int i = 0; i < batchSize; ++i) {
+                  int index = (thread * numBatches + b) * batchSize + i;
+                  batch.add(marshalledEntry(internalCacheEntry(key(index), "value" + index, -1)));
+               }
+               store.writeBatch(batch);
+            }
+         });
+      }
+      for (Future<?> writer : writers) {
+         writer.get(30, TimeUnit.SECONDS);
+      }
+      int numEntries = numThreads * numBatches * batchSize;
+      for (int i = 0; i < numEntries; ++i) {
+         MarshalledEntry entry = store.load(key(i));
+         assertNotNull(key(i), entry);
+         assertEquals("value" + i, unwrap(entry.getValue()));
+      }
+      assertEquals(numEntries, store.size());
+
+      LogAppender logAppender = store.getLogAppender();
+      // Every batch is drained at once, so it only takes more than one write when it does not fit in the current file
+      long writes = logAppender.getWrites();
+      assertTrue("writes: " + writes, writes < numEntries);
+      // The tail is forced to disk within the interval even though no more writes arrive
+      eventually(() -> logAppender.getSyncs() > 0);
+      long syncs = logAppender.getSyncs();
+      // The file is forced at most once per write
+      assertTrue("syncs: " + syncs + ", writes: " + writes, syncs <= writes);
+   }
+}
@@ -1,6 +1,8 @@
 package org.infinispan.server.core;
 
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.management.DynamicMBean;
 import javax.management.MBeanServer;
@@ -36,7 +38,7 @@
    protected NettyTransport transport;
    protected EmbeddedCacheManager cacheManager;
    protected A configuration;
-   private ObjectName transportObjName;
+   private final List<ObjectName> objectNames = new ArrayList<>();
    private MBeanServer mbeanServer;
    private static final String USE_EPOLL_PROPERTY = "infinispan.server.channel.epoll";
    private static final boolean IS_LINUX = System.getProperty("os.name").toLowerCase().startsWith("linux");
@@ -95,6 +97,14 @@ protected void startTransport() {
    }
 
    protected void registerTransportMBean() {
+      registerServerMBean(transport);
+   }
+
+   /**
+    * Registers a component annotated with {@link org.infinispan.jmx.annotations.MBean} in the JMX group of this
+    * server. The component is unregistered when the server stops.
+    */
+   protected void registerServerMBean(Object component) {
       GlobalConfiguration globalCfg = cacheManager.getCacheManagerConfiguration();
       mbeanServer = JmxUtil.lookupMBeanServer(globalCfg);
       String groupName = String.format("type=Server,name=%s", getQualifiedName());
@@ -102,23 +112,27 @@ protected void registerTransportMBean() {
 
       // Pick up metadata from the component metadata repository
       ManageableComponentMetadata meta = LifecycleCallbacks.componentMetadataRepo
-            .findComponentMetadata(transport.getClass()).toManageableComponentMetadata();
+            .findComponentMetadata(component.getClass()).toManageableComponentMetadata();
       try {
-         // And use this metadata when registering the transport as a dynamic MBean
-         DynamicMBean dynamicMBean = new ResourceDMBean(transport, meta);
+         // And use this metadata when registering the component as a dynamic MBean
+         DynamicMBean dynamicMBean = new ResourceDMBean(component, meta);
 
-         transportObjName = new ObjectName(String.format("%s:%s,component=%s", jmxDomain, groupName,
+         ObjectName objName = new ObjectName(String.format("%s:%s,component=%s", jmxDomain, groupName,
                meta.getJmxObjectName()));
-         JmxUtil.registerMBean(dynamicMBean, transportObjName, mbeanServer);
+         JmxUtil.registerMBean(dynamicMBean, objName, mbeanServer);
+         objectNames.add(objName);
       } catch (Exception e) {
          throw new RuntimeException(e);
       }
    }
 
    protected void unregisterTransportMBean() throws Exception {
-      if (mbeanServer != null && transportObjName != null) {
+      if (mbeanServer != null) {
          // Unregister mbean(s)
-         JmxUtil.unregisterMBean(transportObjName, mbeanServer);
+         for (ObjectName objName : objectNames) {
+            JmxUtil.unregisterMBean(objName, mbeanServer);
+         }
+         objectNames.clear();
       }
    }
 
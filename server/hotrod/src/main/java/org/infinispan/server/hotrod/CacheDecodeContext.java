@@ -4,12 +4,15 @@
 
 import org.infinispan.AdvancedCache;
 import org.infinispan.Cache;
+import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.container.versioning.EntryVersion;
 import org.infinispan.container.versioning.NumericVersion;
 import org.infinispan.container.versioning.NumericVersionGenerator;
 import org.infinispan.container.versioning.VersionGenerator;
 import org.infinispan.context.Flag;
+import org.infinispan.distribution.DataLocality;
+import org.infinispan.distribution.DistributionManager;
 import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.metadata.EmbeddedMetadata;
@@ -130,6 +133,46 @@ void obtainCache(EmbeddedCacheManager cacheManager, boolean loopback) throws Req
       this.cache = decoder.getOptimizedCache(header, cache, server.getCacheConfiguration(cacheName));
    }
 
+   /**
+    * Whether the operation can be executed on the event loop because it completes without blocking: it is a single key
+    * read on a non transactional cache without stores or indexing, and it doesn't read from other nodes.  Writes are
+    * always executed on the worker pool, as they can wait for the lock of the key or for synchronous listeners.
+    */
+   boolean canExecuteOnEventLoop() {
+      Configuration cacheCfg;
+      switch (header.op) {
+         case PING:
+            return true;
+         case STATS:
+            // The statistics of a clustered cache are gathered from the other nodes
+            cacheCfg = server.getCacheConfiguration(header.cacheName);
+            return cacheCfg != null && !cacheCfg.clustering().cacheMode().isClustered();
+         case GET:
+         case GET_WITH_VERSION:
+         case GET_WITH_METADATA:
+         case CONTAINS_KEY:
+            break;
+         default:
+            return false;
+      }
+      cacheCfg = server.getCacheConfiguration(header.cacheName);
+      if (cacheCfg == null || cacheCfg.transaction().transactionMode().isTransactional() ||
+            cacheCfg.persistence().usingStores() || cacheCfg.indexing().index().isEnabled()) {
+         return false;
+      }
+      if (!cacheCfg.clustering().cacheMode().isDistributed()) {
+         return true;
+      }
+      // A distributed cache only reads from other nodes when it doesn't own the key.  With compatibility enabled the key
+      // is stored in another form, so its owners can't be computed from the bytes of the request.
+      if (cacheCfg.compatibility().enabled()) {
+         return false;
+      }
+      DistributionManager dm = getCacheRegistry(header.cacheName).getComponent(DistributionManager.class);
+      DataLocality locality = dm.getLocality(key);
+      return locality.isLocal() && !locality.isUncertain();
+   }
+
    Metadata buildMetadata() {
       EmbeddedMetadata.Builder metadata = new EmbeddedMetadata.Builder();
       metadata.version(generateVersion(server.getCacheRegistry(header.cacheName), cache));
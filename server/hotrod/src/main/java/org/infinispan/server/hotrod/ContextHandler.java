@@ -29,8 +29,8 @@
 import io.netty.channel.SimpleChannelInboundHandler;
 
 /**
- * Handler that performs actual cache operations.  Note this handler should be on a separate executor group than the
- * decoder.
+ * Handler that performs actual cache operations on the given executor.  The operations that don't block are
+ * performed on the event loop by the {@link LocalContextHandler} and never reach this handler.
  *
  * @author wburns
  * @since 9.0
@@ -50,21 +50,23 @@ public ContextHandler(HotRodServer server, NettyTransport transport, Executor ex
 
    @Override
    protected void channelRead0(ChannelHandlerContext ctx, CacheDecodeContext msg) throws Exception {
-      executor.execute(() -> {
-         try {
-            Subject subject = msg.subject;
-            if (subject == null)
-               realRead(ctx, msg);
-            else Security.doAs(subject, (PrivilegedExceptionAction<Void>) () -> {
-               realRead(ctx, msg);
-               return null;
-            });
-         } catch (PrivilegedActionException e) {
-            ctx.fireExceptionCaught(e.getCause());
-         } catch (Exception e) {
-            ctx.fireExceptionCaught(e);
-         }
-      });
+      executor.execute(() -> read(ctx, msg));
+   }
+
+   private void read(ChannelHandlerContext ctx, CacheDecodeContext msg) {
+      try {
+         Subject subject = msg.subject;
+         if (subject == null)
+            realRead(ctx, msg);
+         else Security.doAs(subject, (PrivilegedExceptionAction<Void>) () -> {
+            realRead(ctx, msg);
+            return null;
+         });
+      } catch (PrivilegedActionException e) {
+         ctx.fireExceptionCaught(e.getCause());
+      } catch (Exception e) {
+         ctx.fireExceptionCaught(e);
+      }
    }
 
    protected void realRead(ChannelHandlerContext ctx, CacheDecodeContext msg) throws Exception {
@@ -180,8 +182,14 @@ protected void realRead(ChannelHandlerContext ctx, CacheDecodeContext msg) throw
          case ITERATION_NEXT:
             iterationId = (String) msg.operationDecodeContext;
             IterableIterationResult iterationResult = server.getIterationManager().next(msg.cache.getName(), iterationId);
-            writeResponse(msg, ctx.channel(), new IterationNextResponse(h.version, h.messageId, h.cacheName,
-                  h.clientIntel, h.topologyId, iterationResult));
+            IterationNextResponse iterationNextResponse = new IterationNextResponse(h.version, h.messageId,
+                  h.cacheName, h.clientIntel, h.topologyId, iterationResult);
+            if (CacheDecodeContext.isTrace) {
+               log.tracef("Write response %s", iterationNextResponse);
+            }
+            // The entries count against the buffered entries budget until they are written to the client
+            ctx.channel().writeAndFlush(iterationNextResponse)
+                  .addListener(f -> server.getIterationManager().release(iterationResult));
             break;
          case ITERATION_END:
             iterationId = (String) msg.operationDecodeContext;
@@ -104,7 +104,7 @@ public HotRodServer() {
    private CrashedMemberDetectorListener viewChangeListener;
    private ReAddMyAddressListener topologyChangeListener;
    protected ExecutorService executor;
-   private IterationManager iterationManager;
+   private DefaultIterationManager iterationManager;
 
    public ServerAddress getAddress() {
       return address;
@@ -137,7 +137,9 @@ protected void startInternal(HotRodServerConfiguration configuration, EmbeddedCa
       // These are also initialized by super.startInternal, but we need them before
       this.configuration = configuration;
       this.cacheManager = cacheManager;
-      this.iterationManager = new DefaultIterationManager(cacheManager);
+      this.iterationManager = new DefaultIterationManager(cacheManager, configuration.iterationMaxBufferedEntries(),
+            configuration.iterationIdleTimeout());
+      iterationManager.start();
 
       // populate the sasl factories based on the required mechs
       setupSasl();
@@ -226,6 +228,7 @@ protected void startTransport() {
       preStartCaches();
 
       super.startTransport();
+      registerServerMBean(iterationManager);
    }
 
    @Override
@@ -431,6 +434,7 @@ public void stop() {
       }
 
       if (clientListenerRegistry != null) clientListenerRegistry.stop();
+      if (iterationManager != null) iterationManager.stop();
       if (executor != null) executor.shutdownNow();
       super.stop();
    }
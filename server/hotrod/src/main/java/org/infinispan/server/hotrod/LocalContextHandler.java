@@ -13,8 +13,8 @@
 import io.netty.channel.ChannelInboundHandlerAdapter;
 
 /**
- * Handler that performs actual cache operations.  Note this handler should be on a separate executor group than the
- * decoder.
+ * Handler that performs the read operations that don't block directly on the event loop, all other operations are
+ * passed on to the {@link ContextHandler}.
  *
  * @author wburns
  * @since 9.0
@@ -28,7 +28,7 @@ public LocalContextHandler(NettyTransport transport) {
 
    @Override
    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
-      if (msg instanceof CacheDecodeContext) {
+      if (msg instanceof CacheDecodeContext && ((CacheDecodeContext) msg).canExecuteOnEventLoop()) {
          CacheDecodeContext cdc = (CacheDecodeContext) msg;
          Subject subject = ((CacheDecodeContext) msg).subject;
          if (subject == null)
@@ -48,4 +48,14 @@ public HotRodServerChildConfigurationBuilder topologyStateTransfer(boolean topol
       return builder.topologyStateTransfer(topologyStateTransfer);
    }
 
+   @Override
+   public HotRodServerChildConfigurationBuilder iterationMaxBufferedEntries(int iterationMaxBufferedEntries) {
+      return builder.iterationMaxBufferedEntries(iterationMaxBufferedEntries);
+   }
+
+   @Override
+   public HotRodServerChildConfigurationBuilder iterationIdleTimeout(long iterationIdleTimeout) {
+      return builder.iterationIdleTimeout(iterationIdleTimeout);
+   }
+
 }
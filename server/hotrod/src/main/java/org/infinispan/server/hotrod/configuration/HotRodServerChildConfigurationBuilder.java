@@ -49,4 +49,17 @@ public interface HotRodServerChildConfigurationBuilder {
     */
    HotRodServerChildConfigurationBuilder topologyStateTransfer(boolean topologyStateTransfer);
 
+   /**
+    * Configures the maximum number of entries that all the remote iterations may have read from the caches and not
+    * yet written to the clients. Once the limit is reached, the batches are made smaller. 0 disables the limit.
+    * Defaults to 100000
+    */
+   HotRodServerChildConfigurationBuilder iterationMaxBufferedEntries(int iterationMaxBufferedEntries);
+
+   /**
+    * Configures the time in milliseconds after which an iteration that was not used by its client is closed.
+    * 0 disables the timeout. Defaults to 10 minutes
+    */
+   HotRodServerChildConfigurationBuilder iterationIdleTimeout(long iterationIdleTimeout);
+
 }
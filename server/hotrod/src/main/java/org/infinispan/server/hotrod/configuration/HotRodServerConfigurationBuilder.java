@@ -1,6 +1,9 @@
 package org.infinispan.server.hotrod.configuration;
 
+import java.util.concurrent.TimeUnit;
+
 import org.infinispan.commons.configuration.Builder;
+import org.infinispan.commons.CacheConfigurationException;
 import org.infinispan.configuration.cache.LockingConfigurationBuilder;
 import org.infinispan.configuration.cache.StateTransferConfigurationBuilder;
 import org.infinispan.configuration.cache.SyncConfigurationBuilder;
@@ -21,6 +24,8 @@ public class HotRodServerConfigurationBuilder extends ProtocolServerConfiguratio
    private long topologyReplTimeout = 10000L;
    private boolean topologyAwaitInitialTransfer = true;
    private boolean topologyStateTransfer = true;
+   private int iterationMaxBufferedEntries = 100000;
+   private long iterationIdleTimeout = TimeUnit.MINUTES.toMillis(10);
 
    public HotRodServerConfigurationBuilder() {
       super(11222);
@@ -95,10 +100,32 @@ public HotRodServerConfigurationBuilder topologyStateTransfer(boolean topologySt
       return this;
    }
 
+   /**
+    * Configures the maximum number of entries that all the remote iterations may have read from the caches and not
+    * yet written to the clients. Once the limit is reached, the batches are made smaller. 0 disables the limit.
+    * Defaults to 100000
+    */
+   @Override
+   public HotRodServerConfigurationBuilder iterationMaxBufferedEntries(int iterationMaxBufferedEntries) {
+      this.iterationMaxBufferedEntries = iterationMaxBufferedEntries;
+      return this;
+   }
+
+   /**
+    * Configures the time in milliseconds after which an iteration that was not used by its client is closed.
+    * 0 disables the timeout. Defaults to 10 minutes
+    */
+   @Override
+   public HotRodServerConfigurationBuilder iterationIdleTimeout(long iterationIdleTimeout) {
+      this.iterationIdleTimeout = iterationIdleTimeout;
+      return this;
+   }
+
    @Override
    public HotRodServerConfiguration create() {
       return new HotRodServerConfiguration(defaultCacheName, proxyHost == null ? host : proxyHost, proxyPort < 0 ? port : proxyPort, topologyLockTimeout, topologyReplTimeout, topologyAwaitInitialTransfer, topologyStateTransfer, name, host, port, idleTimeout,
-            recvBufSize, sendBufSize, ssl.create(), tcpNoDelay, workerThreads, authentication.create(), ignoredCaches);
+            recvBufSize, sendBufSize, ssl.create(), tcpNoDelay, workerThreads, authentication.create(), ignoredCaches,
+            iterationMaxBufferedEntries, iterationIdleTimeout);
    }
 
    @Override
@@ -110,6 +137,8 @@ public HotRodServerConfigurationBuilder read(HotRodServerConfiguration template)
       this.topologyReplTimeout = template.topologyReplTimeout();
       this.topologyAwaitInitialTransfer = template.topologyAwaitInitialTransfer();
       this.topologyStateTransfer = template.topologyStateTransfer();
+      this.iterationMaxBufferedEntries = template.iterationMaxBufferedEntries();
+      this.iterationIdleTimeout = template.iterationIdleTimeout();
       return this;
    }
 
@@ -117,6 +146,12 @@ public HotRodServerConfigurationBuilder read(HotRodServerConfiguration template)
    public void validate() {
       super.validate();
       authentication.validate();
+      if (iterationMaxBufferedEntries < 0) {
+         throw new CacheConfigurationException("iterationMaxBufferedEntries can not be < 0");
+      }
+      if (iterationIdleTimeout < 0) {
+         throw new CacheConfigurationException("iterationIdleTimeout can not be < 0");
+      }
    }
 
    public HotRodServerConfiguration build(boolean validate) {
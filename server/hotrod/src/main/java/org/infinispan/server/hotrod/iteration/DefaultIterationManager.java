@@ -13,6 +13,11 @@
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -32,6 +37,9 @@
 import org.infinispan.server.hotrod.OperationStatus;
 import org.infinispan.server.hotrod.logging.Log;
 import org.infinispan.util.KeyValuePair;
+import org.infinispan.util.TimeService;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
 
 /**
  * @author gustavonalle
@@ -75,6 +83,7 @@ class IterationState {
    final int batch;
    final CompatInfo compatInfo;
    final boolean metadata;
+   volatile long lastAccessTime;
 
    IterationState(IterationSegmentsListener listener, Iterator<CacheEntry<Object, Object>> iterator, CacheStream<CacheEntry<Object, Object>> stream,
                   int batch, CompatInfo compatInfo, boolean metadata) {
@@ -105,6 +114,9 @@ static CompatInfo create(CompatibilityModeConfiguration config) {
 
 public class DefaultIterationManager implements IterationManager {
    private final EmbeddedCacheManager cacheManager;
+   private final TimeService timeService;
+   private final int maxBufferedEntries;
+   private final long idleTimeout;
 
    volatile Optional<Marshaller> marshaller = Optional.empty();
 
@@ -114,14 +126,50 @@ public class DefaultIterationManager implements IterationManager {
    private final Map<String, KeyValueFilterConverterFactory> filterConverterFactoryMap =
          CollectionFactory.makeConcurrentMap();
 
+   /**
+    * The number of entries returned by {@link #next(String, String)} that were not released yet.
+    */
+   private final AtomicInteger bufferedEntries = new AtomicInteger();
+   private final AtomicLong throttledBatches = new AtomicLong();
+   private final AtomicLong reapedIterations = new AtomicLong();
+
+   private ScheduledExecutorService reaperExecutor;
+
    public DefaultIterationManager(EmbeddedCacheManager cacheManager) {
+      this(cacheManager, 0, 0);
+   }
+
+   public DefaultIterationManager(EmbeddedCacheManager cacheManager, int maxBufferedEntries, long idleTimeout) {
       this.cacheManager = cacheManager;
+      this.timeService = cacheManager.getGlobalComponentRegistry().getTimeService();
+      this.maxBufferedEntries = maxBufferedEntries;
+      this.idleTimeout = idleTimeout;
+   }
+
+   /**
+    * Starts closing the idle iterations periodically, if an idle timeout is configured.
+    */
+   public synchronized void start() {
+      if (idleTimeout > 0 && reaperExecutor == null) {
+         reaperExecutor = Executors.newSingleThreadScheduledExecutor(new DefaultThreadFactory("HotRod-IterationReaper", true));
+         long period = Math.max(idleTimeout / 2, 1);
+         reaperExecutor.scheduleWithFixedDelay(this::reapIdleIterations, period, period, TimeUnit.MILLISECONDS);
+      }
+   }
+
+   public synchronized void stop() {
+      if (reaperExecutor != null) {
+         reaperExecutor.shutdownNow();
+         reaperExecutor = null;
+      }
    }
 
    @Override
    public String start(String cacheName, Optional<BitSet> segments, Optional<KeyValuePair<String, List<byte[]>>> namedFactory, int batch, boolean metadata) {
       String iterationId = UUID.randomUUID().toString();
-      CacheStream<CacheEntry<Object, Object>> stream = cacheManager.getCache(cacheName).getAdvancedCache().cacheEntrySet().stream();
+      // Only fetch from the other nodes as many entries as the client asks for at a time
+      CacheStream<CacheEntry<Object, Object>> stream = cacheManager.getCache(cacheName).getAdvancedCache().cacheEntrySet()
+            .stream().distributedBatchSize(batch);
       segments.map(bitSet -> stream.filterKeySegments(bitSet.stream().boxed().collect(Collectors.toSet())));
 
       IterationSegmentsListener segmentListener = new IterationSegmentsListener();
@@ -139,6 +187,7 @@ public String start(String cacheName, Optional<BitSet> segments, Optional<KeyVal
       }
 
       IterationState iterationState = new IterationState(segmentListener, filteredStream.iterator(), stream, batch, compatInfo, metadata);
+      iterationState.lastAccessTime = timeService.time();
       iterationStateMap.put(iterationId, iterationState);
       return iterationId;
    }
@@ -186,11 +235,21 @@ private Object[] unmarshallParams(byte[][] params, Object factory) {
    public IterableIterationResult next(String cacheName, String iterationId) {
       IterationState iterationState = iterationStateMap.get(iterationId);
       if (iterationState != null) {
+         iterationState.lastAccessTime = timeService.time();
+         int batch = reserveEntries(iterationState.batch);
          int i = 0;
-         List<CacheEntry> entries = new ArrayList<>(iterationState.batch);
-         while (i++ < iterationState.batch && iterationState.iterator.hasNext()) {
-            entries.add(iterationState.iterator.next());
+         List<CacheEntry> entries = new ArrayList<>(batch);
+         try {
+            while (i++ < batch && iterationState.iterator.hasNext()) {
+               entries.add(iterationState.iterator.next());
+            }
+         } catch (Throwable t) {
+            bufferedEntries.addAndGet(-batch);
+            throw t;
          }
+         // The end of the iteration may be reached before the batch is full
+         bufferedEntries.addAndGet(entries.size() - batch);
+         iterationState.lastAccessTime = timeService.time();
          return new IterableIterationResult(iterationState.listener.getFinished(entries.isEmpty()), OperationStatus.Success,
                entries, iterationState.compatInfo, iterationState.metadata);
       } else {
@@ -199,6 +258,54 @@ public IterableIterationResult next(String cacheName, String iterationId) {
       }
    }
 
+   private int reserveEntries(int batch) {
+      if (maxBufferedEntries == 0) {
+         bufferedEntries.addAndGet(batch);
+         return batch;
+      }
+      while (true) {
+         int buffered = bufferedEntries.get();
+         // Always return at least one entry, an empty batch means the iteration is complete
+         int size = Math.max(1, Math.min(batch, maxBufferedEntries - buffered));
+         if (bufferedEntries.compareAndSet(buffered, buffered + size)) {
+            if (size < batch) {
+               throttledBatches.incrementAndGet();
+            }
+            return size;
+         }
+      }
+   }
+
+   @Override
+   public void release(IterableIterationResult result) {
+      bufferedEntries.addAndGet(-result.getEntries().size());
+   }
+
+   /**
+    * Closes the iterations that were not used by their clients for longer than the idle timeout, e.g. because the
+    * client crashed before ending them.
+    */
+   void reapIdleIterations() {
+      if (idleTimeout == 0) {
+         return;
+      }
+      try {
+         long now = timeService.time();
+         for (Map.Entry<String, IterationState> e : iterationStateMap.entrySet()) {
+            IterationState iterationState = e.getValue();
+            if (timeService.timeDuration(iterationState.lastAccessTime, now, TimeUnit.MILLISECONDS) >= idleTimeout
+                  && iterationStateMap.remove(e.getKey(), iterationState)) {
+               log.debugf("Closing iteration %s, it was not used for more than %d milliseconds", e.getKey(), idleTimeout);
+               iterationState.stream.close();
+               reapedIterations.incrementAndGet();
+            }
+         }
+      } catch (Throwable t) {
+         // An exception would cancel the periodic task
+         log.debugf(t, "Unable to close the idle iterations");
+      }
+   }
+
    @Override
    public boolean close(String cacheName, String iterationId) {
       IterationState iterationState = iterationStateMap.get(iterationId);
@@ -225,6 +332,26 @@ public int activeIterations() {
       return iterationStateMap.size();
    }
 
+   @Override
+   public int getBufferedEntries() {
+      return bufferedEntries.get();
+   }
+
+   @Override
+   public long getThrottledBatches() {
+      return throttledBatches.get();
+   }
+
+   @Override
+   public long getReapedIterations() {
+      return reapedIterations.get();
+   }
+
+   @Override
+   public long getIdleTimeout() {
+      return idleTimeout;
+   }
+
    @Override
    public void setMarshaller(Optional<Marshaller> marshaller) {
       this.marshaller = marshaller;
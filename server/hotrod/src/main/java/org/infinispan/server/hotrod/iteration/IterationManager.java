@@ -5,19 +5,35 @@
 import java.util.Optional;
 
 import org.infinispan.commons.marshall.Marshaller;
+import org.infinispan.factories.scopes.Scope;
+import org.infinispan.factories.scopes.Scopes;
 import org.infinispan.filter.KeyValueFilterConverterFactory;
+import org.infinispan.jmx.annotations.DataType;
+import org.infinispan.jmx.annotations.DisplayType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.MeasurementType;
 import org.infinispan.util.KeyValuePair;
 
 /**
  * @author wburns
  * @since 9.0
  */
+@Scope(Scopes.GLOBAL)
+@MBean(objectName = "IterationManager",
+       description = "Keeps track of the iterations started by the Hot Rod clients.")
 public interface IterationManager {
    String start(String cacheName, Optional<BitSet> segments,
                 Optional<KeyValuePair<String, List<byte[]>>> filterConverterFactory, int batch, boolean metadata);
 
    IterableIterationResult next(String cacheName, String iterationId);
 
+   /**
+    * Releases the entries of a result returned by {@link #next(String, String)} from the budget of buffered entries,
+    * once the result has been written to the client.
+    */
+   void release(IterableIterationResult result);
+
    boolean close(String cacheName, String iterationId);
 
    void addKeyValueFilterConverterFactory(String name, KeyValueFilterConverterFactory factory);
@@ -27,4 +43,44 @@ String start(String cacheName, Optional<BitSet> segments,
    void setMarshaller(Optional<Marshaller> maybeMarshaller);
 
    int activeIterations();
+
+   @ManagedAttribute(
+         description = "Returns the number of iterations that are currently open.",
+         displayName = "Number of active iterations",
+         displayType = DisplayType.SUMMARY
+   )
+   default int getActiveIterations() {
+      return activeIterations();
+   }
+
+   @ManagedAttribute(
+         description = "Returns the number of entries read by the iterations and not yet written to the clients.",
+         displayName = "Number of buffered entries",
+         displayType = DisplayType.SUMMARY
+   )
+   int getBufferedEntries();
+
+   @ManagedAttribute(
+         description = "Returns the number of iteration batches that were made smaller to limit the buffered entries.",
+         displayName = "Number of throttled batches",
+         measurementType = MeasurementType.TRENDSUP,
+         displayType = DisplayType.SUMMARY
+   )
+   long getThrottledBatches();
+
+   @ManagedAttribute(
+         description = "Returns the number of iterations closed because their client did not use them for longer than the idle timeout.",
+         displayName = "Number of reaped iterations",
+         measurementType = MeasurementType.TRENDSUP,
+         displayType = DisplayType.SUMMARY
+   )
+   long getReapedIterations();
+
+   @ManagedAttribute(
+         description = "Returns the time in milliseconds after which an unused iteration is closed.",
+         displayName = "Iteration idle timeout",
+         dataType = DataType.TRAIT,
+         displayType = DisplayType.SUMMARY
+   )
+   long getIdleTimeout();
 }
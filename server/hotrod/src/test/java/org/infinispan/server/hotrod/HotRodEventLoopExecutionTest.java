@@ -0,0 +1,126 @@
+package org.infinispan.server.hotrod;
+
+import static org.infinispan.server.hotrod.test.HotRodTestingUtils.hotRodCacheConfiguration;
+import static org.infinispan.server.hotrod.test.HotRodTestingUtils.killClient;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryCreated;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryVisited;
+import org.infinispan.notifications.cachelistener.event.CacheEntryCreatedEvent;
+import org.infinispan.notifications.cachelistener.event.CacheEntryVisitedEvent;
+import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
+import org.infinispan.server.hotrod.test.HotRodClient;
+import org.infinispan.server.hotrod.test.HotRodSingleNodeTest;
+import org.infinispan.server.hotrod.test.TestGetResponse;
+import org.infinispan.server.hotrod.test.TestResponse;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+/**
+ * Tests which threads execute the operations: writes and the reads that can block run on the worker pool, so that
+ * synchronous listeners never run on the event loop, while the other reads run on the event loop.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "server.hotrod.HotRodEventLoopExecutionTest")
+public class HotRodEventLoopExecutionTest extends HotRodSingleNodeTest {
+   private static final String STORE_CACHE_NAME = "StoreCache";
+   private static final String DIST_CACHE_NAME = "DistCache";
+   private static final String EVENT_LOOP_THREAD = "ServerWorker";
+   private static final String WORKER_THREAD = "ServerHandler";
+
+   @Override
+   protected EmbeddedCacheManager createTestCacheManager() {
+      EmbeddedCacheManager cacheManager = TestCacheManagerFactory.createClusteredCacheManager(hotRodCacheConfiguration());
+      ConfigurationBuilder storeBuilder = hotRodCacheConfiguration();
+      storeBuilder.persistence().addStore(DummyInMemoryStoreConfigurationBuilder.class).storeName(getClass().getName());
+      cacheManager.defineConfiguration(STORE_CACHE_NAME, storeBuilder.build());
+      // The only node owns all the keys
+      cacheManager.defineConfiguration(DIST_CACHE_NAME,
+            hotRodCacheConfiguration(getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false)).build());
+      return cacheManager;
+   }
+
+   public void testWriteWithoutStoreOnWorkerPool() {
+      ThreadRecorder recorder = new ThreadRecorder();
+      cacheManager.getCache(cacheName).addListener(recorder);
+      TestResponse response = client().put("k1".getBytes(), 0, 0, "v1".getBytes());
+      assertEquals(OperationStatus.Success, response.getStatus());
+      // The synchronous listener must not block the event loop
+      assertFalse(recorder.threadName, recorder.threadName.contains(EVENT_LOOP_THREAD));
+      assertTrue(recorder.threadName, recorder.threadName.contains(WORKER_THREAD));
+   }
+
+   public void testWriteWithStoreOnWorkerPool() {
+      ThreadRecorder recorder = new ThreadRecorder();
+      cacheManager.getCache(STORE_CACHE_NAME).addListener(recorder);
+      HotRodClient storeClient = new HotRodClient("127.0.0.1", server().getPort(), STORE_CACHE_NAME, 60, (byte) 21);
+      try {
+         TestResponse response = storeClient.put("k1".getBytes(), 0, 0, "v1".getBytes());
+         assertEquals(OperationStatus.Success, response.getStatus());
+         assertTrue(recorder.threadName, recorder.threadName.contains(WORKER_THREAD));
+      } finally {
+         killClient(storeClient);
+      }
+   }
+
+   public void testLocalReadOnEventLoop() {
+      assertReadThread(cacheName, EVENT_LOOP_THREAD);
+   }
+
+   public void testOwnedDistributedReadOnEventLoop() {
+      assertReadThread(DIST_CACHE_NAME, EVENT_LOOP_THREAD);
+   }
+
+   public void testReadWithStoreOnWorkerPool() {
+      assertReadThread(STORE_CACHE_NAME, WORKER_THREAD);
+   }
+
+   private void assertReadThread(String name, String expectedThread) {
+      Cache<byte[], byte[]> cache = cacheManager.getCache(name);
+      byte[] key = ("read-" + expectedThread).getBytes();
+      cache.put(key, "v1".getBytes());
+      VisitRecorder recorder = new VisitRecorder();
+      cache.addListener(recorder);
+      HotRodClient readClient = new HotRodClient("127.0.0.1", server().getPort(), name, 60, (byte) 21);
+      try {
+         TestGetResponse response = readClient.get(key, 0);
+         assertEquals(OperationStatus.Success, response.getStatus());
+         assertTrue(recorder.threadName, recorder.threadName.contains(expectedThread));
+      } finally {
+         killClient(readClient);
+         cache.removeListener(recorder);
+      }
+   }
+
+   @Listener(sync = true)
+   public static class VisitRecorder {
+      volatile String threadName;
+
+      @CacheEntryVisited
+      public void visited(CacheEntryVisitedEvent<byte[], byte[]> event) {
+         if (!event.isPre()) {
+            threadName = Thread.currentThread().getName();
+         }
+      }
+   }
+
+   @Listener(sync = true)
+   public static class ThreadRecorder {
+      volatile String threadName;
+
+      @CacheEntryCreated
+      public void created(CacheEntryCreatedEvent<byte[], byte[]> event) {
+         if (!event.isPre()) {
+            threadName = Thread.currentThread().getName();
+         }
+      }
+   }
+}
@@ -0,0 +1,106 @@
+package org.infinispan.server.hotrod.iteration;
+
+import static org.infinispan.server.hotrod.test.HotRodTestingUtils.hotRodCacheConfiguration;
+import static org.testng.AssertJUnit.assertEquals;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.server.hotrod.OperationStatus;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.util.ControlledTimeService;
+import org.infinispan.util.TimeService;
+import org.testng.annotations.Test;
+
+/**
+ * Tests the buffered entries budget and the reaping of idle iterations of {@link DefaultIterationManager}.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "server.hotrod.iteration.DefaultIterationManagerTest")
+public class DefaultIterationManagerTest extends SingleCacheManagerTest {
+   private static final int NUM_ENTRIES = 50;
+   private static final int BATCH = 10;
+
+   private final ControlledTimeService timeService = new ControlledTimeService(0);
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      EmbeddedCacheManager cm = TestCacheManagerFactory.createCacheManager(hotRodCacheConfiguration());
+      TestingUtil.replaceComponent(cm, TimeService.class, timeService, true);
+      return cm;
+   }
+
+   private void populate() {
+      for (int i = 0; i < NUM_ENTRIES; i++) {
+         cache.put("k" + i, "v" + i);
+      }
+   }
+
+   private String start(IterationManager iterationManager) {
+      return iterationManager.start(cache.getName(), Optional.empty(), Optional.empty(), BATCH, false);
+   }
+
+   public void testBatchesShrinkWhenBudgetIsExhausted() {
+      populate();
+      IterationManager iterationManager = new DefaultIterationManager(cacheManager, BATCH + 5, 0);
+      String iterationId = start(iterationManager);
+
+      IterableIterationResult first = iterationManager.next(cache.getName(), iterationId);
+      assertEquals(BATCH, first.getEntries().size());
+      IterableIterationResult second = iterationManager.next(cache.getName(), iterationId);
+      assertEquals(5, second.getEntries().size());
+      // Even with the budget exhausted, a batch is never empty before the end of the iteration
+      IterableIterationResult third = iterationManager.next(cache.getName(), iterationId);
+      assertEquals(1, third.getEntries().size());
+      assertEquals(BATCH + 6, iterationManager.getBufferedEntries());
+      assertEquals(2, iterationManager.getThrottledBatches());
+
+      iterationManager.release(first);
+      iterationManager.release(second);
+      iterationManager.release(third);
+      assertEquals(0, iterationManager.getBufferedEntries());
+      IterableIterationResult fourth = iterationManager.next(cache.getName(), iterationId);
+      assertEquals(BATCH, fourth.getEntries().size());
+      iterationManager.release(fourth);
+      iterationManager.close(cache.getName(), iterationId);
+   }
+
+   public void testIdleIterationsAreReaped() {
+      populate();
+      long idleTimeout = TimeUnit.MINUTES.toMillis(1);
+      DefaultIterationManager iterationManager = new DefaultIterationManager(cacheManager, 0, idleTimeout);
+      String idleIteration = start(iterationManager);
+      String usedIteration = start(iterationManager);
+
+      timeService.advance(idleTimeout / 2);
+      iterationManager.release(iterationManager.next(cache.getName(), usedIteration));
+      timeService.advance(idleTimeout / 2);
+      iterationManager.reapIdleIterations();
+
+      assertEquals(1, iterationManager.activeIterations());
+      assertEquals(1, iterationManager.getReapedIterations());
+      assertEquals(OperationStatus.InvalidIteration,
+            iterationManager.next(cache.getName(), idleIteration).getStatusCode());
+      assertEquals(OperationStatus.Success, iterationManager.next(cache.getName(), usedIteration).getStatusCode());
+   }
+
+   public void testIdleIterationsAreReapedPeriodically() {
+      populate();
+      long idleTimeout = 100;
+      DefaultIterationManager iterationManager = new DefaultIterationManager(cacheManager, 0, idleTimeout);
+      iterationManager.start();
+      try {
+         start(iterationManager);
+         timeService.advance(idleTimeout);
+         // No iteration is started, the reaper closes the idle iteration by itself
+         eventually(() -> iterationManager.getReapedIterations() == 1);
+         assertEquals(0, iterationManager.activeIterations());
+      } finally {
+         iterationManager.stop();
+      }
+   }
+}